@@ -0,0 +1,211 @@
+package appointments.standalone.availability;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.index.AppointmentIndex;
+import appointments.standalone.repository.AppointmentOccurrences;
+import appointments.standalone.repository.AppointmentRange;
+import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentSource;
+
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * <code>AppointmentAvailability</code> finds the free slots between the
+ * stored appointments, within working hours, using
+ * {@link AvailabilitySearch}.
+ * </p>
+ * <p>
+ * Only appointments with a duration are busy; appointments without one mark
+ * an instant and, as when creating appointments, do not prevent a slot. The
+ * busy intervals are read from the {@link AppointmentIndex} once it is loaded,
+ * if it is enabled, so that a search over months of a large calendar only
+ * walks primitive arrays, and otherwise from a projection of the dates and
+ * durations in the range, which is answered from the
+ * <code>appointments(date, id)</code> index and held in the query cache.
+ * The occurrences of recurring appointments with a duration are expanded
+ * within the range only and merged into the same search.
+ * </p>
+ *
+ * @see AvailabilitySearch
+ * @see FreeSlot
+ */
+@Component
+public final class AppointmentAvailability {
+
+  /**
+   * The longest range that can be searched, in days.
+   */
+  public static final int MAX_DAYS = 366;
+
+  /**
+   * The largest number of free slots that can be searched for.
+   */
+  public static final int MAX_LIMIT = 1000;
+
+  private static final long MAX_DURATION_MILLIS =
+    TimeUnit.MINUTES.toMillis(Appointment.MAX_DURATION);
+
+  private final AppointmentRepository appointmentRepository;
+
+  private final AppointmentIndex appointmentIndex;
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentAvailability.class);
+
+  /**
+   * Creates a new instance of <code>AppointmentAvailability</code> using the
+   * specified <b>appointmentRepository</b> and <b>appointmentIndex</b>.
+   *
+   * @param appointmentRepository An instance of {@link AppointmentRepository}.
+   *          This cannot be <code>null</code>.
+   * @param appointmentIndex The {@link AppointmentIndex} to read appointments
+   *          from instead of the database once it is loaded, if it is
+   *          enabled. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentRepository</b> or
+   *          <b>appointmentIndex</b> is <code>null</code>.
+   */
+  public AppointmentAvailability(
+    @Autowired
+    final AppointmentRepository appointmentRepository,
+    @Autowired
+    final Optional<AppointmentIndex> appointmentIndex
+  ) {
+    if (appointmentRepository == null || appointmentIndex == null) {
+      final String message = String.format("Illegal argument; "
+        + "appointmentRepository=={%s}, appointmentIndex=={%s}",
+        appointmentRepository != null, appointmentIndex != null);
+      throw new IllegalArgumentException(message);
+    }
+    LOGGER.info("AppointmentAvailability[appointmentRepository, "
+      + "appointmentIndex]");
+    this.appointmentRepository = appointmentRepository;
+    this.appointmentIndex = appointmentIndex.orElse(null);
+  }
+
+  /**
+   * Returns the first free slots within <b>range</b> and the working hours
+   * <code>[open, close)</code> of each day at <b>offset</b> that can hold an
+   * appointment of <b>slotMinutes</b>.
+   *
+   * @param range The range to search. This cannot be <code>null</code> and
+   *          cannot span more than {@link #MAX_DAYS} days.
+   * @param slotMinutes The length of the slot, in minutes, between 1 and
+   *          {@link Appointment#MAX_DURATION}.
+   * @param open The start of the working hours. This cannot be
+   *          <code>null</code>.
+   * @param close The end of the working hours. This cannot be
+   *          <code>null</code> and must be after <b>open</b>.
+   * @param offset The offset of the working hours from UTC. This cannot be
+   *          <code>null</code>.
+   * @param limit The maximum number of free slots, between 1 and
+   *          {@link #MAX_LIMIT}.
+   *
+   * @return The free slots, in order. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If any argument is invalid.
+   */
+  public List<FreeSlot> findFreeSlots(final AppointmentRange range,
+    final int slotMinutes, final LocalTime open, final LocalTime close,
+    final ZoneOffset offset, final int limit) {
+    if (range == null || range.getTo().getTime() - range.getFrom().getTime()
+      > TimeUnit.DAYS.toMillis(MAX_DAYS) || slotMinutes < 1
+      || slotMinutes > Appointment.MAX_DURATION || limit > MAX_LIMIT) {
+      final String message = String.format("Illegal argument; range==%s, "
+        + "slotMinutes==%d, limit==%d", range, slotMinutes, limit);
+      throw new IllegalArgumentException(message);
+    }
+    final long from = range.getFrom().getTime();
+    final long to = range.getTo().getTime();
+    final AvailabilitySearch search = new AvailabilitySearch(from, to,
+      slotMinutes, open, close, offset, limit);
+    final boolean indexed =
+      this.appointmentIndex != null && this.appointmentIndex.isLoaded();
+    final AppointmentSource source =
+      indexed ? this.appointmentIndex : this.appointmentRepository;
+    final AppointmentRange busyRange = AppointmentRange.of(
+      new Date(from - MAX_DURATION_MILLIS), new Date(to));
+    final List<Appointment> series = new ArrayList<>();
+    for (final Appointment appointment : source.findSeriesBetween(
+      busyRange.getFrom(), busyRange.getTo())) {
+      if (appointment.getDuration() != null) {
+        series.add(appointment);
+      }
+    }
+    final MergedIntervals merged = new MergedIntervals(search,
+      AppointmentOccurrences.ascending(series, busyRange, null));
+    if (indexed) {
+      this.appointmentIndex.forEachInterval(range, merged::busy);
+    } else {
+      final List<Object[]> intervals = this.appointmentRepository
+        .findIntervalsBetween(new Date(from - MAX_DURATION_MILLIS),
+          new Date(to));
+      for (final Object[] interval : intervals) {
+        final long start = ((Date) interval[0]).getTime();
+        final long end = start
+          + TimeUnit.MINUTES.toMillis(((Number) interval[1]).longValue());
+        if (!merged.busy(start, end)) {
+          break;
+        }
+      }
+    }
+    merged.drain();
+    return search.finish();
+  }
+
+  // Passes the intervals of one-off appointments to a search, preceded by
+  // the intervals of any occurrences of recurring appointments starting at or
+  // before them, so that the search sees every interval in order of start.
+  private static final class MergedIntervals {
+
+    private final AvailabilitySearch search;
+    private final Iterator<Appointment> occurrences;
+
+    private Appointment occurrence;
+    private boolean more = true;
+
+    private MergedIntervals(final AvailabilitySearch search,
+      final Iterator<Appointment> occurrences) {
+      this.search = search;
+      this.occurrences = occurrences;
+      this.occurrence = occurrences.hasNext() ? occurrences.next() : null;
+    }
+
+    private boolean busy(final long start, final long end) {
+      this.busyUntil(start);
+      if (this.more) {
+        this.more = this.search.busy(start, end);
+      }
+      return this.more;
+    }
+
+    private void drain() {
+      this.busyUntil(Long.MAX_VALUE);
+    }
+
+    private void busyUntil(final long start) {
+      while (this.more && this.occurrence != null
+        && this.occurrence.getTime() <= start) {
+        this.more = this.search.busy(this.occurrence.getTime(),
+          this.occurrence.getEndDate().getTime());
+        this.occurrence = this.occurrences.hasNext()
+          ? this.occurrences.next() : null;
+      }
+    }
+
+  }
+
+}
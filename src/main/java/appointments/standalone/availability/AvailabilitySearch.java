@@ -0,0 +1,140 @@
+package appointments.standalone.availability;
+
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * <code>AvailabilitySearch</code> finds the free slots within working hours
+ * of a range of time, given the busy intervals of the appointments in the
+ * range.
+ * </p>
+ * <p>
+ * The busy intervals must be passed to {@link #busy(long, long)} in order of
+ * their start. They are merged as they arrive, by tracking the earliest
+ * instant not yet known to be busy, and every gap before the next interval is
+ * intersected with the working hours of each day it spans; the search is a
+ * single pass that holds no interval and allocates only the slots it returns.
+ * Working hours are those of a fixed <code>ZoneOffset</code>, such as the
+ * <code>Etc/GMT</code> time zones offered by the application, so each day is
+ * found with arithmetic on epoch milliseconds.
+ * </p>
+ * <p>
+ * Instances are not thread safe and can be used for a single search only.
+ * </p>
+ *
+ * @see AppointmentAvailability
+ * @see FreeSlot
+ */
+public final class AvailabilitySearch {
+
+  private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+  private final long to;
+  private final long slotMillis;
+  private final long openMillis;
+  private final long closeMillis;
+  private final long offsetMillis;
+  private final int limit;
+
+  private final List<FreeSlot> slots = new ArrayList<>();
+
+  private long free;
+
+  /**
+   * Creates a new instance of <code>AvailabilitySearch</code> for the free
+   * slots within <code>[from, to)</code>.
+   *
+   * @param from The inclusive start of the range, in epoch milliseconds.
+   * @param to The exclusive end of the range, in epoch milliseconds.
+   * @param slotMinutes The length of the slot searched for, in minutes. This
+   *          must be greater than zero.
+   * @param open The start of the working hours of each day. This cannot be
+   *          <code>null</code>.
+   * @param close The end of the working hours of each day. This cannot be
+   *          <code>null</code> and must be after <b>open</b>.
+   * @param offset The offset of the working hours from UTC. This cannot be
+   *          <code>null</code>.
+   * @param limit The maximum number of free slots to find. This must be
+   *          greater than zero.
+   *
+   * @throws IllegalArgumentException If any argument is invalid.
+   */
+  public AvailabilitySearch(final long from, final long to,
+    final int slotMinutes, final LocalTime open, final LocalTime close,
+    final ZoneOffset offset, final int limit) {
+    if (to < from || slotMinutes < 1 || open == null || close == null
+      || !close.isAfter(open) || offset == null || limit < 1) {
+      final String message = String.format("Illegal argument; from==%d, "
+        + "to==%d, slotMinutes==%d, open==%s, close==%s, offset==%s, "
+        + "limit==%d", from, to, slotMinutes, open, close, offset, limit);
+      throw new IllegalArgumentException(message);
+    }
+    this.to = to;
+    this.slotMillis = TimeUnit.MINUTES.toMillis(slotMinutes);
+    this.openMillis = TimeUnit.NANOSECONDS.toMillis(open.toNanoOfDay());
+    this.closeMillis = TimeUnit.NANOSECONDS.toMillis(close.toNanoOfDay());
+    this.offsetMillis = TimeUnit.SECONDS.toMillis(offset.getTotalSeconds());
+    this.limit = limit;
+    this.free = from;
+  }
+
+  /**
+   * Marks <code>[start, end)</code> as busy. Intervals must be passed in
+   * order of <b>start</b>, and may overlap each other or the start of the
+   * range.
+   *
+   * @param start The inclusive start of the busy interval, in epoch
+   *          milliseconds.
+   * @param end The exclusive end of the busy interval, in epoch milliseconds.
+   *
+   * @return <code>true</code> while the search needs further intervals;
+   *          <code>false</code> once it has found <b>limit</b> free slots or
+   *          reached the end of the range.
+   */
+  public boolean busy(final long start, final long end) {
+    if (start > this.free) {
+      this.addFree(this.free, Math.min(start, this.to));
+    }
+    if (end > this.free) {
+      this.free = end;
+    }
+    return this.slots.size() < this.limit && this.free < this.to;
+  }
+
+  /**
+   * Completes the search, treating the rest of the range as free.
+   *
+   * @return The free slots found, in order. This cannot be <code>null</code>.
+   */
+  public List<FreeSlot> finish() {
+    if (this.free < this.to) {
+      this.addFree(this.free, this.to);
+      this.free = this.to;
+    }
+    return Collections.unmodifiableList(this.slots);
+  }
+
+  // Adds the working hours within [from, until) long enough for a slot.
+  private void addFree(final long from, final long until) {
+    long day = Math.floorDiv(from + this.offsetMillis, DAY_MILLIS)
+      * DAY_MILLIS - this.offsetMillis;
+    while (this.slots.size() < this.limit) {
+      final long open = day + this.openMillis;
+      if (open >= until) {
+        return;
+      }
+      final long start = Math.max(from, open);
+      final long end = Math.min(until, day + this.closeMillis);
+      if (end - start >= this.slotMillis) {
+        this.slots.add(new FreeSlot(start, end));
+      }
+      day += DAY_MILLIS;
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+package appointments.standalone.availability;
+
+import java.util.Date;
+
+/**
+ * <p>
+ * <code>FreeSlot</code> is an immutable period <code>[from, to)</code> within
+ * working hours in which no appointment is booked, long enough for at least
+ * one slot of the length searched for.
+ * </p>
+ *
+ * @see AvailabilitySearch
+ * @see AppointmentAvailability
+ */
+public final class FreeSlot {
+
+  private final long from;
+  private final long to;
+
+  /**
+   * Creates a new instance of <code>FreeSlot</code> for the period
+   * <code>[from, to)</code>, in epoch milliseconds.
+   *
+   * @param from The inclusive start of the period.
+   * @param to The exclusive end of the period.
+   *
+   * @throws IllegalArgumentException If <b>to</b> is not after <b>from</b>.
+   */
+  FreeSlot(final long from, final long to) {
+    if (to <= from) {
+      final String message = String.format("Illegal argument; from==%d, "
+        + "to==%d", from, to);
+      throw new IllegalArgumentException(message);
+    }
+    this.from = from;
+    this.to = to;
+  }
+
+  /**
+   * Returns the start of <i>this</i> free slot.
+   *
+   * @return The inclusive start of <i>this</i> free slot. This cannot be
+   *          <code>null</code>.
+   */
+  public Date getFrom() {
+    return new Date(this.from);
+  }
+
+  /**
+   * Returns the end of <i>this</i> free slot.
+   *
+   * @return The exclusive end of <i>this</i> free slot. This cannot be
+   *          <code>null</code>.
+   */
+  public Date getTo() {
+    return new Date(this.to);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(final Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof FreeSlot)) {
+      return false;
+    }
+    final FreeSlot slot = (FreeSlot) object;
+    return this.from == slot.from && this.to == slot.to;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return 31 * Long.hashCode(this.from) + Long.hashCode(this.to);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return String.format("FreeSlot[from=%d, to=%d]", this.from, this.to);
+  }
+
+}
@@ -0,0 +1,149 @@
+package appointments.standalone.cache;
+
+import appointments.standalone.entity.Appointment;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <p>
+ * <code>AppointmentCacheConfiguration</code> configures the cache regions of
+ * Hibernate's second-level and query cache as bounded, in-process Caffeine
+ * caches.
+ * </p>
+ * <p>
+ * The {@link Appointment} entity region and the query results region each
+ * hold at most <code>appointments.cache.maximum-size</code> entries, for at
+ * most <code>appointments.cache.time-to-live-seconds</code>. The update
+ * timestamps region, which Hibernate uses to invalidate cached query results
+ * when the <code>appointments</code> table is written, is never evicted, as
+ * evicting it could serve stale query results.
+ * </p>
+ *
+ * @see AppointmentCaches
+ */
+@Configuration
+public class AppointmentCacheConfiguration {
+
+  /**
+   * The name of the cache region of the {@link Appointment} entity.
+   */
+  public static final String APPOINTMENT_REGION = "appointments";
+
+  /**
+   * The name of the cache region of cached query results.
+   */
+  public static final String QUERY_RESULTS_REGION =
+    RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+
+  /**
+   * The name of the cache region of the update timestamps of tables.
+   */
+  public static final String UPDATE_TIMESTAMPS_REGION =
+    RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentCacheConfiguration.class);
+
+  /**
+   * Creates the JCache <code>CacheManager</code> holding the cache regions.
+   *
+   * @param maximumSize The maximum number of entries of the entity and query
+   *          results regions; this is mapped to the
+   *          <code>appointments.cache.maximum-size</code> property, if the
+   *          property is not provided this will default to "10000". This
+   *          must be greater than zero.
+   * @param timeToLiveSeconds The number of seconds an entry of the entity and
+   *          query results regions is kept after it is written; this is
+   *          mapped to the <code>appointments.cache.time-to-live-seconds
+   *          </code> property, if the property is not provided this will
+   *          default to "600". This must be greater than zero.
+   *
+   * @return The <code>CacheManager</code>.
+   *
+   * @throws IllegalArgumentException If <b>maximumSize</b> or
+   *          <b>timeToLiveSeconds</b> is less than one.
+   */
+  @Bean(destroyMethod="close")
+  public CacheManager appointmentCacheManager(
+    @Value("${appointments.cache.maximum-size:10000}")
+    final long maximumSize,
+    @Value("${appointments.cache.time-to-live-seconds:600}")
+    final long timeToLiveSeconds
+  ) {
+    if (maximumSize < 1 || timeToLiveSeconds < 1) {
+      final String message = String.format("Illegal argument; "
+        + "maximumSize==%d, timeToLiveSeconds==%d", maximumSize,
+        timeToLiveSeconds);
+      throw new IllegalArgumentException(message);
+    }
+    LOGGER.info("appointmentCacheManager[maximumSize=={}, "
+      + "timeToLiveSeconds=={}]", maximumSize, timeToLiveSeconds);
+    final CachingProvider cachingProvider =
+      Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+    // A CacheManager of its own per application context, so that contexts
+    // sharing a class loader, as in tests, do not share regions.
+    final CacheManager cacheManager = cachingProvider.getCacheManager(
+      URI.create("appointments:" + UUID.randomUUID()),
+      cachingProvider.getDefaultClassLoader());
+    final CaffeineConfiguration<Object, Object> bounded =
+      newConfiguration();
+    bounded.setMaximumSize(OptionalLong.of(maximumSize));
+    bounded.setExpireAfterWrite(OptionalLong.of(
+      TimeUnit.SECONDS.toNanos(timeToLiveSeconds)));
+    cacheManager.createCache(APPOINTMENT_REGION, bounded);
+    cacheManager.createCache(QUERY_RESULTS_REGION, bounded);
+    cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, newConfiguration());
+    for (final String cacheName : cacheManager.getCacheNames()) {
+      cacheManager.enableStatistics(cacheName, true);
+    }
+    return cacheManager;
+  }
+
+  /**
+   * Passes the <code>CacheManager</code> holding the cache regions to
+   * Hibernate.
+   *
+   * @param appointmentCacheManager The <code>CacheManager</code> holding the
+   *          cache regions.
+   *
+   * @return The <code>HibernatePropertiesCustomizer</code>.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer appointmentCacheCustomizer(
+    final CacheManager appointmentCacheManager) {
+    return properties -> {
+      properties.put(ConfigSettings.CACHE_MANAGER, appointmentCacheManager);
+      properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+    };
+  }
+
+  private static CaffeineConfiguration<Object, Object> newConfiguration() {
+    final CaffeineConfiguration<Object, Object> configuration =
+      new CaffeineConfiguration<>();
+    // Hibernate caches disassembled, immutable entries; copying them on every
+    // read and write would only add cost.
+    configuration.setStoreByValue(false);
+    configuration.setStatisticsEnabled(true);
+    return configuration;
+  }
+
+}
@@ -0,0 +1,125 @@
+package appointments.standalone.cache;
+
+import appointments.standalone.entity.Appointment;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * <code>AppointmentCaches</code> gives access to the cache regions of
+ * Hibernate's second-level and query cache configured by
+ * {@link AppointmentCacheConfiguration}.
+ * </p>
+ * <p>
+ * Writes that bypass Hibernate, such as a <code>COPY</code> into the
+ * <code>appointments</code> table, must be followed by {@link #evict()}, as
+ * Hibernate cannot invalidate cached query results for writes it does not
+ * see.
+ * </p>
+ *
+ * @see AppointmentCacheConfiguration
+ */
+@Component
+public final class AppointmentCaches {
+
+  private final CacheManager cacheManager;
+
+  private static final String[] EVICTABLE_REGIONS = {
+    AppointmentCacheConfiguration.APPOINTMENT_REGION,
+    AppointmentCacheConfiguration.QUERY_RESULTS_REGION
+  };
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentCaches.class);
+
+  /**
+   * Creates a new instance of <code>AppointmentCaches</code> using the
+   * specified <b>appointmentCacheManager</b>.
+   *
+   * @param appointmentCacheManager The JCache <code>CacheManager</code>
+   *          holding the cache regions. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentCacheManager</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentCaches(
+    @Autowired
+    final CacheManager appointmentCacheManager
+  ) {
+    if (appointmentCacheManager == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "appointmentCacheManager specified");
+    }
+    this.cacheManager = appointmentCacheManager;
+  }
+
+  /**
+   * Removes every cached {@link Appointment} and every cached query result.
+   */
+  public void evict() {
+    for (final String region : EVICTABLE_REGIONS) {
+      final Cache<Object, Object> cache = this.cacheManager.getCache(region);
+      if (cache != null) {
+        cache.clear();
+      }
+    }
+    LOGGER.debug("evict");
+  }
+
+  /**
+   * Returns the statistics of each cache region, keyed by region name.
+   *
+   * @return The statistics of each cache region. This cannot be
+   *          <code>null</code>.
+   */
+  public Map<String, CacheRegionStatistics> getStatistics() {
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    final Map<String, CacheRegionStatistics> statistics =
+      new LinkedHashMap<>();
+    for (final String region : this.cacheManager.getCacheNames()) {
+      final ObjectName objectName = this.getObjectName(region);
+      if (!server.isRegistered(objectName)) {
+        continue;
+      }
+      final CacheStatisticsMXBean bean = JMX.newMXBeanProxy(server,
+        objectName, CacheStatisticsMXBean.class);
+      statistics.put(region, new CacheRegionStatistics(bean.getCacheHits(),
+        bean.getCacheMisses(), bean.getCachePuts(),
+        bean.getCacheEvictions()));
+    }
+    return Collections.unmodifiableMap(statistics);
+  }
+
+  // The name JCache registers the statistics of the region under.
+  private ObjectName getObjectName(final String region) {
+    final String name = String.format("javax.cache:type=CacheStatistics,"
+      + "CacheManager=%s,Cache=%s",
+      sanitize(this.cacheManager.getURI().toString()), sanitize(region));
+    try {
+      return new ObjectName(name);
+    } catch (final MalformedObjectNameException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String sanitize(final String name) {
+    return name.replaceAll(",|:|=|\n", ".");
+  }
+
+}
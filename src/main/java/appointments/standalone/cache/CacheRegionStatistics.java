@@ -0,0 +1,80 @@
+package appointments.standalone.cache;
+
+/**
+ * <code>CacheRegionStatistics</code> is a snapshot of the hits, misses, puts
+ * and evictions of a cache region since the application started.
+ *
+ * @see AppointmentCaches#getStatistics()
+ */
+public final class CacheRegionStatistics {
+
+  private final long hits;
+  private final long misses;
+  private final long puts;
+  private final long evictions;
+
+  /**
+   * Creates a new instance of <code>CacheRegionStatistics</code>.
+   *
+   * @param hits The number of lookups answered from the region.
+   * @param misses The number of lookups not answered from the region.
+   * @param puts The number of entries written to the region.
+   * @param evictions The number of entries evicted from the region for its
+   *          size or time to live.
+   */
+  public CacheRegionStatistics(final long hits, final long misses,
+    final long puts, final long evictions) {
+    this.hits = hits;
+    this.misses = misses;
+    this.puts = puts;
+    this.evictions = evictions;
+  }
+
+  /**
+   * Returns the number of lookups answered from the region.
+   *
+   * @return The number of lookups answered from the region.
+   */
+  public long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Returns the number of lookups not answered from the region.
+   *
+   * @return The number of lookups not answered from the region.
+   */
+  public long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Returns the number of entries written to the region.
+   *
+   * @return The number of entries written to the region.
+   */
+  public long getPuts() {
+    return this.puts;
+  }
+
+  /**
+   * Returns the number of entries evicted from the region for its size or
+   * time to live.
+   *
+   * @return The number of entries evicted from the region.
+   */
+  public long getEvictions() {
+    return this.evictions;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return String.format("CacheRegionStatistics[hits==%d, misses==%d, "
+      + "puts==%d, evictions==%d]", this.hits, this.misses, this.puts,
+      this.evictions);
+  }
+
+}
@@ -0,0 +1,205 @@
+package appointments.standalone.cache;
+
+import appointments.standalone.entity.Appointment;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.TimeZone;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * <code>DateStringCache</code> is a bounded cache of the date strings of
+ * {@link Appointment}s, as returned by
+ * {@link Appointment#getDateString(TimeZone)}, keyed by appointment id, date
+ * and time zone.
+ * </p>
+ * <p>
+ * The date is part of the key, so a changed appointment can never be shown
+ * with a stale date: it is looked up under its new date, and the string
+ * rendered from its old date is left to be evicted. It also keeps apart the
+ * occurrences of a recurring appointment, which share the id of the
+ * appointment they recur from.
+ * </p>
+ * <p>
+ * As a <code>MeterBinder</code>, the cache publishes its hits and misses as
+ * the <code>appointments.date.strings</code> counter, tagged by
+ * <code>result</code>, and its size as the
+ * <code>appointments.date.strings.size</code> gauge.
+ * </p>
+ *
+ * @see appointments.standalone.entity.Appointment
+ */
+@Component
+public final class DateStringCache implements MeterBinder {
+
+  private static final String LOOKUPS = "appointments.date.strings";
+  private static final String SIZE = "appointments.date.strings.size";
+  private static final String RESULT_TAG = "result";
+
+  private final Cache<Key, String> cache;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(DateStringCache.class);
+
+  /**
+   * Creates a new instance of <code>DateStringCache</code> holding at most
+   * <b>maximumSize</b> date strings.
+   *
+   * @param maximumSize The maximum number of date strings to hold; this is
+   *          mapped to the <code>appointments.date-string-cache.maximum-size
+   *          </code> property, if the property is not provided this will
+   *          default to "10000". This cannot be negative.
+   *
+   * @throws IllegalArgumentException If <b>maximumSize</b> is negative.
+   */
+  public DateStringCache(
+    @Value("${appointments.date-string-cache.maximum-size:10000}")
+    final long maximumSize
+  ) {
+    if (maximumSize < 0) {
+      final String message = String.format("Illegal argument; "
+        + "maximumSize==%d", maximumSize);
+      throw new IllegalArgumentException(message);
+    }
+    LOGGER.info("DateStringCache[maximumSize=={}]", maximumSize);
+    this.cache = Caffeine.newBuilder()
+      .maximumSize(maximumSize)
+      .build();
+  }
+
+  /**
+   * <p>
+   * Returns the date of the specified <b>appointment</b> for the specified
+   * <b>timeZone</b>, as returned by
+   * {@link Appointment#getDateString(TimeZone)}.
+   * </p>
+   * <p>
+   * Appointments that have not been persisted are rendered without being
+   * cached.
+   * </p>
+   *
+   * @param appointment The <code>Appointment</code> to return the date of.
+   *          This cannot be <code>null</code>.
+   * @param timeZone The <code>TimeZone</code> for the date. This cannot be
+   *          <code>null</code>.
+   *
+   * @return The date of <b>appointment</b> in the format "dd/MM/yyyy HH:mm z".
+   *          This cannot be <code>null</code>, empty or whitespace only.
+   *
+   * @throws IllegalArgumentException If <b>appointment</b> or <b>timeZone</b>
+   *          is <code>null</code>.
+   */
+  public String getDateString(final Appointment appointment,
+    final TimeZone timeZone) {
+    if (appointment == null || timeZone == null) {
+      final String message = String.format("Illegal argument; "
+        + "appointment==%s, timeZone==%s", appointment, timeZone);
+      throw new IllegalArgumentException(message);
+    }
+    final Long id = appointment.getId();
+    if (id == null) {
+      return appointment.getDateString(timeZone);
+    }
+    final Key key = new Key(id, appointment.getTime(), timeZone.getID());
+    final String cached = this.cache.getIfPresent(key);
+    if (cached != null) {
+      this.hits.increment();
+      return cached;
+    }
+    this.misses.increment();
+    final String dateString = appointment.getDateString(timeZone);
+    this.cache.put(key, dateString);
+    return dateString;
+  }
+
+  /**
+   * Returns the number of lookups answered from <i>this</i> cache.
+   *
+   * @return The number of lookups answered from <i>this</i> cache.
+   */
+  public long getHitCount() {
+    return this.hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups that had to render the date string.
+   *
+   * @return The number of lookups that had to render the date string.
+   */
+  public long getMissCount() {
+    return this.misses.sum();
+  }
+
+  /**
+   * Returns the approximate number of date strings held by <i>this</i> cache.
+   *
+   * @return The approximate number of date strings held by <i>this</i> cache.
+   */
+  public long getSize() {
+    return this.cache.estimatedSize();
+  }
+
+  @Override
+  public void bindTo(final MeterRegistry meterRegistry) {
+    FunctionCounter.builder(LOOKUPS, this, DateStringCache::getHitCount)
+      .tag(RESULT_TAG, "hit")
+      .description("Date strings answered from the cache")
+      .register(meterRegistry);
+    FunctionCounter.builder(LOOKUPS, this, DateStringCache::getMissCount)
+      .tag(RESULT_TAG, "miss")
+      .description("Date strings rendered on a missing entry")
+      .register(meterRegistry);
+    Gauge.builder(SIZE, this, DateStringCache::getSize)
+      .description("Date strings held by the cache")
+      .register(meterRegistry);
+  }
+
+  private static final class Key {
+
+    private final long id;
+    private final long date;
+    private final String timeZoneId;
+
+    private Key(final long id, final long date, final String timeZoneId) {
+      this.id = id;
+      this.date = date;
+      this.timeZoneId = timeZoneId;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      if (this == object) {
+        return true;
+      }
+      if (!(object instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key) object;
+      return this.id == key.id && this.date == key.date
+        && this.timeZoneId.equals(key.timeZoneId);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * Long.hashCode(this.id) + Long.hashCode(this.date))
+        + this.timeZoneId.hashCode();
+    }
+
+  }
+
+}
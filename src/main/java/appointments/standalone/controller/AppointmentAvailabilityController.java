@@ -0,0 +1,191 @@
+package appointments.standalone.controller;
+
+import appointments.standalone.availability.AppointmentAvailability;
+import appointments.standalone.availability.FreeSlot;
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.repository.AppointmentRange;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * <p>
+ * <code>AppointmentAvailabilityController</code> answers when the next free
+ * slots are, using a provided {@link AppointmentAvailability}.
+ * </p>
+ * <p>
+ * <code>GET /api/availability</code> answers with
+ * <code>[{"from":"2019-07-05T09:00:00+01:00","to":"..."},...]</code>, the
+ * free periods within working hours long enough for the slot, in the time
+ * zone given by the <code>tz</code> URL parameter. Invalid requests are
+ * answered with <code>400 Bad Request</code> and
+ * <code>{"error":"..."}</code>.
+ * </p>
+ *
+ * @see appointments.standalone.availability.AppointmentAvailability
+ */
+@RestController
+public final class AppointmentAvailabilityController {
+
+  private final AppointmentAvailability appointmentAvailability;
+
+  private final AppointmentParameters parameters = new AppointmentParameters();
+
+  private static final String ERROR_FIELD = "error";
+
+  private static final int DEFAULT_DAYS = 31;
+
+  private static final DateTimeFormatter DATE_TIME_FORMATTER =
+    DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentAvailabilityController.class);
+
+  /**
+   * Creates a new instance of <code>AppointmentAvailabilityController</code>
+   * using the specified <b>appointmentAvailability</b>.
+   *
+   * @param appointmentAvailability An instance of
+   *          {@link AppointmentAvailability}. This cannot be
+   *          <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentAvailability</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentAvailabilityController(
+    @Autowired
+    final AppointmentAvailability appointmentAvailability
+  ) {
+    if (appointmentAvailability == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "appointmentAvailability specified");
+    }
+    LOGGER.info("AppointmentAvailabilityController[appointmentAvailability]");
+    this.appointmentAvailability = appointmentAvailability;
+  }
+
+  /**
+   * <code>availability</code> is a mapping for <code>GET</code> requests to
+   * <code>/api/availability</code>.
+   *
+   * @param timeZone The ID of one of the <code>Etc/GMT</code> time zones of
+   *          the working hours and the returned dates; this is mapped to the
+   *          <code>tz</code> URL parameter and defaults to "Etc/GMT".
+   * @param from The first day to search, in the format
+   *          <code>yyyy-MM-dd</code>; this is mapped to the <code>from</code>
+   *          URL parameter. If it is not provided the search starts now.
+   * @param to The last day to search, in the format <code>yyyy-MM-dd</code>;
+   *          this is mapped to the <code>to</code> URL parameter. If it is not
+   *          provided the search covers 31 days.
+   * @param slot The length of the slot in minutes; this is mapped to the
+   *          <code>slot</code> URL parameter and defaults to "30".
+   * @param open The start of the working hours, in the format
+   *          <code>HH:mm</code>; this is mapped to the <code>open</code> URL
+   *          parameter and defaults to "09:00".
+   * @param close The end of the working hours, in the format
+   *          <code>HH:mm</code>; this is mapped to the <code>close</code> URL
+   *          parameter and defaults to "17:00".
+   * @param limit The maximum number of free periods; this is mapped to the
+   *          <code>limit</code> URL parameter and defaults to "10".
+   *
+   * @return The free periods, in order.
+   *
+   * @throws IllegalArgumentException If any parameter is invalid.
+   */
+  @GetMapping(path="/api/availability",
+    produces=MediaType.APPLICATION_JSON_VALUE)
+  public List<Map<String, String>> availability(
+    @RequestParam(name="tz", required=false, defaultValue="Etc/GMT")
+    final String timeZone,
+    @RequestParam(name="from", required=false)
+    final String from,
+    @RequestParam(name="to", required=false)
+    final String to,
+    @RequestParam(name="slot", required=false, defaultValue="30")
+    final String slot,
+    @RequestParam(name="open", required=false, defaultValue="09:00")
+    final String open,
+    @RequestParam(name="close", required=false, defaultValue="17:00")
+    final String close,
+    @RequestParam(name="limit", required=false, defaultValue="10")
+    final String limit) {
+    if (timeZone == null || !AppointmentParameters.TIME_ZONE_PATTERN
+      .matcher(timeZone).matches()) {
+      final String message = String.format("Illegal argument; timeZone==%s",
+        timeZone);
+      throw new IllegalArgumentException(message);
+    }
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("availability[timeZone=='{}', from=='{}', to=='{}', "
+        + "slot=='{}', open=='{}', close=='{}', limit=='{}']", timeZone, from,
+        to, slot, open, close, limit);
+    }
+    final ZoneOffset offset = this.parameters.getZoneId(timeZone).getRules()
+      .getOffset(Instant.EPOCH);
+    final AppointmentRange days =
+      this.parameters.parseRange(from, to, timeZone);
+    final long fromTime = StringUtils.isBlank(from)
+      ? System.currentTimeMillis() : days.getFrom().getTime();
+    final long toTime = StringUtils.isBlank(to)
+      ? fromTime + TimeUnit.DAYS.toMillis(DEFAULT_DAYS)
+      : days.getTo().getTime();
+    final AppointmentRange range =
+      AppointmentRange.of(new Date(fromTime), new Date(toTime));
+    final LocalTime openTime = this.parameters.parseTime(open);
+    final LocalTime closeTime = this.parameters.parseTime(close);
+    final List<FreeSlot> slots = this.appointmentAvailability.findFreeSlots(
+      range, this.parameters.parseNumber("slot", slot, 1,
+      Appointment.MAX_DURATION), openTime, closeTime, offset,
+      this.parameters.parseNumber("limit", limit, 1,
+      AppointmentAvailability.MAX_LIMIT));
+    final List<Map<String, String>> body = new ArrayList<>(slots.size());
+    for (final FreeSlot freeSlot : slots) {
+      final Map<String, String> period = new LinkedHashMap<>();
+      period.put("from", DATE_TIME_FORMATTER.format(
+        freeSlot.getFrom().toInstant().atOffset(offset)));
+      period.put("to", DATE_TIME_FORMATTER.format(
+        freeSlot.getTo().toInstant().atOffset(offset)));
+      body.add(period);
+    }
+    return body;
+  }
+
+  /**
+   * Answers an invalid request with <code>400 Bad Request</code>.
+   *
+   * @param e The exception thrown for the invalid request.
+   *
+   * @return <code>{"error":"..."}</code>.
+   */
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<Map<String, String>> badRequest(
+    final IllegalArgumentException e) {
+    final String message = e.getMessage();
+    LOGGER.warn("Exception caught by /api/availability endpoint: {}",
+      message);
+    return ResponseEntity.badRequest()
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(Collections.singletonMap(ERROR_FIELD, message));
+  }
+
+}
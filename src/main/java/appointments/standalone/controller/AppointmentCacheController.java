@@ -0,0 +1,69 @@
+package appointments.standalone.controller;
+
+import appointments.standalone.cache.AppointmentCaches;
+import appointments.standalone.cache.CacheRegionStatistics;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * <p>
+ * <code>AppointmentCacheController</code> reports the statistics of the
+ * cache regions of Hibernate's second-level and query cache, using a provided
+ * {@link AppointmentCaches}.
+ * </p>
+ * <p>
+ * <code>GET /api/cache</code> answers with
+ * <code>{"appointments":{"hits":0,"misses":0,"puts":0,"evictions":0},...}
+ * </code>, keyed by region name.
+ * </p>
+ *
+ * @see appointments.standalone.cache.AppointmentCaches
+ */
+@RestController
+public final class AppointmentCacheController {
+
+  private final AppointmentCaches appointmentCaches;
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentCacheController.class);
+
+  /**
+   * Creates a new instance of <code>AppointmentCacheController</code> using
+   * the specified <b>appointmentCaches</b>.
+   *
+   * @param appointmentCaches An instance of {@link AppointmentCaches}. This
+   *          cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentCaches</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentCacheController(
+    @Autowired
+    final AppointmentCaches appointmentCaches
+  ) {
+    if (appointmentCaches == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "appointmentCaches specified");
+    }
+    LOGGER.info("AppointmentCacheController[appointmentCaches]");
+    this.appointmentCaches = appointmentCaches;
+  }
+
+  /**
+   * <code>statistics</code> is a mapping for <code>GET</code> requests to
+   * <code>/api/cache</code>.
+   *
+   * @return The statistics of each cache region, keyed by region name.
+   */
+  @GetMapping("/api/cache")
+  public Map<String, CacheRegionStatistics> statistics() {
+    return this.appointmentCaches.getStatistics();
+  }
+
+}
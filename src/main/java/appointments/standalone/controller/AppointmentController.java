@@ -1,28 +1,49 @@
 package appointments.standalone.controller;
 
+import appointments.standalone.cache.DateStringCache;
 import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+import appointments.standalone.index.AppointmentIndex;
+import appointments.standalone.metrics.AppointmentMetrics;
+import appointments.standalone.repository.AppointmentCursor;
+import appointments.standalone.repository.AppointmentOverlapCheck;
+import appointments.standalone.repository.AppointmentOverlaps;
+import appointments.standalone.repository.AppointmentPage;
+import appointments.standalone.repository.AppointmentPager;
+import appointments.standalone.repository.AppointmentRange;
 import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentSearch;
+import appointments.standalone.repository.AppointmentSearchPage;
+import appointments.standalone.repository.AppointmentVersion;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.TimeZone;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import io.micrometer.core.instrument.Timer;
+
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.view.RedirectView;
 
 /**
  * <p>
@@ -33,37 +54,78 @@ import org.springframework.web.bind.annotation.RequestParam;
  * <p>
  * <code>AppointmentController</code> contains mappings for;
  * <ul>
- * <li><code>/appointments</code> - {@link #appointments(String, Model)}</li>
+ * <li><code>/appointments</code> -
+ * {@link #appointments(String, String, String, String, String, String, String,
+ * String, String, Model, WebRequest)}</li>
  * <li><code>/appointmentsCreate</code> -
- * {@link #appointmentsCreate(String, String, String, String, String, Model)</li>
+ * {@link #appointmentsCreate(String, String, String, String, String, String,
+ * String, String, String, RedirectAttributes)}</li>
  * </ul>
  * </p>
  * 
  * @see demo.nakedapp.entity.Appointment
  * @see demo.nakedapp.repository.AppointmentRepository
- * @see #appointments(String, Model)
- * @see #appointmentsCreate(String, String, String, String, String, Model)
+ * @see #appointments(String, String, String, String, String, String, String,
+ *          String, String, Model, WebRequest)
+ * @see #appointmentsCreate(String, String, String, String, String, String,
+ *          String, String, String, RedirectAttributes)
  */
 @Controller
 public final class AppointmentController {
 
   private final AppointmentRepository appointmentRepository;
 
+  private final AppointmentPager appointmentPager;
+
+  private final AppointmentPager indexPager;
+
+  private final AppointmentSearch appointmentSearch;
+
+  private final AppointmentOverlapCheck appointmentOverlapCheck;
+
+  private final DateStringCache dateStringCache;
+
+  private final AppointmentVersion appointmentVersion;
+
+  private final AppointmentIndex appointmentIndex;
+
+  private final AppointmentMetrics appointmentMetrics;
+
+  private final AppointmentParameters parameters = new AppointmentParameters();
+
   private final List<TimeZone> timeZones = new ArrayList<>();
 
+  // The display names of the time zones, by ID; the template cannot read
+  // them from the TimeZone instances, whose classes are internal to the JDK.
+  private final Map<String, String> timeZoneNames;
+
   private static final String APPOINTMENTS_PARAM = "appointments";
+  private static final String PAGE_PARAM = "page";
+  private static final String SEARCH_PAGE_PARAM = "searchPage";
+  private static final String SEARCH_PARAM = "q";
+  private static final String COUNT_PARAM = "count";
+  private static final String FROM_PARAM = "from";
+  private static final String TO_PARAM = "to";
+  private static final String DATE_STRINGS_PARAM = "dateStrings";
   private static final String TIME_ZONES_PARAM = "timeZones";
   private static final String DEFAULT_TIME_ZOME_PARAM = "defaultTimeZone";
+  private static final String DEFAULT_TIME_ZONE_ID_PARAM = "defaultTimeZoneId";
   private static final String ERROR_PARAM = "error";
+  private static final String TIME_ZONE_PARAM = "tz";
 
   private static final String APPOINMENTS_TEMPLATE = "appointments";
 
-  private static final String TIME_ZONE_REGEX = "Etc/GMT([+-][1-9]\\d?)?";
-  private static final Pattern TIME_ZONE_PATTERN =
-    Pattern.compile(TIME_ZONE_REGEX);
+  private static final String PAGE_QUERY = "page";
+  private static final String COUNT_QUERY = "count";
+  private static final String SEARCH_QUERY = "search";
+  private static final String SAVE_QUERY = "save";
+
+  private static final String APPOINTMENTS_PATH = "/appointments";
 
-  private static final SimpleDateFormat SIMPLE_DATE_FORMAT =
-    new SimpleDateFormat("yyyy-MM-dd HH':'mm");
+  private static final int DEFAULT_PAGE_SIZE = 20;
+
+  private static final Pattern TIME_ZONE_PATTERN =
+    AppointmentParameters.TIME_ZONE_PATTERN;
 
   private static final Logger LOGGER =
     LoggerFactory.getLogger(AppointmentController.class);
@@ -71,7 +133,9 @@ public final class AppointmentController {
   /**
    * <p>
    * Creates a new instance of <code>AppointmentController</code> using the
-   * specified <b>appointmentRepository</b>.
+   * specified <b>appointmentRepository</b>, <b>dateStringCache</b>,
+   * <b>appointmentVersion</b>, <b>appointmentIndex</b> and
+   * <b>appointmentMetrics</b>.
    * </p>
    * <p>
    * Also populates the list of available <code>TimeZone</code>s.
@@ -79,24 +143,64 @@ public final class AppointmentController {
    * 
    * @param appointmentRepository An instance of {@link AppointmentRepository}.
    *          This cannot be <code>null</code>.
+   * @param dateStringCache An instance of {@link DateStringCache} used to
+   *          render the dates of existing appointments. This cannot be
+   *          <code>null</code>.
+   * @param appointmentVersion An instance of {@link AppointmentVersion} used
+   *          to answer conditional requests. This cannot be <code>null</code>.
+   * @param appointmentIndex The {@link AppointmentIndex} to list appointments
+   *          from instead of the database once it is loaded, if it is
+   *          enabled. This cannot be <code>null</code>.
+   * @param appointmentMetrics The {@link AppointmentMetrics} to record the
+   *          timings, row counts and errors of the requests in. This cannot
+   *          be <code>null</code>.
    * 
-   * @throws IllegalArgumentException If <b>appointmentRepository</b> is
+   * @throws IllegalArgumentException If <b>appointmentRepository</b>,
+   *          <b>dateStringCache</b>, <b>appointmentVersion</b>,
+   *          <b>appointmentIndex</b> or <b>appointmentMetrics</b> is
    *          <code>null</code>.
    * 
    * @see demo.nakedapp.repository.AppointmentRepository
+   * @see appointments.standalone.cache.DateStringCache
    */
   public AppointmentController(
     @Autowired
-    final AppointmentRepository appointmentRepository
+    final AppointmentRepository appointmentRepository,
+    @Autowired
+    final DateStringCache dateStringCache,
+    @Autowired
+    final AppointmentVersion appointmentVersion,
+    @Autowired
+    final Optional<AppointmentIndex> appointmentIndex,
+    @Autowired
+    final AppointmentMetrics appointmentMetrics
   ) {
     super();
-    if (appointmentRepository == null) {
+    if (appointmentRepository == null || dateStringCache == null
+      || appointmentVersion == null || appointmentIndex == null
+      || appointmentMetrics == null) {
       final String message = String.format("Illegal argument; "
-        + "appointmentRepository=={%s}", appointmentRepository != null);
+        + "appointmentRepository=={%s}, dateStringCache=={%s}, "
+        + "appointmentVersion=={%s}, appointmentIndex=={%s}, "
+        + "appointmentMetrics=={%s}", appointmentRepository != null,
+        dateStringCache != null, appointmentVersion != null,
+        appointmentIndex != null, appointmentMetrics != null);
       throw new IllegalArgumentException(message);
     }
-    LOGGER.info("AppointmentController[appointmentRepository]");
+    LOGGER.info("AppointmentController[appointmentRepository, "
+      + "dateStringCache, appointmentVersion, appointmentIndex, "
+      + "appointmentMetrics]");
     this.appointmentRepository = appointmentRepository;
+    this.dateStringCache = dateStringCache;
+    this.appointmentVersion = appointmentVersion;
+    this.appointmentIndex = appointmentIndex.orElse(null);
+    this.appointmentMetrics = appointmentMetrics;
+    this.appointmentPager = new AppointmentPager(appointmentRepository);
+    this.indexPager = this.appointmentIndex == null
+      ? null : new AppointmentPager(this.appointmentIndex);
+    this.appointmentSearch = new AppointmentSearch(appointmentRepository);
+    this.appointmentOverlapCheck =
+      new AppointmentOverlapCheck(appointmentRepository);
     final String[] timeZoneIds = TimeZone.getAvailableIDs();
     Matcher matcher;
     TimeZone timeZone;
@@ -134,6 +238,12 @@ public final class AppointmentController {
       }
 
     });
+    final Map<String, String> timeZoneNames = new LinkedHashMap<>();
+    for (final TimeZone sortedTimeZone : this.timeZones) {
+      timeZoneNames.put(sortedTimeZone.getID(),
+        sortedTimeZone.getDisplayName());
+    }
+    this.timeZoneNames = Collections.unmodifiableMap(timeZoneNames);
   }
 
   /**
@@ -151,6 +261,33 @@ public final class AppointmentController {
    * <b>simulateError</b> is a URL parameter that specifies if a test Exception
    * should be thrown.
    * </p>
+   * <p>
+   * <b>from</b> and <b>to</b> are URL parameters that restrict the existing
+   * appointments displayed to an inclusive range of days in the default time
+   * zone.
+   * </p>
+   * <p>
+   * <b>after</b>, <b>before</b> and <b>size</b> are URL parameters that select
+   * the keyset page of existing appointments to display; see
+   * {@link AppointmentPager#findPage(AppointmentRange, AppointmentCursor,
+   * AppointmentCursor, int)}. Once the {@link AppointmentIndex} is loaded, if
+   * it is enabled, the page and the number of appointments in the range are
+   * read from it instead of the database.
+   * </p>
+   * <p>
+   * <b>search</b> and <b>page</b> are URL parameters that instead display a
+   * numbered page of the appointments in the range whose descriptions match
+   * the words of <b>search</b>, best matches first; see
+   * {@link AppointmentSearch#findPage(String, AppointmentRange, int, int)}.
+   * Search results are always read from the database.
+   * </p>
+   * <p>
+   * The page is tagged with the current {@link AppointmentVersion}; a request
+   * whose <code>If-None-Match</code> header still matches it is answered with
+   * <code>304 Not Modified</code> before any appointment is queried or the
+   * template is rendered. A page showing an error passed on by a redirect is
+   * not answered conditionally.
+   * </p>
    * 
    * @param defaultTimeZone The ID of the default <code>TimeZone</code>; this is
    *          mapped to the <code>tz</code> URL parameter, if the URL parameter
@@ -162,13 +299,42 @@ public final class AppointmentController {
    *          parameter is not provided this will default to "false" to indicate
    *          that a test Exception should not be thrown. This parameter cannot
    *          be <code>null</code>, empty or whitespace only.
+   * @param from The first day to display, in the format
+   *          <code>yyyy-MM-dd</code>; this is mapped to the <code>from</code>
+   *          URL parameter. This parameter may be <code>null</code>.
+   * @param to The last day to display, in the format <code>yyyy-MM-dd</code>;
+   *          this is mapped to the <code>to</code> URL parameter. This
+   *          parameter may be <code>null</code>, but cannot be before
+   *          <b>from</b>.
+   * @param after The encoded cursor the page should follow; this is mapped to
+   *          the <code>after</code> URL parameter. This parameter may be
+   *          <code>null</code>.
+   * @param before The encoded cursor the page should precede; this is mapped
+   *          to the <code>before</code> URL parameter. This parameter may be
+   *          <code>null</code>, but cannot be specified with <b>after</b>.
+   * @param size The maximum number of appointments on the page; this is mapped
+   *          to the <code>size</code> URL parameter, if the URL parameter is
+   *          not provided this will default to "20". This parameter must be a
+   *          number between 1 and 100.
+   * @param search The words to search the descriptions for; this is mapped to
+   *          the <code>q</code> URL parameter. This parameter may be
+   *          <code>null</code>, empty or whitespace only to list the
+   *          appointments instead.
+   * @param page The number of the page of search results, from zero; this is
+   *          mapped to the <code>page</code> URL parameter, if the URL
+   *          parameter is not provided this will default to "0". This
+   *          parameter is ignored without <b>search</b>.
    * @param model The model returned to the <code>Thymeleaf</code> template.
    *          This parameter cannot be <code>null</code>.
+   * @param webRequest The request, used to check and set its entity tag. This
+   *          parameter cannot be <code>null</code>.
    * 
    * @return The name of the <code>Thymeleaf</code> template to render upon
-   *          successful execution.
+   *          successful execution, or <code>null</code> if the request was
+   *          answered with <code>304 Not Modified</code>.
    * 
-   * @throws IllegalArgumentException If <b>model</b> is <code>null</code>.
+   * @throws IllegalArgumentException If <b>model</b> or <b>webRequest</b> is
+   *          <code>null</code>.
    */
   @GetMapping("/appointments")
   public String appointments(
@@ -176,11 +342,41 @@ public final class AppointmentController {
     final String defaultTimeZone,
     @RequestParam(name="e", required=false, defaultValue="false")
     final String simulateError,
-    final Model model) {
-    if (model == null) {
-      throw new IllegalArgumentException("Illegal argument; no model "
-        + "specified");
+    @RequestParam(name="from", required=false)
+    final String from,
+    @RequestParam(name="to", required=false)
+    final String to,
+    @RequestParam(name="after", required=false)
+    final String after,
+    @RequestParam(name="before", required=false)
+    final String before,
+    @RequestParam(name="size", required=false, defaultValue="20")
+    final String size,
+    @RequestParam(name="q", required=false)
+    final String search,
+    @RequestParam(name="page", required=false, defaultValue="0")
+    final String page,
+    final Model model,
+    final WebRequest webRequest) {
+    if (model == null || webRequest == null) {
+      final String message = String.format("Illegal argument; "
+        + "model=={%s}, webRequest=={%s}", model != null, webRequest != null);
+      throw new IllegalArgumentException(message);
     }
+    final Timer.Sample sample = this.appointmentMetrics.start();
+    if (!model.containsAttribute(ERROR_PARAM)
+      && webRequest.checkNotModified(this.appointmentVersion.getETag())) {
+      LOGGER.debug("appointments not modified");
+      this.appointmentMetrics.stopRequest(sample,
+        AppointmentMetrics.APPOINTMENTS);
+      return null;
+    }
+    AppointmentRange range = AppointmentRange.ALL;
+    AppointmentCursor afterCursor = null;
+    AppointmentCursor beforeCursor = null;
+    int pageSize = DEFAULT_PAGE_SIZE;
+    String searchQuery = null;
+    int pageNumber = 0;
     try {
       if (StringUtils.isBlank(defaultTimeZone)
         || StringUtils.isBlank(simulateError)
@@ -190,26 +386,58 @@ public final class AppointmentController {
           simulateError);
         throw new IllegalArgumentException(message);
       }
-      final String message = String.format("appointments["
-        + "defaultTimeZone=='%s']", defaultTimeZone);
-      LOGGER.info(message);
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("appointments[defaultTimeZone=='{}', from=='{}', "
+          + "to=='{}', after=='{}', before=='{}', size=='{}', search=='{}', "
+          + "page=='{}']", defaultTimeZone, from, to, after, before, size,
+          search, page);
+      }
+      range = this.parameters.parseRange(from, to, defaultTimeZone);
+      pageSize = this.parameters.parsePageSize(size);
+      afterCursor = AppointmentCursor.parse(after);
+      beforeCursor = AppointmentCursor.parse(before);
+      if (StringUtils.isNotBlank(search)) {
+        pageNumber = this.parameters.parsePageNumber(page, pageSize);
+        // Rejects a search without words before anything is queried.
+        AppointmentSearch.toQuery(search);
+        searchQuery = search;
+      }
+      if (afterCursor != null && beforeCursor != null) {
+        afterCursor = null;
+        beforeCursor = null;
+        throw new IllegalArgumentException("Illegal argument; after and "
+          + "before cannot both be specified");
+      }
     } catch(final Exception e) {
-      String message = e.getMessage();
+      final String message = e.getMessage();
       model.addAttribute(ERROR_PARAM, message);
-      message = String.format("Exception caught by /appointments endpoint: "
-        + "%s", message);
+      this.appointmentMetrics.countError(AppointmentMetrics.APPOINTMENTS, e);
       if (e instanceof IllegalArgumentException) {
-        LOGGER.warn(message);
+        LOGGER.warn("Exception caught by /appointments endpoint: {}", message);
       } else {
-        LOGGER.warn(message, e);
+        LOGGER.warn("Exception caught by /appointments endpoint: {}", message,
+          e);
       }
     } finally {
       try {
-        this.populateModel(model, defaultTimeZone);
+        if (searchQuery == null) {
+          this.populateModel(model, defaultTimeZone, range, afterCursor,
+            beforeCursor, pageSize);
+        } else {
+          this.populateSearchModel(model, defaultTimeZone, searchQuery, range,
+            pageNumber, pageSize);
+        }
+        model.addAttribute(FROM_PARAM, from);
+        model.addAttribute(TO_PARAM, to);
+        model.addAttribute(SEARCH_PARAM, search);
       } catch(final Exception e) {
+        this.appointmentMetrics.countError(AppointmentMetrics.APPOINTMENTS,
+          e);
         LOGGER.error("Unable to populate model", e);
       }
     }
+    this.appointmentMetrics.stopRequest(sample,
+      AppointmentMetrics.APPOINTMENTS);
     return APPOINMENTS_TEMPLATE;
   }
 
@@ -222,6 +450,15 @@ public final class AppointmentController {
    * <code>appointmentsCreate</code> creates a new instance of
    * {@link Appointment} using the specified form parameters.
    * </p>
+   * <p>
+   * Following the Post/Redirect/Get pattern, the method does not render the
+   * appointment list itself; it always answers with a
+   * <code>303 See Other</code> redirect to <code>/appointments</code> that
+   * keeps <b>defaultTimeZone</b> as the <code>tz</code> URL parameter. Any
+   * error is passed to the redirected request as the <code>error</code> flash
+   * attribute, and refreshing the resulting page does not resubmit the form.
+   * </p>
+   * <p>
    * <b>defaultTimeZone</b> is a URL parameter that specifies the ID of the
    * default <code>TimeZone</code>. The default time zone is used as the default
    * value of the time zone select box in the appointment creation form as well
@@ -231,10 +468,19 @@ public final class AppointmentController {
    * <b>simulateError</b> is a URL parameter that specifies if a test Exception
    * should be thrown.
    * </p>
+   * <p>
+   * An appointment with a duration that overlaps another is rejected by the
+   * database, see {@link AppointmentOverlaps}, and reported as an error.
+   * </p>
+   * <p>
+   * A recurring appointment is stored once, dated at its first occurrence;
+   * its occurrences, and those of the stored series, are checked for
+   * overlaps before it is written, see {@link AppointmentOverlapCheck}.
+   * </p>
    * 
    * @param date The date for the new instance of <code>Appointment</code>; this
    *          is mapped to the <code>date</code> form parameter and must be in
-   *          the format <code>dd/MM/yyyy</code>. This parameter cannot be
+   *          the format <code>yyyy-MM-dd</code>. This parameter cannot be
    *          <code>null</code>, empty or whitespace only.
    * @param time The time of day for the new instance of
    *          <code>Appointment</code>; this is mapped to the <code>time</code>
@@ -244,10 +490,27 @@ public final class AppointmentController {
    *          the new instance of <code>Appointment</code>; this is mapped to
    *          the <code>timeZone</code> form parameter. This parameter cannot be
    *          <code>null</code>, empty or whitesapce only.
+   * @param duration The length in minutes of the new instance of
+   *          <code>Appointment</code>; this is mapped to the
+   *          <code>duration</code> form parameter. This parameter may be
+   *          <code>null</code>, empty or whitespace only for an appointment
+   *          without a duration, and otherwise must be a number between 1 and
+   *          {@link Appointment#MAX_DURATION}.
    * @param description The description for the new instance of
    *          <code>Appointment</code>; this is mapped to the
    *          <code>description</code> form parameter. This parameter cannot be
    *          <code>null</code>, empty or whitespace only.
+   * @param recurrence The name of the {@link Recurrence} by which the new
+   *          instance of <code>Appointment</code> repeats; this is mapped to
+   *          the <code>recurrence</code> form parameter. This parameter may be
+   *          <code>null</code>, empty or whitespace only for an appointment
+   *          that does not recur.
+   * @param until The last day of the occurrences of the new instance of
+   *          <code>Appointment</code>, in the format <code>yyyy-MM-dd</code>
+   *          and in the time zone <b>timeZone</b>; this is mapped to the
+   *          <code>until</code> form parameter. This parameter may be
+   *          <code>null</code>, empty or whitespace only for occurrences that
+   *          do not end, and must be empty if <b>recurrence</b> is.
    * @param defaultTimeZone The ID of the default <code>TimeZone</code>; this is
    *          mapped to the <code>tz</code> URL parameter, if the URL parameter
    *          is not provided this will default to "Etc/GMT" for Greenwich Mean
@@ -258,35 +521,42 @@ public final class AppointmentController {
    *          parameter is not provided this will default to "false" to indicate
    *          that a test Exception should not be thrown. That parameter cannot
    *          be <code>null</code>, empty or whitespace only.
-   * @param model The model returned to the <code>Thymeleaf</code> template.
-   *          This parameter cannot be <code>null</code>.
+   * @param redirectAttributes The attributes passed to the redirected
+   *          request. This parameter cannot be <code>null</code>.
    * 
-   * @return The name of the <code>Thymeleaf</code> template to render upon
-   *          successful execution.
+   * @return The redirect to <code>/appointments</code>.
    * 
-   * @throws IllegalArgumentException If <b>model</b> is <code>null</code>.
+   * @throws IllegalArgumentException If <b>redirectAttributes</b> is
+   *          <code>null</code>.
    * 
    * @see demo.nakedapp.entity.Appointment
    */
   @PostMapping("/appointments/create")
-  public String appointmentsCreate(
+  public RedirectView appointmentsCreate(
     @RequestParam(name="date", required=true)
     final String date,
     @RequestParam(name="time", required=true)
     final String time,
     @RequestParam(name="timeZone", required=true)
     final String timeZone,
+    @RequestParam(name="duration", required=false)
+    final String duration,
     @RequestParam(name="description", required=true)
     final String description,
+    @RequestParam(name="recurrence", required=false)
+    final String recurrence,
+    @RequestParam(name="until", required=false)
+    final String until,
     @RequestParam(name="tz", required=false, defaultValue="Etc/GMT")
     final String defaultTimeZone,
     @RequestParam(name="e", required=false, defaultValue="false")
     final String simulateError,
-    final Model model) {
-    if (model == null) {
-      throw new IllegalArgumentException("Illegal argument; no model "
-        + "specified");
+    final RedirectAttributes redirectAttributes) {
+    if (redirectAttributes == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "redirectAttributes specified");
     }
+    final Timer.Sample sample = this.appointmentMetrics.start();
     try {
       if (StringUtils.isBlank(date) || StringUtils.isBlank(time)
         || StringUtils.isBlank(timeZone) || StringUtils.isBlank(description)
@@ -299,47 +569,103 @@ public final class AppointmentController {
           defaultTimeZone, simulateError);
         throw new IllegalArgumentException(message);
       }
-      final String message = String.format("appointmentsCreate[date=='%s', "
-        + "time=='%s', timeZone=='%s', description=='%s', "
-        + "defaultTimeZone=='%s']", date, time, timeZone, description,
-        defaultTimeZone);
-      LOGGER.info(message);
-      final TimeZone timeZoneObject = TimeZone.getTimeZone(timeZone);
-      SIMPLE_DATE_FORMAT.setTimeZone(timeZoneObject);
-      final String dateTime = String.format("%s %s", date, time);
-      final Date dateObject = SIMPLE_DATE_FORMAT.parse(dateTime);
-      final Appointment appointment = new Appointment(dateObject, description);
-      this.appointmentRepository.save(appointment);
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("appointmentsCreate[date=='{}', time=='{}', "
+          + "timeZone=='{}', duration=='{}', description=='{}', "
+          + "recurrence=='{}', until=='{}', defaultTimeZone=='{}']", date,
+          time, timeZone, duration, description, recurrence, until,
+          defaultTimeZone);
+      }
+      final Date dateObject =
+        this.parameters.parseDate(date, time, timeZone);
+      final Integer durationObject = this.parameters.parseDuration(duration);
+      final Recurrence recurrenceObject =
+        this.parameters.parseRecurrence(recurrence);
+      final Appointment appointment = new Appointment(dateObject,
+        durationObject, description, recurrenceObject,
+        recurrenceObject == null ? null : this.parameters.getZoneId(timeZone),
+        this.parameters.parseUntil(until, timeZone));
+      this.appointmentOverlapCheck.write(
+        Collections.singletonList(appointment),
+        () -> this.appointmentMetrics.timeQuery(SAVE_QUERY,
+          AppointmentMetrics.DATABASE,
+          () -> this.appointmentRepository.save(appointment)));
     } catch (final Exception e) {
-      String message = e.getMessage();
-      model.addAttribute(ERROR_PARAM, message);
-      message = String.format("Exception caught by /appointmentsCreate "
-        + "endpoint: %s", message);
-      if (e instanceof IllegalArgumentException
-        || e instanceof ParseException) {
-        LOGGER.warn(message);
+      final boolean overlap = AppointmentOverlaps.isOverlap(e);
+      final String message =
+        overlap ? AppointmentOverlaps.MESSAGE : e.getMessage();
+      redirectAttributes.addFlashAttribute(ERROR_PARAM, message);
+      this.appointmentMetrics.countError(
+        AppointmentMetrics.APPOINTMENTS_CREATE, e);
+      if (overlap || e instanceof IllegalArgumentException
+        || e instanceof DateTimeParseException) {
+        LOGGER.warn("Exception caught by /appointmentsCreate endpoint: {}",
+          message);
       } else {
-        LOGGER.warn(message, e);
-      }
-    } finally {
-      try {
-        this.populateModel(model, defaultTimeZone);
-      } catch (final Exception e) {
-        LOGGER.error("Unable to populate model", e);
+        LOGGER.warn("Exception caught by /appointmentsCreate endpoint: {}",
+          message, e);
       }
     }
-    return APPOINMENTS_TEMPLATE;
+    if (StringUtils.isNotBlank(defaultTimeZone)) {
+      redirectAttributes.addAttribute(TIME_ZONE_PARAM, defaultTimeZone);
+    }
+    final RedirectView redirectView = new RedirectView(APPOINTMENTS_PATH, true);
+    redirectView.setStatusCode(HttpStatus.SEE_OTHER);
+    this.appointmentMetrics.stopRequest(sample,
+      AppointmentMetrics.APPOINTMENTS_CREATE);
+    return redirectView;
+  }
+
+  private void populateModel(final Model model, final String defaultTimeZone,
+    final AppointmentRange range, final AppointmentCursor after,
+    final AppointmentCursor before, final int pageSize) {
+    final Timer.Sample sample = this.appointmentMetrics.start();
+    final AppointmentPage page;
+    if (this.appointmentIndex != null && this.appointmentIndex.isLoaded()) {
+      page = this.appointmentMetrics.timeQuery(PAGE_QUERY,
+        AppointmentMetrics.INDEX,
+        () -> this.indexPager.findPage(range, after, before, pageSize));
+      model.addAttribute(COUNT_PARAM, this.appointmentMetrics.timeQuery(
+        COUNT_QUERY, AppointmentMetrics.INDEX,
+        () -> this.appointmentIndex.count(range)));
+    } else {
+      page = this.appointmentMetrics.timeQuery(PAGE_QUERY,
+        AppointmentMetrics.DATABASE,
+        () -> this.appointmentPager.findPage(range, after, before, pageSize));
+    }
+    this.appointmentMetrics.recordRows(PAGE_QUERY,
+      page.getAppointments().size());
+    model.addAttribute(PAGE_PARAM, page);
+    model.addAttribute(APPOINTMENTS_PARAM, page.getAppointments());
+    this.populateCommonModel(model, defaultTimeZone);
+    this.appointmentMetrics.stopPopulate(sample, PAGE_QUERY);
+  }
+
+  private void populateSearchModel(final Model model,
+    final String defaultTimeZone, final String search,
+    final AppointmentRange range, final int number, final int pageSize) {
+    final Timer.Sample sample = this.appointmentMetrics.start();
+    final AppointmentSearchPage page = this.appointmentMetrics.timeQuery(
+      SEARCH_QUERY, AppointmentMetrics.DATABASE,
+      () -> this.appointmentSearch.findPage(search, range, number, pageSize));
+    this.appointmentMetrics.recordRows(SEARCH_QUERY,
+      page.getAppointments().size());
+    model.addAttribute(SEARCH_PAGE_PARAM, page);
+    model.addAttribute(APPOINTMENTS_PARAM, page.getAppointments());
+    this.populateCommonModel(model, defaultTimeZone);
+    this.appointmentMetrics.stopPopulate(sample, SEARCH_QUERY);
   }
 
-  private void populateModel(final Model model, final String defaultTimeZone) {
-    final Iterable<Appointment> appointments =
-      this.appointmentRepository.findAll();
-    model.addAttribute(APPOINTMENTS_PARAM, appointments);
-    model.addAttribute(TIME_ZONES_PARAM, this.timeZones);
+  private void populateCommonModel(final Model model,
+    final String defaultTimeZone) {
+    model.addAttribute(DATE_STRINGS_PARAM, this.dateStringCache);
+    model.addAttribute(TIME_ZONES_PARAM, this.timeZoneNames);
     if (StringUtils.isNotBlank(defaultTimeZone)) {
       final TimeZone defaultTimeZoneObject =
         TimeZone.getTimeZone(defaultTimeZone);
       model.addAttribute(DEFAULT_TIME_ZOME_PARAM, defaultTimeZoneObject);
+      model.addAttribute(DEFAULT_TIME_ZONE_ID_PARAM,
+        defaultTimeZoneObject.getID());
     }
   }
 
@@ -0,0 +1,217 @@
+package appointments.standalone.controller;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.exporter.AppointmentCalendarWriter;
+import appointments.standalone.exporter.AppointmentCsvWriter;
+import appointments.standalone.repository.AppointmentRange;
+import appointments.standalone.repository.AppointmentStreamer;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * <p>
+ * <code>AppointmentExportController</code> is a controller that exports
+ * {@link Appointment}s as files, using a provided {@link AppointmentStreamer}.
+ * </p>
+ * <p>
+ * <code>AppointmentExportController</code> contains mappings for;
+ * <ul>
+ * <li><code>/appointments/export.csv</code> -
+ * {@link #exportCsv(String, String, String)}</li>
+ * <li><code>/appointments/export.ics</code> -
+ * {@link #exportCalendar(String, String, String)}</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Both take the <code>tz</code>, <code>from</code> and <code>to</code> URL
+ * parameters of <code>/appointments</code>. Appointments are written to the
+ * response as they are read from the database, so memory use does not depend
+ * on the size of the export.
+ * </p>
+ * <p>
+ * A recurring appointment with an occurrence in the range is exported even if
+ * it started before the range: as a row per occurrence in the range to CSV,
+ * and once, with its rule, to iCalendar.
+ * </p>
+ *
+ * @see appointments.standalone.exporter.AppointmentCalendarWriter
+ * @see appointments.standalone.exporter.AppointmentCsvWriter
+ * @see appointments.standalone.repository.AppointmentStreamer
+ */
+@Controller
+public final class AppointmentExportController {
+
+  private final AppointmentStreamer appointmentStreamer;
+
+  private final AppointmentParameters parameters = new AppointmentParameters();
+
+  private static final MediaType TEXT_CSV =
+    new MediaType("text", "csv", StandardCharsets.UTF_8);
+  private static final MediaType TEXT_CALENDAR =
+    new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentExportController.class);
+
+  /**
+   * Creates a new instance of <code>AppointmentExportController</code> using
+   * the specified <b>appointmentStreamer</b>.
+   *
+   * @param appointmentStreamer An instance of {@link AppointmentStreamer}.
+   *          This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentStreamer</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentExportController(
+    @Autowired
+    final AppointmentStreamer appointmentStreamer
+  ) {
+    if (appointmentStreamer == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "appointmentStreamer specified");
+    }
+    LOGGER.info("AppointmentExportController[appointmentStreamer]");
+    this.appointmentStreamer = appointmentStreamer;
+  }
+
+  /**
+   * <p>
+   * <code>exportCsv</code> is a mapping for <code>GET</code> requests to
+   * <code>/appointments/export.csv</code>.
+   * </p>
+   * <p>
+   * Returns the appointments in the range as a CSV attachment; see
+   * {@link AppointmentCsvWriter}.
+   * </p>
+   *
+   * @param timeZone The ID of the <code>TimeZone</code> of <b>from</b>,
+   *          <b>to</b> and the exported dates; this is mapped to the
+   *          <code>tz</code> URL parameter and defaults to "Etc/GMT".
+   * @param from The first day to export, in the format
+   *          <code>yyyy-MM-dd</code>. This may be <code>null</code>.
+   * @param to The last day to export, in the format <code>yyyy-MM-dd</code>.
+   *          This may be <code>null</code>.
+   *
+   * @return The CSV attachment.
+   *
+   * @throws IllegalArgumentException If any parameter is invalid.
+   */
+  @GetMapping("/appointments/export.csv")
+  public ResponseEntity<StreamingResponseBody> exportCsv(
+    @RequestParam(name="tz", required=false, defaultValue="Etc/GMT")
+    final String timeZone,
+    @RequestParam(name="from", required=false)
+    final String from,
+    @RequestParam(name="to", required=false)
+    final String to) {
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("exportCsv[timeZone=='{}', from=='{}', to=='{}']",
+        timeZone, from, to);
+    }
+    final AppointmentRange range =
+      this.parameters.parseRange(from, to, timeZone);
+    final ZoneId zoneId = this.parameters.getZoneId(timeZone);
+    return attachment(TEXT_CSV, "appointments.csv", outputStream -> {
+      final AppointmentCsvWriter csvWriter =
+        new AppointmentCsvWriter(newWriter(outputStream), zoneId);
+      this.appointmentStreamer.forEachOccurrence(range, csvWriter);
+      csvWriter.flush();
+    });
+  }
+
+  /**
+   * <p>
+   * <code>exportCalendar</code> is a mapping for <code>GET</code> requests to
+   * <code>/appointments/export.ics</code>.
+   * </p>
+   * <p>
+   * Returns the appointments in the range as an iCalendar attachment; see
+   * {@link AppointmentCalendarWriter}.
+   * </p>
+   *
+   * @param timeZone The ID of the <code>TimeZone</code> of <b>from</b> and
+   *          <b>to</b>; this is mapped to the <code>tz</code> URL parameter
+   *          and defaults to "Etc/GMT".
+   * @param from The first day to export, in the format
+   *          <code>yyyy-MM-dd</code>. This may be <code>null</code>.
+   * @param to The last day to export, in the format <code>yyyy-MM-dd</code>.
+   *          This may be <code>null</code>.
+   *
+   * @return The iCalendar attachment.
+   *
+   * @throws IllegalArgumentException If any parameter is invalid.
+   */
+  @GetMapping("/appointments/export.ics")
+  public ResponseEntity<StreamingResponseBody> exportCalendar(
+    @RequestParam(name="tz", required=false, defaultValue="Etc/GMT")
+    final String timeZone,
+    @RequestParam(name="from", required=false)
+    final String from,
+    @RequestParam(name="to", required=false)
+    final String to) {
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("exportCalendar[timeZone=='{}', from=='{}', to=='{}']",
+        timeZone, from, to);
+    }
+    final AppointmentRange range =
+      this.parameters.parseRange(from, to, timeZone);
+    return attachment(TEXT_CALENDAR, "appointments.ics", outputStream -> {
+      final AppointmentCalendarWriter calendarWriter =
+        new AppointmentCalendarWriter(newWriter(outputStream), Instant.now());
+      this.appointmentStreamer.forEach(range, calendarWriter);
+      calendarWriter.close();
+    });
+  }
+
+  /**
+   * Answers an invalid request with <code>400 Bad Request</code>.
+   *
+   * @param e The exception thrown for the invalid request.
+   *
+   * @return The exception's message.
+   */
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<String> badRequest(final IllegalArgumentException e) {
+    final String message = e.getMessage();
+    LOGGER.warn("Exception caught by /appointments/export endpoint: {}",
+      message);
+    return ResponseEntity.badRequest()
+      .contentType(MediaType.TEXT_PLAIN)
+      .body(message);
+  }
+
+  private static ResponseEntity<StreamingResponseBody> attachment(
+    final MediaType mediaType, final String filename,
+    final StreamingResponseBody body) {
+    return ResponseEntity.ok()
+      .contentType(mediaType)
+      .header(HttpHeaders.CONTENT_DISPOSITION,
+        "attachment; filename=\"" + filename + "\"")
+      .body(body);
+  }
+
+  private static Writer newWriter(final OutputStream outputStream) {
+    return new BufferedWriter(
+      new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+  }
+
+}
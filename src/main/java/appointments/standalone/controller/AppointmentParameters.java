@@ -0,0 +1,299 @@
+package appointments.standalone.controller;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+import appointments.standalone.repository.AppointmentRange;
+import appointments.standalone.repository.AppointmentSearch;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * <p>
+ * <code>AppointmentParameters</code> parses the request parameters shared by
+ * {@link AppointmentController} and {@link AppointmentRestController}.
+ * </p>
+ * <p>
+ * The <code>ZoneId</code>s of the <code>Etc/GMT</code> time zones offered by
+ * the appointment creation form are resolved once, on construction.
+ * </p>
+ *
+ * @see AppointmentController
+ * @see AppointmentRestController
+ */
+final class AppointmentParameters {
+
+  /**
+   * The largest page size that can be requested.
+   */
+  static final int MAX_PAGE_SIZE = 100;
+
+  /**
+   * Matches the IDs of the <code>Etc/GMT</code> time zones, capturing the
+   * offset.
+   */
+  static final Pattern TIME_ZONE_PATTERN =
+    Pattern.compile("Etc/GMT([+-][1-9]\\d?)?");
+
+  private static final DateTimeFormatter DATE_FORMATTER =
+    DateTimeFormatter.ISO_LOCAL_DATE;
+  private static final DateTimeFormatter TIME_FORMATTER =
+    DateTimeFormatter.ofPattern("HH':'mm")
+      .withResolverStyle(ResolverStyle.STRICT);
+
+  private final Map<String, ZoneId> zoneIds = new HashMap<>();
+
+  /**
+   * Creates a new instance of <code>AppointmentParameters</code>.
+   */
+  AppointmentParameters() {
+    for (final String timeZoneId : TimeZone.getAvailableIDs()) {
+      if (TIME_ZONE_PATTERN.matcher(timeZoneId).matches()) {
+        this.zoneIds.put(timeZoneId,
+          TimeZone.getTimeZone(timeZoneId).toZoneId());
+      }
+    }
+  }
+
+  /**
+   * Returns the <code>ZoneId</code> of the time zone with the specified
+   * <b>timeZone</b> ID, falling back to GMT for an unknown ID as
+   * <code>TimeZone.getTimeZone</code> does.
+   *
+   * @param timeZone The ID of the time zone.
+   *
+   * @return The <code>ZoneId</code> of the time zone. This cannot be
+   *          <code>null</code>.
+   */
+  ZoneId getZoneId(final String timeZone) {
+    final ZoneId zoneId = this.zoneIds.get(timeZone);
+    if (zoneId != null) {
+      return zoneId;
+    }
+    return TimeZone.getTimeZone(timeZone).toZoneId();
+  }
+
+  /**
+   * Returns the range covering the days <b>from</b> to <b>to</b>, inclusive,
+   * in the time zone with the specified <b>timeZone</b> ID.
+   *
+   * @param from The first day, in the format <code>yyyy-MM-dd</code>. This may
+   *          be <code>null</code>.
+   * @param to The last day, in the format <code>yyyy-MM-dd</code>. This may be
+   *          <code>null</code>.
+   * @param timeZone The ID of the time zone of the days.
+   *
+   * @return The range. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>from</b> or <b>to</b> cannot be
+   *          parsed or if <b>to</b> is before <b>from</b>.
+   */
+  AppointmentRange parseRange(final String from, final String to,
+    final String timeZone) {
+    final ZoneId zoneId = this.getZoneId(timeZone);
+    final Date fromDate;
+    final Date toDate;
+    try {
+      fromDate = StringUtils.isBlank(from) ? null : Date.from(LocalDate
+        .parse(from).atStartOfDay(zoneId).toInstant());
+      toDate = StringUtils.isBlank(to) ? null : Date.from(LocalDate.parse(to)
+        .plusDays(1).atStartOfDay(zoneId).toInstant());
+    } catch (final DateTimeParseException e) {
+      final String message = String.format("Illegal argument; from==%s, "
+        + "to==%s", from, to);
+      throw new IllegalArgumentException(message);
+    }
+    return AppointmentRange.of(fromDate, toDate);
+  }
+
+  /**
+   * Returns the page size <b>size</b>.
+   *
+   * @param size The page size.
+   *
+   * @return The page size, between 1 and {@link #MAX_PAGE_SIZE}.
+   *
+   * @throws IllegalArgumentException If <b>size</b> is not a number between 1
+   *          and {@link #MAX_PAGE_SIZE}.
+   */
+  int parsePageSize(final String size) {
+    return this.parseNumber("size", size, 1, MAX_PAGE_SIZE);
+  }
+
+  /**
+   * Returns the number <b>page</b> of a page of search results of
+   * <b>size</b> appointments.
+   *
+   * @param page The page number, from zero.
+   * @param size The page size.
+   *
+   * @return The page number, such that the page starts within the first
+   *          {@link AppointmentSearch#MAX_RESULTS} matches.
+   *
+   * @throws IllegalArgumentException If <b>page</b> is not such a number.
+   */
+  int parsePageNumber(final String page, final int size) {
+    return this.parseNumber("page", page, 0,
+      (AppointmentSearch.MAX_RESULTS - 1) / size);
+  }
+
+  /**
+   * Returns the duration <b>duration</b>, in minutes.
+   *
+   * @param duration The duration in minutes. This may be <code>null</code>,
+   *          empty or whitespace only if the appointment has no duration.
+   *
+   * @return The duration, between 1 and {@link Appointment#MAX_DURATION}, or
+   *          <code>null</code> if none was specified.
+   *
+   * @throws IllegalArgumentException If <b>duration</b> is not a number
+   *          between 1 and {@link Appointment#MAX_DURATION}.
+   */
+  Integer parseDuration(final String duration) {
+    if (StringUtils.isBlank(duration)) {
+      return null;
+    }
+    return this.parseNumber("duration", duration, 1,
+      Appointment.MAX_DURATION);
+  }
+
+  /**
+   * Returns the recurrence <b>recurrence</b>.
+   *
+   * @param recurrence The name of a {@link Recurrence}, in any case. This may
+   *          be <code>null</code>, empty or whitespace only if the appointment
+   *          does not recur.
+   *
+   * @return The recurrence, or <code>null</code> if none was specified.
+   *
+   * @throws IllegalArgumentException If <b>recurrence</b> is not the name of
+   *          a {@link Recurrence}.
+   */
+  Recurrence parseRecurrence(final String recurrence) {
+    if (StringUtils.isBlank(recurrence)) {
+      return null;
+    }
+    try {
+      return Recurrence.valueOf(recurrence.trim().toUpperCase(Locale.ROOT));
+    } catch (final IllegalArgumentException e) {
+      final String message = String.format("Illegal argument; "
+        + "recurrence==%s", recurrence);
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  /**
+   * Returns the exclusive end of the occurrences of a recurring appointment
+   * whose last day is <b>until</b>, in the time zone with the specified
+   * <b>timeZone</b> ID.
+   *
+   * @param until The last day of the occurrences, in the format
+   *          <code>yyyy-MM-dd</code>. This may be <code>null</code>, empty or
+   *          whitespace only if the occurrences do not end.
+   * @param timeZone The ID of the time zone of the day.
+   *
+   * @return The start of the day after <b>until</b>, or <code>null</code> if
+   *          none was specified.
+   *
+   * @throws IllegalArgumentException If <b>until</b> cannot be parsed.
+   */
+  Date parseUntil(final String until, final String timeZone) {
+    if (StringUtils.isBlank(until)) {
+      return null;
+    }
+    try {
+      return Date.from(LocalDate.parse(until, DATE_FORMATTER).plusDays(1)
+        .atStartOfDay(this.getZoneId(timeZone)).toInstant());
+    } catch (final DateTimeParseException e) {
+      final String message = String.format("Illegal argument; until==%s",
+        until);
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  /**
+   * Returns the time of day <b>time</b>.
+   *
+   * @param time The time of day, in the format <code>HH:mm</code>.
+   *
+   * @return The time of day. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>time</b> cannot be parsed.
+   */
+  LocalTime parseTime(final String time) {
+    try {
+      return LocalTime.parse(time, TIME_FORMATTER);
+    } catch (final DateTimeParseException | NullPointerException e) {
+      final String message = String.format("Illegal argument; time==%s",
+        time);
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  /**
+   * Returns the number <b>value</b> of the parameter <b>name</b>.
+   *
+   * @param name The name of the parameter, used in the error message.
+   * @param value The number.
+   * @param min The smallest number allowed.
+   * @param max The largest number allowed.
+   *
+   * @return The number, between <b>min</b> and <b>max</b>.
+   *
+   * @throws IllegalArgumentException If <b>value</b> is not a number between
+   *          <b>min</b> and <b>max</b>.
+   */
+  int parseNumber(final String name, final String value, final int min,
+    final int max) {
+    final int number;
+    try {
+      number = Integer.parseInt(value);
+    } catch (final NumberFormatException e) {
+      final String message = String.format("Illegal argument; %s==%s", name,
+        value);
+      throw new IllegalArgumentException(message);
+    }
+    if (number < min || number > max) {
+      final String message = String.format("Illegal argument; %s==%s", name,
+        value);
+      throw new IllegalArgumentException(message);
+    }
+    return number;
+  }
+
+  /**
+   * Returns the instant of the specified <b>date</b> and <b>time</b> in the
+   * time zone with the specified <b>timeZone</b> ID.
+   *
+   * @param date The date, in the format <code>yyyy-MM-dd</code>.
+   * @param time The time of day, in the format <code>HH:mm</code>.
+   * @param timeZone The ID of the time zone.
+   *
+   * @return The instant. This cannot be <code>null</code>.
+   *
+   * @throws DateTimeParseException If <b>date</b> or <b>time</b> cannot be
+   *          parsed.
+   */
+  Date parseDate(final String date, final String time,
+    final String timeZone) {
+    final ZoneId zoneId = this.getZoneId(timeZone);
+    final LocalDate localDate = LocalDate.parse(date, DATE_FORMATTER);
+    final LocalTime localTime = LocalTime.parse(time, TIME_FORMATTER);
+    return Date.from(ZonedDateTime.of(localDate, localTime, zoneId)
+      .toInstant());
+  }
+
+}
@@ -0,0 +1,153 @@
+package appointments.standalone.controller;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * <p>
+ * <code>AppointmentRequest</code> is the JSON body of a <code>POST</code>
+ * request to <code>/api/appointments</code>.
+ * </p>
+ * <p>
+ * Its fields mirror the form parameters of <code>/appointments/create</code>;
+ * for example:
+ * </p>
+ * <pre>
+ * {"date":"2019-07-05","time":"13:20","timeZone":"Etc/GMT-1",
+ *  "duration":30,"description":"Dentist","recurrence":"WEEKLY",
+ *  "until":"2019-12-31"}
+ * </pre>
+ *
+ * @see AppointmentRestController
+ */
+public final class AppointmentRequest {
+
+  private final String date;
+  private final String time;
+  private final String timeZone;
+  private final Integer duration;
+  private final String description;
+  private final String recurrence;
+  private final String until;
+
+  /**
+   * Creates a new instance of <code>AppointmentRequest</code>.
+   *
+   * @param date The date of the appointment, in the format
+   *          <code>yyyy-MM-dd</code>.
+   * @param time The time of day of the appointment, in the format
+   *          <code>HH:mm</code>.
+   * @param timeZone The ID of the <code>TimeZone</code> of <b>time</b>.
+   * @param duration The length of the appointment in minutes, or
+   *          <code>null</code>.
+   * @param description The description of the appointment.
+   * @param recurrence The name of the recurrence of the appointment, or
+   *          <code>null</code>.
+   * @param until The last day of the occurrences of the appointment, in the
+   *          format <code>yyyy-MM-dd</code>, or <code>null</code>.
+   */
+  @JsonCreator
+  public AppointmentRequest(
+    @JsonProperty("date")
+    final String date,
+    @JsonProperty("time")
+    final String time,
+    @JsonProperty("timeZone")
+    final String timeZone,
+    @JsonProperty("duration")
+    final Integer duration,
+    @JsonProperty("description")
+    final String description,
+    @JsonProperty("recurrence")
+    final String recurrence,
+    @JsonProperty("until")
+    final String until
+  ) {
+    this.date = date;
+    this.time = time;
+    this.timeZone = timeZone;
+    this.duration = duration;
+    this.description = description;
+    this.recurrence = recurrence;
+    this.until = until;
+  }
+
+  /**
+   * Returns the date of the appointment.
+   *
+   * @return The date of the appointment. This may be <code>null</code>.
+   */
+  public String getDate() {
+    return this.date;
+  }
+
+  /**
+   * Returns the time of day of the appointment.
+   *
+   * @return The time of day of the appointment. This may be <code>null</code>.
+   */
+  public String getTime() {
+    return this.time;
+  }
+
+  /**
+   * Returns the ID of the time zone of the appointment's time.
+   *
+   * @return The ID of the time zone. This may be <code>null</code>.
+   */
+  public String getTimeZone() {
+    return this.timeZone;
+  }
+
+  /**
+   * Returns the length of the appointment in minutes.
+   *
+   * @return The length of the appointment in minutes. This may be
+   *          <code>null</code>.
+   */
+  public Integer getDuration() {
+    return this.duration;
+  }
+
+  /**
+   * Returns the description of the appointment.
+   *
+   * @return The description of the appointment. This may be
+   *          <code>null</code>.
+   */
+  public String getDescription() {
+    return this.description;
+  }
+
+  /**
+   * Returns the name of the recurrence of the appointment.
+   *
+   * @return The name of the recurrence of the appointment. This may be
+   *          <code>null</code>.
+   */
+  public String getRecurrence() {
+    return this.recurrence;
+  }
+
+  /**
+   * Returns the last day of the occurrences of the appointment.
+   *
+   * @return The last day of the occurrences of the appointment. This may be
+   *          <code>null</code>.
+   */
+  public String getUntil() {
+    return this.until;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return String.format("AppointmentRequest[date=%s, time=%s, timeZone=%s, "
+      + "duration=%s, description=%s, recurrence=%s, until=%s]", this.date,
+      this.time, this.timeZone, this.duration, this.description,
+      this.recurrence, this.until);
+  }
+
+}
@@ -0,0 +1,581 @@
+package appointments.standalone.controller;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+import appointments.standalone.repository.AppointmentBatchWriter;
+import appointments.standalone.repository.AppointmentCursor;
+import appointments.standalone.repository.AppointmentOverlapCheck;
+import appointments.standalone.repository.AppointmentOverlaps;
+import appointments.standalone.repository.AppointmentPage;
+import appointments.standalone.repository.AppointmentPager;
+import appointments.standalone.repository.AppointmentRange;
+import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentSearch;
+import appointments.standalone.repository.AppointmentSearchPage;
+import appointments.standalone.repository.AppointmentStreamer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * <p>
+ * <code>AppointmentRestController</code> is a JSON API for the
+ * {@link Appointment} entity that uses a provided
+ * {@link AppointmentRepository}.
+ * </p>
+ * <p>
+ * <code>AppointmentRestController</code> contains mappings for;
+ * <ul>
+ * <li><code>GET /api/appointments</code> -
+ * {@link #appointments(String, String, String, String, String, String, String,
+ * String)}</li>
+ * <li><code>GET /api/appointments/range</code> -
+ * {@link #range(String, String, String)}</li>
+ * <li><code>GET /api/appointments/{id}</code> -
+ * {@link #appointment(long, String)}</li>
+ * <li><code>POST /api/appointments</code> -
+ * {@link #create(AppointmentRequest, String)}</li>
+ * <li><code>POST /api/appointments/bulk</code> -
+ * {@link #createAll(List)}</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Appointments are written as
+ * <code>{"id":1,"date":"2019-07-05T13:20:00+01:00","duration":30,
+ * "description":"...","recurrence":null,"until":null}</code> with Jackson's
+ * streaming <code>JsonGenerator</code>, the date being in the time zone given
+ * by the <code>tz</code> URL parameter. Invalid requests are answered with
+ * <code>400 Bad Request</code>, and appointments that overlap another with
+ * <code>409 Conflict</code>, and <code>{"error":"..."}</code>.
+ * </p>
+ *
+ * @see appointments.standalone.entity.Appointment
+ * @see appointments.standalone.repository.AppointmentRepository
+ * @see AppointmentController
+ */
+@RestController
+@RequestMapping("/api/appointments")
+public final class AppointmentRestController {
+
+  private final AppointmentRepository appointmentRepository;
+
+  private final AppointmentPager appointmentPager;
+
+  private final AppointmentSearch appointmentSearch;
+
+  private final AppointmentOverlapCheck appointmentOverlapCheck;
+
+  private final AppointmentBatchWriter appointmentBatchWriter;
+
+  private final AppointmentStreamer appointmentStreamer;
+
+  private final AppointmentParameters parameters = new AppointmentParameters();
+
+  private static final String ERROR_FIELD = "error";
+
+  private static final int MAX_BULK_SIZE = 10000;
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory()
+    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+  private static final DateTimeFormatter DATE_TIME_FORMATTER =
+    DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentRestController.class);
+
+  /**
+   * Creates a new instance of <code>AppointmentRestController</code> using the
+   * specified <b>appointmentRepository</b>, <b>appointmentBatchWriter</b> and
+   * <b>appointmentStreamer</b>.
+   *
+   * @param appointmentRepository An instance of {@link AppointmentRepository}.
+   *          This cannot be <code>null</code>.
+   * @param appointmentBatchWriter An instance of
+   *          {@link AppointmentBatchWriter} used to create appointments in
+   *          bulk. This cannot be <code>null</code>.
+   * @param appointmentStreamer An instance of {@link AppointmentStreamer}
+   *          used to stream ranges. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentRepository</b>,
+   *          <b>appointmentBatchWriter</b> or <b>appointmentStreamer</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentRestController(
+    @Autowired
+    final AppointmentRepository appointmentRepository,
+    @Autowired
+    final AppointmentBatchWriter appointmentBatchWriter,
+    @Autowired
+    final AppointmentStreamer appointmentStreamer
+  ) {
+    if (appointmentRepository == null || appointmentBatchWriter == null
+      || appointmentStreamer == null) {
+      final String message = String.format("Illegal argument; "
+        + "appointmentRepository=={%s}, appointmentBatchWriter=={%s}, "
+        + "appointmentStreamer=={%s}", appointmentRepository != null,
+        appointmentBatchWriter != null, appointmentStreamer != null);
+      throw new IllegalArgumentException(message);
+    }
+    LOGGER.info("AppointmentRestController[appointmentRepository, "
+      + "appointmentBatchWriter, appointmentStreamer]");
+    this.appointmentRepository = appointmentRepository;
+    this.appointmentPager = new AppointmentPager(appointmentRepository);
+    this.appointmentSearch = new AppointmentSearch(appointmentRepository);
+    this.appointmentOverlapCheck =
+      new AppointmentOverlapCheck(appointmentRepository);
+    this.appointmentBatchWriter = appointmentBatchWriter;
+    this.appointmentStreamer = appointmentStreamer;
+  }
+
+  /**
+   * <p>
+   * <code>appointments</code> is a mapping for <code>GET</code> requests to
+   * <code>/api/appointments</code>.
+   * </p>
+   * <p>
+   * Returns a keyset page of appointments as
+   * <code>{"appointments":[...],"previous":"...","next":"..."}</code>; the
+   * URL parameters are those of <code>/appointments</code>, see
+   * {@link AppointmentController#appointments(String, String, String, String,
+   * String, String, String, String, String, org.springframework.ui.Model,
+   * org.springframework.web.context.request.WebRequest)}.
+   * </p>
+   * <p>
+   * With a <b>search</b>, returns a numbered page of the matching
+   * appointments, best matches first, as
+   * <code>{"appointments":[...],"page":0,"previous":null,"next":1}</code>;
+   * see {@link AppointmentSearch}.
+   * </p>
+   *
+   * @param timeZone The ID of the <code>TimeZone</code> of <b>from</b>,
+   *          <b>to</b> and the returned dates; this is mapped to the
+   *          <code>tz</code> URL parameter and defaults to "Etc/GMT".
+   * @param from The first day to return, in the format
+   *          <code>yyyy-MM-dd</code>. This may be <code>null</code>.
+   * @param to The last day to return, in the format <code>yyyy-MM-dd</code>.
+   *          This may be <code>null</code>.
+   * @param after The encoded cursor the page should follow. This may be
+   *          <code>null</code>.
+   * @param before The encoded cursor the page should precede. This may be
+   *          <code>null</code>, but cannot be specified with <b>after</b>.
+   * @param size The maximum number of appointments on the page, between 1 and
+   *          100; this defaults to "20".
+   * @param search The words to search the descriptions for; this is mapped to
+   *          the <code>q</code> URL parameter. This may be <code>null</code>.
+   * @param page The number of the page of search results, from zero; this
+   *          defaults to "0" and is ignored without <b>search</b>.
+   *
+   * @return The page, written as JSON.
+   *
+   * @throws IllegalArgumentException If any parameter is invalid.
+   */
+  @GetMapping
+  public ResponseEntity<StreamingResponseBody> appointments(
+    @RequestParam(name="tz", required=false, defaultValue="Etc/GMT")
+    final String timeZone,
+    @RequestParam(name="from", required=false)
+    final String from,
+    @RequestParam(name="to", required=false)
+    final String to,
+    @RequestParam(name="after", required=false)
+    final String after,
+    @RequestParam(name="before", required=false)
+    final String before,
+    @RequestParam(name="size", required=false, defaultValue="20")
+    final String size,
+    @RequestParam(name="q", required=false)
+    final String search,
+    @RequestParam(name="page", required=false, defaultValue="0")
+    final String page) {
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("appointments[timeZone=='{}', from=='{}', to=='{}', "
+        + "after=='{}', before=='{}', size=='{}', search=='{}', page=='{}']",
+        timeZone, from, to, after, before, size, search, page);
+    }
+    final AppointmentRange range =
+      this.parameters.parseRange(from, to, timeZone);
+    final int pageSize = this.parameters.parsePageSize(size);
+    if (StringUtils.isNotBlank(search)) {
+      return this.search(search, range,
+        this.parameters.parsePageNumber(page, pageSize), pageSize, timeZone);
+    }
+    final AppointmentCursor afterCursor = AppointmentCursor.parse(after);
+    final AppointmentCursor beforeCursor = AppointmentCursor.parse(before);
+    final AppointmentPage appointmentPage = this.appointmentPager.findPage(
+      range, afterCursor, beforeCursor, pageSize);
+    final ZoneId zoneId = this.parameters.getZoneId(timeZone);
+    return this.json(HttpStatus.OK, outputStream -> {
+      try (final JsonGenerator generator =
+        JSON_FACTORY.createGenerator(outputStream)) {
+        generator.writeStartObject();
+        writeAppointments(generator, appointmentPage.getAppointments(),
+          zoneId);
+        writeCursor(generator, "previous", appointmentPage.getPrevious());
+        writeCursor(generator, "next", appointmentPage.getNext());
+        generator.writeEndObject();
+      }
+    });
+  }
+
+  private ResponseEntity<StreamingResponseBody> search(final String search,
+    final AppointmentRange range, final int number, final int pageSize,
+    final String timeZone) {
+    final AppointmentSearchPage searchPage =
+      this.appointmentSearch.findPage(search, range, number, pageSize);
+    final ZoneId zoneId = this.parameters.getZoneId(timeZone);
+    return this.json(HttpStatus.OK, outputStream -> {
+      try (final JsonGenerator generator =
+        JSON_FACTORY.createGenerator(outputStream)) {
+        generator.writeStartObject();
+        writeAppointments(generator, searchPage.getAppointments(), zoneId);
+        generator.writeNumberField("page", searchPage.getNumber());
+        writeNumber(generator, "previous", searchPage.getPrevious());
+        writeNumber(generator, "next", searchPage.getNext());
+        generator.writeEndObject();
+      }
+    });
+  }
+
+  /**
+   * <p>
+   * <code>range</code> is a mapping for <code>GET</code> requests to
+   * <code>/api/appointments/range</code>.
+   * </p>
+   * <p>
+   * Returns every appointment in the inclusive range of days <b>from</b> to
+   * <b>to</b> as a JSON array in <code>(date, id)</code> order, each
+   * occurrence of a recurring appointment in the range as an appointment of
+   * its own. The appointments are written to the response one at a time as
+   * they are read by {@link AppointmentStreamer}, so the range is never held
+   * in memory as a whole.
+   * </p>
+   *
+   * @param timeZone The ID of the <code>TimeZone</code> of <b>from</b>,
+   *          <b>to</b> and the returned dates; this is mapped to the
+   *          <code>tz</code> URL parameter and defaults to "Etc/GMT".
+   * @param from The first day to return, in the format
+   *          <code>yyyy-MM-dd</code>. This may be <code>null</code>.
+   * @param to The last day to return, in the format <code>yyyy-MM-dd</code>.
+   *          This may be <code>null</code>.
+   *
+   * @return The range, written as JSON.
+   *
+   * @throws IllegalArgumentException If any parameter is invalid.
+   */
+  @GetMapping("/range")
+  public ResponseEntity<StreamingResponseBody> range(
+    @RequestParam(name="tz", required=false, defaultValue="Etc/GMT")
+    final String timeZone,
+    @RequestParam(name="from", required=false)
+    final String from,
+    @RequestParam(name="to", required=false)
+    final String to) {
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("range[timeZone=='{}', from=='{}', to=='{}']", timeZone,
+        from, to);
+    }
+    final AppointmentRange range =
+      this.parameters.parseRange(from, to, timeZone);
+    final ZoneId zoneId = this.parameters.getZoneId(timeZone);
+    return this.json(HttpStatus.OK, outputStream -> {
+      try (final JsonGenerator generator =
+        JSON_FACTORY.createGenerator(outputStream)) {
+        generator.writeStartArray();
+        this.appointmentStreamer.forEachOccurrence(range, appointment ->
+          writeAppointment(generator, appointment, zoneId));
+        generator.writeEndArray();
+      }
+    });
+  }
+
+  /**
+   * <code>appointment</code> is a mapping for <code>GET</code> requests to
+   * <code>/api/appointments/{id}</code>.
+   *
+   * @param id The id of the appointment.
+   * @param timeZone The ID of the <code>TimeZone</code> of the returned date;
+   *          this is mapped to the <code>tz</code> URL parameter and defaults
+   *          to "Etc/GMT".
+   *
+   * @return The appointment, written as JSON, or <code>404 Not Found</code>.
+   */
+  @GetMapping("/{id}")
+  public ResponseEntity<StreamingResponseBody> appointment(
+    @PathVariable("id")
+    final long id,
+    @RequestParam(name="tz", required=false, defaultValue="Etc/GMT")
+    final String timeZone) {
+    final Optional<Appointment> appointment =
+      this.appointmentRepository.findById(id);
+    if (!appointment.isPresent()) {
+      return ResponseEntity.notFound().build();
+    }
+    return this.json(HttpStatus.OK,
+      this.appointmentBody(appointment.get(), timeZone));
+  }
+
+  /**
+   * <p>
+   * <code>create</code> is a mapping for <code>POST</code> requests to
+   * <code>/api/appointments</code>.
+   * </p>
+   * <p>
+   * Creates a new instance of {@link Appointment} from the JSON request body
+   * and returns it with <code>201 Created</code>.
+   * </p>
+   *
+   * @param request The appointment to create. This cannot be
+   *          <code>null</code> and none of its fields can be
+   *          <code>null</code>, empty or whitespace only.
+   * @param timeZone The ID of the <code>TimeZone</code> of the returned date;
+   *          this is mapped to the <code>tz</code> URL parameter and defaults
+   *          to "Etc/GMT".
+   *
+   * @return The created appointment, written as JSON.
+   *
+   * @throws IllegalArgumentException If any field of <b>request</b> is
+   *          invalid.
+   * @throws DateTimeParseException If the date or time of <b>request</b>
+   *          cannot be parsed.
+   */
+  @PostMapping(consumes=MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> create(
+    @RequestBody
+    final AppointmentRequest request,
+    @RequestParam(name="tz", required=false, defaultValue="Etc/GMT")
+    final String timeZone) {
+    LOGGER.info("create[request=={}]", request);
+    final Appointment appointment = this.toAppointment(request);
+    this.appointmentOverlapCheck.write(Collections.singletonList(appointment),
+      () -> this.appointmentRepository.save(appointment));
+    return ResponseEntity
+      .created(URI.create("/api/appointments/" + appointment.getId()))
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(this.appointmentBody(appointment, timeZone));
+  }
+
+  /**
+   * <p>
+   * <code>createAll</code> is a mapping for <code>POST</code> requests to
+   * <code>/api/appointments/bulk</code>.
+   * </p>
+   * <p>
+   * Creates a new instance of {@link Appointment} for each element of the JSON
+   * array request body, in a single transaction and with batched inserts; if
+   * any element is invalid none are created. Returns
+   * <code>{"created":n,"ids":[...]}</code> with <code>201 Created</code>, the
+   * ids being in the order of the request body.
+   * </p>
+   *
+   * @param requests The appointments to create. This cannot be
+   *          <code>null</code>, empty or contain more than 10000 elements, and
+   *          each element must be valid as for
+   *          {@link #create(AppointmentRequest, String)}.
+   *
+   * @return The ids of the created appointments, written as JSON.
+   *
+   * @throws IllegalArgumentException If <b>requests</b> or any of its
+   *          elements is invalid.
+   * @throws DateTimeParseException If the date or time of any element of
+   *          <b>requests</b> cannot be parsed.
+   */
+  @PostMapping(path="/bulk", consumes=MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> createAll(
+    @RequestBody
+    final List<AppointmentRequest> requests) {
+    if (requests == null || requests.isEmpty()
+      || requests.size() > MAX_BULK_SIZE) {
+      final String message = String.format("Illegal argument; "
+        + "requests.size==%s", requests == null ? null : requests.size());
+      throw new IllegalArgumentException(message);
+    }
+    LOGGER.info("createAll[requests.size=={}]", requests.size());
+    final List<Appointment> appointments = new ArrayList<>(requests.size());
+    for (final AppointmentRequest request : requests) {
+      appointments.add(this.toAppointment(request));
+    }
+    final List<Long> ids = this.appointmentOverlapCheck.write(appointments,
+      () -> this.appointmentBatchWriter.saveAll(appointments));
+    return this.json(HttpStatus.CREATED, outputStream -> {
+      try (final JsonGenerator generator =
+        JSON_FACTORY.createGenerator(outputStream)) {
+        generator.writeStartObject();
+        generator.writeNumberField("created", ids.size());
+        generator.writeArrayFieldStart("ids");
+        for (final Long id : ids) {
+          generator.writeNumber(id);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+      }
+    });
+  }
+
+  /**
+   * Answers an invalid request with <code>400 Bad Request</code>.
+   *
+   * @param e The exception thrown for the invalid request.
+   *
+   * @return <code>{"error":"..."}</code>.
+   */
+  @ExceptionHandler({
+    IllegalArgumentException.class,
+    DateTimeParseException.class
+  })
+  public ResponseEntity<Map<String, String>> badRequest(
+    final RuntimeException e) {
+    final String message = e.getMessage();
+    LOGGER.warn("Exception caught by /api/appointments endpoint: {}",
+      message);
+    return ResponseEntity.badRequest()
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(Collections.singletonMap(ERROR_FIELD, message));
+  }
+
+  /**
+   * Answers a request for an appointment that overlaps another with
+   * <code>409 Conflict</code>; see {@link AppointmentOverlaps}.
+   *
+   * @param e The exception thrown by the write.
+   *
+   * @return <code>{"error":"..."}</code>.
+   *
+   * @throws DataIntegrityViolationException If <b>e</b> was not caused by an
+   *          overlap.
+   */
+  @ExceptionHandler(DataIntegrityViolationException.class)
+  public ResponseEntity<Map<String, String>> conflict(
+    final DataIntegrityViolationException e) {
+    if (!AppointmentOverlaps.isOverlap(e)) {
+      throw e;
+    }
+    LOGGER.warn("Exception caught by /api/appointments endpoint: {}",
+      AppointmentOverlaps.MESSAGE);
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(Collections.singletonMap(ERROR_FIELD,
+        AppointmentOverlaps.MESSAGE));
+  }
+
+  private Appointment toAppointment(final AppointmentRequest request) {
+    if (request == null || StringUtils.isBlank(request.getDate())
+      || StringUtils.isBlank(request.getTime())
+      || StringUtils.isBlank(request.getTimeZone())
+      || StringUtils.isBlank(request.getDescription())) {
+      final String message = String.format("Illegal argument; request==%s",
+        request);
+      throw new IllegalArgumentException(message);
+    }
+    final Date date = this.parameters.parseDate(request.getDate(),
+      request.getTime(), request.getTimeZone());
+    final Recurrence recurrence =
+      this.parameters.parseRecurrence(request.getRecurrence());
+    return new Appointment(date, request.getDuration(),
+      request.getDescription(), recurrence, recurrence == null
+      ? null : this.parameters.getZoneId(request.getTimeZone()),
+      this.parameters.parseUntil(request.getUntil(), request.getTimeZone()));
+  }
+
+  private ResponseEntity<StreamingResponseBody> json(final HttpStatus status,
+    final StreamingResponseBody body) {
+    return ResponseEntity.status(status)
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(body);
+  }
+
+  private StreamingResponseBody appointmentBody(final Appointment appointment,
+    final String timeZone) {
+    final ZoneId zoneId = this.parameters.getZoneId(timeZone);
+    return outputStream -> {
+      try (final JsonGenerator generator =
+        JSON_FACTORY.createGenerator(outputStream)) {
+        writeAppointment(generator, appointment, zoneId);
+      }
+    };
+  }
+
+  private static void writeAppointment(final JsonGenerator generator,
+    final Appointment appointment, final ZoneId zoneId) throws IOException {
+    generator.writeStartObject();
+    generator.writeNumberField("id", appointment.getId());
+    generator.writeStringField("date", DATE_TIME_FORMATTER.format(
+      Instant.ofEpochMilli(appointment.getTime()).atZone(zoneId)));
+    final Integer duration = appointment.getDuration();
+    if (duration == null) {
+      generator.writeNullField("duration");
+    } else {
+      generator.writeNumberField("duration", duration);
+    }
+    generator.writeStringField("description", appointment.getDescription());
+    final Recurrence recurrence = appointment.getRecurrence();
+    generator.writeStringField("recurrence",
+      recurrence == null ? null : recurrence.name());
+    final Date until = appointment.getRecurrenceUntil();
+    // The last day of the occurrences, as the request gives it.
+    generator.writeStringField("until", until == null ? null : until
+      .toInstant().minusMillis(1).atZone(zoneId).toLocalDate().toString());
+    generator.writeEndObject();
+  }
+
+  private static void writeAppointments(final JsonGenerator generator,
+    final List<Appointment> appointments, final ZoneId zoneId)
+    throws IOException {
+    generator.writeArrayFieldStart("appointments");
+    for (final Appointment appointment : appointments) {
+      writeAppointment(generator, appointment, zoneId);
+    }
+    generator.writeEndArray();
+  }
+
+  private static void writeNumber(final JsonGenerator generator,
+    final String fieldName, final Integer number) throws IOException {
+    if (number == null) {
+      generator.writeNullField(fieldName);
+    } else {
+      generator.writeNumberField(fieldName, number);
+    }
+  }
+
+  private static void writeCursor(final JsonGenerator generator,
+    final String fieldName, final AppointmentCursor cursor)
+    throws IOException {
+    if (cursor == null) {
+      generator.writeNullField(fieldName);
+    } else {
+      generator.writeStringField(fieldName, cursor.toString());
+    }
+  }
+
+}
@@ -0,0 +1,113 @@
+package appointments.standalone.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * <code>AppointmentPoolSizer</code> sizes the HikariCP connection pool from
+ * the cores of the database server, with the "tuned" profile.
+ * </p>
+ * <p>
+ * A PostgreSQL backend runs a query on one core, and a pool larger than the
+ * server can run at once only queues the queries in the server rather than in
+ * the pool while adding context switches; the pool is therefore given twice
+ * <code>appointments.datasource.cores</code> connections, plus one for a
+ * connection waiting on I/O, as HikariCP recommends. The pool is fixed in
+ * size, so that a burst of requests never waits for a connection to be
+ * opened. The cores default to those of this machine, for a database on the
+ * same host.
+ * </p>
+ * <p>
+ * An explicit <code>spring.datasource.hikari.maximum-pool-size</code> or
+ * <code>spring.datasource.hikari.minimum-idle</code> is kept.
+ * </p>
+ */
+@Component
+@Profile("tuned")
+public final class AppointmentPoolSizer implements BeanPostProcessor {
+
+  private static final String CORES_PROPERTY = "appointments.datasource.cores";
+  private static final String MAXIMUM_POOL_SIZE_PROPERTY =
+    "spring.datasource.hikari.maximum-pool-size";
+  private static final String MINIMUM_IDLE_PROPERTY =
+    "spring.datasource.hikari.minimum-idle";
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentPoolSizer.class);
+
+  private final Environment environment;
+
+  /**
+   * Creates a new instance of <code>AppointmentPoolSizer</code> using the
+   * specified <b>environment</b>.
+   *
+   * @param environment The <code>Environment</code> to read
+   *          <code>appointments.datasource.cores</code> and the pool
+   *          properties from. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>environment</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentPoolSizer(
+    @Autowired
+    final Environment environment
+  ) {
+    if (environment == null) {
+      throw new IllegalArgumentException("Illegal argument; no environment "
+        + "specified");
+    }
+    this.environment = environment;
+  }
+
+  /**
+   * Returns the size of the pool for a database server with <b>cores</b>
+   * cores.
+   *
+   * @param cores The number of cores of the database server. This must be
+   *          greater than zero.
+   *
+   * @return The size of the pool.
+   *
+   * @throws IllegalArgumentException If <b>cores</b> is not greater than
+   *          zero.
+   */
+  public static int getPoolSize(final int cores) {
+    if (cores < 1) {
+      final String message = String.format("Illegal argument; cores==%s",
+        cores);
+      throw new IllegalArgumentException(message);
+    }
+    return cores * 2 + 1;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(final Object bean,
+    final String beanName) {
+    if (!(bean instanceof HikariDataSource)) {
+      return bean;
+    }
+    final HikariDataSource dataSource = (HikariDataSource) bean;
+    final int cores = this.environment.getProperty(CORES_PROPERTY,
+      Integer.class, Runtime.getRuntime().availableProcessors());
+    final int poolSize = getPoolSize(cores);
+    if (!this.environment.containsProperty(MAXIMUM_POOL_SIZE_PROPERTY)) {
+      dataSource.setMaximumPoolSize(poolSize);
+    }
+    if (!this.environment.containsProperty(MINIMUM_IDLE_PROPERTY)) {
+      dataSource.setMinimumIdle(dataSource.getMaximumPoolSize());
+    }
+    LOGGER.info("postProcessAfterInitialization[cores=={}, "
+      + "maximumPoolSize=={}, minimumIdle=={}]", cores,
+      dataSource.getMaximumPoolSize(), dataSource.getMinimumIdle());
+    return dataSource;
+  }
+
+}
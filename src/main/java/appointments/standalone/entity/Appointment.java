@@ -1,44 +1,102 @@
 package appointments.standalone.entity;
 
-import java.text.SimpleDateFormat;
+import appointments.standalone.cache.AppointmentCacheConfiguration;
+import appointments.standalone.index.AppointmentIndexListener;
+import appointments.standalone.repository.AppointmentVersionListener;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
-import javax.persistence.Id;
-import javax.persistence.Table;
+import jakarta.persistence.Access;
+import jakarta.persistence.AccessType;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * <p>
  * <code>Appointment</code> is a business entity that can accessed via
  * {@link AppointmentController} and {@link AppointmentRepository}.
+ * </p>
+ * <p>
+ * The date of an appointment is an instant, held as epoch milliseconds and
+ * stored in a <code>TIMESTAMPTZ</code> column, so neither its value in memory
+ * nor in the database depends on a time zone; Hibernate binds it in UTC. Its
+ * time of day only has a meaning in the time zone it is formatted in, see
+ * {@link #getDateString(TimeZone)}.
+ * </p>
  * 
  * @see demo.nakedapp.controller.AppointmentController
  * @see demo.nakedapp.repository.AppointmentRepository
  */
 @Entity
+@Cacheable
+@Cache(
+  usage=CacheConcurrencyStrategy.READ_WRITE,
+  region=AppointmentCacheConfiguration.APPOINTMENT_REGION
+)
+@EntityListeners({
+  AppointmentVersionListener.class,
+  AppointmentIndexListener.class
+})
 @Table(name="appointments")
 public final class Appointment {
 
-  private static final SimpleDateFormat SIMPLE_DATE_FORMAT =
-    new SimpleDateFormat("dd/MM/yyyy HH':'mm z");
+  private static final DateTimeFormatter DATE_TIME_FORMATTER =
+    DateTimeFormatter.ofPattern("dd/MM/yyyy HH':'mm z");
 
   private static final Logger LOGGER =
     LoggerFactory.getLogger(Appointment.class);
 
+  /**
+   * The number of ids reserved by each call to <code>appointments_id_seq
+   * </code>; this must match the sequence's <code>INCREMENT BY</code>.
+   */
+  public static final int ID_ALLOCATION_SIZE = 50;
+
+  /**
+   * The longest duration of an appointment, in minutes.
+   */
+  public static final int MAX_DURATION = 24 * 60;
+
   @Id
   @GeneratedValue(
     strategy=GenerationType.SEQUENCE,
     generator="appointments_id_seq"
   )
+  @SequenceGenerator(
+    name="appointments_id_seq",
+    sequenceName="appointments_id_seq",
+    allocationSize=ID_ALLOCATION_SIZE
+  )
   private Long id;
   private String description;
-  private Date date;
+  @Transient
+  private long date;
+  private Integer duration;
+  @Enumerated(EnumType.STRING)
+  private Recurrence recurrence;
+  private String recurrenceZone;
+  private Date recurrenceUntil;
 
   /**
    * Creates a new instance of <code>Appointment</code>.
@@ -57,16 +115,240 @@ public final class Appointment {
    *          <b>description</b> is <code>null</code>, empty or whitespace only.
    */
   public Appointment(final Date date, final String description) {
-    if (date == null || StringUtils.isBlank(description)) {
+    this(date, null, description);
+  }
+
+  /**
+   * Creates a new instance of <code>Appointment</code> using the specified
+   * <b>date</b>, <b>duration</b> and <b>description</b>.
+   *
+   * @param date The date of the Appointment. This cannot be <code>null</code>.
+   * @param duration The length of the Appointment in minutes, between 1 and
+   *          {@link #MAX_DURATION}, or <code>null</code> if it only marks an
+   *          instant.
+   * @param description A description of the Appointment. This cannot be
+   *          <code>null</code>, empty or whitespace only.
+   *
+   * @throws IllegalArgumentException If <b>date</b> is <code>null</code>, if
+   *          <b>duration</b> is out of range or if <b>description</b> is
+   *          <code>null</code>, empty or whitespace only.
+   */
+  public Appointment(final Date date, final Integer duration,
+    final String description) {
+    this(date, duration, description, null, null, null);
+  }
+
+  /**
+   * Creates a new instance of <code>Appointment</code> using the specified
+   * <b>date</b>, <b>duration</b> and <b>description</b> that repeats by
+   * <b>recurrence</b> in <b>recurrenceZone</b> until <b>recurrenceUntil</b>.
+   *
+   * @param date The date of the Appointment, or of its first occurrence if it
+   *          recurs. This cannot be <code>null</code>.
+   * @param duration The length of the Appointment in minutes, between 1 and
+   *          {@link #MAX_DURATION}, or <code>null</code> if it only marks an
+   *          instant.
+   * @param description A description of the Appointment. This cannot be
+   *          <code>null</code>, empty or whitespace only.
+   * @param recurrence The rule by which the Appointment repeats, or
+   *          <code>null</code> if it does not.
+   * @param recurrenceZone The time zone the occurrences keep their time of
+   *          day in, normally that the Appointment was created in. This must
+   *          be <code>null</code> if and only if <b>recurrence</b> is
+   *          <code>null</code>.
+   * @param recurrenceUntil The exclusive end of the occurrences, or
+   *          <code>null</code> if they do not end. This must be
+   *          <code>null</code> if <b>recurrence</b> is <code>null</code>, and
+   *          otherwise after <b>date</b>.
+   *
+   * @throws IllegalArgumentException If <b>date</b> is <code>null</code>, if
+   *          <b>duration</b> is out of range, if <b>description</b> is
+   *          <code>null</code>, empty or whitespace only or if
+   *          <b>recurrenceZone</b> or <b>recurrenceUntil</b> is invalid.
+   */
+  public Appointment(final Date date, final Integer duration,
+    final String description, final Recurrence recurrence,
+    final ZoneId recurrenceZone, final Date recurrenceUntil) {
+    if (date == null || StringUtils.isBlank(description)
+      || (duration != null && (duration < 1 || duration > MAX_DURATION))
+      || (recurrence == null) != (recurrenceZone == null)
+      || (recurrenceUntil != null && (recurrence == null
+      || !recurrenceUntil.after(date)))) {
       final String message = String.format("Illegal argument; date==%s, "
-        + "description==%s");
+        + "duration==%s, description==%s, recurrence==%s, "
+        + "recurrenceZone==%s, recurrenceUntil==%s", date, duration,
+        description, recurrence, recurrenceZone, recurrenceUntil);
       throw new IllegalArgumentException(message);
     }
-    final String message = String.format("Appointment[date==%s, "
-      + "description=='%s']", date, description);
-    LOGGER.info(message);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Appointment[date=={}, duration=={}, description=='{}', "
+        + "recurrence=={}, recurrenceZone=={}, recurrenceUntil=={}]", date,
+        duration, description, recurrence, recurrenceZone, recurrenceUntil);
+    }
     this.description = description;
-    this.date = date;
+    this.date = date.getTime();
+    this.duration = duration;
+    this.recurrence = recurrence;
+    this.recurrenceZone =
+      recurrenceZone == null ? null : recurrenceZone.getId();
+    this.recurrenceUntil = recurrenceUntil;
+  }
+
+  /**
+   * Creates a new, detached instance of <code>Appointment</code> with the
+   * specified <b>id</b>, <b>date</b>, <b>duration</b> and <b>description</b>
+   * of an appointment that has already been persisted, such as one held in
+   * memory. The instance must not be persisted again.
+   *
+   * @param id The id of the persisted Appointment.
+   * @param date The date of the Appointment. This cannot be <code>null</code>.
+   * @param duration The length of the Appointment in minutes, or
+   *          <code>null</code>.
+   * @param description A description of the Appointment. This cannot be
+   *          <code>null</code>, empty or whitespace only.
+   *
+   * @throws IllegalArgumentException If <b>date</b> is <code>null</code>, if
+   *          <b>duration</b> is out of range or if <b>description</b> is
+   *          <code>null</code>, empty or whitespace only.
+   */
+  public Appointment(final long id, final Date date, final Integer duration,
+    final String description) {
+    this(date, duration, description);
+    this.id = id;
+  }
+
+  /**
+   * Returns the id of <i>this</i> instance of <code>Appointment</code>.
+   * 
+   * @return The id of <i>this</i> instance of <code>Appointment</code>, or
+   *          <code>null</code> if it has not been persisted.
+   */
+  public Long getId() {
+    return this.id;
+  }
+
+  /**
+   * Returns the date of <i>this</i> instance of <code>Appointment</code>.
+   * 
+   * @return A new <code>Date</code> of the date of <i>this</i> instance of
+   *          <code>Appointment</code>. This cannot be <code>null</code>.
+   *
+   * @see #getTime()
+   */
+  @Access(AccessType.PROPERTY)
+  @Column(name="date", nullable=false)
+  public Date getDate() {
+    return new Date(this.date);
+  }
+
+  /**
+   * Sets the date of <i>this</i> instance of <code>Appointment</code> as it is
+   * read from the database.
+   *
+   * @param date The date. This cannot be <code>null</code>.
+   */
+  protected void setDate(final Date date) {
+    this.date = date.getTime();
+  }
+
+  /**
+   * Returns the date of <i>this</i> instance of <code>Appointment</code>
+   * without allocating a <code>Date</code>.
+   *
+   * @return The date of <i>this</i> instance of <code>Appointment</code>, in
+   *          epoch milliseconds.
+   */
+  public long getTime() {
+    return this.date;
+  }
+
+  /**
+   * Returns the duration of <i>this</i> instance of <code>Appointment</code>.
+   *
+   * @return The length of <i>this</i> instance of <code>Appointment</code> in
+   *          minutes, or <code>null</code> if it only marks an instant.
+   */
+  public Integer getDuration() {
+    return this.duration;
+  }
+
+  /**
+   * Returns the end of <i>this</i> instance of <code>Appointment</code>.
+   *
+   * @return The date of <i>this</i> instance of <code>Appointment</code>
+   *          plus its duration, or its date if it has none. This cannot be
+   *          <code>null</code>.
+   */
+  public Date getEndDate() {
+    if (this.duration == null) {
+      return this.getDate();
+    }
+    return new Date(this.date + TimeUnit.MINUTES.toMillis(this.duration));
+  }
+
+  /**
+   * Returns the rule by which <i>this</i> instance of <code>Appointment</code>
+   * repeats.
+   *
+   * @return The rule by which <i>this</i> instance of <code>Appointment</code>
+   *          repeats, or <code>null</code> if it does not.
+   */
+  public Recurrence getRecurrence() {
+    return this.recurrence;
+  }
+
+  /**
+   * Returns the time zone the occurrences of <i>this</i> instance of
+   * <code>Appointment</code> are computed in.
+   *
+   * @return The time zone of the occurrences, or <code>null</code> if
+   *          <i>this</i> instance does not recur.
+   *
+   * @see Recurrence
+   */
+  public ZoneId getRecurrenceZone() {
+    return this.recurrenceZone == null ? null : ZoneId.of(this.recurrenceZone);
+  }
+
+  /**
+   * Returns the exclusive end of the occurrences of <i>this</i> instance of
+   * <code>Appointment</code>.
+   *
+   * @return A copy of the exclusive end of the occurrences, or
+   *          <code>null</code> if they do not end or <i>this</i> instance
+   *          does not recur.
+   */
+  public Date getRecurrenceUntil() {
+    return this.recurrenceUntil == null
+      ? null : new Date(this.recurrenceUntil.getTime());
+  }
+
+  /**
+   * Returns a new, detached instance of <code>Appointment</code> for the
+   * occurrence of <i>this</i> recurring instance at <b>date</b>. The
+   * occurrence has the id, duration, description and recurrence of
+   * <i>this</i> instance, and must not be persisted.
+   *
+   * @param date The date of the occurrence, in epoch milliseconds.
+   *
+   * @return The occurrence. This cannot be <code>null</code>.
+   *
+   * @throws IllegalStateException If <i>this</i> instance does not recur.
+   */
+  public Appointment getOccurrence(final long date) {
+    if (this.recurrence == null) {
+      throw new IllegalStateException(String.format("Illegal state; %s does "
+        + "not recur", this));
+    }
+    final Appointment occurrence = new Appointment();
+    occurrence.id = this.id;
+    occurrence.date = date;
+    occurrence.duration = this.duration;
+    occurrence.description = this.description;
+    occurrence.recurrence = this.recurrence;
+    occurrence.recurrenceZone = this.recurrenceZone;
+    occurrence.recurrenceUntil = this.recurrenceUntil;
+    return occurrence;
   }
 
   /**
@@ -78,9 +360,7 @@ public final class Appointment {
    *          or whitespace only.
    */
   public String getDescription() {
-    final String message = String.format("getDescription returns '%s'",
-      this.description);
-    LOGGER.info(message);
+    LOGGER.trace("getDescription returns '{}'", this.description);
     return this.description;
   }
 
@@ -103,13 +383,12 @@ public final class Appointment {
         timeZone);
       throw new IllegalArgumentException(message);
     }
-    String message = String.format("getDateString[timeZone=='%s']",
-      timeZone.getID());
-    LOGGER.info(message);
-    SIMPLE_DATE_FORMAT.setTimeZone(timeZone);
-    final String dateString = SIMPLE_DATE_FORMAT.format(this.date);
-    message = String.format("getDateString returns '%s'", dateString);
-    LOGGER.info(message);
+    final String dateString = DATE_TIME_FORMATTER.format(
+      Instant.ofEpochMilli(this.date).atZone(timeZone.toZoneId()));
+    if (LOGGER.isTraceEnabled()) {
+      LOGGER.trace("getDateString[timeZone=='{}'] returns '{}'",
+        timeZone.getID(), dateString);
+    }
     return dateString;
   }
 
@@ -120,8 +399,9 @@ public final class Appointment {
   public String toString() {
     final TimeZone utcTimeZone = TimeZone.getTimeZone("UTC");
     final String formattedDate = this.getDateString(utcTimeZone);
-    return String.format("Appointment[id=%d, date=%s, description='%s'",
-      this.id, formattedDate, this.description);
+    return String.format("Appointment[id=%d, date=%s, duration=%s, "
+      + "recurrence=%s, description='%s'", this.id, formattedDate,
+      this.duration, this.recurrence, this.description);
   }
 
 }
@@ -0,0 +1,110 @@
+package appointments.standalone.entity;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * <code>Recurrence</code> is the rule by which a recurring {@link Appointment}
+ * repeats.
+ * </p>
+ * <p>
+ * Occurrences are numbered from zero, the first being the date of the
+ * appointment, and are computed directly from their number rather than by
+ * stepping through the series, so that finding the occurrences within a range
+ * costs the same however far into the series the range is.
+ * </p>
+ * <p>
+ * Occurrences are computed in the time zone the series was created in, so
+ * that each keeps the time of day of the first across daylight saving
+ * changes; a time skipped by a change is moved forward by the length of the
+ * gap. A monthly appointment falls on the same day of each month as its first
+ * occurrence, or the last day of a shorter month. In a time zone with a fixed
+ * offset, daily and weekly occurrences are a fixed number of milliseconds
+ * apart and are computed without calendar arithmetic.
+ * </p>
+ *
+ * @see Appointment#getRecurrence()
+ */
+public enum Recurrence {
+
+  /**
+   * Repeats every day.
+   */
+  DAILY(ChronoUnit.DAYS, TimeUnit.DAYS.toMillis(1)),
+
+  /**
+   * Repeats every week.
+   */
+  WEEKLY(ChronoUnit.WEEKS, TimeUnit.DAYS.toMillis(7)),
+
+  /**
+   * Repeats every month.
+   */
+  MONTHLY(ChronoUnit.MONTHS, 0);
+
+  private final ChronoUnit unit;
+  private final long period;
+
+  private Recurrence(final ChronoUnit unit, final long period) {
+    this.unit = unit;
+    this.period = period;
+  }
+
+  /**
+   * Returns the date of occurrence <b>n</b> of a series starting at
+   * <b>start</b> in the time zone <b>zone</b>.
+   *
+   * @param start The date of the first occurrence, in epoch milliseconds.
+   * @param n The number of the occurrence. This cannot be negative.
+   * @param zone The time zone of the series. This cannot be
+   *          <code>null</code>.
+   *
+   * @return The date of the occurrence, in epoch milliseconds.
+   */
+  public long getOccurrence(final long start, final long n,
+    final ZoneId zone) {
+    if (this.period > 0 && zone.getRules().isFixedOffset()) {
+      return start + n * this.period;
+    }
+    return Instant.ofEpochMilli(start).atZone(zone).plus(n, this.unit)
+      .toInstant().toEpochMilli();
+  }
+
+  /**
+   * Returns the number of the first occurrence dated at or after <b>date</b>
+   * of a series starting at <b>start</b> in the time zone <b>zone</b>.
+   *
+   * @param start The date of the first occurrence, in epoch milliseconds.
+   * @param date The date, in epoch milliseconds.
+   * @param zone The time zone of the series. This cannot be
+   *          <code>null</code>.
+   *
+   * @return The number of the first occurrence at or after <b>date</b>, zero
+   *          if <b>date</b> is not after <b>start</b>.
+   */
+  public long getIndex(final long start, final long date, final ZoneId zone) {
+    if (date <= start) {
+      return 0;
+    }
+    if (this.period > 0 && zone.getRules().isFixedOffset()) {
+      return Math.floorDiv(date - start - 1, this.period) + 1;
+    }
+    // The calendar distance is within an occurrence of the answer either way.
+    final ZonedDateTime first = Instant.ofEpochMilli(start).atZone(zone);
+    final ZonedDateTime last = Instant.ofEpochMilli(date).atZone(zone);
+    long n = Math.max(0,
+      first.toLocalDate().until(last.toLocalDate(), this.unit) - 1);
+    while (n > 0 && this.getOccurrence(start, n - 1, zone) >= date) {
+      n--;
+    }
+    while (this.getOccurrence(start, n, zone) < date) {
+      n++;
+    }
+    return n;
+  }
+
+}
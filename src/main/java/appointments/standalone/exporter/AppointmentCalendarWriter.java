@@ -0,0 +1,290 @@
+package appointments.standalone.exporter;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+import appointments.standalone.repository.AppointmentStreamer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * <code>AppointmentCalendarWriter</code> writes {@link Appointment}s as the
+ * <code>VEVENT</code>s of an iCalendar (RFC 5545) <code>VCALENDAR</code>.
+ * </p>
+ * <p>
+ * Each event is identified by <code>&lt;id&gt;@appointments.standalone</code>
+ * so that calendar clients update rather than duplicate events on a repeated
+ * import; its start is written in UTC and its summary is the appointment's
+ * description. A recurring appointment is written once, with a rule that
+ * yields the same occurrences as its {@link Recurrence}: unless its time zone
+ * is UTC, its start is written in that time zone, described by a
+ * <code>VTIMEZONE</code> written before the first event to use it, so that
+ * calendar clients step the occurrences in the same local time. Lines are
+ * folded at 75 octets and end with CRLF.
+ * </p>
+ * <p>
+ * A <code>VTIMEZONE</code> lists the transitions of its time zone from 1970
+ * to 2100 as they are known to the JVM, rather than rules, so that past
+ * changes to a zone's rules are described too.
+ * </p>
+ *
+ * @see AppointmentStreamer
+ */
+public final class AppointmentCalendarWriter
+  implements AppointmentStreamer.Callback {
+
+  private static final String CRLF = "\r\n";
+  private static final int MAX_LINE_OCTETS = 75;
+  private static final String UID_DOMAIN = "@appointments.standalone";
+  private static final int MIN_MONTH_DAYS = 28;
+
+  private static final DateTimeFormatter DATE_TIME_FORMATTER =
+    DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+      .withZone(ZoneOffset.UTC);
+
+  private static final DateTimeFormatter LOCAL_DATE_TIME_FORMATTER =
+    DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+  private static final DateTimeFormatter OFFSET_FORMATTER =
+    DateTimeFormatter.ofPattern("xx");
+
+  private static final LocalDateTime FIRST_TRANSITION =
+    LocalDateTime.of(1970, 1, 1, 0, 0);
+
+  private static final Instant LAST_TRANSITION =
+    Instant.parse("2100-01-01T00:00:00Z");
+
+  private final Writer writer;
+
+  private final String timestamp;
+
+  private final Set<ZoneId> timeZones = new HashSet<>();
+
+  /**
+   * Creates a new instance of <code>AppointmentCalendarWriter</code> writing
+   * to the specified <b>writer</b> and writes the start of the calendar.
+   *
+   * @param writer The <code>Writer</code> to write to. This cannot be
+   *          <code>null</code>.
+   * @param timestamp The instant the calendar is created at, written as the
+   *          <code>DTSTAMP</code> of every event. This cannot be
+   *          <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>writer</b> or <b>timestamp</b> is
+   *          <code>null</code>.
+   * @throws IOException If the start of the calendar cannot be written.
+   */
+  public AppointmentCalendarWriter(final Writer writer,
+    final Instant timestamp) throws IOException {
+    if (writer == null || timestamp == null) {
+      final String message = String.format("Illegal argument; "
+        + "writer=={%s}, timestamp==%s", writer != null, timestamp);
+      throw new IllegalArgumentException(message);
+    }
+    this.writer = writer;
+    this.timestamp = DATE_TIME_FORMATTER.format(timestamp);
+    this.writeLine("BEGIN:VCALENDAR");
+    this.writeLine("VERSION:2.0");
+    this.writeLine("PRODID:-//AppointmentsStandalone//Appointments//EN");
+    this.writeLine("CALSCALE:GREGORIAN");
+  }
+
+  /**
+   * Writes <b>appointment</b> as a <code>VEVENT</code>, with a
+   * <code>DURATION</code> if it has one and an <code>RRULE</code> if it
+   * recurs.
+   *
+   * @param appointment The <code>Appointment</code> to write. This cannot be
+   *          <code>null</code>.
+   *
+   * @throws IOException If the event cannot be written.
+   */
+  @Override
+  public void accept(final Appointment appointment) throws IOException {
+    final ZoneId zone = getZone(appointment);
+    if (zone != null && this.timeZones.add(zone)) {
+      this.writeTimeZone(zone);
+    }
+    this.writeLine("BEGIN:VEVENT");
+    this.writeLine("UID:" + appointment.getId() + UID_DOMAIN);
+    this.writeLine("DTSTAMP:" + this.timestamp);
+    final Instant start = Instant.ofEpochMilli(appointment.getTime());
+    if (zone == null) {
+      this.writeLine("DTSTART:" + DATE_TIME_FORMATTER.format(start));
+    } else {
+      this.writeLine("DTSTART;TZID=" + zone.getId() + ":"
+        + LOCAL_DATE_TIME_FORMATTER.format(start.atZone(zone)));
+    }
+    if (appointment.getDuration() != null) {
+      this.writeLine("DURATION:PT" + appointment.getDuration() + "M");
+    }
+    if (appointment.getRecurrence() != null) {
+      this.writeLine("RRULE:" + recurrenceRule(appointment));
+    }
+    this.writeLine("SUMMARY:" + escape(appointment.getDescription()));
+    this.writeLine("END:VEVENT");
+  }
+
+  /**
+   * Writes the end of the calendar and flushes the underlying
+   * <code>Writer</code>.
+   *
+   * @throws IOException If the end of the calendar cannot be written.
+   */
+  public void close() throws IOException {
+    this.writeLine("END:VCALENDAR");
+    this.writer.flush();
+  }
+
+  // Writes zone as its offsets from 1970 and a STANDARD or DAYLIGHT
+  // observance for each kind of transition, listing its dates.
+  private void writeTimeZone(final ZoneId zone) throws IOException {
+    final ZoneRules rules = zone.getRules();
+    final ZoneOffset initial = rules.getOffset(FIRST_TRANSITION);
+    final Map<String, List<ZoneOffsetTransition>> observances =
+      new LinkedHashMap<>();
+    ZoneOffsetTransition transition =
+      rules.nextTransition(FIRST_TRANSITION.toInstant(initial));
+    while (transition != null
+      && transition.getInstant().isBefore(LAST_TRANSITION)) {
+      final String name = rules.isDaylightSavings(transition.getInstant())
+        ? "DAYLIGHT" : "STANDARD";
+      observances.computeIfAbsent(name + transition.getOffsetBefore()
+        + transition.getOffsetAfter(), key -> new ArrayList<>())
+        .add(transition);
+      transition = rules.nextTransition(transition.getInstant());
+    }
+    this.writeLine("BEGIN:VTIMEZONE");
+    this.writeLine("TZID:" + zone.getId());
+    this.writeObservance("STANDARD", FIRST_TRANSITION, initial, initial,
+      null);
+    for (final List<ZoneOffsetTransition> transitions
+      : observances.values()) {
+      final ZoneOffsetTransition first = transitions.get(0);
+      final StringBuilder dates = new StringBuilder();
+      for (final ZoneOffsetTransition next
+        : transitions.subList(1, transitions.size())) {
+        dates.append(dates.length() == 0 ? "" : ",").append(
+          LOCAL_DATE_TIME_FORMATTER.format(next.getDateTimeBefore()));
+      }
+      this.writeObservance(
+        rules.isDaylightSavings(first.getInstant()) ? "DAYLIGHT" : "STANDARD",
+        first.getDateTimeBefore(), first.getOffsetBefore(),
+        first.getOffsetAfter(), dates.length() == 0 ? null : dates.toString());
+    }
+    this.writeLine("END:VTIMEZONE");
+  }
+
+  private void writeObservance(final String name, final LocalDateTime start,
+    final ZoneOffset offsetFrom, final ZoneOffset offsetTo,
+    final String dates) throws IOException {
+    this.writeLine("BEGIN:" + name);
+    this.writeLine("DTSTART:" + LOCAL_DATE_TIME_FORMATTER.format(start));
+    if (dates != null) {
+      this.writeLine("RDATE:" + dates);
+    }
+    this.writeLine("TZOFFSETFROM:" + OFFSET_FORMATTER.format(offsetFrom));
+    this.writeLine("TZOFFSETTO:" + OFFSET_FORMATTER.format(offsetTo));
+    this.writeLine("END:" + name);
+  }
+
+  private void writeLine(final String line) throws IOException {
+    int octets = 0;
+    int index = 0;
+    while (index < line.length()) {
+      final int codePoint = line.codePointAt(index);
+      final int length = utf8Length(codePoint);
+      if (octets + length > MAX_LINE_OCTETS) {
+        this.writer.write(CRLF);
+        this.writer.write(' ');
+        octets = 1;
+      }
+      this.writer.write(line, index, Character.charCount(codePoint));
+      octets += length;
+      index += Character.charCount(codePoint);
+    }
+    this.writer.write(CRLF);
+  }
+
+  private static int utf8Length(final int codePoint) {
+    if (codePoint < 0x80) {
+      return 1;
+    }
+    if (codePoint < 0x800) {
+      return 2;
+    }
+    if (codePoint < 0x10000) {
+      return 3;
+    }
+    return 4;
+  }
+
+  private static String escape(final String text) {
+    final StringBuilder builder = new StringBuilder(text.length());
+    for (int index = 0; index < text.length(); index++) {
+      final char character = text.charAt(index);
+      switch (character) {
+        case '\\':
+        case ';':
+        case ',':
+          builder.append('\\').append(character);
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        case '\r':
+          break;
+        default:
+          builder.append(character);
+      }
+    }
+    return builder.toString();
+  }
+
+  // The time zone to write the start of appointment in, or null for UTC.
+  private static ZoneId getZone(final Appointment appointment) {
+    final ZoneId zone = appointment.getRecurrenceZone();
+    if (zone == null || (zone.getRules().isFixedOffset()
+      && zone.getRules().getOffset(Instant.EPOCH).equals(ZoneOffset.UTC))) {
+      return null;
+    }
+    return zone;
+  }
+
+  private static String recurrenceRule(final Appointment appointment) {
+    final Recurrence recurrence = appointment.getRecurrence();
+    final StringBuilder rule = new StringBuilder("FREQ=")
+      .append(recurrence.name());
+    final int day = Instant.ofEpochMilli(appointment.getTime())
+      .atZone(appointment.getRecurrenceZone()).getDayOfMonth();
+    if (recurrence == Recurrence.MONTHLY && day > MIN_MONTH_DAYS) {
+      // RFC 5545 skips months without the day; take the last day instead.
+      rule.append(";BYMONTHDAY=").append(MIN_MONTH_DAYS);
+      for (int monthDay = MIN_MONTH_DAYS + 1; monthDay <= day; monthDay++) {
+        rule.append(',').append(monthDay);
+      }
+      rule.append(";BYSETPOS=-1");
+    }
+    if (appointment.getRecurrenceUntil() != null) {
+      // UNTIL is inclusive.
+      rule.append(";UNTIL=").append(DATE_TIME_FORMATTER.format(
+        appointment.getRecurrenceUntil().toInstant().minusSeconds(1)));
+    }
+    return rule.toString();
+  }
+
+}
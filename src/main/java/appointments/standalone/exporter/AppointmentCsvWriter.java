@@ -0,0 +1,94 @@
+package appointments.standalone.exporter;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.repository.AppointmentStreamer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+/**
+ * <p>
+ * <code>AppointmentCsvWriter</code> writes {@link Appointment}s as CSV
+ * records of <code>date,timeZone,description</code>, the date being the local
+ * date and time in a given time zone.
+ * </p>
+ * <p>
+ * This is the format read by
+ * {@link appointments.standalone.importer.AppointmentCsvImporter}, so an
+ * export can be imported again, but only the dates and descriptions are
+ * kept: durations are not written, and each occurrence of a recurring
+ * appointment is written, and imported, as a one-off appointment, see
+ * {@link AppointmentStreamer#forEachOccurrence(
+ * appointments.standalone.repository.AppointmentRange,
+ * AppointmentStreamer.Callback)}.
+ * </p>
+ *
+ * @see appointments.standalone.importer.AppointmentCsvImporter
+ * @see AppointmentStreamer
+ */
+public final class AppointmentCsvWriter
+  implements AppointmentStreamer.Callback {
+
+  private static final DateTimeFormatter DATE_TIME_FORMATTER =
+    DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+  private final CSVPrinter printer;
+
+  private final ZoneId zoneId;
+
+  /**
+   * Creates a new instance of <code>AppointmentCsvWriter</code> writing to
+   * the specified <b>writer</b> and writes the header record.
+   *
+   * @param writer The <code>Writer</code> to write to. This cannot be
+   *          <code>null</code>.
+   * @param zoneId The time zone to write dates in. This cannot be
+   *          <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>writer</b> or <b>zoneId</b> is
+   *          <code>null</code>.
+   * @throws IOException If the header cannot be written.
+   */
+  public AppointmentCsvWriter(final Writer writer, final ZoneId zoneId)
+    throws IOException {
+    if (writer == null || zoneId == null) {
+      final String message = String.format("Illegal argument; "
+        + "writer=={%s}, zoneId==%s", writer != null, zoneId);
+      throw new IllegalArgumentException(message);
+    }
+    this.printer = new CSVPrinter(writer, CSVFormat.DEFAULT
+      .withHeader("date", "timeZone", "description"));
+    this.zoneId = zoneId;
+  }
+
+  /**
+   * Writes <b>appointment</b> as a CSV record.
+   *
+   * @param appointment The <code>Appointment</code> to write. This cannot be
+   *          <code>null</code>.
+   *
+   * @throws IOException If the record cannot be written.
+   */
+  @Override
+  public void accept(final Appointment appointment) throws IOException {
+    this.printer.printRecord(DATE_TIME_FORMATTER.format(
+      Instant.ofEpochMilli(appointment.getTime()).atZone(this.zoneId)),
+      this.zoneId.getId(), appointment.getDescription());
+  }
+
+  /**
+   * Flushes the records written to the underlying <code>Writer</code>.
+   *
+   * @throws IOException If the records cannot be flushed.
+   */
+  public void flush() throws IOException {
+    this.printer.flush();
+  }
+
+}
@@ -0,0 +1,324 @@
+package appointments.standalone.importer;
+
+import appointments.standalone.cache.AppointmentCaches;
+import appointments.standalone.repository.AppointmentRange;
+import appointments.standalone.repository.AppointmentVersion;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.lang3.StringUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * <code>AppointmentCsvImporter</code> loads appointments from CSV into the
+ * <code>appointments</code> table with PostgreSQL's <code>COPY</code>, through
+ * the driver's <code>CopyManager</code>.
+ * </p>
+ * <p>
+ * Each record holds a local date and time
+ * (<code>yyyy-MM-ddTHH:mm[:ss]</code>), a time zone ID and a description, for
+ * example <code>2019-07-05T13:20,Europe/London,"Dentist, annual"</code>; a
+ * first record starting with <code>date</code> is taken as a header. Records
+ * are read and validated one at a time and valid ones are copied in chunks of
+ * <b>chunkSize</b>, so memory use does not depend on the size of the file.
+ * </p>
+ * <p>
+ * An invalid record is logged and rejected without interrupting the import.
+ * Each chunk is committed on its own. A chunk refused by the database, for
+ * example by a constraint, is split in halves that are copied in turn, and
+ * so on down to single records, so that only the records the database
+ * refuses are logged and rejected; a chunk with one such record takes some
+ * <code>2 log2(chunkSize)</code> more copies. Progress is logged after every
+ * chunk.
+ * </p>
+ *
+ * @see AppointmentImportResult
+ * @see AppointmentImportRunner
+ */
+@Component
+public final class AppointmentCsvImporter {
+
+  /**
+   * The statement each chunk is copied with; ids are taken from the column
+   * default.
+   */
+  static final String COPY_SQL = "COPY appointments (date, description) "
+    + "FROM STDIN WITH (FORMAT csv)";
+
+  private static final int FIELDS = 3;
+  private static final int MAX_DESCRIPTION_LENGTH = 255;
+  private static final String HEADER = "date";
+
+  private static final CSVFormat COPY_FORMAT =
+    CSVFormat.DEFAULT.withRecordSeparator('\n');
+
+  private static final DateTimeFormatter DATE_TIME_FORMATTER =
+    DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+  private static final DateTimeFormatter TIMESTAMP_FORMATTER =
+    DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSxxx");
+
+  private final DataSource dataSource;
+
+  private final AppointmentVersion appointmentVersion;
+
+  private final AppointmentCaches appointmentCaches;
+
+  private final int chunkSize;
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentCsvImporter.class);
+
+  /**
+   * Creates a new instance of <code>AppointmentCsvImporter</code> using the
+   * specified <b>dataSource</b>, <b>appointmentVersion</b>,
+   * <b>appointmentCaches</b> and <b>chunkSize</b>.
+   *
+   * @param dataSource The <code>DataSource</code> of the PostgreSQL database
+   *          to import into. This cannot be <code>null</code>.
+   * @param appointmentVersion The {@link AppointmentVersion} to increment
+   *          after each chunk copied; <code>COPY</code> bypasses the JPA
+   *          listener that increments it otherwise. This cannot be
+   *          <code>null</code>.
+   * @param appointmentCaches The {@link AppointmentCaches} to evict after
+   *          each chunk copied, for the same reason. This cannot be
+   *          <code>null</code>.
+   * @param chunkSize The number of records to copy at a time; this is mapped
+   *          to the <code>appointments.import.chunk-size</code> property, if
+   *          the property is not provided this will default to "10000". This
+   *          must be greater than zero.
+   *
+   * @throws IllegalArgumentException If <b>dataSource</b>,
+   *          <b>appointmentVersion</b> or <b>appointmentCaches</b> is
+   *          <code>null</code> or if <b>chunkSize</b> is less than one.
+   */
+  public AppointmentCsvImporter(
+    @Autowired
+    final DataSource dataSource,
+    @Autowired
+    final AppointmentVersion appointmentVersion,
+    @Autowired
+    final AppointmentCaches appointmentCaches,
+    @Value("${appointments.import.chunk-size:10000}")
+    final int chunkSize
+  ) {
+    if (dataSource == null || appointmentVersion == null
+      || appointmentCaches == null || chunkSize < 1) {
+      final String message = String.format("Illegal argument; "
+        + "dataSource=={%s}, appointmentVersion=={%s}, "
+        + "appointmentCaches=={%s}, chunkSize==%d", dataSource != null,
+        appointmentVersion != null, appointmentCaches != null, chunkSize);
+      throw new IllegalArgumentException(message);
+    }
+    LOGGER.info("AppointmentCsvImporter[chunkSize=={}]", chunkSize);
+    this.dataSource = dataSource;
+    this.appointmentVersion = appointmentVersion;
+    this.appointmentCaches = appointmentCaches;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Imports the appointments of the CSV read from <b>reader</b>.
+   *
+   * @param reader The CSV to import. This cannot be <code>null</code>.
+   *
+   * @return The outcome of the import. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>reader</b> is <code>null</code>.
+   * @throws IOException If <b>reader</b> cannot be read or is not well formed
+   *          CSV; chunks copied before the error remain imported.
+   * @throws SQLException If a connection to the database cannot be obtained.
+   */
+  public AppointmentImportResult importCsv(final Reader reader)
+    throws IOException, SQLException {
+    if (reader == null) {
+      throw new IllegalArgumentException("Illegal argument; no reader "
+        + "specified");
+    }
+    try (final Connection connection = this.dataSource.getConnection()) {
+      final CopyManager copyManager =
+        connection.unwrap(PGConnection.class).getCopyAPI();
+      return this.importCsv(reader, copyManager);
+    }
+  }
+
+  /**
+   * Imports the appointments of the CSV read from <b>reader</b> with the
+   * specified <b>copyManager</b>.
+   *
+   * @param reader The CSV to import.
+   * @param copyManager The <code>CopyManager</code> of the connection to
+   *          import with.
+   *
+   * @return The outcome of the import.
+   *
+   * @throws IOException If <b>reader</b> cannot be read or is not well formed
+   *          CSV.
+   */
+  AppointmentImportResult importCsv(final Reader reader,
+    final CopyManager copyManager) throws IOException {
+    final Import current = new Import(copyManager);
+    try (final CSVParser parser = CSVFormat.DEFAULT.parse(reader)) {
+      for (final CSVRecord record : parser) {
+        current.add(record);
+      }
+    } catch (final IllegalStateException e) {
+      current.copy();
+      throw new IOException("Malformed CSV after " + current.records
+        + " records", e);
+    }
+    current.copy();
+    final AppointmentImportResult result = current.result();
+    LOGGER.info("importCsv returns {}", result);
+    return result;
+  }
+
+  private final class Import {
+
+    private final CopyManager copyManager;
+    private final StringBuilder chunk = new StringBuilder();
+    private final CSVPrinter printer;
+    // The offset in the chunk of each row, followed by the chunk's length,
+    // and the number of the record each row was read from.
+    private final int[] offsets =
+      new int[AppointmentCsvImporter.this.chunkSize + 1];
+    private final long[] recordNumbers =
+      new long[AppointmentCsvImporter.this.chunkSize];
+    private final long start = System.nanoTime();
+
+    private long records;
+    private int chunkRows;
+    private long imported;
+    private long rejected;
+
+    private Import(final CopyManager copyManager) throws IOException {
+      this.copyManager = copyManager;
+      this.printer = new CSVPrinter(this.chunk, COPY_FORMAT);
+    }
+
+    private void add(final CSVRecord record) throws IOException {
+      this.records = record.getRecordNumber();
+      if (this.records == 1 && record.size() > 0
+        && HEADER.equalsIgnoreCase(StringUtils.trim(record.get(0)))) {
+        return;
+      }
+      final String timestamp;
+      try {
+        timestamp = parseRecord(record);
+      } catch (final IllegalArgumentException | DateTimeException e) {
+        this.rejected++;
+        LOGGER.warn("Rejected record {}: {}", this.records, e.getMessage());
+        return;
+      }
+      this.offsets[this.chunkRows] = this.chunk.length();
+      this.recordNumbers[this.chunkRows] = this.records;
+      this.printer.printRecord(timestamp, record.get(2));
+      if (++this.chunkRows == AppointmentCsvImporter.this.chunkSize) {
+        this.copy();
+      }
+    }
+
+    private void copy() {
+      if (this.chunkRows == 0) {
+        return;
+      }
+      this.offsets[this.chunkRows] = this.chunk.length();
+      final long imported = this.imported;
+      this.copy(0, this.chunkRows);
+      if (this.imported > imported) {
+        AppointmentCsvImporter.this.appointmentVersion.increment();
+        AppointmentCsvImporter.this.appointmentCaches.evict();
+      }
+      this.chunk.setLength(0);
+      this.chunkRows = 0;
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("Imported {} appointments, rejected {}, {} rows/s",
+          this.imported, this.rejected, this.result().getRowsPerSecond());
+      }
+    }
+
+    // Copies the rows [from, to) of the chunk, splitting them in halves while
+    // the database refuses them.
+    private void copy(final int from, final int to) {
+      try {
+        this.imported += this.copyManager.copyIn(COPY_SQL, new StringReader(
+          this.chunk.substring(this.offsets[from], this.offsets[to])));
+      } catch (final SQLException e) {
+        if (to - from == 1) {
+          this.rejected++;
+          LOGGER.warn("Rejected record {}: {}", this.recordNumbers[from],
+            e.getMessage());
+          return;
+        }
+        final int middle = (from + to) >>> 1;
+        this.copy(from, middle);
+        this.copy(middle, to);
+      } catch (final IOException e) {
+        this.rejected += to - from;
+        LOGGER.warn("Rejected records {} to {}: {}", this.recordNumbers[from],
+          this.recordNumbers[to - 1], e.getMessage());
+      }
+    }
+
+    private AppointmentImportResult result() {
+      final long elapsedMillis = TimeUnit.NANOSECONDS
+        .toMillis(System.nanoTime() - this.start);
+      return new AppointmentImportResult(this.imported, this.rejected,
+        elapsedMillis);
+    }
+
+  }
+
+  // Validates the record and returns its date as a TIMESTAMPTZ literal in UTC,
+  // as Hibernate writes Appointment dates.
+  private static String parseRecord(final CSVRecord record) {
+    if (record.size() != FIELDS) {
+      final String message = String.format("Illegal argument; fields==%d",
+        record.size());
+      throw new IllegalArgumentException(message);
+    }
+    final String description = record.get(2);
+    if (StringUtils.isBlank(description)
+      || description.length() > MAX_DESCRIPTION_LENGTH) {
+      final String message = String.format("Illegal argument; "
+        + "description==%s", description);
+      throw new IllegalArgumentException(message);
+    }
+    final LocalDateTime localDateTime = LocalDateTime.parse(
+      StringUtils.trim(record.get(0)), DATE_TIME_FORMATTER);
+    final ZoneId zoneId = ZoneId.of(StringUtils.trim(record.get(1)));
+    final Instant instant = localDateTime.atZone(zoneId).toInstant();
+    final long date = instant.toEpochMilli();
+    if (date < AppointmentRange.MIN_DATE
+      || date >= AppointmentRange.MAX_DATE) {
+      final String message = String.format("Illegal argument; date==%s",
+        instant);
+      throw new IllegalArgumentException(message);
+    }
+    return TIMESTAMP_FORMATTER.format(instant.atOffset(ZoneOffset.UTC));
+  }
+
+}
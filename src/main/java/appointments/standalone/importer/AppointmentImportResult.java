@@ -0,0 +1,78 @@
+package appointments.standalone.importer;
+
+/**
+ * <p>
+ * <code>AppointmentImportResult</code> is the immutable outcome of an import
+ * by {@link AppointmentCsvImporter}.
+ * </p>
+ *
+ * @see AppointmentCsvImporter
+ */
+public final class AppointmentImportResult {
+
+  private final long imported;
+  private final long rejected;
+  private final long elapsedMillis;
+
+  /**
+   * Creates a new instance of <code>AppointmentImportResult</code>.
+   *
+   * @param imported The number of appointments written to the database.
+   * @param rejected The number of rows rejected, either as invalid or as part
+   *          of a chunk the database refused.
+   * @param elapsedMillis The duration of the import, in milliseconds.
+   */
+  public AppointmentImportResult(final long imported, final long rejected,
+    final long elapsedMillis) {
+    this.imported = imported;
+    this.rejected = rejected;
+    this.elapsedMillis = elapsedMillis;
+  }
+
+  /**
+   * Returns the number of appointments written to the database.
+   *
+   * @return The number of appointments written to the database.
+   */
+  public long getImported() {
+    return this.imported;
+  }
+
+  /**
+   * Returns the number of rows rejected.
+   *
+   * @return The number of rows rejected.
+   */
+  public long getRejected() {
+    return this.rejected;
+  }
+
+  /**
+   * Returns the duration of the import, in milliseconds.
+   *
+   * @return The duration of the import, in milliseconds.
+   */
+  public long getElapsedMillis() {
+    return this.elapsedMillis;
+  }
+
+  /**
+   * Returns the number of appointments written per second.
+   *
+   * @return The number of appointments written per second.
+   */
+  public long getRowsPerSecond() {
+    return this.imported * 1000L / Math.max(this.elapsedMillis, 1L);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return String.format("AppointmentImportResult[imported=%d, rejected=%d, "
+      + "elapsedMillis=%d, rowsPerSecond=%d]", this.imported, this.rejected,
+      this.elapsedMillis, this.getRowsPerSecond());
+  }
+
+}
@@ -0,0 +1,92 @@
+package appointments.standalone.importer;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * <code>AppointmentImportRunner</code> imports a CSV file of appointments with
+ * {@link AppointmentCsvImporter} when the application is started with the
+ * <code>appointments.import.file</code> property, for example:
+ * </p>
+ * <pre>
+ * ./mvnw spring-boot:run -Dspring-boot.run.arguments=\
+ *   --appointments.import.file=appointments.csv,\
+ *   --spring.main.web-application-type=none
+ * </pre>
+ * <p>
+ * Without a web server the application exits once the import is complete.
+ * </p>
+ *
+ * @see AppointmentCsvImporter
+ */
+@Component
+@ConditionalOnProperty("appointments.import.file")
+public final class AppointmentImportRunner implements CommandLineRunner {
+
+  private final AppointmentCsvImporter appointmentCsvImporter;
+
+  private final Path file;
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentImportRunner.class);
+
+  /**
+   * Creates a new instance of <code>AppointmentImportRunner</code> using the
+   * specified <b>appointmentCsvImporter</b> and <b>file</b>.
+   *
+   * @param appointmentCsvImporter An instance of
+   *          {@link AppointmentCsvImporter}. This cannot be
+   *          <code>null</code>.
+   * @param file The path of the UTF-8 CSV file to import; this is mapped to
+   *          the <code>appointments.import.file</code> property. This cannot
+   *          be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentCsvImporter</b> or
+   *          <b>file</b> is <code>null</code>.
+   */
+  public AppointmentImportRunner(
+    @Autowired
+    final AppointmentCsvImporter appointmentCsvImporter,
+    @Value("${appointments.import.file}")
+    final String file
+  ) {
+    if (appointmentCsvImporter == null || file == null) {
+      final String message = String.format("Illegal argument; "
+        + "appointmentCsvImporter=={%s}, file==%s",
+        appointmentCsvImporter != null, file);
+      throw new IllegalArgumentException(message);
+    }
+    this.appointmentCsvImporter = appointmentCsvImporter;
+    this.file = Paths.get(file);
+  }
+
+  /**
+   * Imports the file.
+   *
+   * @param args The command line arguments; these are ignored.
+   *
+   * @throws Exception If the file cannot be read or the database cannot be
+   *          reached.
+   */
+  @Override
+  public void run(final String... args) throws Exception {
+    LOGGER.info("Importing appointments from {}", this.file);
+    try (final Reader reader =
+      Files.newBufferedReader(this.file, StandardCharsets.UTF_8)) {
+      this.appointmentCsvImporter.importCsv(reader);
+    }
+  }
+
+}
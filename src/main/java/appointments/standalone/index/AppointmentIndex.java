@@ -0,0 +1,671 @@
+package appointments.standalone.index;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.repository.AppointmentOccurrences;
+import appointments.standalone.repository.AppointmentRange;
+import appointments.standalone.repository.AppointmentSource;
+import appointments.standalone.repository.AppointmentStreamer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * <code>AppointmentIndex</code> holds every {@link Appointment} in memory,
+ * sorted by <code>(date, id)</code>, so that listings, range queries and
+ * counts can be answered without the database; pages are read from it, as
+ * an {@link AppointmentSource}, by
+ * {@link appointments.standalone.repository.AppointmentPager}. It is enabled
+ * by the <code>appointments.index.enabled</code> property.
+ * </p>
+ * <p>
+ * Appointments are stored column by column rather than as objects: the
+ * epoch-millisecond dates and the ids in <code>long</code> arrays, the
+ * durations in a <code>short</code> array, and the descriptions as UTF-8 in a
+ * single <code>byte</code> array addressed by offset and length. A row costs
+ * 24 bytes plus its description, and
+ * <code>Appointment</code>s are only created for the rows of a page.
+ * Recurring appointments are few and are held as objects in a separate list;
+ * their occurrences are never stored.
+ * </p>
+ * <p>
+ * An appointment dated after the last row is appended to the rows. An earlier
+ * one would have to shift every later row, under the write lock that every
+ * reader waits on, so it is inserted into a separate, sorted buffer of at
+ * most <code>appointments.index.pending-size</code> rows instead, which reads
+ * merge with the rows. Once full, the buffer is merged into the rows in one
+ * pass that moves each row after its earliest appointment once: an insert
+ * costs a shift of the buffer, and the rows are shifted once per buffer
+ * rather than once per insert.
+ * </p>
+ * <p>
+ * The index is loaded once the application is ready and is kept up to date by
+ * {@link AppointmentIndexListener}, which adds every appointment persisted
+ * through JPA once its transaction commits. Appointments are never updated or
+ * deleted, so the index only supports inserts. Until it is loaded,
+ * {@link #isLoaded()} is <code>false</code> and callers should read from the
+ * database instead.
+ * </p>
+ *
+ * @see AppointmentIndexListener
+ * @see appointments.standalone.repository.AppointmentPager
+ * @see appointments.standalone.repository.AppointmentSource
+ */
+@Component
+@ConditionalOnProperty(name="appointments.index.enabled", havingValue="true")
+public final class AppointmentIndex implements AppointmentSource {
+
+  private final AppointmentStreamer appointmentStreamer;
+
+  private final int pendingSize;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Rows rows;
+  private final Rows pending;
+  private final List<Appointment> series = new ArrayList<>();
+
+  private volatile boolean loaded;
+
+  private static final Comparator<Appointment> SERIES_ORDER =
+    Comparator.comparing(Appointment::getDate)
+      .thenComparing(Appointment::getId);
+  private static final short NO_DURATION = 0;
+  private static final long MAX_DURATION_MILLIS =
+    TimeUnit.MINUTES.toMillis(Appointment.MAX_DURATION);
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentIndex.class);
+
+  /**
+   * Creates a new, empty instance of <code>AppointmentIndex</code> that loads
+   * appointments with the specified <b>appointmentStreamer</b>.
+   *
+   * @param appointmentStreamer An instance of {@link AppointmentStreamer}.
+   *          This cannot be <code>null</code>.
+   * @param pendingSize The maximum number of appointments dated before the
+   *          last row to buffer before they are merged into the rows; this is
+   *          mapped to the <code>appointments.index.pending-size</code>
+   *          property, if the property is not provided this will default to
+   *          "4096". This must be positive.
+   *
+   * @throws IllegalArgumentException If <b>appointmentStreamer</b> is
+   *          <code>null</code> or <b>pendingSize</b> is not positive.
+   */
+  public AppointmentIndex(
+    @Autowired
+    final AppointmentStreamer appointmentStreamer,
+    @Value("${appointments.index.pending-size:4096}")
+    final int pendingSize
+  ) {
+    if (appointmentStreamer == null || pendingSize < 1) {
+      final String message = String.format("Illegal argument; "
+        + "appointmentStreamer=={%s}, pendingSize==%d",
+        appointmentStreamer != null, pendingSize);
+      throw new IllegalArgumentException(message);
+    }
+    LOGGER.info("AppointmentIndex[appointmentStreamer, pendingSize=={}]",
+      pendingSize);
+    this.appointmentStreamer = appointmentStreamer;
+    this.pendingSize = pendingSize;
+    this.rows = new Rows(INITIAL_CAPACITY);
+    this.pending = new Rows(Math.min(pendingSize, INITIAL_CAPACITY));
+  }
+
+  /**
+   * <p>
+   * Loads every appointment from the database into <i>this</i> index.
+   * </p>
+   * <p>
+   * This is invoked once the application is ready, after any import run at
+   * startup. Appointments added while loading are not duplicated.
+   * </p>
+   *
+   * @throws IOException If the appointments cannot be read.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() throws IOException {
+    final long start = System.nanoTime();
+    final long count =
+      this.appointmentStreamer.forEach(AppointmentRange.ALL, this::add);
+    this.loaded = true;
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("Loaded {} appointments in {} ms, {} bytes", count,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+        this.getRetainedBytes());
+    }
+  }
+
+  /**
+   * Returns <code>true</code> once <i>this</i> index has been loaded.
+   *
+   * @return <code>true</code> once <i>this</i> index has been loaded.
+   */
+  public boolean isLoaded() {
+    return this.loaded;
+  }
+
+  /**
+   * Adds <b>appointment</b> to <i>this</i> index, unless it is already held.
+   *
+   * @param appointment The persisted <code>Appointment</code> to add. This
+   *          cannot be <code>null</code> and must have an id.
+   *
+   * @throws IllegalArgumentException If <b>appointment</b> is
+   *          <code>null</code> or has not been persisted.
+   */
+  public void add(final Appointment appointment) {
+    this.addAll(Arrays.asList(appointment));
+  }
+
+  /**
+   * Adds every appointment of <b>appointments</b> to <i>this</i> index,
+   * unless it is already held.
+   *
+   * @param appointments The persisted <code>Appointment</code>s to add. This
+   *          cannot be <code>null</code> and every appointment must have an
+   *          id.
+   *
+   * @throws IllegalArgumentException If <b>appointments</b> is
+   *          <code>null</code> or contains an appointment that is
+   *          <code>null</code> or has not been persisted.
+   */
+  public void addAll(final Collection<Appointment> appointments) {
+    if (appointments == null || appointments.stream()
+      .anyMatch(appointment -> appointment == null
+        || appointment.getId() == null)) {
+      throw new IllegalArgumentException("Illegal argument; appointments "
+        + "must be persisted");
+    }
+    final Lock writeLock = this.lock.writeLock();
+    writeLock.lock();
+    try {
+      for (final Appointment appointment : appointments) {
+        if (appointment.getRecurrence() != null) {
+          this.insertSeries(appointment);
+          continue;
+        }
+        final Integer duration = appointment.getDuration();
+        this.insert(appointment.getTime(), appointment.getId(),
+          duration == null ? NO_DURATION : duration.shortValue(),
+          appointment.getDescription().getBytes(StandardCharsets.UTF_8));
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of appointments dated within <b>range</b>, counting
+   * each occurrence of a recurring appointment.
+   *
+   * @param range The range of dates to count. This cannot be
+   *          <code>null</code>.
+   *
+   * @return The number of appointments and occurrences dated within
+   *          <b>range</b>.
+   *
+   * @throws IllegalArgumentException If <b>range</b> is <code>null</code>.
+   */
+  public long count(final AppointmentRange range) {
+    if (range == null) {
+      throw new IllegalArgumentException("Illegal argument; no range "
+        + "specified");
+    }
+    final Lock readLock = this.lock.readLock();
+    readLock.lock();
+    try {
+      return this.rows.count(range) + this.pending.count(range)
+        + AppointmentOccurrences.count(
+        this.findSeriesBetween(range.getFrom(), range.getTo()), range);
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public List<Appointment> findBetween(final Date from, final Date to,
+    final Pageable pageable) {
+    final Lock readLock = this.lock.readLock();
+    readLock.lock();
+    try {
+      return this.get(this.rows.search(from.getTime(), Long.MIN_VALUE),
+        this.pending.search(from.getTime(), Long.MIN_VALUE), to, pageable);
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public List<Appointment> findPageAfter(final Date from, final Date to,
+    final Date date, final long id, final Pageable pageable) {
+    final Lock readLock = this.lock.readLock();
+    readLock.lock();
+    try {
+      return this.get(first(this.rows, from, date, id),
+        first(this.pending, from, date, id), to, pageable);
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public List<Appointment> findPageBefore(final Date from, final Date to,
+    final Date date, final long id, final Pageable pageable) {
+    final Lock readLock = this.lock.readLock();
+    readLock.lock();
+    try {
+      final List<Appointment> appointments = new ArrayList<>();
+      final int start = this.rows.search(from.getTime(), Long.MIN_VALUE);
+      final int pendingStart =
+        this.pending.search(from.getTime(), Long.MIN_VALUE);
+      int row = last(this.rows, to, date, id);
+      int pendingRow = last(this.pending, to, date, id);
+      while (appointments.size() < pageable.getPageSize()
+        && (row > start || pendingRow > pendingStart)) {
+        if (pendingRow <= pendingStart || (row > start
+          && this.pending.precedes(pendingRow - 1, this.rows, row - 1))) {
+          appointments.add(this.rows.get(--row));
+        } else {
+          appointments.add(this.pending.get(--pendingRow));
+        }
+      }
+      return appointments;
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  public List<Appointment> findSeriesBetween(final Date from, final Date to) {
+    final Lock readLock = this.lock.readLock();
+    readLock.lock();
+    try {
+      final List<Appointment> series = new ArrayList<>();
+      for (final Appointment appointment : this.series) {
+        if (appointment.getTime() >= to.getTime()) {
+          break;
+        }
+        final Date until = appointment.getRecurrenceUntil();
+        if (until == null || until.after(from)) {
+          series.add(appointment);
+        }
+      }
+      return series;
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * Passes the busy interval <code>[date, date + duration)</code> of every
+   * one-off appointment with a duration that may overlap <b>range</b> to
+   * <b>visitor</b>, in order of date, until the visitor returns
+   * <code>false</code>.
+   *
+   * @param range The range of dates the intervals may overlap. This cannot
+   *          be <code>null</code>.
+   * @param visitor The visitor of the intervals. This cannot be
+   *          <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>range</b> or <b>visitor</b> is
+   *          <code>null</code>.
+   */
+  public void forEachInterval(final AppointmentRange range,
+    final IntervalVisitor visitor) {
+    if (range == null || visitor == null) {
+      final String message = String.format("Illegal argument; range==%s, "
+        + "visitor=={%s}", range, visitor != null);
+      throw new IllegalArgumentException(message);
+    }
+    final Lock readLock = this.lock.readLock();
+    readLock.lock();
+    try {
+      final long from = range.getFrom().getTime() - MAX_DURATION_MILLIS;
+      final long to = range.getTo().getTime();
+      int row = this.rows.search(from, Long.MIN_VALUE);
+      int pendingRow = this.pending.search(from, Long.MIN_VALUE);
+      final int end = this.rows.search(to, Long.MIN_VALUE);
+      final int pendingEnd = this.pending.search(to, Long.MIN_VALUE);
+      while (row < end || pendingRow < pendingEnd) {
+        final Rows rows;
+        final int next;
+        if (pendingRow >= pendingEnd || (row < end
+          && this.rows.precedes(row, this.pending, pendingRow))) {
+          rows = this.rows;
+          next = row++;
+        } else {
+          rows = this.pending;
+          next = pendingRow++;
+        }
+        final short duration = rows.durations[next];
+        if (duration != NO_DURATION) {
+          final long date = rows.dates[next];
+          if (!visitor.visit(date,
+            date + TimeUnit.MINUTES.toMillis(duration))) {
+            return;
+          }
+        }
+      }
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of appointments held by <i>this</i> index.
+   *
+   * @return The number of appointments held by <i>this</i> index.
+   */
+  public int size() {
+    final Lock readLock = this.lock.readLock();
+    readLock.lock();
+    try {
+      return this.rows.size + this.pending.size + this.series.size();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of bytes of the arrays backing <i>this</i> index,
+   * including unused capacity.
+   *
+   * @return The number of bytes of the arrays backing <i>this</i> index.
+   */
+  public long getRetainedBytes() {
+    final Lock readLock = this.lock.readLock();
+    readLock.lock();
+    try {
+      return this.rows.getRetainedBytes() + this.pending.getRetainedBytes();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  // Returns up to a page of rows from (row, pendingRow) before to, merged.
+  private List<Appointment> get(int row, int pendingRow, final Date to,
+    final Pageable pageable) {
+    final int end = this.rows.search(to.getTime(), Long.MIN_VALUE);
+    final int pendingEnd = this.pending.search(to.getTime(), Long.MIN_VALUE);
+    final List<Appointment> appointments = new ArrayList<>(
+      Math.min(pageable.getPageSize(), Math.max(0, end - row)
+      + Math.max(0, pendingEnd - pendingRow)));
+    while (appointments.size() < pageable.getPageSize()
+      && (row < end || pendingRow < pendingEnd)) {
+      if (pendingRow >= pendingEnd || (row < end
+        && this.rows.precedes(row, this.pending, pendingRow))) {
+        appointments.add(this.rows.get(row++));
+      } else {
+        appointments.add(this.pending.get(pendingRow++));
+      }
+    }
+    return appointments;
+  }
+
+  private void insertSeries(final Appointment appointment) {
+    int row = Collections.binarySearch(this.series, appointment, SERIES_ORDER);
+    if (row < 0) {
+      row = -row - 1;
+      this.series.add(row, appointment);
+    }
+  }
+
+  private void insert(final long date, final long id, final short duration,
+    final byte[] description) {
+    if (this.rows.contains(date, id) || this.pending.contains(date, id)) {
+      return;
+    }
+    if (this.rows.isAfterLast(date, id)) {
+      this.rows.insert(date, id, duration, description);
+      return;
+    }
+    this.pending.insert(date, id, duration, description);
+    if (this.pending.size >= this.pendingSize) {
+      this.mergePending();
+    }
+  }
+
+  // Merges the pending rows into the rows from the last backwards, moving the
+  // rows after each pending row once, to their final position.
+  private void mergePending() {
+    final Rows rows = this.rows;
+    final Rows pending = this.pending;
+    rows.ensureCapacity(pending.size, pending.descriptionsSize);
+    System.arraycopy(pending.descriptions, 0, rows.descriptions,
+      rows.descriptionsSize, pending.descriptionsSize);
+    int end = rows.size;
+    for (int pendingRow = pending.size - 1; pendingRow >= 0; pendingRow--) {
+      final int row = rows.search(pending.dates[pendingRow],
+        pending.ids[pendingRow], end);
+      rows.move(row, end, pendingRow + 1);
+      rows.set(row + pendingRow, pending.dates[pendingRow],
+        pending.ids[pendingRow],
+        rows.descriptionsSize + pending.offsets[pendingRow],
+        pending.lengths[pendingRow], pending.durations[pendingRow]);
+      end = row;
+    }
+    rows.size += pending.size;
+    rows.descriptionsSize += pending.descriptionsSize;
+    pending.clear();
+  }
+
+  // Returns the position of the first row of rows after the cursor.
+  private static int first(final Rows rows, final Date from, final Date date,
+    final long id) {
+    return Math.max(rows.search(from.getTime(), Long.MIN_VALUE),
+      id == Long.MAX_VALUE
+      ? rows.search(date.getTime() + 1, Long.MIN_VALUE)
+      : rows.search(date.getTime(), id + 1));
+  }
+
+  // Returns the position following the last row of rows before the cursor.
+  private static int last(final Rows rows, final Date to, final Date date,
+    final long id) {
+    return Math.min(rows.search(to.getTime(), Long.MIN_VALUE),
+      rows.search(date.getTime(), id));
+  }
+
+  /**
+   * <code>IntervalVisitor</code> visits the busy intervals of appointments.
+   *
+   * @see AppointmentIndex#forEachInterval(AppointmentRange, IntervalVisitor)
+   */
+  @FunctionalInterface
+  public interface IntervalVisitor {
+
+    /**
+     * Visits the busy interval <code>[start, end)</code>.
+     *
+     * @param start The inclusive start of the interval, in epoch
+     *          milliseconds.
+     * @param end The exclusive end of the interval, in epoch milliseconds.
+     *
+     * @return <code>true</code> to visit the next interval.
+     */
+    boolean visit(long start, long end);
+
+  }
+
+  // Appointments sorted by (date, id), column by column.
+  private static final class Rows {
+
+    private long[] dates;
+    private long[] ids;
+    private int[] offsets;
+    private short[] lengths;
+    private short[] durations;
+    private byte[] descriptions;
+    private int size;
+    private int descriptionsSize;
+
+    private Rows(final int capacity) {
+      this.dates = new long[capacity];
+      this.ids = new long[capacity];
+      this.offsets = new int[capacity];
+      this.lengths = new short[capacity];
+      this.durations = new short[capacity];
+      this.descriptions = new byte[capacity * 32];
+    }
+
+    private long count(final AppointmentRange range) {
+      return this.search(range.getTo().getTime(), Long.MIN_VALUE)
+        - this.search(range.getFrom().getTime(), Long.MIN_VALUE);
+    }
+
+    private int search(final long date, final long id) {
+      return this.search(date, id, this.size);
+    }
+
+    // Returns the position of the first row before end at or after (date, id).
+    private int search(final long date, final long id, final int end) {
+      int low = 0;
+      int high = end;
+      while (low < high) {
+        final int middle = (low + high) >>> 1;
+        final long middleDate = this.dates[middle];
+        if (middleDate < date
+          || (middleDate == date && this.ids[middle] < id)) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    private boolean contains(final long date, final long id) {
+      final int row = this.search(date, id);
+      return row < this.size && this.dates[row] == date
+        && this.ids[row] == id;
+    }
+
+    private boolean isAfterLast(final long date, final long id) {
+      if (this.size == 0) {
+        return true;
+      }
+      final long last = this.dates[this.size - 1];
+      return last < date || (last == date && this.ids[this.size - 1] < id);
+    }
+
+    // Returns true if row is before otherRow of other in (date, id) order.
+    private boolean precedes(final int row, final Rows other,
+      final int otherRow) {
+      final long date = this.dates[row];
+      final long otherDate = other.dates[otherRow];
+      return date < otherDate
+        || (date == otherDate && this.ids[row] < other.ids[otherRow]);
+    }
+
+    private Appointment get(final int row) {
+      final short duration = this.durations[row];
+      return new Appointment(this.ids[row], new Date(this.dates[row]),
+        duration == NO_DURATION ? null : Integer.valueOf(duration),
+        new String(this.descriptions, this.offsets[row], this.lengths[row],
+        StandardCharsets.UTF_8));
+    }
+
+    private void insert(final long date, final long id, final short duration,
+      final byte[] description) {
+      final int row = this.search(date, id);
+      this.ensureCapacity(1, description.length);
+      this.move(row, this.size, 1);
+      System.arraycopy(description, 0, this.descriptions,
+        this.descriptionsSize, description.length);
+      this.set(row, date, id, this.descriptionsSize,
+        (short) description.length, duration);
+      this.descriptionsSize += description.length;
+      this.size++;
+    }
+
+    // Moves the rows [row, end) by distance rows towards the end.
+    private void move(final int row, final int end, final int distance) {
+      final int moved = end - row;
+      if (moved > 0) {
+        System.arraycopy(this.dates, row, this.dates, row + distance, moved);
+        System.arraycopy(this.ids, row, this.ids, row + distance, moved);
+        System.arraycopy(this.offsets, row, this.offsets, row + distance,
+          moved);
+        System.arraycopy(this.lengths, row, this.lengths, row + distance,
+          moved);
+        System.arraycopy(this.durations, row, this.durations, row + distance,
+          moved);
+      }
+    }
+
+    private void set(final int row, final long date, final long id,
+      final int offset, final short length, final short duration) {
+      this.dates[row] = date;
+      this.ids[row] = id;
+      this.offsets[row] = offset;
+      this.lengths[row] = length;
+      this.durations[row] = duration;
+    }
+
+    private void ensureCapacity(final int rows, final int descriptionLength) {
+      if ((long) this.size + rows > this.dates.length) {
+        if ((long) this.size + rows > MAX_ARRAY_SIZE) {
+          throw new IllegalStateException("AppointmentIndex is full");
+        }
+        final int capacity = grow(this.dates.length, this.size + rows);
+        this.dates = Arrays.copyOf(this.dates, capacity);
+        this.ids = Arrays.copyOf(this.ids, capacity);
+        this.offsets = Arrays.copyOf(this.offsets, capacity);
+        this.lengths = Arrays.copyOf(this.lengths, capacity);
+        this.durations = Arrays.copyOf(this.durations, capacity);
+      }
+      final long required = (long) this.descriptionsSize + descriptionLength;
+      if (required > this.descriptions.length) {
+        if (required > MAX_ARRAY_SIZE) {
+          throw new IllegalStateException("AppointmentIndex is full");
+        }
+        this.descriptions = Arrays.copyOf(this.descriptions,
+          grow(this.descriptions.length, (int) required));
+      }
+    }
+
+    private void clear() {
+      this.size = 0;
+      this.descriptionsSize = 0;
+    }
+
+    private long getRetainedBytes() {
+      return (long) this.dates.length * Long.BYTES
+        + (long) this.ids.length * Long.BYTES
+        + (long) this.offsets.length * Integer.BYTES
+        + (long) this.lengths.length * Short.BYTES
+        + (long) this.durations.length * Short.BYTES
+        + this.descriptions.length;
+    }
+
+  }
+
+  private static int grow(final int capacity, final int required) {
+    final long grown = Math.max((long) capacity * 2, required);
+    return (int) Math.min(grown, MAX_ARRAY_SIZE);
+  }
+
+}
@@ -0,0 +1,98 @@
+package appointments.standalone.index;
+
+import appointments.standalone.entity.Appointment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.PostPersist;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * <p>
+ * <code>AppointmentIndexListener</code> is a JPA entity listener that writes
+ * every persisted {@link Appointment} through to the {@link AppointmentIndex},
+ * if it is enabled.
+ * </p>
+ * <p>
+ * Appointments persisted within a transaction are added together once the
+ * transaction commits, so that the index never holds an appointment that was
+ * rolled back. Hibernate obtains the listener from the Spring application
+ * context.
+ * </p>
+ *
+ * @see AppointmentIndex
+ */
+public final class AppointmentIndexListener {
+
+  private final ObjectProvider<AppointmentIndex> appointmentIndex;
+
+  /**
+   * Creates a new instance of <code>AppointmentIndexListener</code> using the
+   * specified <b>appointmentIndex</b>.
+   *
+   * @param appointmentIndex The provider of the {@link AppointmentIndex},
+   *          which is not available unless it is enabled. This cannot be
+   *          <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentIndex</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentIndexListener(
+    @Autowired
+    final ObjectProvider<AppointmentIndex> appointmentIndex
+  ) {
+    if (appointmentIndex == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "appointmentIndex specified");
+    }
+    this.appointmentIndex = appointmentIndex;
+  }
+
+  /**
+   * Adds <b>appointment</b> to the {@link AppointmentIndex}, once the current
+   * transaction commits if there is one.
+   *
+   * @param appointment The <code>Appointment</code> persisted.
+   */
+  @PostPersist
+  public void persisted(final Appointment appointment) {
+    final AppointmentIndex index = this.appointmentIndex.getIfAvailable();
+    if (index == null) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      index.add(appointment);
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    List<Appointment> pending =
+      (List<Appointment>) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      final List<Appointment> appointments = new ArrayList<>();
+      TransactionSynchronizationManager.bindResource(this, appointments);
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+
+          @Override
+          public void afterCommit() {
+            index.addAll(appointments);
+          }
+
+          @Override
+          public void afterCompletion(final int status) {
+            TransactionSynchronizationManager
+              .unbindResourceIfPossible(AppointmentIndexListener.this);
+          }
+
+        });
+      pending = appointments;
+    }
+    pending.add(appointment);
+  }
+
+}
@@ -0,0 +1,200 @@
+package appointments.standalone.metrics;
+
+import appointments.standalone.repository.AppointmentOverlaps;
+
+import java.time.format.DateTimeParseException;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * <code>AppointmentMetrics</code> records the timings, row counts and errors
+ * of the <code>/appointments</code> endpoints in a Micrometer
+ * <code>MeterRegistry</code>, so that a slow stage of a request can be told
+ * apart from the others:
+ * </p>
+ * <ul>
+ * <li><code>appointments.requests</code> - a timer of the handler of each
+ * <code>endpoint</code>, excluding the rendering of its view</li>
+ * <li><code>appointments.populate</code> - a timer of populating the model of
+ * each <code>model</code>, a <code>page</code> or <code>search</code>
+ * listing</li>
+ * <li><code>appointments.query</code> - a timer of each <code>query</code>,
+ * from a <code>source</code> that is the <code>database</code> or the
+ * <code>index</code></li>
+ * <li><code>appointments.rows</code> - a distribution of the appointments
+ * returned by each <code>query</code></li>
+ * <li><code>appointments.render</code> - a timer of rendering each
+ * <code>view</code>, see {@link AppointmentRenderInterceptor}</li>
+ * <li><code>appointments.errors</code> - a counter of the errors of each
+ * <code>endpoint</code>, by <code>type</code>: <code>illegal_argument</code>,
+ * <code>parse</code>, <code>overlap</code> or <code>other</code></li>
+ * </ul>
+ * <p>
+ * The timers publish percentile histograms when
+ * <code>management.metrics.distribution.percentiles-histogram.appointments
+ * </code> is set.
+ * </p>
+ *
+ * @see AppointmentRenderInterceptor
+ */
+@Component
+public final class AppointmentMetrics {
+
+  /**
+   * The <code>endpoint</code> tag of <code>GET /appointments</code>.
+   */
+  public static final String APPOINTMENTS = "appointments";
+
+  /**
+   * The <code>endpoint</code> tag of <code>POST /appointments/create</code>.
+   */
+  public static final String APPOINTMENTS_CREATE = "appointmentsCreate";
+
+  /**
+   * The <code>source</code> tag of a query of the database.
+   */
+  public static final String DATABASE = "database";
+
+  /**
+   * The <code>source</code> tag of a query of the in-memory index.
+   */
+  public static final String INDEX = "index";
+
+  private static final String REQUESTS = "appointments.requests";
+  private static final String POPULATE = "appointments.populate";
+  private static final String QUERY = "appointments.query";
+  private static final String ROWS = "appointments.rows";
+  private static final String RENDER = "appointments.render";
+  private static final String ERRORS = "appointments.errors";
+
+  private static final String ENDPOINT_TAG = "endpoint";
+  private static final String MODEL_TAG = "model";
+  private static final String QUERY_TAG = "query";
+  private static final String SOURCE_TAG = "source";
+  private static final String VIEW_TAG = "view";
+  private static final String TYPE_TAG = "type";
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Creates a new instance of <code>AppointmentMetrics</code> using the
+   * specified <b>meterRegistry</b>.
+   *
+   * @param meterRegistry The <code>MeterRegistry</code> to record in. This
+   *          cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>meterRegistry</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentMetrics(
+    @Autowired
+    final MeterRegistry meterRegistry
+  ) {
+    if (meterRegistry == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "meterRegistry specified");
+    }
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Starts timing a request, a model or a view.
+   *
+   * @return The started sample, to be passed to {@link #stopRequest},
+   *          {@link #stopPopulate} or {@link #stopRender}.
+   */
+  public Timer.Sample start() {
+    return Timer.start(this.meterRegistry);
+  }
+
+  /**
+   * Records the time of the handler of <b>endpoint</b> since <b>sample</b>
+   * was started.
+   *
+   * @param sample The sample started by {@link #start()}.
+   * @param endpoint The endpoint, {@link #APPOINTMENTS} or
+   *          {@link #APPOINTMENTS_CREATE}.
+   */
+  public void stopRequest(final Timer.Sample sample, final String endpoint) {
+    sample.stop(this.meterRegistry.timer(REQUESTS, ENDPOINT_TAG, endpoint));
+  }
+
+  /**
+   * Records the time of populating <b>model</b> since <b>sample</b> was
+   * started.
+   *
+   * @param sample The sample started by {@link #start()}.
+   * @param model The model, <code>page</code> or <code>search</code>.
+   */
+  public void stopPopulate(final Timer.Sample sample, final String model) {
+    sample.stop(this.meterRegistry.timer(POPULATE, MODEL_TAG, model));
+  }
+
+  /**
+   * Records the time of rendering <b>view</b> since <b>sample</b> was
+   * started.
+   *
+   * @param sample The sample started by {@link #start()}.
+   * @param view The name of the view.
+   */
+  public void stopRender(final Timer.Sample sample, final String view) {
+    sample.stop(this.meterRegistry.timer(RENDER, VIEW_TAG, view));
+  }
+
+  /**
+   * Runs <b>query</b> against <b>source</b> and records its time, whether or
+   * not it completes normally.
+   *
+   * @param <T> The type of the result of the query.
+   * @param query The name of the query, such as <code>page</code>.
+   * @param source The source queried, {@link #DATABASE} or {@link #INDEX}.
+   * @param supplier The query.
+   *
+   * @return The result of the query.
+   */
+  public <T> T timeQuery(final String query, final String source,
+    final Supplier<T> supplier) {
+    return this.meterRegistry.timer(QUERY, QUERY_TAG, query, SOURCE_TAG,
+      source).record(supplier);
+  }
+
+  /**
+   * Records the number of appointments returned by <b>query</b>.
+   *
+   * @param query The name of the query, such as <code>page</code>.
+   * @param rows The number of appointments returned.
+   */
+  public void recordRows(final String query, final int rows) {
+    this.meterRegistry.summary(ROWS, QUERY_TAG, query).record(rows);
+  }
+
+  /**
+   * Counts an error of <b>endpoint</b> by the type of <b>exception</b>.
+   *
+   * @param endpoint The endpoint, {@link #APPOINTMENTS} or
+   *          {@link #APPOINTMENTS_CREATE}.
+   * @param exception The exception caught by the endpoint.
+   */
+  public void countError(final String endpoint, final Exception exception) {
+    this.meterRegistry.counter(ERRORS, ENDPOINT_TAG, endpoint, TYPE_TAG,
+      getType(exception)).increment();
+  }
+
+  private static String getType(final Exception exception) {
+    if (AppointmentOverlaps.isOverlap(exception)) {
+      return "overlap";
+    } else if (exception instanceof DateTimeParseException) {
+      return "parse";
+    } else if (exception instanceof IllegalArgumentException) {
+      return "illegal_argument";
+    }
+    return "other";
+  }
+
+}
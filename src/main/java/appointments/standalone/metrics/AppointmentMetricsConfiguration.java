@@ -0,0 +1,52 @@
+package appointments.standalone.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * <p>
+ * <code>AppointmentMetricsConfiguration</code> registers the
+ * {@link AppointmentRenderInterceptor} for the <code>/appointments</code>
+ * page.
+ * </p>
+ *
+ * @see AppointmentMetrics
+ */
+@Configuration
+public class AppointmentMetricsConfiguration implements WebMvcConfigurer {
+
+  private static final String APPOINTMENTS_PATH = "/appointments";
+
+  private final AppointmentRenderInterceptor appointmentRenderInterceptor;
+
+  /**
+   * Creates a new instance of <code>AppointmentMetricsConfiguration</code>
+   * using the specified <b>appointmentRenderInterceptor</b>.
+   *
+   * @param appointmentRenderInterceptor The
+   *          {@link AppointmentRenderInterceptor} to register. This cannot be
+   *          <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentRenderInterceptor</b>
+   *          is <code>null</code>.
+   */
+  public AppointmentMetricsConfiguration(
+    @Autowired
+    final AppointmentRenderInterceptor appointmentRenderInterceptor
+  ) {
+    if (appointmentRenderInterceptor == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "appointmentRenderInterceptor specified");
+    }
+    this.appointmentRenderInterceptor = appointmentRenderInterceptor;
+  }
+
+  @Override
+  public void addInterceptors(final InterceptorRegistry registry) {
+    registry.addInterceptor(this.appointmentRenderInterceptor)
+      .addPathPatterns(APPOINTMENTS_PATH);
+  }
+
+}
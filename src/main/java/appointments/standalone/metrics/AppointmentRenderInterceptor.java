@@ -0,0 +1,87 @@
+package appointments.standalone.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * <p>
+ * <code>AppointmentRenderInterceptor</code> times the rendering of the view
+ * of a request as the <code>appointments.render</code> timer of
+ * {@link AppointmentMetrics}.
+ * </p>
+ * <p>
+ * The view is rendered after the handler returns, so its time is neither part
+ * of <code>appointments.requests</code> nor of the queries; it is measured
+ * from {@link #postHandle}, which is called once the handler has returned,
+ * to {@link #afterCompletion}, which is called once the view is rendered.
+ * Requests answered without rendering a view, such as redirects and
+ * <code>304 Not Modified</code>, are not timed.
+ * </p>
+ *
+ * @see AppointmentMetrics
+ * @see AppointmentMetricsConfiguration
+ */
+@Component
+public final class AppointmentRenderInterceptor implements HandlerInterceptor {
+
+  private static final String SAMPLE_ATTRIBUTE =
+    AppointmentRenderInterceptor.class.getName() + ".sample";
+  private static final String VIEW_ATTRIBUTE =
+    AppointmentRenderInterceptor.class.getName() + ".view";
+
+  private static final String REDIRECT_PREFIX = "redirect:";
+
+  private final AppointmentMetrics appointmentMetrics;
+
+  /**
+   * Creates a new instance of <code>AppointmentRenderInterceptor</code> using
+   * the specified <b>appointmentMetrics</b>.
+   *
+   * @param appointmentMetrics The {@link AppointmentMetrics} to record in.
+   *          This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentMetrics</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentRenderInterceptor(
+    @Autowired
+    final AppointmentMetrics appointmentMetrics
+  ) {
+    if (appointmentMetrics == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "appointmentMetrics specified");
+    }
+    this.appointmentMetrics = appointmentMetrics;
+  }
+
+  @Override
+  public void postHandle(final HttpServletRequest request,
+    final HttpServletResponse response, final Object handler,
+    final ModelAndView modelAndView) {
+    if (modelAndView == null || !modelAndView.isReference()
+      || modelAndView.getViewName().startsWith(REDIRECT_PREFIX)) {
+      return;
+    }
+    request.setAttribute(VIEW_ATTRIBUTE, modelAndView.getViewName());
+    request.setAttribute(SAMPLE_ATTRIBUTE, this.appointmentMetrics.start());
+  }
+
+  @Override
+  public void afterCompletion(final HttpServletRequest request,
+    final HttpServletResponse response, final Object handler,
+    final Exception exception) {
+    final Object sample = request.getAttribute(SAMPLE_ATTRIBUTE);
+    if (sample instanceof Timer.Sample) {
+      this.appointmentMetrics.stopRender((Timer.Sample) sample,
+        (String) request.getAttribute(VIEW_ATTRIBUTE));
+    }
+  }
+
+}
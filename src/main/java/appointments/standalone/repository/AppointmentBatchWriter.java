@@ -0,0 +1,125 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * <p>
+ * <code>AppointmentBatchWriter</code> persists many new {@link Appointment}s
+ * in a single transaction.
+ * </p>
+ * <p>
+ * The persistence context is flushed and cleared every <b>batchSize</b>
+ * appointments, so that Hibernate sends each group of inserts as one JDBC
+ * batch (<code>hibernate.jdbc.batch_size</code>) and the context does not grow
+ * with the number of appointments. Ids are reserved from
+ * <code>appointments_id_seq</code> in blocks of
+ * {@link Appointment#ID_ALLOCATION_SIZE}, so the sequence is called once per
+ * block rather than once per appointment.
+ * </p>
+ *
+ * @see appointments.standalone.entity.Appointment
+ * @see AppointmentRepository
+ */
+@Component
+public final class AppointmentBatchWriter {
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final EntityManager entityManager;
+
+  private final int batchSize;
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentBatchWriter.class);
+
+  /**
+   * Creates a new instance of <code>AppointmentBatchWriter</code> using the
+   * specified <b>transactionManager</b>, <b>entityManager</b> and
+   * <b>batchSize</b>.
+   *
+   * @param transactionManager The <code>PlatformTransactionManager</code> used
+   *          to write each call's appointments in one transaction. This cannot
+   *          be <code>null</code>.
+   * @param entityManager The shared <code>EntityManager</code> the
+   *          appointments are persisted with. This cannot be
+   *          <code>null</code>.
+   * @param batchSize The number of appointments to persist between flushes;
+   *          this is mapped to the <code>hibernate.jdbc.batch_size</code> JPA
+   *          property, if the property is not provided this will default to
+   *          "50". This must be greater than zero.
+   *
+   * @throws IllegalArgumentException If <b>transactionManager</b> or
+   *          <b>entityManager</b> is <code>null</code> or if <b>batchSize</b>
+   *          is less than one.
+   */
+  public AppointmentBatchWriter(
+    @Autowired
+    final PlatformTransactionManager transactionManager,
+    @Autowired
+    final EntityManager entityManager,
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    final int batchSize
+  ) {
+    if (transactionManager == null || entityManager == null
+      || batchSize < 1) {
+      final String message = String.format("Illegal argument; "
+        + "transactionManager=={%s}, entityManager=={%s}, batchSize==%d",
+        transactionManager != null, entityManager != null, batchSize);
+      throw new IllegalArgumentException(message);
+    }
+    LOGGER.info("AppointmentBatchWriter[batchSize=={}]", batchSize);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.entityManager = entityManager;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Persists every one of the specified new <b>appointments</b> in a single
+   * transaction; either all of them are persisted or none are.
+   *
+   * @param appointments The <code>Appointment</code>s to persist. This cannot
+   *          be <code>null</code> or contain <code>null</code>.
+   *
+   * @return The ids of the persisted <code>Appointment</code>s, in the order
+   *          of <b>appointments</b>. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointments</b> is
+   *          <code>null</code> or contains <code>null</code>.
+   */
+  public List<Long> saveAll(final List<Appointment> appointments) {
+    if (appointments == null || appointments.contains(null)) {
+      final String message = String.format("Illegal argument; "
+        + "appointments==%s", appointments);
+      throw new IllegalArgumentException(message);
+    }
+    final List<Long> ids = new ArrayList<>(appointments.size());
+    this.transactionTemplate.execute(status -> {
+      int count = 0;
+      for (final Appointment appointment : appointments) {
+        this.entityManager.persist(appointment);
+        ids.add(appointment.getId());
+        if (++count % this.batchSize == 0) {
+          this.entityManager.flush();
+          this.entityManager.clear();
+        }
+      }
+      return null;
+    });
+    LOGGER.debug("saveAll persisted {} appointments", ids.size());
+    return ids;
+  }
+
+}
@@ -0,0 +1,146 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.util.Date;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * <p>
+ * <code>AppointmentCursor</code> is an immutable keyset position in the
+ * <code>(date, id)</code> ordering of {@link Appointment}s.
+ * </p>
+ * <p>
+ * A cursor is encoded as <code>&lt;epoch millis&gt;_&lt;id&gt;</code> so that
+ * it can be passed as a URL parameter.
+ * </p>
+ *
+ * @see appointments.standalone.entity.Appointment
+ * @see AppointmentRepository
+ */
+public final class AppointmentCursor {
+
+  private static final char SEPARATOR = '_';
+
+  private final long date;
+  private final long id;
+
+  /**
+   * Creates a new instance of <code>AppointmentCursor</code> using the
+   * specified <b>date</b> and <b>id</b>.
+   *
+   * @param date The date of the position, in milliseconds since the epoch.
+   * @param id The id of the position.
+   */
+  public AppointmentCursor(final long date, final long id) {
+    this.date = date;
+    this.id = id;
+  }
+
+  /**
+   * Creates a new instance of <code>AppointmentCursor</code> positioned at the
+   * specified <b>appointment</b>.
+   *
+   * @param appointment The <code>Appointment</code> to position the cursor at.
+   *          This cannot be <code>null</code> and must have been persisted.
+   *
+   * @return A new instance of <code>AppointmentCursor</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointment</b> is
+   *          <code>null</code> or has not been persisted.
+   */
+  public static AppointmentCursor of(final Appointment appointment) {
+    if (appointment == null || appointment.getId() == null) {
+      final String message = String.format("Illegal argument; "
+        + "appointment==%s", appointment);
+      throw new IllegalArgumentException(message);
+    }
+    return new AppointmentCursor(appointment.getTime(), appointment.getId());
+  }
+
+  /**
+   * Parses an encoded <code>AppointmentCursor</code>.
+   *
+   * @param cursor The encoded cursor, as returned by {@link #toString()}. This
+   *          may be <code>null</code>, empty or whitespace only.
+   *
+   * @return The parsed <code>AppointmentCursor</code>, or <code>null</code> if
+   *          <b>cursor</b> is <code>null</code>, empty or whitespace only.
+   *
+   * @throws IllegalArgumentException If <b>cursor</b> is not a valid encoded
+   *          cursor.
+   */
+  public static AppointmentCursor parse(final String cursor) {
+    if (StringUtils.isBlank(cursor)) {
+      return null;
+    }
+    final int index = cursor.indexOf(SEPARATOR);
+    try {
+      if (index < 0) {
+        throw new NumberFormatException();
+      }
+      final long date = Long.parseLong(cursor.substring(0, index));
+      final long id = Long.parseLong(cursor.substring(index + 1));
+      return new AppointmentCursor(date, id);
+    } catch (final NumberFormatException e) {
+      final String message = String.format("Illegal argument; cursor==%s",
+        cursor);
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  /**
+   * Returns the date of <i>this</i> position.
+   *
+   * @return The date of <i>this</i> position. This cannot be
+   *          <code>null</code>.
+   */
+  public Date getDate() {
+    return new Date(this.date);
+  }
+
+  /**
+   * Returns the id of <i>this</i> position.
+   *
+   * @return The id of <i>this</i> position.
+   */
+  public long getId() {
+    return this.id;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(final Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof AppointmentCursor)) {
+      return false;
+    }
+    final AppointmentCursor cursor = (AppointmentCursor) object;
+    return this.date == cursor.date && this.id == cursor.id;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return 31 * Long.hashCode(this.date) + Long.hashCode(this.id);
+  }
+
+  /**
+   * Returns <i>this</i> cursor in its encoded form.
+   *
+   * @return <i>This</i> cursor in the form
+   *          <code>&lt;epoch millis&gt;_&lt;id&gt;</code>.
+   */
+  @Override
+  public String toString() {
+    return Long.toString(this.date) + SEPARATOR + this.id;
+  }
+
+}
@@ -0,0 +1,337 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * <p>
+ * <code>AppointmentOccurrences</code> expands the occurrences of recurring
+ * {@link Appointment}s within a range, in <code>(date, id)</code> order, and
+ * merges them with one-off appointments.
+ * </p>
+ * <p>
+ * Occurrences are expanded lazily: each series keeps the number of its next
+ * occurrence, positioned directly at the start of the range or past a cursor
+ * by {@link Recurrence#getIndex(long, long, ZoneId)} in the time zone of the
+ * series, and a priority queue of the series yields the next occurrence of
+ * any of them. Reading a page costs a logarithm of the number of series per
+ * occurrence read, and holds one position per series, however long the series
+ * run or however far into them the page is.
+ * </p>
+ *
+ * @see appointments.standalone.entity.Recurrence
+ * @see AppointmentPager
+ */
+public final class AppointmentOccurrences {
+
+  private static final Comparator<Appointment> ORDER =
+    Comparator.comparing(Appointment::getDate)
+      .thenComparing(Appointment::getId);
+
+  private AppointmentOccurrences() {
+  }
+
+  /**
+   * Returns an <code>Iterator</code> over the occurrences of <b>series</b>
+   * dated within <b>range</b> following <b>after</b>, in
+   * <code>(date, id)</code> order.
+   *
+   * @param series The recurring <code>Appointment</code>s. This cannot be
+   *          <code>null</code> and every appointment must recur and have an
+   *          id.
+   * @param range The range of dates of the occurrences. This cannot be
+   *          <code>null</code>.
+   * @param after The cursor the occurrences should follow. This may be
+   *          <code>null</code>.
+   *
+   * @return An <code>Iterator</code> over the occurrences, each a detached
+   *          <code>Appointment</code>. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>series</b> or <b>range</b> is
+   *          <code>null</code> or if an appointment of <b>series</b> does not
+   *          recur or has not been persisted.
+   */
+  public static Iterator<Appointment> ascending(
+    final Collection<Appointment> series, final AppointmentRange range,
+    final AppointmentCursor after) {
+    validate(series, range);
+    final long from = range.getFrom().getTime();
+    final PriorityQueue<Series> queue = new PriorityQueue<>(
+      Math.max(1, series.size()), Series.ORDER);
+    for (final Appointment appointment : series) {
+      final Series position = new Series(appointment, range);
+      long n = position.getIndex(from);
+      if (after != null) {
+        final long date = after.getDate().getTime();
+        long next = position.getIndex(date);
+        if (position.getOccurrence(next) == date
+          && position.id <= after.getId()) {
+          next++;
+        }
+        n = Math.max(n, next);
+      }
+      position.move(n);
+      if (position.date < position.end) {
+        queue.add(position);
+      }
+    }
+    return new SeriesIterator(queue, true);
+  }
+
+  /**
+   * Returns an <code>Iterator</code> over the occurrences of <b>series</b>
+   * dated within <b>range</b> preceding <b>before</b>, in <b>descending</b>
+   * <code>(date, id)</code> order.
+   *
+   * @param series The recurring <code>Appointment</code>s. This cannot be
+   *          <code>null</code> and every appointment must recur and have an
+   *          id.
+   * @param range The range of dates of the occurrences. This cannot be
+   *          <code>null</code>.
+   * @param before The cursor the occurrences should precede. This may be
+   *          <code>null</code>.
+   *
+   * @return An <code>Iterator</code> over the occurrences, each a detached
+   *          <code>Appointment</code>. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>series</b> or <b>range</b> is
+   *          <code>null</code> or if an appointment of <b>series</b> does not
+   *          recur or has not been persisted.
+   */
+  public static Iterator<Appointment> descending(
+    final Collection<Appointment> series, final AppointmentRange range,
+    final AppointmentCursor before) {
+    validate(series, range);
+    final long from = range.getFrom().getTime();
+    final PriorityQueue<Series> queue = new PriorityQueue<>(
+      Math.max(1, series.size()), Series.ORDER.reversed());
+    for (final Appointment appointment : series) {
+      final Series position = new Series(appointment, range);
+      long n = position.getIndex(position.end) - 1;
+      if (before != null) {
+        final long date = before.getDate().getTime();
+        long previous = position.getIndex(date);
+        if (position.getOccurrence(previous) != date
+          || position.id >= before.getId()) {
+          previous--;
+        }
+        n = Math.min(n, previous);
+      }
+      if (n >= 0) {
+        position.move(n);
+        if (position.date >= from) {
+          queue.add(position);
+        }
+      }
+    }
+    return new SeriesIterator(queue, false);
+  }
+
+  /**
+   * Returns an <code>Iterator</code> merging two <code>Iterator</code>s over
+   * appointments in <code>(date, id)</code> order, or in descending order if
+   * <b>descending</b> is <code>true</code>.
+   *
+   * @param first An <code>Iterator</code> in the order of the merge. This
+   *          cannot be <code>null</code>.
+   * @param second An <code>Iterator</code> in the order of the merge. This
+   *          cannot be <code>null</code>.
+   * @param descending <code>true</code> if both <code>Iterator</code>s are in
+   *          descending order.
+   *
+   * @return The merging <code>Iterator</code>. This cannot be
+   *          <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>first</b> or <b>second</b> is
+   *          <code>null</code>.
+   */
+  public static Iterator<Appointment> merge(final Iterator<Appointment> first,
+    final Iterator<Appointment> second, final boolean descending) {
+    if (first == null || second == null) {
+      final String message = String.format("Illegal argument; first=={%s}, "
+        + "second=={%s}", first != null, second != null);
+      throw new IllegalArgumentException(message);
+    }
+    return new MergingIterator(first, second,
+      descending ? ORDER.reversed() : ORDER);
+  }
+
+  /**
+   * Returns the number of occurrences of <b>series</b> dated within
+   * <b>range</b>, without expanding them.
+   *
+   * @param series The recurring <code>Appointment</code>s. This cannot be
+   *          <code>null</code> and every appointment must recur and have an
+   *          id.
+   * @param range The range of dates to count. This cannot be
+   *          <code>null</code>.
+   *
+   * @return The number of occurrences within <b>range</b>.
+   *
+   * @throws IllegalArgumentException If <b>series</b> or <b>range</b> is
+   *          <code>null</code> or if an appointment of <b>series</b> does not
+   *          recur or has not been persisted.
+   */
+  public static long count(final Collection<Appointment> series,
+    final AppointmentRange range) {
+    validate(series, range);
+    final long from = range.getFrom().getTime();
+    long count = 0;
+    for (final Appointment appointment : series) {
+      final Series position = new Series(appointment, range);
+      count += Math.max(0,
+        position.getIndex(position.end) - position.getIndex(from));
+    }
+    return count;
+  }
+
+  private static void validate(final Collection<Appointment> series,
+    final AppointmentRange range) {
+    if (series == null || range == null || series.stream()
+      .anyMatch(appointment -> appointment == null
+        || appointment.getId() == null
+        || appointment.getRecurrence() == null)) {
+      final String message = String.format("Illegal argument; series==%s, "
+        + "range==%s", series, range);
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  // The position of the next occurrence of a series within a range.
+  private static final class Series {
+
+    private static final Comparator<Series> ORDER =
+      Comparator.<Series>comparingLong(series -> series.date)
+        .thenComparingLong(series -> series.id);
+
+    private final Appointment appointment;
+    private final Recurrence recurrence;
+    private final ZoneId zone;
+    private final long start;
+    private final long from;
+    private final long end;
+    private final long id;
+
+    private long n;
+    private long date;
+
+    private Series(final Appointment appointment,
+      final AppointmentRange range) {
+      this.appointment = appointment;
+      this.recurrence = appointment.getRecurrence();
+      this.zone = appointment.getRecurrenceZone();
+      this.start = appointment.getTime();
+      this.id = appointment.getId();
+      this.from = range.getFrom().getTime();
+      final long to = range.getTo().getTime();
+      final Date until = appointment.getRecurrenceUntil();
+      this.end = until == null ? to : Math.min(to, until.getTime());
+    }
+
+    private long getIndex(final long date) {
+      return this.recurrence.getIndex(this.start, date, this.zone);
+    }
+
+    private long getOccurrence(final long n) {
+      return this.recurrence.getOccurrence(this.start, n, this.zone);
+    }
+
+    private void move(final long n) {
+      this.n = n;
+      this.date = this.getOccurrence(n);
+    }
+
+  }
+
+  private static final class SeriesIterator implements Iterator<Appointment> {
+
+    private final PriorityQueue<Series> queue;
+    private final boolean ascending;
+
+    private SeriesIterator(final PriorityQueue<Series> queue,
+      final boolean ascending) {
+      this.queue = queue;
+      this.ascending = ascending;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !this.queue.isEmpty();
+    }
+
+    @Override
+    public Appointment next() {
+      final Series position = this.queue.poll();
+      if (position == null) {
+        throw new NoSuchElementException();
+      }
+      final Appointment occurrence =
+        position.appointment.getOccurrence(position.date);
+      if (this.ascending) {
+        position.move(position.n + 1);
+        if (position.date < position.end) {
+          this.queue.add(position);
+        }
+      } else if (position.n > 0) {
+        position.move(position.n - 1);
+        if (position.date >= position.from) {
+          this.queue.add(position);
+        }
+      }
+      return occurrence;
+    }
+
+  }
+
+  private static final class MergingIterator
+    implements Iterator<Appointment> {
+
+    private final Iterator<Appointment> first;
+    private final Iterator<Appointment> second;
+    private final Comparator<Appointment> order;
+
+    private Appointment nextFirst;
+    private Appointment nextSecond;
+
+    private MergingIterator(final Iterator<Appointment> first,
+      final Iterator<Appointment> second,
+      final Comparator<Appointment> order) {
+      this.first = first;
+      this.second = second;
+      this.order = order;
+      this.nextFirst = first.hasNext() ? first.next() : null;
+      this.nextSecond = second.hasNext() ? second.next() : null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.nextFirst != null || this.nextSecond != null;
+    }
+
+    @Override
+    public Appointment next() {
+      final Appointment next;
+      if (this.nextFirst != null && (this.nextSecond == null
+        || this.order.compare(this.nextFirst, this.nextSecond) <= 0)) {
+        next = this.nextFirst;
+        this.nextFirst = this.first.hasNext() ? this.first.next() : null;
+      } else if (this.nextSecond != null) {
+        next = this.nextSecond;
+        this.nextSecond = this.second.hasNext() ? this.second.next() : null;
+      } else {
+        throw new NoSuchElementException();
+      }
+      return next;
+    }
+
+  }
+
+}
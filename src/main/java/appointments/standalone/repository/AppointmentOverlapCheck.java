@@ -0,0 +1,271 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * <code>AppointmentOverlapCheck</code> rejects {@link Appointment}s with a
+ * duration that overlap an occurrence of a recurring appointment, before they
+ * are written.
+ * </p>
+ * <p>
+ * The <code>appointments_no_overlap</code> constraint only sees the row of a
+ * recurring appointment, dated at its first occurrence, so the application
+ * checks the rest, reading from an {@link AppointmentRepository}: a one-off
+ * appointment against the occurrences of the series around it, and a series
+ * against the one-off appointments from its start and against the
+ * occurrences of the other series. Each pair of intervals is found by
+ * {@link Recurrence#getIndex(long, long, ZoneId)} rather than by stepping
+ * through the occurrences, so a one-off appointment costs a query and a
+ * probe per series around it, and a series a probe per later one-off
+ * appointment.
+ * </p>
+ * <p>
+ * Two series are compared over their first {@value #HORIZON_YEARS} years
+ * together, after which the days of the week, and with them the rules of
+ * daylight saving, repeat on the same days of the year until 2100; series
+ * whose alignment only changes with the rules of their time zones may still
+ * clash later.
+ * </p>
+ * <p>
+ * A check and the write that follows it hold a lock, shared by every
+ * instance in the JVM, so that no series is written between them: one-off
+ * appointments hold it for reading, and may be written concurrently as the
+ * constraint checks them against each other, series hold it for writing. The
+ * lock does not extend to other processes writing to the same database.
+ * Overlaps are reported as the constraint reports them, see
+ * {@link AppointmentOverlaps#isOverlap(Throwable)}.
+ * </p>
+ *
+ * @see AppointmentOverlaps
+ * @see AppointmentOccurrences
+ */
+public final class AppointmentOverlapCheck {
+
+  /**
+   * The number of years over which two recurring appointments are compared.
+   */
+  public static final int HORIZON_YEARS = 28;
+
+  private static final long MAX_DURATION_MILLIS =
+    TimeUnit.MINUTES.toMillis(Appointment.MAX_DURATION);
+
+  private static final ReadWriteLock LOCK = new ReentrantReadWriteLock();
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentOverlapCheck.class);
+
+  private final AppointmentRepository appointmentRepository;
+
+  /**
+   * Creates a new instance of <code>AppointmentOverlapCheck</code> using the
+   * specified <b>appointmentRepository</b>.
+   *
+   * @param appointmentRepository An instance of {@link AppointmentRepository}.
+   *          This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentRepository</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentOverlapCheck(
+    final AppointmentRepository appointmentRepository) {
+    if (appointmentRepository == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "appointmentRepository specified");
+    }
+    this.appointmentRepository = appointmentRepository;
+  }
+
+  /**
+   * Checks that none of <b>appointments</b> overlaps an occurrence of a
+   * recurring appointment, stored or earlier in <b>appointments</b>, and then
+   * writes them with <b>write</b>, which must commit before it returns.
+   *
+   * @param <T> The type of the result of <b>write</b>.
+   * @param appointments The new <code>Appointment</code>s. This cannot be
+   *          <code>null</code>.
+   * @param write The write of <b>appointments</b>. This cannot be
+   *          <code>null</code>.
+   *
+   * @return The result of <b>write</b>.
+   *
+   * @throws IllegalArgumentException If <b>appointments</b> or <b>write</b> is
+   *          <code>null</code>.
+   * @throws org.springframework.dao.DataIntegrityViolationException If an
+   *          appointment overlaps an occurrence of a recurring appointment.
+   */
+  public <T> T write(final List<Appointment> appointments,
+    final Supplier<T> write) {
+    if (appointments == null || write == null) {
+      final String message = String.format("Illegal argument; "
+        + "appointments=={%s}, write=={%s}", appointments != null,
+        write != null);
+      throw new IllegalArgumentException(message);
+    }
+    if (appointments.stream()
+      .allMatch(appointment -> appointment.getDuration() == null)) {
+      return write.get();
+    }
+    final boolean series = appointments.stream()
+      .anyMatch(appointment -> appointment.getDuration() != null
+        && appointment.getRecurrence() != null);
+    final Lock lock = series ? LOCK.writeLock() : LOCK.readLock();
+    lock.lock();
+    try {
+      this.check(appointments);
+      return write.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void check(final List<Appointment> appointments) {
+    final List<Occurrences> series = new ArrayList<>();
+    final List<Occurrences> oneOffs = new ArrayList<>();
+    for (final Appointment appointment : appointments) {
+      if (appointment.getDuration() == null) {
+        continue;
+      }
+      final Occurrences occurrences = new Occurrences(appointment);
+      final boolean overlap = occurrences.recurrence == null
+        ? this.overlapsStored(occurrences)
+          || series.stream().anyMatch(other -> overlaps(occurrences, other))
+        : this.overlapsStoredSeries(occurrences)
+          || oneOffs.stream().anyMatch(other -> overlaps(other, occurrences))
+          || series.stream().anyMatch(other -> overlaps(occurrences, other));
+      if (overlap) {
+        LOGGER.debug("check rejects {}", appointment);
+        throw AppointmentOverlaps.violation();
+      }
+      (occurrences.recurrence == null ? oneOffs : series).add(occurrences);
+    }
+  }
+
+  // A one-off appointment against the occurrences of the series around it.
+  private boolean overlapsStored(final Occurrences oneOff) {
+    return this.findSeries(oneOff.start - MAX_DURATION_MILLIS,
+      oneOff.start + oneOff.duration).stream()
+      .anyMatch(series -> overlaps(oneOff, series));
+  }
+
+  // A series against the later one-off appointments and the other series.
+  private boolean overlapsStoredSeries(final Occurrences series) {
+    final Date until =
+      new Date(Math.min(series.until, AppointmentRange.MAX_DATE));
+    for (final Object[] interval : this.appointmentRepository
+      .findIntervalsBetween(new Date(series.start - MAX_DURATION_MILLIS),
+        until)) {
+      final Occurrences oneOff = new Occurrences(((Date) interval[0])
+        .getTime(), ((Number) interval[1]).intValue());
+      if (overlaps(oneOff, series)) {
+        return true;
+      }
+    }
+    return this.findSeries(series.start - MAX_DURATION_MILLIS,
+      until.getTime()).stream().anyMatch(other -> overlaps(series, other));
+  }
+
+  private List<Occurrences> findSeries(final long from, final long to) {
+    final List<Occurrences> series = new ArrayList<>();
+    for (final Appointment appointment : this.appointmentRepository
+      .findSeriesBetween(new Date(from), new Date(to))) {
+      if (appointment.getDuration() != null) {
+        series.add(new Occurrences(appointment));
+      }
+    }
+    return series;
+  }
+
+  // Alternates between the two sets of occurrences, each time moving to the
+  // first occurrence of one that ends after the other's current one starts.
+  private static boolean overlaps(final Occurrences first,
+    final Occurrences second) {
+    final long horizon = first.recurrence == null
+      || second.recurrence == null
+      ? Long.MAX_VALUE : horizon(Math.max(first.start, second.start));
+    final long firstEnd = Math.min(first.until, horizon);
+    final long secondEnd = Math.min(second.until, horizon);
+    long n = 0;
+    long m = 0;
+    while (true) {
+      final long date = first.getOccurrence(n);
+      if (date >= firstEnd) {
+        return false;
+      }
+      m = Math.max(m, second.getIndex(date - second.duration + 1));
+      final long other = second.getOccurrence(m);
+      if (other >= secondEnd) {
+        return false;
+      }
+      if (other < date + first.duration) {
+        return true;
+      }
+      n = Math.max(n + 1, first.getIndex(other - first.duration + 1));
+    }
+  }
+
+  private static long horizon(final long start) {
+    return Instant.ofEpochMilli(start).atOffset(ZoneOffset.UTC)
+      .plusYears(HORIZON_YEARS).toInstant().toEpochMilli();
+  }
+
+  // The occurrences of an appointment, a single one if it does not recur.
+  private static final class Occurrences {
+
+    private final long start;
+    private final long duration;
+    private final Recurrence recurrence;
+    private final ZoneId zone;
+    private final long until;
+
+    private Occurrences(final Appointment appointment) {
+      this.start = appointment.getTime();
+      this.duration = TimeUnit.MINUTES.toMillis(appointment.getDuration());
+      this.recurrence = appointment.getRecurrence();
+      this.zone = appointment.getRecurrenceZone();
+      final Date until = appointment.getRecurrenceUntil();
+      this.until = this.recurrence == null ? this.start + 1
+        : until == null ? Long.MAX_VALUE : until.getTime();
+    }
+
+    private Occurrences(final long start, final int duration) {
+      this.start = start;
+      this.duration = TimeUnit.MINUTES.toMillis(duration);
+      this.recurrence = null;
+      this.zone = null;
+      this.until = start + 1;
+    }
+
+    private long getOccurrence(final long n) {
+      if (this.recurrence == null) {
+        return n == 0 ? this.start : Long.MAX_VALUE;
+      }
+      return this.recurrence.getOccurrence(this.start, n, this.zone);
+    }
+
+    private long getIndex(final long date) {
+      if (this.recurrence == null) {
+        return date <= this.start ? 0 : 1;
+      }
+      return this.recurrence.getIndex(this.start, date, this.zone);
+    }
+
+  }
+
+}
@@ -0,0 +1,82 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.sql.SQLException;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * <p>
+ * <code>AppointmentOverlaps</code> recognises the failure to write an
+ * {@link Appointment} whose time overlaps that of another.
+ * </p>
+ * <p>
+ * Overlaps are rejected by the <code>appointments_no_overlap</code> exclusion
+ * constraint, which PostgreSQL checks against a GiST index of the
+ * <code>[date, date + duration)</code> ranges of the appointments that have a
+ * duration. Checking in the database costs an index probe per insert, covers
+ * every writer and cannot be raced by concurrent requests, whereas checking
+ * first in the application would need a query per insert and still a lock.
+ * </p>
+ * <p>
+ * The constraint only sees the first occurrence of a recurring appointment;
+ * its other occurrences are checked in the application, under a lock, by
+ * {@link AppointmentOverlapCheck}, which reports an overlap as the constraint
+ * does.
+ * </p>
+ *
+ * @see appointments.standalone.entity.Appointment#getDuration()
+ */
+public final class AppointmentOverlaps {
+
+  /**
+   * The name of the exclusion constraint that rejects overlaps.
+   */
+  public static final String CONSTRAINT = "appointments_no_overlap";
+
+  /**
+   * The SQL state of a violation of an exclusion constraint.
+   */
+  static final String EXCLUSION_VIOLATION = "23P01";
+
+  /**
+   * The error reported when an appointment overlaps another.
+   */
+  public static final String MESSAGE = "Illegal argument; the appointment "
+    + "overlaps an existing appointment";
+
+  private AppointmentOverlaps() {}
+
+  /**
+   * Returns the exception reporting an overlap found in the application, as
+   * the violation of the constraint would be reported.
+   *
+   * @return The exception. This cannot be <code>null</code>.
+   */
+  static DataIntegrityViolationException violation() {
+    return new DataIntegrityViolationException(MESSAGE,
+      new SQLException(MESSAGE, EXCLUSION_VIOLATION));
+  }
+
+  /**
+   * Returns <code>true</code> if <b>e</b>, or any of its causes, reports the
+   * violation of the exclusion constraint that rejects overlapping
+   * appointments.
+   *
+   * @param e The exception thrown by the write. This may be
+   *          <code>null</code>.
+   *
+   * @return <code>true</code> if <b>e</b> was caused by an overlap.
+   */
+  public static boolean isOverlap(final Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException && EXCLUSION_VIOLATION.equals(
+        ((SQLException) cause).getSQLState())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,95 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * <code>AppointmentPage</code> is a single keyset page of {@link Appointment}s
+ * ordered by <code>(date, id)</code>.
+ * </p>
+ * <p>
+ * <code>AppointmentPage</code> holds the cursors needed to request the
+ * previous and next pages; a <code>null</code> cursor indicates that there is
+ * no such page.
+ * </p>
+ *
+ * @see appointments.standalone.entity.Appointment
+ * @see AppointmentCursor
+ * @see AppointmentPager
+ */
+public final class AppointmentPage {
+
+  private final List<Appointment> appointments;
+  private final int size;
+  private final AppointmentCursor previous;
+  private final AppointmentCursor next;
+
+  /**
+   * Creates a new instance of <code>AppointmentPage</code>.
+   *
+   * @param appointments The <code>Appointment</code>s on the page, in
+   *          <code>(date, id)</code> order. This cannot be <code>null</code>.
+   * @param size The requested page size.
+   * @param previous The cursor for the previous page, or <code>null</code> if
+   *          this is the first page.
+   * @param next The cursor for the next page, or <code>null</code> if this is
+   *          the last page.
+   *
+   * @throws IllegalArgumentException If <b>appointments</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentPage(final List<Appointment> appointments, final int size,
+    final AppointmentCursor previous, final AppointmentCursor next) {
+    if (appointments == null) {
+      throw new IllegalArgumentException("Illegal argument; no appointments "
+        + "specified");
+    }
+    this.appointments = Collections.unmodifiableList(appointments);
+    this.size = size;
+    this.previous = previous;
+    this.next = next;
+  }
+
+  /**
+   * Returns the <code>Appointment</code>s on <i>this</i> page.
+   *
+   * @return An unmodifiable list of the <code>Appointment</code>s on
+   *          <i>this</i> page. This cannot be <code>null</code>.
+   */
+  public List<Appointment> getAppointments() {
+    return this.appointments;
+  }
+
+  /**
+   * Returns the requested size of <i>this</i> page.
+   *
+   * @return The requested size of <i>this</i> page.
+   */
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Returns the cursor for the page before <i>this</i> page.
+   *
+   * @return The cursor for the previous page, or <code>null</code> if
+   *          <i>this</i> is the first page.
+   */
+  public AppointmentCursor getPrevious() {
+    return this.previous;
+  }
+
+  /**
+   * Returns the cursor for the page after <i>this</i> page.
+   *
+   * @return The cursor for the next page, or <code>null</code> if <i>this</i>
+   *          is the last page.
+   */
+  public AppointmentCursor getNext() {
+    return this.next;
+  }
+
+}
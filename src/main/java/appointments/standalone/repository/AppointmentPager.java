@@ -0,0 +1,147 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * <p>
+ * <code>AppointmentPager</code> reads keyset pages of {@link Appointment}s in
+ * <code>(date, id)</code> order from a provided {@link AppointmentSource}.
+ * </p>
+ * <p>
+ * Each page is read with a single bounded query for one more one-off
+ * appointment than the page size, merged with the occurrences of the
+ * recurring appointments in the range, which are expanded lazily by
+ * {@link AppointmentOccurrences} and only up to the end of the page. The extra
+ * appointment indicates whether a further page exists; no count query or
+ * offset is used.
+ * </p>
+ *
+ * @see appointments.standalone.entity.Appointment
+ * @see AppointmentCursor
+ * @see AppointmentPage
+ * @see AppointmentOccurrences
+ * @see AppointmentRange
+ * @see AppointmentSource
+ */
+public final class AppointmentPager {
+
+  private final AppointmentSource appointmentSource;
+
+  /**
+   * Creates a new instance of <code>AppointmentPager</code> using the specified
+   * <b>appointmentSource</b>.
+   *
+   * @param appointmentSource An instance of {@link AppointmentSource}, such as
+   *          the {@link AppointmentRepository}. This cannot be
+   *          <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentSource</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentPager(final AppointmentSource appointmentSource) {
+    if (appointmentSource == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "appointmentSource specified");
+    }
+    this.appointmentSource = appointmentSource;
+  }
+
+  /**
+   * <p>
+   * Returns a page of at most <b>size</b> <code>Appointment</code>s within
+   * <b>range</b> in <code>(date, id)</code> order.
+   * </p>
+   * <p>
+   * If neither <b>after</b> nor <b>before</b> is specified the first page of
+   * the range is returned. A recurring appointment appears once for each of
+   * its occurrences on the page, every occurrence having the id of the
+   * series.
+   * </p>
+   *
+   * @param range The range of dates to page through. This cannot be
+   *          <code>null</code>.
+   * @param after The cursor the page should follow. This may be
+   *          <code>null</code>.
+   * @param before The cursor the page should precede. This may be
+   *          <code>null</code>.
+   * @param size The maximum number of <code>Appointment</code>s on the page.
+   *          This must be greater than zero.
+   *
+   * @return A page of <code>Appointment</code>s. This cannot be
+   *          <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>range</b> is <code>null</code>,
+   *          if both <b>after</b> and <b>before</b> are specified or if
+   *          <b>size</b> is less than one.
+   */
+  public AppointmentPage findPage(final AppointmentRange range,
+    final AppointmentCursor after, final AppointmentCursor before,
+    final int size) {
+    if (range == null || (after != null && before != null) || size < 1) {
+      final String message = String.format("Illegal argument; range==%s, "
+        + "after==%s, before==%s, size==%d", range, after, before, size);
+      throw new IllegalArgumentException(message);
+    }
+    final Date from = range.getFrom();
+    final Date to = range.getTo();
+    final Pageable pageable = PageRequest.of(0, size + 1);
+    final List<Appointment> series =
+      this.appointmentSource.findSeriesBetween(from, to);
+    final List<Appointment> appointments;
+    if (before != null) {
+      appointments = take(AppointmentOccurrences.merge(
+        this.appointmentSource.findPageBefore(from, to, before.getDate(),
+        before.getId(), pageable).iterator(),
+        AppointmentOccurrences.descending(series, range, before), true),
+        size + 1);
+      if (appointments.isEmpty()) {
+        return this.findPage(range, null, null, size);
+      }
+      final boolean hasPrevious = appointments.size() > size;
+      if (hasPrevious) {
+        appointments.remove(size);
+      }
+      Collections.reverse(appointments);
+      final AppointmentCursor previous = hasPrevious
+        ? AppointmentCursor.of(appointments.get(0)) : null;
+      final AppointmentCursor next =
+        AppointmentCursor.of(appointments.get(appointments.size() - 1));
+      return new AppointmentPage(appointments, size, previous, next);
+    }
+    final List<Appointment> oneOffs = after != null
+      ? this.appointmentSource.findPageAfter(from, to, after.getDate(),
+        after.getId(), pageable)
+      : this.appointmentSource.findBetween(from, to, pageable);
+    appointments = take(AppointmentOccurrences.merge(oneOffs.iterator(),
+      AppointmentOccurrences.ascending(series, range, after), false),
+      size + 1);
+    final boolean hasNext = appointments.size() > size;
+    if (hasNext) {
+      appointments.remove(size);
+    }
+    final AppointmentCursor previous = after != null && !appointments.isEmpty()
+      ? AppointmentCursor.of(appointments.get(0)) : null;
+    final AppointmentCursor next = hasNext
+      ? AppointmentCursor.of(appointments.get(appointments.size() - 1)) : null;
+    return new AppointmentPage(appointments, size, previous, next);
+  }
+
+  private static List<Appointment> take(final Iterator<Appointment> iterator,
+    final int limit) {
+    final List<Appointment> appointments = new ArrayList<>(limit);
+    while (appointments.size() < limit && iterator.hasNext()) {
+      appointments.add(iterator.next());
+    }
+    return appointments;
+  }
+
+}
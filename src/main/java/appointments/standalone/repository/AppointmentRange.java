@@ -0,0 +1,125 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.util.Date;
+
+/**
+ * <p>
+ * <code>AppointmentRange</code> is an immutable, half open range of instants,
+ * <code>[from, to)</code>, used to select {@link Appointment}s by date.
+ * </p>
+ * <p>
+ * An unspecified bound is replaced by a fixed sentinel instant well outside of
+ * any realistic appointment date, so that every range query can be answered by
+ * the same index range scan on <code>appointments(date, id)</code>.
+ * </p>
+ *
+ * @see appointments.standalone.entity.Appointment
+ * @see AppointmentRepository
+ */
+public final class AppointmentRange {
+
+  /**
+   * The lower sentinel bound, <code>1600-01-01T00:00:00Z</code>.
+   */
+  public static final long MIN_DATE = -11676096000000L;
+
+  /**
+   * The upper sentinel bound, <code>9000-01-01T00:00:00Z</code>.
+   */
+  public static final long MAX_DATE = 221845392000000L;
+
+  /**
+   * The range containing every <code>Appointment</code>.
+   */
+  public static final AppointmentRange ALL =
+    new AppointmentRange(MIN_DATE, MAX_DATE);
+
+  private final long from;
+  private final long to;
+
+  private AppointmentRange(final long from, final long to) {
+    this.from = from;
+    this.to = to;
+  }
+
+  /**
+   * Creates a new instance of <code>AppointmentRange</code> using the
+   * specified <b>from</b> and <b>to</b> bounds.
+   *
+   * @param from The inclusive lower bound of the range, or <code>null</code>
+   *          for an unbounded lower end.
+   * @param to The exclusive upper bound of the range, or <code>null</code> for
+   *          an unbounded upper end.
+   *
+   * @return A new instance of <code>AppointmentRange</code>.
+   *
+   * @throws IllegalArgumentException If <b>from</b> is after <b>to</b>.
+   */
+  public static AppointmentRange of(final Date from, final Date to) {
+    final long fromTime = from == null
+      ? MIN_DATE : Math.max(from.getTime(), MIN_DATE);
+    final long toTime = to == null
+      ? MAX_DATE : Math.min(to.getTime(), MAX_DATE);
+    if (fromTime > toTime) {
+      final String message = String.format("Illegal argument; from==%s, "
+        + "to==%s", from, to);
+      throw new IllegalArgumentException(message);
+    }
+    return new AppointmentRange(fromTime, toTime);
+  }
+
+  /**
+   * Returns the inclusive lower bound of <i>this</i> range.
+   *
+   * @return The inclusive lower bound of <i>this</i> range. This cannot be
+   *          <code>null</code>.
+   */
+  public Date getFrom() {
+    return new Date(this.from);
+  }
+
+  /**
+   * Returns the exclusive upper bound of <i>this</i> range.
+   *
+   * @return The exclusive upper bound of <i>this</i> range. This cannot be
+   *          <code>null</code>.
+   */
+  public Date getTo() {
+    return new Date(this.to);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(final Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof AppointmentRange)) {
+      return false;
+    }
+    final AppointmentRange range = (AppointmentRange) object;
+    return this.from == range.from && this.to == range.to;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return 31 * Long.hashCode(this.from) + Long.hashCode(this.to);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return String.format("AppointmentRange[from=%d, to=%d]", this.from,
+      this.to);
+  }
+
+}
@@ -2,9 +2,232 @@ package appointments.standalone.repository;
 
 import appointments.standalone.entity.Appointment;
 
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * <p>
+ * <code>AppointmentRepository</code> is the repository for the
+ * {@link Appointment} entity.
+ * </p>
+ * <p>
+ * Listings are keyset paginated on <code>(date, id)</code> and every query is
+ * bounded by a date range, so that each one is answered by a range scan of the
+ * <code>appointments(date, id)</code> index and its cost does not depend on the
+ * size of the table or how far into the table the page is.
+ * </p>
+ * <p>
+ * Recurring appointments are stored once, dated at their first occurrence.
+ * The listing queries only return one-off appointments and the series that
+ * may occur within a range are read separately, see {@link AppointmentSource}.
+ * </p>
+ * <p>
+ * The results of the listing queries are held in Hibernate's query cache,
+ * which Hibernate invalidates whenever it writes to the
+ * <code>appointments</code> table; writes that bypass Hibernate must evict
+ * the cache themselves, see
+ * {@link appointments.standalone.cache.AppointmentCaches#evict()}.
+ * </p>
+ * <p>
+ * The one-off appointments of a listing are read as a projection of their
+ * columns into detached <code>Appointment</code>s, as the in-memory index
+ * returns them, rather than as managed entities: they are never added to the
+ * persistence context, so Hibernate keeps no snapshot of them to dirty check
+ * and the query cache holds their columns rather than their ids. The listing
+ * queries run in read-only transactions, which do not flush, and the series
+ * they need are read as read-only entities.
+ * </p>
+ *
+ * @see appointments.standalone.entity.Appointment
+ * @see AppointmentCursor
+ * @see AppointmentPager
+ * @see AppointmentRange
+ * @see AppointmentSearch
+ * @see AppointmentSource
+ */
 public interface AppointmentRepository
-  extends CrudRepository<Appointment, Long> {
+  extends CrudRepository<Appointment, Long>, AppointmentSource {
+
+  /**
+   * The JPQL select clause of the listing queries, which projects the columns
+   * of a one-off appointment into a detached <code>Appointment</code>.
+   */
+  String LISTING_SELECT = "SELECT new appointments.standalone.entity"
+    + ".Appointment(a.id, a.date, a.duration, a.description) ";
+
+  /**
+   * The PostgreSQL query of {@link #search(String, Date, Date, int, int)},
+   * answered from the GIN index on the description's words.
+   * <p>
+   * The matches are read in a subquery fenced by <code>OFFSET 0</code>, so
+   * the date range only filters them: otherwise the generic plan of the
+   * prepared statement, which cannot see how wide the range is, combines the
+   * GIN index with a scan of the <code>appointments(date, id)</code> index
+   * over the whole range, and the search reads the index entries of every
+   * appointment in the range rather than only its matches.
+   * </p>
+   */
+  String SEARCH_QUERY = "SELECT * FROM (SELECT * FROM appointments "
+    + "WHERE to_tsvector('simple', description) "
+    + "@@ to_tsquery('simple', :query) OFFSET 0) AS a "
+    + "WHERE date >= :from AND date < :to "
+    + "ORDER BY ts_rank(to_tsvector('simple', description), "
+    + "to_tsquery('simple', :query)) DESC, date ASC, id ASC "
+    + "LIMIT :limit OFFSET :offset";
+
+  @Override
+  @Transactional(readOnly=true)
+  @QueryHints(@QueryHint(
+    name=org.hibernate.jpa.HibernateHints.HINT_CACHEABLE,
+    value="true"
+  ))
+  @Query(LISTING_SELECT + "FROM Appointment a WHERE a.recurrence IS NULL "
+    + "AND a.date >= :from AND a.date < :to ORDER BY a.date ASC, a.id ASC")
+  List<Appointment> findBetween(@Param("from") Date from,
+    @Param("to") Date to, Pageable pageable);
+
+  /**
+   * <p>
+   * Returns a <code>Stream</code> of every one-off <code>Appointment</code>
+   * dated within <code>[from, to)</code> in <code>(date, id)</code> order.
+   * </p>
+   * <p>
+   * Rows are fetched from the database in batches as the stream is consumed,
+   * so the stream must be consumed and closed within the transaction it was
+   * opened in. They bypass the second-level cache, so that streaming a large
+   * range, such as an export or the load of the in-memory index, does not
+   * evict the appointments the cache holds for listings.
+   * </p>
+   *
+   * @param from The inclusive lower bound of the range.
+   * @param to The exclusive upper bound of the range.
+   *
+   * @return A <code>Stream</code> of the one-off <code>Appointment</code>s
+   *          within the range in <code>(date, id)</code> order.
+   */
+  @QueryHints({
+    @QueryHint(
+      name=org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE,
+      value="500"
+    ),
+    @QueryHint(
+      name=org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE,
+      value="IGNORE"
+    )
+  })
+  @Query("SELECT a FROM Appointment a WHERE a.recurrence IS NULL "
+    + "AND a.date >= :from AND a.date < :to ORDER BY a.date ASC, a.id ASC")
+  Stream<Appointment> streamBetween(@Param("from") Date from,
+    @Param("to") Date to);
+
+  @Override
+  @Transactional(readOnly=true)
+  @QueryHints({
+    @QueryHint(
+      name=org.hibernate.jpa.HibernateHints.HINT_CACHEABLE,
+      value="true"
+    ),
+    @QueryHint(
+      name=org.hibernate.jpa.HibernateHints.HINT_READ_ONLY,
+      value="true"
+    )
+  })
+  @Query("SELECT a FROM Appointment a WHERE a.recurrence IS NOT NULL "
+    + "AND a.date < :to AND (a.recurrenceUntil IS NULL "
+    + "OR a.recurrenceUntil > :from) ORDER BY a.date ASC, a.id ASC")
+  List<Appointment> findSeriesBetween(@Param("from") Date from,
+    @Param("to") Date to);
+
+  /**
+   * Returns the date and duration of every one-off <code>Appointment</code>
+   * with a duration dated within <code>[from, to)</code>, in order of date.
+   *
+   * @param from The inclusive lower bound of the range.
+   * @param to The exclusive upper bound of the range.
+   *
+   * @return The <code>{date, duration}</code> pairs of the appointments
+   *          within the range in order of date.
+   */
+  @Transactional(readOnly=true)
+  @QueryHints(@QueryHint(
+    name=org.hibernate.jpa.HibernateHints.HINT_CACHEABLE,
+    value="true"
+  ))
+  @Query("SELECT a.date, a.duration FROM Appointment a "
+    + "WHERE a.duration IS NOT NULL AND a.recurrence IS NULL "
+    + "AND a.date >= :from AND a.date < :to "
+    + "ORDER BY a.date ASC, a.id ASC")
+  List<Object[]> findIntervalsBetween(@Param("from") Date from,
+    @Param("to") Date to);
+
+  /**
+   * <p>
+   * Returns the <code>Appointment</code>s dated within <code>[from, to)</code>
+   * whose descriptions match the PostgreSQL <code>tsquery</code>
+   * <b>query</b>, best matches first.
+   * </p>
+   * <p>
+   * Matches are ranked by <code>ts_rank</code>, then ordered by
+   * <code>(date, id)</code>. The cost of a search depends on the number of
+   * matching appointments rather than the size of the table; see
+   * {@link AppointmentSearch}, which builds the query and bounds the offset.
+   * </p>
+   *
+   * @param query The <code>tsquery</code>, in the <code>simple</code>
+   *          configuration.
+   * @param from The inclusive lower bound of the range.
+   * @param to The exclusive upper bound of the range.
+   * @param limit The maximum number of appointments to return.
+   * @param offset The number of matches to skip.
+   *
+   * @return The matching <code>Appointment</code>s, best matches first.
+   */
+  @Transactional(readOnly=true)
+  @QueryHints(@QueryHint(
+    name=org.hibernate.jpa.HibernateHints.HINT_READ_ONLY,
+    value="true"
+  ))
+  @Query(value=SEARCH_QUERY, nativeQuery=true)
+  List<Appointment> search(@Param("query") String query,
+    @Param("from") Date from, @Param("to") Date to, @Param("limit") int limit,
+    @Param("offset") int offset);
+
+  @Override
+  @Transactional(readOnly=true)
+  @QueryHints(@QueryHint(
+    name=org.hibernate.jpa.HibernateHints.HINT_CACHEABLE,
+    value="true"
+  ))
+  @Query(LISTING_SELECT + "FROM Appointment a WHERE a.recurrence IS NULL "
+    + "AND a.date >= :date "
+    + "AND (a.date > :date OR a.id > :id) AND a.date >= :from "
+    + "AND a.date < :to ORDER BY a.date ASC, a.id ASC")
+  List<Appointment> findPageAfter(@Param("from") Date from,
+    @Param("to") Date to, @Param("date") Date date, @Param("id") long id,
+    Pageable pageable);
+
+  @Override
+  @Transactional(readOnly=true)
+  @QueryHints(@QueryHint(
+    name=org.hibernate.jpa.HibernateHints.HINT_CACHEABLE,
+    value="true"
+  ))
+  @Query(LISTING_SELECT + "FROM Appointment a WHERE a.recurrence IS NULL "
+    + "AND a.date <= :date "
+    + "AND (a.date < :date OR a.id < :id) AND a.date >= :from "
+    + "AND a.date < :to ORDER BY a.date DESC, a.id DESC")
+  List<Appointment> findPageBefore(@Param("from") Date from,
+    @Param("to") Date to, @Param("date") Date date, @Param("id") long id,
+    Pageable pageable);
 
 }
@@ -0,0 +1,143 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * <p>
+ * <code>AppointmentSearch</code> reads numbered pages of the
+ * {@link Appointment}s whose descriptions match a search, best matches first,
+ * from a provided {@link AppointmentRepository}.
+ * </p>
+ * <p>
+ * A search is a PostgreSQL full-text query answered from the GIN index on the
+ * words of the descriptions: every word of the search must begin a word of
+ * the description, in any case, and matches are ranked by
+ * <code>ts_rank</code>. As with {@link AppointmentPager}, each page is read
+ * with a single query for one more row than the page size and no count query
+ * is used. Ranked results cannot be keyset paginated by
+ * <code>(date, id)</code>, so pages are numbered; to keep deep pages cheap,
+ * only the first {@link #MAX_RESULTS} matches can be paged through.
+ * </p>
+ * <p>
+ * The in-memory index is not used, and a recurring appointment is matched
+ * once, at its first occurrence.
+ * </p>
+ *
+ * @see AppointmentRepository#search(String, java.util.Date, java.util.Date,
+ *          int, int)
+ * @see AppointmentSearchPage
+ */
+public final class AppointmentSearch {
+
+  /**
+   * The number of matches that can be paged through.
+   */
+  public static final int MAX_RESULTS = 1000;
+
+  /**
+   * The largest number of words of a search that are used.
+   */
+  public static final int MAX_WORDS = 8;
+
+  private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private final AppointmentRepository appointmentRepository;
+
+  /**
+   * Creates a new instance of <code>AppointmentSearch</code> using the
+   * specified <b>appointmentRepository</b>.
+   *
+   * @param appointmentRepository An instance of {@link AppointmentRepository}.
+   *          This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentRepository</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentSearch(final AppointmentRepository appointmentRepository) {
+    if (appointmentRepository == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "appointmentRepository specified");
+    }
+    this.appointmentRepository = appointmentRepository;
+  }
+
+  /**
+   * Returns page <b>number</b> of at most <b>size</b> <code>Appointment</code>s
+   * within <b>range</b> whose descriptions match <b>search</b>, best matches
+   * first.
+   *
+   * @param search The words to search for. This must contain at least one
+   *          letter or digit.
+   * @param range The range of dates to search. This cannot be
+   *          <code>null</code>.
+   * @param number The number of the page, from zero.
+   * @param size The maximum number of <code>Appointment</code>s on the page.
+   *          This must be greater than zero.
+   *
+   * @return A page of <code>Appointment</code>s. This cannot be
+   *          <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>search</b> has no words, if
+   *          <b>range</b> is <code>null</code>, if <b>size</b> is less than
+   *          one or if the page starts beyond the first {@link #MAX_RESULTS}
+   *          matches.
+   */
+  public AppointmentSearchPage findPage(final String search,
+    final AppointmentRange range, final int number, final int size) {
+    if (range == null || number < 0 || size < 1
+      || (long) number * size >= MAX_RESULTS) {
+      final String message = String.format("Illegal argument; range==%s, "
+        + "number==%d, size==%d", range, number, size);
+      throw new IllegalArgumentException(message);
+    }
+    final int offset = number * size;
+    final int limit = Math.min(size, MAX_RESULTS - offset);
+    final List<Appointment> appointments = new ArrayList<>(
+      this.appointmentRepository.search(toQuery(search), range.getFrom(),
+      range.getTo(), limit + 1, offset));
+    final boolean hasNext =
+      appointments.size() > limit && offset + limit < MAX_RESULTS;
+    while (appointments.size() > limit) {
+      appointments.remove(appointments.size() - 1);
+    }
+    return new AppointmentSearchPage(appointments, size, number, hasNext);
+  }
+
+  /**
+   * Returns the PostgreSQL <code>tsquery</code> matching descriptions with a
+   * word beginning with each of the first {@link #MAX_WORDS} words of
+   * <b>search</b>; for example <code>"Dentist, ann"</code> is
+   * <code>"dentist:* &amp; ann:*"</code>.
+   *
+   * @param search The words to search for.
+   *
+   * @return The <code>tsquery</code>. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>search</b> is <code>null</code>
+   *          or contains no letter or digit.
+   */
+  public static String toQuery(final String search) {
+    final List<String> words = new ArrayList<>();
+    if (search != null) {
+      for (final String word : NON_WORD.split(search)) {
+        if (!word.isEmpty() && words.size() < MAX_WORDS) {
+          words.add(word.toLowerCase(Locale.ROOT) + ":*");
+        }
+      }
+    }
+    if (words.isEmpty()) {
+      final String message = String.format("Illegal argument; search==%s",
+        search);
+      throw new IllegalArgumentException(message);
+    }
+    return StringUtils.join(words, " & ");
+  }
+
+}
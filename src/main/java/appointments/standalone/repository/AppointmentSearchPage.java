@@ -0,0 +1,100 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * <code>AppointmentSearchPage</code> is a single numbered page of the
+ * {@link Appointment}s matching a search, best matches first.
+ * </p>
+ * <p>
+ * <code>AppointmentSearchPage</code> holds the numbers of the previous and
+ * next pages; a <code>null</code> number indicates that there is no such page.
+ * </p>
+ *
+ * @see appointments.standalone.entity.Appointment
+ * @see AppointmentSearch
+ */
+public final class AppointmentSearchPage {
+
+  private final List<Appointment> appointments;
+  private final int size;
+  private final int number;
+  private final boolean hasNext;
+
+  /**
+   * Creates a new instance of <code>AppointmentSearchPage</code>.
+   *
+   * @param appointments The <code>Appointment</code>s on the page, best
+   *          matches first. This cannot be <code>null</code>.
+   * @param size The requested page size.
+   * @param number The number of the page, from zero.
+   * @param hasNext <code>true</code> if there is a next page.
+   *
+   * @throws IllegalArgumentException If <b>appointments</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentSearchPage(final List<Appointment> appointments,
+    final int size, final int number, final boolean hasNext) {
+    if (appointments == null) {
+      throw new IllegalArgumentException("Illegal argument; no appointments "
+        + "specified");
+    }
+    this.appointments = Collections.unmodifiableList(appointments);
+    this.size = size;
+    this.number = number;
+    this.hasNext = hasNext;
+  }
+
+  /**
+   * Returns the <code>Appointment</code>s on <i>this</i> page.
+   *
+   * @return An unmodifiable list of the <code>Appointment</code>s on
+   *          <i>this</i> page. This cannot be <code>null</code>.
+   */
+  public List<Appointment> getAppointments() {
+    return this.appointments;
+  }
+
+  /**
+   * Returns the requested size of <i>this</i> page.
+   *
+   * @return The requested size of <i>this</i> page.
+   */
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Returns the number of <i>this</i> page.
+   *
+   * @return The number of <i>this</i> page, from zero.
+   */
+  public int getNumber() {
+    return this.number;
+  }
+
+  /**
+   * Returns the number of the page before <i>this</i> page.
+   *
+   * @return The number of the previous page, or <code>null</code> if
+   *          <i>this</i> is the first page.
+   */
+  public Integer getPrevious() {
+    return this.number > 0 ? this.number - 1 : null;
+  }
+
+  /**
+   * Returns the number of the page after <i>this</i> page.
+   *
+   * @return The number of the next page, or <code>null</code> if <i>this</i>
+   *          is the last page.
+   */
+  public Integer getNext() {
+    return this.hasNext ? this.number + 1 : null;
+  }
+
+}
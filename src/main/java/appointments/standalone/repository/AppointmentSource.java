@@ -0,0 +1,89 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+
+/**
+ * <p>
+ * <code>AppointmentSource</code> is a source of keyset pages of
+ * {@link Appointment}s in <code>(date, id)</code> order, read by
+ * {@link AppointmentPager}.
+ * </p>
+ * <p>
+ * The page methods only return one-off appointments; recurring appointments
+ * are returned once each by {@link #findSeriesBetween(Date, Date)} and their
+ * occurrences are expanded by {@link AppointmentOccurrences}.
+ * </p>
+ *
+ * @see AppointmentPager
+ * @see AppointmentRepository
+ * @see appointments.standalone.index.AppointmentIndex
+ */
+public interface AppointmentSource {
+
+  /**
+   * Returns the first one-off <code>Appointment</code>s dated within
+   * <code>[from, to)</code> in <code>(date, id)</code> order.
+   *
+   * @param from The inclusive lower bound of the range.
+   * @param to The exclusive upper bound of the range.
+   * @param pageable The limit of the page; only the page size is used.
+   *
+   * @return The first one-off <code>Appointment</code>s within the range in
+   *          <code>(date, id)</code> order.
+   */
+  List<Appointment> findBetween(Date from, Date to, Pageable pageable);
+
+  /**
+   * Returns the one-off <code>Appointment</code>s dated within
+   * <code>[from, to)</code> following the position <code>(date, id)</code> in
+   * <code>(date, id)</code> order.
+   *
+   * @param from The inclusive lower bound of the range.
+   * @param to The exclusive upper bound of the range.
+   * @param date The date of the position.
+   * @param id The id of the position.
+   * @param pageable The limit of the page; only the page size is used.
+   *
+   * @return The one-off <code>Appointment</code>s within the range following
+   *          the position in <code>(date, id)</code> order.
+   */
+  List<Appointment> findPageAfter(Date from, Date to, Date date, long id,
+    Pageable pageable);
+
+  /**
+   * Returns the one-off <code>Appointment</code>s dated within
+   * <code>[from, to)</code> preceding the position <code>(date, id)</code> in
+   * <b>descending</b> <code>(date, id)</code> order.
+   *
+   * @param from The inclusive lower bound of the range.
+   * @param to The exclusive upper bound of the range.
+   * @param date The date of the position.
+   * @param id The id of the position.
+   * @param pageable The limit of the page; only the page size is used.
+   *
+   * @return The one-off <code>Appointment</code>s within the range preceding
+   *          the position in descending <code>(date, id)</code> order.
+   */
+  List<Appointment> findPageBefore(Date from, Date to, Date date, long id,
+    Pageable pageable);
+
+  /**
+   * Returns every recurring <code>Appointment</code> that may have an
+   * occurrence within <code>[from, to)</code>, that is every series starting
+   * before <b>to</b> that does not end by <b>from</b>, in
+   * <code>(date, id)</code> order.
+   *
+   * @param from The inclusive lower bound of the range.
+   * @param to The exclusive upper bound of the range.
+   *
+   * @return The recurring <code>Appointment</code>s that may occur within the
+   *          range in <code>(date, id)</code> order.
+   */
+  List<Appointment> findSeriesBetween(Date from, Date to);
+
+}
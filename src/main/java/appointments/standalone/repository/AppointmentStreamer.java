@@ -0,0 +1,205 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * <p>
+ * <code>AppointmentStreamer</code> hands every {@link Appointment} within an
+ * {@link AppointmentRange} to a callback, in <code>(date, id)</code> order,
+ * without holding the range in memory.
+ * </p>
+ * <p>
+ * The one-off appointments are read through
+ * {@link AppointmentRepository#streamBetween(java.util.Date, java.util.Date)},
+ * a forward only cursor fetched in batches, within a read only transaction.
+ * Each is detached from the persistence context once the callback returns, so
+ * memory use does not grow with the size of the range, and none is put in the
+ * second-level cache: the rows of a stream are loaded as it is consumed, after
+ * the query has run, so the transaction's own cache store mode is set to
+ * bypass as well as the query's. The recurring
+ * appointments with an occurrence in the range, including those that started
+ * before it, are read as a list through
+ * {@link AppointmentRepository#findSeriesBetween(java.util.Date,
+ * java.util.Date)} and merged with them: as they are stored by
+ * {@link #forEach(AppointmentRange, Callback)}, or as their occurrences by
+ * {@link #forEachOccurrence(AppointmentRange, Callback)}, expanded lazily by
+ * {@link AppointmentOccurrences}.
+ * </p>
+ *
+ * @see appointments.standalone.entity.Appointment
+ * @see AppointmentRange
+ * @see AppointmentRepository
+ */
+@Component
+public final class AppointmentStreamer {
+
+  /**
+   * <code>Callback</code> receives each streamed <code>Appointment</code>.
+   */
+  @FunctionalInterface
+  public interface Callback {
+
+    /**
+     * Receives the next <code>Appointment</code> of the range.
+     *
+     * @param appointment The next <code>Appointment</code>. This cannot be
+     *          <code>null</code>.
+     *
+     * @throws IOException If the appointment cannot be written.
+     */
+    void accept(Appointment appointment) throws IOException;
+
+  }
+
+  private static final String CACHE_STORE_MODE =
+    "jakarta.persistence.cache.storeMode";
+
+  private final AppointmentRepository appointmentRepository;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final EntityManager entityManager;
+
+  /**
+   * Creates a new instance of <code>AppointmentStreamer</code> using the
+   * specified <b>appointmentRepository</b>, <b>transactionManager</b> and
+   * <b>entityManager</b>.
+   *
+   * @param appointmentRepository An instance of {@link AppointmentRepository}.
+   *          This cannot be <code>null</code>.
+   * @param transactionManager The <code>PlatformTransactionManager</code> used
+   *          to hold a read only transaction open while a range is streamed.
+   *          This cannot be <code>null</code>.
+   * @param entityManager The shared <code>EntityManager</code> used to detach
+   *          streamed appointments. This cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentRepository</b>,
+   *          <b>transactionManager</b> or <b>entityManager</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentStreamer(
+    @Autowired
+    final AppointmentRepository appointmentRepository,
+    @Autowired
+    final PlatformTransactionManager transactionManager,
+    @Autowired
+    final EntityManager entityManager
+  ) {
+    if (appointmentRepository == null || transactionManager == null
+      || entityManager == null) {
+      final String message = String.format("Illegal argument; "
+        + "appointmentRepository=={%s}, transactionManager=={%s}, "
+        + "entityManager=={%s}", appointmentRepository != null,
+        transactionManager != null, entityManager != null);
+      throw new IllegalArgumentException(message);
+    }
+    this.appointmentRepository = appointmentRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.entityManager = entityManager;
+  }
+
+  /**
+   * Hands every one-off <code>Appointment</code> within <b>range</b>, and
+   * every recurring appointment with an occurrence within <b>range</b>, once,
+   * to <b>callback</b>, in <code>(date, id)</code> order.
+   *
+   * @param range The range of dates to stream. This cannot be
+   *          <code>null</code>.
+   * @param callback The <code>Callback</code> to receive the appointments.
+   *          This cannot be <code>null</code>.
+   *
+   * @return The number of appointments streamed.
+   *
+   * @throws IllegalArgumentException If <b>range</b> or <b>callback</b> is
+   *          <code>null</code>.
+   * @throws IOException If <b>callback</b> throws an
+   *          <code>IOException</code>; the stream is closed and no further
+   *          appointments are read.
+   */
+  public long forEach(final AppointmentRange range, final Callback callback)
+    throws IOException {
+    return this.forEach(range, callback, false);
+  }
+
+  /**
+   * Hands every one-off <code>Appointment</code> within <b>range</b>, and
+   * every occurrence within <b>range</b> of a recurring appointment, to
+   * <b>callback</b>, in <code>(date, id)</code> order. Each occurrence is a
+   * detached <code>Appointment</code>, as returned by
+   * {@link Appointment#getOccurrence(long)}.
+   *
+   * @param range The range of dates to stream. This cannot be
+   *          <code>null</code>.
+   * @param callback The <code>Callback</code> to receive the appointments and
+   *          occurrences. This cannot be <code>null</code>.
+   *
+   * @return The number of appointments and occurrences streamed.
+   *
+   * @throws IllegalArgumentException If <b>range</b> or <b>callback</b> is
+   *          <code>null</code>.
+   * @throws IOException If <b>callback</b> throws an
+   *          <code>IOException</code>; the stream is closed and no further
+   *          appointments are read.
+   */
+  public long forEachOccurrence(final AppointmentRange range,
+    final Callback callback) throws IOException {
+    return this.forEach(range, callback, true);
+  }
+
+  private long forEach(final AppointmentRange range, final Callback callback,
+    final boolean occurrences) throws IOException {
+    if (range == null || callback == null) {
+      final String message = String.format("Illegal argument; range==%s, "
+        + "callback=={%s}", range, callback != null);
+      throw new IllegalArgumentException(message);
+    }
+    try {
+      final Long count = this.transactionTemplate.execute(status -> {
+        long streamed = 0;
+        this.entityManager.setProperty(CACHE_STORE_MODE,
+          CacheStoreMode.BYPASS);
+        final List<Appointment> series = this.appointmentRepository
+          .findSeriesBetween(range.getFrom(), range.getTo());
+        try (final Stream<Appointment> appointments = this
+          .appointmentRepository.streamBetween(range.getFrom(),
+          range.getTo())) {
+          final Iterator<Appointment> iterator = AppointmentOccurrences.merge(
+            appointments.iterator(), occurrences
+            ? AppointmentOccurrences.ascending(series, range, null)
+            : series.iterator(), false);
+          Appointment appointment;
+          while (iterator.hasNext()) {
+            appointment = iterator.next();
+            callback.accept(appointment);
+            if (appointment.getRecurrence() == null) {
+              this.entityManager.detach(appointment);
+            }
+            streamed++;
+          }
+        } catch (final IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        return streamed;
+      });
+      return count == null ? 0 : count;
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+}
@@ -0,0 +1,81 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * <p>
+ * <code>AppointmentVersion</code> is a version stamp of the
+ * <code>appointments</code> table, incremented on every write of an
+ * {@link Appointment}; two reads that see the same version see the same
+ * appointments.
+ * </p>
+ * <p>
+ * The version is seeded with the time the application started so that an
+ * entity tag issued before a restart is never mistaken for a current one. A
+ * write made within a transaction increments the version immediately and
+ * again once the transaction completes, so a read that raced the write cannot
+ * hold on to a version that outlives its stale view of the table.
+ * </p>
+ *
+ * @see AppointmentVersionListener
+ */
+@Component
+public final class AppointmentVersion {
+
+  private final AtomicLong version =
+    new AtomicLong(System.currentTimeMillis());
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(AppointmentVersion.class);
+
+  /**
+   * Returns the current version.
+   *
+   * @return The current version.
+   */
+  public long get() {
+    return this.version.get();
+  }
+
+  /**
+   * Returns the current version as an HTTP entity tag.
+   *
+   * @return The current version, quoted.
+   */
+  public String getETag() {
+    return "\"" + Long.toHexString(this.get()) + "\"";
+  }
+
+  /**
+   * Increments the version, and increments it again when the current
+   * transaction completes, if there is one.
+   */
+  public void increment() {
+    final long incremented = this.version.incrementAndGet();
+    LOGGER.trace("increment returns {}", incremented);
+    if (TransactionSynchronizationManager.isSynchronizationActive()
+      && !TransactionSynchronizationManager.hasResource(this)) {
+      TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+
+          @Override
+          public void afterCompletion(final int status) {
+            TransactionSynchronizationManager
+              .unbindResourceIfPossible(AppointmentVersion.this);
+            AppointmentVersion.this.version.incrementAndGet();
+          }
+
+        });
+    }
+  }
+
+}
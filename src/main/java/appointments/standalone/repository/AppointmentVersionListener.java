@@ -0,0 +1,62 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * <p>
+ * <code>AppointmentVersionListener</code> is a JPA entity listener that
+ * increments the {@link AppointmentVersion} whenever an {@link Appointment}
+ * is inserted, updated or deleted, whether through
+ * {@link AppointmentRepository} or {@link AppointmentBatchWriter}.
+ * </p>
+ * <p>
+ * Hibernate obtains the listener from the Spring application context.
+ * </p>
+ *
+ * @see AppointmentVersion
+ */
+public final class AppointmentVersionListener {
+
+  private final AppointmentVersion appointmentVersion;
+
+  /**
+   * Creates a new instance of <code>AppointmentVersionListener</code> using
+   * the specified <b>appointmentVersion</b>.
+   *
+   * @param appointmentVersion An instance of {@link AppointmentVersion}. This
+   *          cannot be <code>null</code>.
+   *
+   * @throws IllegalArgumentException If <b>appointmentVersion</b> is
+   *          <code>null</code>.
+   */
+  public AppointmentVersionListener(
+    @Autowired
+    final AppointmentVersion appointmentVersion
+  ) {
+    if (appointmentVersion == null) {
+      throw new IllegalArgumentException("Illegal argument; no "
+        + "appointmentVersion specified");
+    }
+    this.appointmentVersion = appointmentVersion;
+  }
+
+  /**
+   * Increments the {@link AppointmentVersion} after <b>appointment</b> has
+   * been written.
+   *
+   * @param appointment The <code>Appointment</code> written.
+   */
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void written(final Appointment appointment) {
+    this.appointmentVersion.increment();
+  }
+
+}
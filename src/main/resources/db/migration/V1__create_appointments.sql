@@ -0,0 +1,5 @@
+CREATE TABLE appointments(
+  id serial PRIMARY KEY,
+  date TIMESTAMP NOT NULL,
+  description VARCHAR(255) NOT NULL
+);
@@ -0,0 +1,3 @@
+-- Serves the keyset pagination and date range queries of
+-- AppointmentRepository with an index range scan.
+CREATE INDEX appointments_date_id_idx ON appointments(date, id);
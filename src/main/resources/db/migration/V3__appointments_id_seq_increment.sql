@@ -0,0 +1,9 @@
+-- Lets Hibernate's pooled optimizer reserve Appointment.ID_ALLOCATION_SIZE
+-- ids per call to nextval; rows inserted with the column default still take
+-- one value of the sequence each and cannot collide with a reserved block.
+--
+-- Each such row, as copied by AppointmentCsvImporter, uses up an increment
+-- of the sequence, so the id and the sequence are widened to BIGINT: as
+-- INTEGER the ids would run out after some 43 million rows.
+ALTER TABLE appointments ALTER COLUMN id TYPE BIGINT;
+ALTER SEQUENCE appointments_id_seq AS BIGINT INCREMENT BY 50;
@@ -0,0 +1,12 @@
+-- The optional length of an appointment in minutes; an appointment without one
+-- only marks an instant and cannot overlap another.
+ALTER TABLE appointments ADD COLUMN duration INTEGER
+  CHECK (duration BETWEEN 1 AND 1440);
+-- Rejects any appointment whose [date, date + duration) overlaps that of
+-- another. The constraint is backed by a GiST index on the ranges, so each
+-- insert is checked with an index probe rather than a scan of the day's
+-- appointments; see AppointmentOverlaps.
+ALTER TABLE appointments ADD CONSTRAINT appointments_no_overlap
+  EXCLUDE USING gist (
+    tsrange(date, date + duration * INTERVAL '1 minute', '[)') WITH &&
+  ) WHERE (duration IS NOT NULL);
@@ -0,0 +1,13 @@
+-- The optional rule by which an appointment repeats, and the exclusive end of
+-- its occurrences. A recurring appointment is stored once, dated at its first
+-- occurrence; the occurrences within a requested range are expanded by the
+-- application, see AppointmentOccurrences.
+ALTER TABLE appointments ADD COLUMN recurrence VARCHAR(16)
+  CHECK (recurrence IN ('DAILY', 'WEEKLY', 'MONTHLY'));
+ALTER TABLE appointments ADD COLUMN recurrence_until TIMESTAMP
+  CHECK (recurrence_until IS NULL
+    OR (recurrence IS NOT NULL AND recurrence_until > date));
+-- Answers the series that may occur within a range without scanning the
+-- one-off appointments.
+CREATE INDEX appointments_recurrence_date_id
+  ON appointments (date, id) WHERE recurrence IS NOT NULL;
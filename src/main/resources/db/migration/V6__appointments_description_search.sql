@@ -0,0 +1,7 @@
+-- Serves the full-text search of AppointmentRepository.search: the GIN index
+-- maps each word of a description to the appointments containing it, so a
+-- search reads the posting lists of its words rather than scanning the table.
+-- The 'simple' configuration neither stems nor drops stop words, as the
+-- descriptions are not all English; the expression must match the query's.
+CREATE INDEX appointments_description_search_idx ON appointments
+  USING gin (to_tsvector('simple', description));
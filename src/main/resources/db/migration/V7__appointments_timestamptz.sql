@@ -0,0 +1,18 @@
+-- Stores the dates of appointments as instants. The existing TIMESTAMP values
+-- were written in the default time zone of the JVM that wrote them, so they
+-- are read in the session's time zone: apply this script with that zone, for
+-- example PGTZ=Europe/London psql -d appointments -f ...
+--
+-- The overlap constraint is rebuilt over the dates in UTC, as adding an
+-- interval to a TIMESTAMPTZ depends on the session's time zone and cannot be
+-- indexed.
+ALTER TABLE appointments DROP CONSTRAINT appointments_no_overlap;
+ALTER TABLE appointments
+  ALTER COLUMN date TYPE TIMESTAMPTZ USING date::TIMESTAMPTZ,
+  ALTER COLUMN recurrence_until TYPE TIMESTAMPTZ
+    USING recurrence_until::TIMESTAMPTZ;
+ALTER TABLE appointments ADD CONSTRAINT appointments_no_overlap
+  EXCLUDE USING gist (
+    tsrange(date AT TIME ZONE 'UTC',
+      (date AT TIME ZONE 'UTC') + duration * INTERVAL '1 minute', '[)') WITH &&
+  ) WHERE (duration IS NOT NULL);
@@ -0,0 +1,8 @@
+-- The time zone a recurring appointment was created in, in which its
+-- occurrences keep their time of day and day of the month, see Recurrence.
+-- Series stored before it was recorded were expanded in UTC and keep that
+-- zone.
+ALTER TABLE appointments ADD COLUMN recurrence_zone VARCHAR(64);
+UPDATE appointments SET recurrence_zone = 'UTC' WHERE recurrence IS NOT NULL;
+ALTER TABLE appointments ADD CONSTRAINT appointments_recurrence_zone
+  CHECK ((recurrence IS NULL) = (recurrence_zone IS NULL));
@@ -0,0 +1,80 @@
+-- Optional: range-partitions the appointments table by the month of its date,
+-- in UTC; applied when spring.flyway.locations also lists
+-- classpath:db/partitioning, and needs PostgreSQL 11 or later.
+--
+-- Every query of AppointmentRepository is bounded by a date range, so the
+-- planner only scans the partitions of the months within it, and the rows of
+-- an old month can be archived by detaching its partition rather than by
+-- deleting them:
+--   ALTER TABLE appointments DETACH PARTITION appointments_2019_01;
+--
+-- The primary key of a partitioned table must include the partition key, so
+-- it becomes (id, date); ids are still only taken from appointments_id_seq.
+-- An exclusion constraint cannot span partitions, so appointments_no_overlap
+-- is kept on each partition: an appointment running past midnight at the end
+-- of a month is not checked against those early on the first of the next.
+
+-- Creates the partition of the month of the specified date, moving its rows
+-- out of the default partition; call it ahead of each month, for example
+--   SELECT appointments_add_month_partition(DATE '2027-11-01');
+-- Months without a partition are held in appointments_default until then.
+CREATE FUNCTION appointments_add_month_partition(month DATE)
+  RETURNS VOID AS $$
+DECLARE
+  first_day DATE := date_trunc('month', month::TIMESTAMP)::DATE;
+  partition_name TEXT := 'appointments_' || to_char(first_day, 'YYYY_MM');
+  lower_bound TIMESTAMPTZ := first_day::TIMESTAMP AT TIME ZONE 'UTC';
+  upper_bound TIMESTAMPTZ :=
+    (first_day + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC';
+BEGIN
+  IF to_regclass(partition_name) IS NOT NULL THEN
+    RETURN;
+  END IF;
+  EXECUTE format('CREATE TABLE %I (LIKE appointments '
+    || 'INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+  EXECUTE format('WITH moved AS (DELETE FROM appointments_default '
+    || 'WHERE date >= $1 AND date < $2 RETURNING *) '
+    || 'INSERT INTO %I SELECT * FROM moved', partition_name)
+    USING lower_bound, upper_bound;
+  EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist ('
+    || 'tsrange(date AT TIME ZONE ''UTC'', (date AT TIME ZONE ''UTC'') '
+    || '+ duration * INTERVAL ''1 minute'', ''[)'') WITH &&'
+    || ') WHERE (duration IS NOT NULL)', partition_name,
+    partition_name || '_no_overlap');
+  EXECUTE format('ALTER TABLE appointments ATTACH PARTITION %I '
+    || 'FOR VALUES FROM (%L) TO (%L)', partition_name, lower_bound,
+    upper_bound);
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE appointments RENAME TO appointments_unpartitioned;
+CREATE TABLE appointments (LIKE appointments_unpartitioned
+  INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (date);
+CREATE TABLE appointments_default PARTITION OF appointments DEFAULT;
+ALTER TABLE appointments_default ADD CONSTRAINT appointments_default_no_overlap
+  EXCLUDE USING gist (
+    tsrange(date AT TIME ZONE 'UTC',
+      (date AT TIME ZONE 'UTC') + duration * INTERVAL '1 minute', '[)') WITH &&
+  ) WHERE (duration IS NOT NULL);
+
+-- Partitions every month from that of the first appointment to a year ahead.
+SELECT appointments_add_month_partition(month::DATE)
+  FROM generate_series(
+    date_trunc('month', COALESCE(
+      (SELECT min(date) FROM appointments_unpartitioned), now())
+      AT TIME ZONE 'UTC'),
+    date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '12 months',
+    INTERVAL '1 month') AS month;
+
+INSERT INTO appointments SELECT * FROM appointments_unpartitioned;
+ALTER SEQUENCE appointments_id_seq OWNED BY appointments.id;
+DROP TABLE appointments_unpartitioned;
+
+-- Indexes created on the partitioned table are created on each partition,
+-- including those attached later.
+ALTER TABLE appointments ADD PRIMARY KEY (id, date);
+CREATE INDEX appointments_date_id_idx ON appointments(date, id);
+CREATE INDEX appointments_recurrence_date_id
+  ON appointments (date, id) WHERE recurrence IS NOT NULL;
+CREATE INDEX appointments_description_search_idx ON appointments
+  USING gin (to_tsvector('simple', description));
@@ -0,0 +1,201 @@
+package appointments.standalone.availability;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+import appointments.standalone.index.AppointmentIndex;
+import appointments.standalone.repository.AppointmentRange;
+import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentStreamer;
+
+import java.io.IOException;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class AppointmentAvailabilityTest {
+
+  @Mock
+  private AppointmentRepository appointmentRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private EntityManager entityManager;
+
+  // 2019-07-05T00:00+01:00
+  private static final long MIDNIGHT = 1562281200000L;
+  private static final long DAY = 24 * 60 * 60000L;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentAvailabilityTest";
+  private static final LocalTime OPEN = LocalTime.of(9, 0);
+  private static final LocalTime CLOSE = LocalTime.of(17, 0);
+  private static final ZoneOffset OFFSET = ZoneOffset.ofHours(1);
+  private static final int SLOT = 30;
+  private static final int LIMIT = 10;
+  private static final int PENDING_SIZE = 4096;
+  private static final AppointmentRange DAY_RANGE =
+    AppointmentRange.of(new Date(MIDNIGHT), new Date(MIDNIGHT + DAY));
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentAvailability}<br>
+   * <b>when</b> invoking <code>findFreeSlots</code> for an unbounded
+   * range<br>
+   * <b>then</b> the method <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentAvailability
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void findFreeSlotsShouldThrowIllegalArgument() {
+    // Given an instance of AppointmentAvailability
+    final AppointmentAvailability appointmentAvailability =
+      new AppointmentAvailability(this.appointmentRepository,
+        Optional.empty());
+    // when invoking findFreeSlots for an unbounded range
+    appointmentAvailability.findFreeSlots(AppointmentRange.ALL, SLOT, OPEN,
+      CLOSE, OFFSET, LIMIT);
+    // then the method should throw an IllegalArgumentException.
+    fail("findFreeSlots should throw an IllegalArgumentException for an "
+      + "unbounded range.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentAvailability} without an
+   * index<br>
+   * <i>and</i> a repository with an appointment that started the day
+   * before<br>
+   * <b>when</b> invoking <code>findFreeSlots</code> for a day<br>
+   * <b>then</b> the method <i>should</i> query the intervals from a day
+   * before the range<br>
+   * <i>and</i> return the free periods around them.
+   *
+   * @see AppointmentAvailability
+   */
+  @Test
+  public void findFreeSlotsShouldReadRepository() {
+    // Given an instance of AppointmentAvailability without an index
+    final AppointmentAvailability appointmentAvailability =
+      new AppointmentAvailability(this.appointmentRepository,
+        Optional.empty());
+    // and a repository with an appointment that started the day before
+    when(this.appointmentRepository.findIntervalsBetween(any(), any()))
+      .thenReturn(Arrays.asList(
+        new Object[] { new Date(at(0, 0, 0) - 60 * 60000L), 10 * 60 },
+        new Object[] { new Date(at(0, 12, 0)), 60 }));
+    // when invoking findFreeSlots for a day
+    final List<FreeSlot> slots = appointmentAvailability.findFreeSlots(
+      DAY_RANGE, SLOT, OPEN, CLOSE, OFFSET, LIMIT);
+    // then the method should query the intervals from a day before the range
+    verify(this.appointmentRepository).findIntervalsBetween(
+      new Date(MIDNIGHT - DAY), new Date(MIDNIGHT + DAY));
+    // and return the free periods around them.
+    assertEquals("findFreeSlots should return the free periods.",
+      Arrays.asList(new FreeSlot(at(0, 9, 0), at(0, 12, 0)),
+        new FreeSlot(at(0, 13, 0), at(0, 17, 0))), slots);
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentAvailability} with a loaded
+   * index<br>
+   * <i>and</i> an index holding appointments with and without a duration<br>
+   * <b>when</b> invoking <code>findFreeSlots</code> for a day<br>
+   * <b>then</b> the method <i>should</i> only treat the appointments with a
+   * duration as busy.
+   *
+   * @throws IOException If the index cannot be loaded.
+   *
+   * @see AppointmentAvailability
+   */
+  @Test
+  public void findFreeSlotsShouldReadIndex() throws IOException {
+    // Given an instance of AppointmentAvailability with a loaded index
+    // and an index holding appointments with and without a duration
+    when(this.appointmentRepository.streamBetween(any(), any()))
+      .thenReturn(Stream.of(
+        new Appointment(1L, new Date(at(0, 10, 0)), null, DESCRIPTION),
+        new Appointment(2L, new Date(at(0, 11, 0)), 90, DESCRIPTION)));
+    final AppointmentIndex appointmentIndex = new AppointmentIndex(
+      new AppointmentStreamer(this.appointmentRepository,
+        this.transactionManager, this.entityManager), PENDING_SIZE);
+    appointmentIndex.load();
+    final AppointmentAvailability appointmentAvailability =
+      new AppointmentAvailability(this.appointmentRepository,
+        Optional.of(appointmentIndex));
+    // when invoking findFreeSlots for a day
+    final List<FreeSlot> slots = appointmentAvailability.findFreeSlots(
+      DAY_RANGE, SLOT, OPEN, CLOSE, OFFSET, LIMIT);
+    // then the method should only treat the appointments with a duration as
+    // busy.
+    assertEquals("findFreeSlots should return the free periods.",
+      Arrays.asList(new FreeSlot(at(0, 9, 0), at(0, 11, 0)),
+        new FreeSlot(at(0, 12, 30), at(0, 17, 0))), slots);
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentAvailability} without an
+   * index<br>
+   * <i>and</i> a repository with an appointment and a daily appointment that
+   * started a year before<br>
+   * <b>when</b> invoking <code>findFreeSlots</code> for two days<br>
+   * <b>then</b> the method <i>should</i> treat each day's occurrence and the
+   * appointment as busy.
+   *
+   * @see AppointmentAvailability
+   */
+  @Test
+  public void findFreeSlotsShouldMergeOccurrences() {
+    // Given an instance of AppointmentAvailability without an index
+    final AppointmentAvailability appointmentAvailability =
+      new AppointmentAvailability(this.appointmentRepository,
+        Optional.empty());
+    // and a repository with an appointment and a daily appointment that
+    // started a year before
+    when(this.appointmentRepository.findIntervalsBetween(any(), any()))
+      .thenReturn(Arrays.<Object[]>asList(
+        new Object[] { new Date(at(0, 10, 0)), 60 }));
+    final Appointment series = new Appointment(
+      new Date(at(-365, 12, 0)), 60, DESCRIPTION, Recurrence.DAILY,
+      ZoneOffset.UTC, null);
+    ReflectionTestUtils.setField(series, "id", 2L);
+    when(this.appointmentRepository.findSeriesBetween(any(), any()))
+      .thenReturn(Arrays.asList(series));
+    // when invoking findFreeSlots for two days
+    final List<FreeSlot> slots = appointmentAvailability.findFreeSlots(
+      AppointmentRange.of(new Date(MIDNIGHT), new Date(MIDNIGHT + 2 * DAY)),
+      SLOT, OPEN, CLOSE, OFFSET, LIMIT);
+    // then the method should treat each day's occurrence and the appointment
+    // as busy.
+    assertEquals("findFreeSlots should return the free periods.",
+      Arrays.asList(new FreeSlot(at(0, 9, 0), at(0, 10, 0)),
+        new FreeSlot(at(0, 11, 0), at(0, 12, 0)),
+        new FreeSlot(at(0, 13, 0), at(0, 17, 0)),
+        new FreeSlot(at(1, 9, 0), at(1, 12, 0)),
+        new FreeSlot(at(1, 13, 0), at(1, 17, 0))), slots);
+  }
+
+  private static long at(final int day, final int hour, final int minute) {
+    return MIDNIGHT + day * DAY + (hour * 60 + minute) * 60000L;
+  }
+
+}
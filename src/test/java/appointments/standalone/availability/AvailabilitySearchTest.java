@@ -0,0 +1,132 @@
+package appointments.standalone.availability;
+
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public final class AvailabilitySearchTest {
+
+  // 2019-07-05T00:00+01:00
+  private static final long MIDNIGHT = 1562281200000L;
+  private static final long DAY = 24 * 60 * 60000L;
+  private static final LocalTime OPEN = LocalTime.of(9, 0);
+  private static final LocalTime CLOSE = LocalTime.of(17, 0);
+  private static final ZoneOffset OFFSET = ZoneOffset.ofHours(1);
+  private static final int SLOT = 30;
+  private static final int LIMIT = 10;
+
+  /**
+   * <b>Given</b> working hours that close before they open<br>
+   * <b>when</b> creating a new instance of {@link AvailabilitySearch}<br>
+   * <b>then</b> the constructor <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AvailabilitySearch
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void constructorShouldThrowIllegalArgument() {
+    // Given working hours that close before they open
+    final LocalTime open = CLOSE;
+    final LocalTime close = OPEN;
+    // when creating a new instance of AvailabilitySearch
+    new AvailabilitySearch(MIDNIGHT, MIDNIGHT + DAY, SLOT, open, close,
+      OFFSET, LIMIT);
+    // then the constructor should throw an IllegalArgumentException.
+    fail("AvailabilitySearch should throw an IllegalArgumentException for "
+      + "working hours that close before they open.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AvailabilitySearch} for a day<br>
+   * <b>when</b> passing overlapping busy intervals and a gap shorter than the
+   * slot<br>
+   * <b>then</b> the search <i>should</i> merge the intervals<br>
+   * <i>and</i> only return the free periods within working hours that can
+   * hold the slot.
+   *
+   * @see AvailabilitySearch
+   */
+  @Test
+  public void finishShouldReturnMergedFreeSlots() {
+    // Given an instance of AvailabilitySearch for a day
+    final AvailabilitySearch search = new AvailabilitySearch(MIDNIGHT,
+      MIDNIGHT + DAY, SLOT, OPEN, CLOSE, OFFSET, LIMIT);
+    // when passing overlapping busy intervals and a gap shorter than the slot
+    search.busy(at(0, 9, 0), at(0, 10, 0));
+    search.busy(at(0, 9, 30), at(0, 11, 0));
+    search.busy(at(0, 10, 0), at(0, 10, 30));
+    search.busy(at(0, 12, 0), at(0, 12, 15));
+    search.busy(at(0, 12, 30), at(0, 13, 0));
+    final List<FreeSlot> slots = search.finish();
+    // then the search should merge the intervals
+    // and only return the free periods within working hours that can hold the
+    // slot.
+    assertEquals("finish should return the free periods.", Arrays.asList(
+      new FreeSlot(at(0, 11, 0), at(0, 12, 0)),
+      new FreeSlot(at(0, 13, 0), at(0, 17, 0))), slots);
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AvailabilitySearch} for three days
+   * from the middle of the first day with a limit of two<br>
+   * <b>when</b> passing a busy interval that started before the range<br>
+   * <b>then</b> the search <i>should</i> return the rest of the first day's
+   * working hours after the interval and the working hours of the second
+   * day<br>
+   * <i>and</i> ask for no further intervals.
+   *
+   * @see AvailabilitySearch
+   */
+  @Test
+  public void busyShouldStopAtLimit() {
+    // Given an instance of AvailabilitySearch for three days from the middle
+    // of the first day with a limit of two
+    final AvailabilitySearch search = new AvailabilitySearch(at(0, 10, 0),
+      MIDNIGHT + 3 * DAY, SLOT, OPEN, CLOSE, OFFSET, 2);
+    // when passing a busy interval that started before the range
+    search.busy(at(0, 8, 30), at(0, 10, 30));
+    final boolean more = search.busy(at(2, 9, 0), at(2, 10, 0));
+    final List<FreeSlot> slots = search.finish();
+    // then the search should return the rest of the first day's working hours
+    // after the interval and the working hours of the second day
+    assertEquals("The search should return the first two free periods.",
+      Arrays.asList(new FreeSlot(at(0, 10, 30), at(0, 17, 0)),
+        new FreeSlot(at(1, 9, 0), at(1, 17, 0))), slots);
+    // and ask for no further intervals.
+    assertFalse("busy should ask for no further intervals at the limit.",
+      more);
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AvailabilitySearch} for a day<br>
+   * <b>when</b> passing a busy interval covering the working hours<br>
+   * <b>then</b> the search <i>should</i> return no free slots.
+   *
+   * @see AvailabilitySearch
+   */
+  @Test
+  public void finishShouldReturnNoFreeSlots() {
+    // Given an instance of AvailabilitySearch for a day
+    final AvailabilitySearch search = new AvailabilitySearch(MIDNIGHT,
+      MIDNIGHT + DAY, SLOT, OPEN, CLOSE, OFFSET, LIMIT);
+    // when passing a busy interval covering the working hours
+    search.busy(at(0, 8, 45), at(0, 16, 40));
+    final List<FreeSlot> slots = search.finish();
+    // then the search should return no free slots.
+    assertEquals("finish should return no free slots.",
+      Collections.emptyList(), slots);
+  }
+
+  private static long at(final int day, final int hour, final int minute) {
+    return MIDNIGHT + day * DAY + (hour * 60 + minute) * 60000L;
+  }
+
+}
@@ -0,0 +1,144 @@
+package appointments.standalone.benchmark;
+
+import appointments.standalone.availability.AppointmentAvailability;
+import appointments.standalone.availability.FreeSlot;
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.index.AppointmentIndex;
+import appointments.standalone.repository.AppointmentRange;
+import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentStreamer;
+
+import java.io.IOException;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ * <code>AppointmentAvailabilityBenchmark</code> measures searching a
+ * three-month window of a five-year calendar for free 30-minute slots between
+ * 09:00 and 17:00, reading the busy intervals from a loaded
+ * {@link AppointmentIndex} and from the rows a projection query would return.
+ * </p>
+ * <p>
+ * Run with <code>./mvnw -Pbenchmark -DskipTests test
+ * -Dbenchmark.includes=AppointmentAvailabilityBenchmark</code>; the score is
+ * the time per search.
+ * </p>
+ *
+ * @see appointments.standalone.availability.AppointmentAvailability
+ * @see appointments.standalone.availability.AvailabilitySearch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class AppointmentAvailabilityBenchmark {
+
+  // 2019-01-01T00:00Z
+  private static final long START = 1546300800000L;
+  private static final long DAY = TimeUnit.DAYS.toMillis(1);
+  private static final int DAYS = 5 * 365;
+  private static final int WINDOW_DAYS = 90;
+  private static final int PENDING_SIZE = 4096;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentAvailabilityBenchmark";
+  private static final LocalTime OPEN = LocalTime.of(9, 0);
+  private static final LocalTime CLOSE = LocalTime.of(17, 0);
+  private static final ZoneOffset OFFSET = ZoneOffset.ofHours(1);
+  private static final int SLOT = 30;
+
+  @Param({ "10000", "1000000" })
+  private int rows;
+
+  private AppointmentAvailability indexAvailability;
+  private AppointmentAvailability queryAvailability;
+  private AppointmentRange window;
+
+  @Setup
+  public void setUp() throws IOException {
+    final Random random = new Random(this.rows);
+    final List<Appointment> appointments = new ArrayList<>(this.rows);
+    for (long id = 0; id < this.rows; id++) {
+      final long date = START + random.nextInt(DAYS) * DAY
+        + TimeUnit.MINUTES.toMillis(8 * 60 + 15 * random.nextInt(32));
+      appointments.add(new Appointment(id, new Date(date),
+        15 * (1 + random.nextInt(4)), DESCRIPTION));
+    }
+    appointments.sort((appointment1, appointment2) ->
+      appointment1.getDate().compareTo(appointment2.getDate()));
+    final long from = START + DAYS / 2 * DAY;
+    this.window = AppointmentRange.of(new Date(from),
+      new Date(from + WINDOW_DAYS * DAY));
+
+    final AppointmentRepository appointmentRepository =
+      mock(AppointmentRepository.class);
+    when(appointmentRepository.streamBetween(any(), any()))
+      .thenReturn(appointments.stream());
+    final List<Object[]> intervals = new ArrayList<>();
+    for (final Appointment appointment : appointments) {
+      final long date = appointment.getTime();
+      if (date >= from - DAY && date < from + WINDOW_DAYS * DAY) {
+        intervals.add(new Object[] { appointment.getDate(),
+          appointment.getDuration() });
+      }
+    }
+    when(appointmentRepository.findIntervalsBetween(any(), any()))
+      .thenReturn(intervals);
+
+    final AppointmentIndex appointmentIndex = new AppointmentIndex(
+      new AppointmentStreamer(appointmentRepository,
+        mock(PlatformTransactionManager.class), mock(EntityManager.class)),
+      PENDING_SIZE);
+    appointmentIndex.load();
+    this.indexAvailability = new AppointmentAvailability(
+      appointmentRepository, Optional.of(appointmentIndex));
+    this.queryAvailability = new AppointmentAvailability(
+      appointmentRepository, Optional.empty());
+  }
+
+  @Benchmark
+  public List<FreeSlot> nextFreeSlotFromIndex() {
+    return this.indexAvailability.findFreeSlots(this.window, SLOT, OPEN,
+      CLOSE, OFFSET, 1);
+  }
+
+  @Benchmark
+  public List<FreeSlot> allFreeSlotsFromIndex() {
+    return this.indexAvailability.findFreeSlots(this.window, SLOT, OPEN,
+      CLOSE, OFFSET, AppointmentAvailability.MAX_LIMIT);
+  }
+
+  @Benchmark
+  public List<FreeSlot> allFreeSlotsFromQuery() {
+    return this.queryAvailability.findFreeSlots(this.window, SLOT, OPEN,
+      CLOSE, OFFSET, AppointmentAvailability.MAX_LIMIT);
+  }
+
+}
@@ -0,0 +1,99 @@
+package appointments.standalone.benchmark;
+
+import appointments.standalone.cache.DateStringCache;
+import appointments.standalone.controller.AppointmentController;
+import appointments.standalone.metrics.AppointmentMetrics;
+import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentVersion;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
+import org.springframework.web.servlet.view.RedirectView;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * <p>
+ * <code>AppointmentControllerBenchmark</code> measures the request parsing of
+ * {@link AppointmentController#appointmentsCreate}: validating the form
+ * fields, parsing the date, time, time zone, duration and recurrence, and
+ * building the {@link appointments.standalone.entity.Appointment}, against a
+ * repository whose <code>save</code> does nothing.
+ * </p>
+ * <p>
+ * The <code>appointments.standalone</code> loggers are raised to
+ * <code>WARN</code>, so that the score is the parsing rather than the console
+ * appender of the tests. Run with <code>./mvnw -Pbenchmark -DskipTests test
+ * -Dbenchmark.includes=AppointmentControllerBenchmark</code>; the score is
+ * the time per request.
+ * </p>
+ *
+ * @see appointments.standalone.controller.AppointmentController
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class AppointmentControllerBenchmark {
+
+  private static final String DATE = "2019-07-05";
+  private static final String TIME = "13:20";
+  private static final String TIME_ZONE = "Etc/GMT-1";
+  private static final String DURATION = "30";
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentControllerBenchmark";
+  private static final String RECURRENCE = "WEEKLY";
+  private static final String UNTIL = "2019-12-31";
+  private static final String DEFAULT_TIME_ZONE = "Etc/GMT";
+  private static final String SIMULATE_ERROR = "false";
+
+  private AppointmentController appointmentController;
+
+  @Setup
+  public void setUp() {
+    ((Logger) LoggerFactory.getLogger("appointments.standalone"))
+      .setLevel(Level.WARN);
+    // Records no invocations, which would otherwise fill the heap.
+    final AppointmentRepository appointmentRepository =
+      mock(AppointmentRepository.class, withSettings().stubOnly());
+    this.appointmentController = new AppointmentController(
+      appointmentRepository, new DateStringCache(0), new AppointmentVersion(),
+      Optional.empty(), new AppointmentMetrics(new SimpleMeterRegistry()));
+  }
+
+  @Benchmark
+  public RedirectView appointmentsCreate() {
+    return this.appointmentController.appointmentsCreate(DATE, TIME,
+      TIME_ZONE, DURATION, DESCRIPTION, null, null, DEFAULT_TIME_ZONE,
+      SIMULATE_ERROR, new RedirectAttributesModelMap());
+  }
+
+  @Benchmark
+  public RedirectView appointmentsCreateRecurring() {
+    return this.appointmentController.appointmentsCreate(DATE, TIME,
+      TIME_ZONE, DURATION, DESCRIPTION, RECURRENCE, UNTIL, DEFAULT_TIME_ZONE,
+      SIMULATE_ERROR, new RedirectAttributesModelMap());
+  }
+
+}
@@ -0,0 +1,115 @@
+package appointments.standalone.benchmark;
+
+import appointments.standalone.Application;
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.repository.AppointmentBatchWriter;
+import appointments.standalone.repository.AppointmentRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * <p>
+ * <code>AppointmentCreateBenchmark</code> compares the rows per second of
+ * creating {@link Appointment}s one <code>save</code> (and transaction) at a
+ * time, as <code>/appointments/create</code> does, with creating them in bulk
+ * with {@link AppointmentBatchWriter}, as <code>/api/appointments/bulk</code>
+ * does.
+ * </p>
+ * <p>
+ * The application is started against the in-memory H2 database of the
+ * <code>h2</code> profile. Run with <code>./mvnw -Pbenchmark -DskipTests test
+ * -Dbenchmark.includes=AppointmentCreateBenchmark</code>.
+ * </p>
+ *
+ * @see appointments.standalone.repository.AppointmentBatchWriter
+ * @see appointments.standalone.repository.AppointmentRepository
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class AppointmentCreateBenchmark {
+
+  private static final int ROWS = 1000;
+  private static final long DATE = 1562332800000L;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentCreateBenchmark";
+
+  private ConfigurableApplicationContext context;
+
+  private AppointmentRepository appointmentRepository;
+
+  private AppointmentBatchWriter appointmentBatchWriter;
+
+  private JdbcTemplate jdbcTemplate;
+
+  @Setup
+  public void setUp() {
+    this.context = new SpringApplicationBuilder(Application.class)
+      .web(WebApplicationType.NONE)
+      .profiles("h2")
+      .run();
+    this.appointmentRepository =
+      this.context.getBean(AppointmentRepository.class);
+    this.appointmentBatchWriter =
+      this.context.getBean(AppointmentBatchWriter.class);
+    this.jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+  }
+
+  @TearDown(Level.Iteration)
+  public void deleteAppointments() {
+    this.jdbcTemplate.execute("DELETE FROM appointments");
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.context.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void saveEach() {
+    for (final Appointment appointment : getAppointments()) {
+      this.appointmentRepository.save(appointment);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public List<Long> saveAll() {
+    return this.appointmentBatchWriter.saveAll(getAppointments());
+  }
+
+  private static List<Appointment> getAppointments() {
+    final List<Appointment> appointments = new ArrayList<>(ROWS);
+    for (int index = 0; index < ROWS; index++) {
+      appointments.add(
+        new Appointment(new Date(DATE + index * 60000L), DESCRIPTION));
+    }
+    return appointments;
+  }
+
+}
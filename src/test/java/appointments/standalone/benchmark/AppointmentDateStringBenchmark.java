@@ -0,0 +1,93 @@
+package appointments.standalone.benchmark;
+
+import appointments.standalone.cache.DateStringCache;
+import appointments.standalone.entity.Appointment;
+
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * <code>AppointmentDateStringBenchmark</code> measures
+ * {@link Appointment#getDateString(TimeZone)} in fixed-offset and
+ * region time zones, whose names and offsets are looked up per date, formatting
+ * 1024 appointments spread over a year so that daylight saving time changes
+ * are crossed, against reading them from a warm {@link DateStringCache}.
+ * </p>
+ * <p>
+ * Run with <code>./mvnw -Pbenchmark -DskipTests test
+ * -Dbenchmark.includes=AppointmentDateStringBenchmark</code>; the score is
+ * the time per date string.
+ * </p>
+ *
+ * @see appointments.standalone.cache.DateStringCache
+ * @see appointments.standalone.entity.Appointment
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class AppointmentDateStringBenchmark {
+
+  // 2019-01-01T00:00Z
+  private static final long START = 1546300800000L;
+  private static final long STEP = TimeUnit.DAYS.toMillis(365) / 1024;
+  private static final int APPOINTMENTS = 1024;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentDateStringBenchmark";
+
+  @Param({ "Etc/GMT", "Etc/GMT-1", "Europe/London", "America/New_York",
+    "Asia/Kolkata" })
+  private String timeZoneId;
+
+  private final Appointment[] appointments = new Appointment[APPOINTMENTS];
+
+  private TimeZone timeZone;
+
+  private DateStringCache dateStringCache;
+
+  private int next;
+
+  @Setup
+  public void setUp() {
+    this.timeZone = TimeZone.getTimeZone(this.timeZoneId);
+    this.dateStringCache = new DateStringCache(APPOINTMENTS);
+    for (int id = 0; id < APPOINTMENTS; id++) {
+      this.appointments[id] = new Appointment(id,
+        new Date(START + id * STEP), null, DESCRIPTION);
+      this.dateStringCache.getDateString(this.appointments[id],
+        this.timeZone);
+    }
+  }
+
+  @Benchmark
+  public String getDateString() {
+    return this.nextAppointment().getDateString(this.timeZone);
+  }
+
+  @Benchmark
+  public String getDateStringCached() {
+    return this.dateStringCache.getDateString(this.nextAppointment(),
+      this.timeZone);
+  }
+
+  private Appointment nextAppointment() {
+    return this.appointments[this.next++ & (APPOINTMENTS - 1)];
+  }
+
+}
@@ -0,0 +1,76 @@
+package appointments.standalone.benchmark;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.index.AppointmentIndex;
+import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentStreamer;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ * <code>AppointmentIndexFootprint</code> measures the heap retained per row by
+ * a list of {@link Appointment} entities, as a listing of every appointment
+ * would hold, and by the columnar {@link AppointmentIndex}.
+ * </p>
+ * <p>
+ * Run with <code>./mvnw -Pbenchmark -DskipTests test
+ * -Dbenchmark.main=appointments.standalone.benchmark.AppointmentIndexFootprint
+ * -Dbenchmark.includes=1000000</code>; the argument is the number of rows.
+ * </p>
+ *
+ * @see appointments.standalone.index.AppointmentIndex
+ */
+public final class AppointmentIndexFootprint {
+
+  private static final long DATE = 1562332800000L;
+  private static final String DESCRIPTION = "Appointment %d created by "
+    + "AppointmentIndexFootprint";
+  private static final int DEFAULT_ROWS = 1000000;
+  private static final int PENDING_SIZE = 4096;
+
+  private AppointmentIndexFootprint() {}
+
+  public static void main(final String[] args) {
+    final int rows = args.length > 0 && args[0].matches("\\d+")
+      ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+
+    final long baseline = getUsedHeap();
+    List<Appointment> appointments = new ArrayList<>();
+    for (int row = 0; row < rows; row++) {
+      appointments.add(new Appointment(row, new Date(DATE + row * 60000L),
+        30, String.format(DESCRIPTION, row)));
+    }
+    final long listBytes = getUsedHeap() - baseline;
+
+    final AppointmentIndex appointmentIndex = new AppointmentIndex(
+      new AppointmentStreamer(mock(AppointmentRepository.class),
+        mock(PlatformTransactionManager.class), mock(EntityManager.class)),
+      PENDING_SIZE);
+    appointmentIndex.addAll(appointments);
+    appointments = null;
+    final long indexBytes = getUsedHeap() - baseline;
+
+    System.out.printf("rows: %d%n", rows);
+    System.out.printf("List<Appointment>: %d bytes/row%n", listBytes / rows);
+    System.out.printf("AppointmentIndex: %d bytes/row (%d retained)%n",
+      indexBytes / rows, appointmentIndex.getRetainedBytes() / rows);
+  }
+
+  private static long getUsedHeap() {
+    final Runtime runtime = Runtime.getRuntime();
+    for (int gc = 0; gc < 4; gc++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+}
@@ -0,0 +1,146 @@
+package appointments.standalone.benchmark;
+
+import appointments.standalone.Application;
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.repository.AppointmentRange;
+import appointments.standalone.repository.AppointmentRepository;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * <p>
+ * <code>AppointmentListingAllocation</code> measures the heap allocated and
+ * the time taken to list 10 thousand appointments as managed entities in a
+ * read-write transaction, as the listing queries did, and as the detached
+ * projection in a read-only transaction that
+ * {@link AppointmentRepository#findBetween(java.util.Date, java.util.Date,
+ * org.springframework.data.domain.Pageable)} now reads.
+ * </p>
+ * <p>
+ * The application is started against the in-memory H2 database of the
+ * <code>h2</code> profile with the second-level and query caches disabled, so
+ * that every listing reads the rows. Allocation is counted for the listing
+ * thread only. Run with <code>./mvnw -Pbenchmark -DskipTests test
+ * -Dbenchmark.main=appointments.standalone.benchmark.AppointmentListingAllocation
+ * -Dbenchmark.includes=10000</code>; the argument is the number of rows.
+ * </p>
+ *
+ * @see appointments.standalone.repository.AppointmentRepository
+ */
+public final class AppointmentListingAllocation {
+
+  private static final long DATE = 1562332800000L;
+  private static final String DESCRIPTION = "Appointment %d created by "
+    + "AppointmentListingAllocation";
+  private static final int DEFAULT_ROWS = 10000;
+  private static final int WARMUP = 20;
+  private static final int RUNS = 20;
+
+  private static final String ENTITY_QUERY = "SELECT a FROM Appointment a "
+    + "WHERE a.recurrence IS NULL AND a.date >= :from AND a.date < :to "
+    + "ORDER BY a.date ASC, a.id ASC";
+
+  private AppointmentListingAllocation() {}
+
+  public static void main(final String[] args) {
+    final int rows = args.length > 0 && args[0].matches("\\d+")
+      ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+    try (final ConfigurableApplicationContext context =
+      new SpringApplicationBuilder(Application.class)
+        .web(WebApplicationType.NONE)
+        .profiles("h2")
+        // As arguments, since default properties are overridden by
+        // application.properties.
+        .run(
+          "--spring.jpa.properties.hibernate.cache.use_second_level_cache="
+            + "false",
+          "--spring.jpa.properties.hibernate.cache.use_query_cache=false")) {
+      insert(context.getBean(JdbcTemplate.class), rows);
+      final EntityManagerFactory entityManagerFactory =
+        context.getBean(EntityManagerFactory.class);
+      final AppointmentRepository appointmentRepository =
+        context.getBean(AppointmentRepository.class);
+      final AppointmentRange range = AppointmentRange.ALL;
+
+      final long[] entities = measure(rows, () -> {
+        final EntityManager entityManager =
+          entityManagerFactory.createEntityManager();
+        try {
+          entityManager.getTransaction().begin();
+          final List<Appointment> appointments = entityManager
+            .createQuery(ENTITY_QUERY, Appointment.class)
+            .setParameter("from", range.getFrom())
+            .setParameter("to", range.getTo())
+            .setMaxResults(rows)
+            .getResultList();
+          entityManager.getTransaction().commit();
+          return appointments;
+        } finally {
+          entityManager.close();
+        }
+      });
+      final long[] projection = measure(rows, () -> appointmentRepository
+        .findBetween(range.getFrom(), range.getTo(), PageRequest.of(0, rows)));
+
+      System.out.printf("rows: %d%n", rows);
+      System.out.printf("managed entities: %d bytes/row, %d us%n",
+        entities[0] / rows, entities[1] / 1000);
+      System.out.printf("read-only projection: %d bytes/row, %d us%n",
+        projection[0] / rows, projection[1] / 1000);
+    }
+  }
+
+  private static void insert(final JdbcTemplate jdbcTemplate,
+    final int rows) {
+    final List<Object[]> batch = new ArrayList<>(rows);
+    for (int row = 0; row < rows; row++) {
+      batch.add(new Object[] { row + 1, new Timestamp(DATE + row * 60000L),
+        String.format(DESCRIPTION, row) });
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO appointments(id, date, description) "
+      + "VALUES (?, ?, ?)", batch);
+  }
+
+  // Returns the median bytes allocated by and nanoseconds taken by a listing.
+  private static long[] measure(final int rows,
+    final Supplier<List<Appointment>> listing) {
+    final com.sun.management.ThreadMXBean threadMXBean =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    final long threadId = Thread.currentThread().threadId();
+    final long[] bytes = new long[RUNS];
+    final long[] nanos = new long[RUNS];
+    for (int run = 0; run < WARMUP + RUNS; run++) {
+      final long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+      final long start = System.nanoTime();
+      final int size = listing.get().size();
+      final long end = System.nanoTime();
+      final long endBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+      if (size != rows) {
+        throw new IllegalStateException("Listed " + size + " of " + rows
+          + " rows");
+      }
+      if (run >= WARMUP) {
+        bytes[run - WARMUP] = endBytes - startBytes;
+        nanos[run - WARMUP] = end - start;
+      }
+    }
+    Arrays.sort(bytes);
+    Arrays.sort(nanos);
+    return new long[] { bytes[RUNS / 2], nanos[RUNS / 2] };
+  }
+
+}
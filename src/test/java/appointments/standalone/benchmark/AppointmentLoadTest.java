@@ -0,0 +1,518 @@
+package appointments.standalone.benchmark;
+
+import appointments.standalone.Application;
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.repository.AppointmentBatchWriter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * <p>
+ * <code>AppointmentLoadTest</code> starts the application on a random port,
+ * seeds it with appointments and drives it with mixed traffic over many
+ * concurrent connections: <code>GET /appointments</code>, for the first page
+ * or a random week, and <code>POST /appointments/create</code>. Each
+ * connection sends its next request once the last is answered, asynchronously
+ * from a few client threads, so that thousands of connections cost the client
+ * little memory. After a warm-up, the
+ * requests of each endpoint are timed for a fixed period and their throughput
+ * and p50, p99 and p99.9 latency are printed and written as JSON, together
+ * with the wait of the requests for a connection of the HikariCP pool: the
+ * mean and maximum wait of an acquisition, and the most and the share of the
+ * time that requests were waiting. The most heap used, resident memory and
+ * live platform threads of the process are sampled alongside.
+ * </p>
+ * <p>
+ * By default the application runs against an in-memory H2 database in
+ * PostgreSQL mode, so that the test needs nothing installed; a PostgreSQL
+ * database, whose schema is then migrated by Flyway, is used instead when
+ * <code>spring.datasource.url</code> is given. Run with <code>./mvnw
+ * -Pbenchmark -DskipTests test
+ * -Dbenchmark.main=appointments.standalone.benchmark.AppointmentLoadTest
+ * -Dbenchmark.includes=rows=100000,connections=32,seconds=30</code>; the
+ * argument
+ * is a comma-separated list of options:
+ * </p>
+ * <ul>
+ * <li><code>rows</code> - appointments seeded before the test (100000)</li>
+ * <li><code>connections</code> - concurrent connections (32)</li>
+ * <li><code>warmup</code> - seconds of untimed traffic (10)</li>
+ * <li><code>seconds</code> - seconds of timed traffic (30)</li>
+ * <li><code>writes</code> - fraction of requests that create an appointment
+ * (0.1)</li>
+ * <li><code>result</code> - the JSON file written
+ * (target/load-test.json)</li>
+ * <li>any option containing a dot, passed to the application as a property,
+ * e.g. <code>spring.datasource.url=jdbc:postgresql://localhost/loadtest</code>
+ * </li>
+ * </ul>
+ * <p>
+ * The application logs with its own asynchronous configuration and at
+ * <code>WARN</code>, so that the console does not bound the throughput; pass
+ * <code>logging.level.appointments.standalone=INFO</code> to include the
+ * request logging.
+ * </p>
+ * <p>
+ * With a PostgreSQL database, pass <code>spring.profiles.active=tuned</code>
+ * to test the pool and driver settings of
+ * <code>application-tuned.properties</code>. Run on Java 21 or later and pass
+ * <code>spring.threads.virtual.enabled=true</code> to serve the requests on
+ * virtual threads rather than Tomcat's pool of platform threads; the result
+ * records which were used.
+ * </p>
+ *
+ * @see appointments.standalone.controller.AppointmentController
+ */
+public final class AppointmentLoadTest {
+
+  // 2019-01-01T00:00Z
+  private static final long DATE = 1546300800000L;
+  private static final long STEP = TimeUnit.MINUTES.toMillis(15);
+  private static final String DESCRIPTION = "Appointment %d created by "
+    + "AppointmentLoadTest";
+  private static final int SEED_BATCH = 10000;
+
+  private static final String H2_URL =
+    "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+  private static final String URL_PROPERTY = "spring.datasource.url";
+
+  private static final String LIST = "GET /appointments";
+  private static final String CREATE = "POST /appointments/create";
+  private static final String TIME_ZONE = "Etc/GMT";
+  private static final String VIRTUAL_THREADS_PROPERTY =
+    "spring.threads.virtual.enabled";
+
+  private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+  static {
+    DEFAULTS.put("rows", "100000");
+    DEFAULTS.put("connections", "32");
+    DEFAULTS.put("warmup", "10");
+    DEFAULTS.put("seconds", "30");
+    DEFAULTS.put("writes", "0.1");
+    DEFAULTS.put("result", "target/load-test.json");
+  }
+
+  private AppointmentLoadTest() {}
+
+  public static void main(final String[] args)
+    throws IOException, InterruptedException {
+    final Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+    final Map<String, String> properties = new LinkedHashMap<>();
+    properties.put("server.port", "0");
+    properties.put("logging.config", "classpath:logback-spring.xml");
+    properties.put("logging.level.appointments.standalone", "WARN");
+    parseOptions(args.length > 0 ? args[0] : "", options, properties);
+    final int rows = Integer.parseInt(options.get("rows"));
+    final int connections = Integer.parseInt(options.get("connections"));
+    final int warmup = Integer.parseInt(options.get("warmup"));
+    final int seconds = Integer.parseInt(options.get("seconds"));
+    final double writes = Double.parseDouble(options.get("writes"));
+
+    final SpringApplicationBuilder builder =
+      new SpringApplicationBuilder(Application.class);
+    if (!properties.containsKey(URL_PROPERTY)) {
+      builder.profiles("h2");
+      properties.put(URL_PROPERTY, H2_URL);
+    }
+    // As arguments, since default properties are overridden by
+    // application.properties.
+    final List<String> arguments = new ArrayList<>(properties.size());
+    for (final Map.Entry<String, String> entry : properties.entrySet()) {
+      arguments.add("--" + entry.getKey() + "=" + entry.getValue());
+    }
+    try (final ConfigurableApplicationContext context =
+      builder.run(arguments.toArray(new String[0]))) {
+      seed(context.getBean(AppointmentBatchWriter.class), rows);
+      final String baseUrl = "http://localhost:"
+        + ((WebServerApplicationContext) context).getWebServer().getPort();
+      final long span = Math.max(1, rows) * STEP;
+      final boolean virtualThreads = context.getEnvironment().getProperty(
+        VIRTUAL_THREADS_PROPERTY, Boolean.class, false);
+      System.out.printf("serving on %s threads%n",
+        virtualThreads ? "virtual" : "platform");
+
+      final ExecutorService clientExecutor = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors());
+      final Map<String, Latencies> latencies;
+      final PoolMonitor poolMonitor;
+      final MemoryMonitor memoryMonitor;
+      try {
+        final HttpClient httpClient = HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(seconds))
+          .executor(clientExecutor).build();
+        System.out.printf("warming up for %d s%n", warmup);
+        drive(httpClient, baseUrl, span, connections, warmup, writes);
+        System.out.printf("timing for %d s%n", seconds);
+        poolMonitor = new PoolMonitor(context.getBean(MeterRegistry.class));
+        memoryMonitor = new MemoryMonitor();
+        try {
+          latencies =
+            drive(httpClient, baseUrl, span, connections, seconds, writes);
+        } finally {
+          poolMonitor.stop();
+          memoryMonitor.stop();
+        }
+      } finally {
+        clientExecutor.shutdownNow();
+      }
+
+      final Map<String, Object> result = new LinkedHashMap<>();
+      final Map<String, Object> config = new LinkedHashMap<>(options);
+      config.put("database", properties.get(URL_PROPERTY));
+      config.put("virtualThreads", virtualThreads);
+      config.put("java", Runtime.version().toString());
+      result.put("config", config);
+      final Map<String, Object> endpoints = new LinkedHashMap<>();
+      for (final Map.Entry<String, Latencies> entry : latencies.entrySet()) {
+        endpoints.put(entry.getKey(), entry.getValue().summarize(seconds));
+      }
+      result.put("endpoints", endpoints);
+      final Map<String, Object> pool = poolMonitor.summarize();
+      result.put("pool", pool);
+      final Map<String, Object> memory = memoryMonitor.summarize();
+      result.put("memory", memory);
+      final File file = new File(options.get("result"));
+      if (file.getParentFile() != null) {
+        file.getParentFile().mkdirs();
+      }
+      final ObjectMapper objectMapper = new ObjectMapper()
+        .enable(SerializationFeature.INDENT_OUTPUT);
+      objectMapper.writeValue(file, result);
+      System.out.println(objectMapper.writeValueAsString(endpoints));
+      System.out.println(objectMapper.writeValueAsString(pool));
+      System.out.println(objectMapper.writeValueAsString(memory));
+      System.out.printf("Load test result is saved to %s%n",
+        file.getAbsolutePath());
+    }
+  }
+
+  private static void parseOptions(final String argument,
+    final Map<String, String> options, final Map<String, String> properties) {
+    for (final String option : argument.split(",")) {
+      if (option.trim().isEmpty()) {
+        continue;
+      }
+      final int separator = option.indexOf('=');
+      final String name =
+        separator < 0 ? option.trim() : option.substring(0, separator).trim();
+      final String value =
+        separator < 0 ? "" : option.substring(separator + 1).trim();
+      if (name.contains(".")) {
+        properties.put(name, value);
+      } else if (DEFAULTS.containsKey(name) && !value.isEmpty()) {
+        options.put(name, value);
+      } else {
+        final String message = String.format("Illegal argument; option==%s",
+          option);
+        throw new IllegalArgumentException(message);
+      }
+    }
+  }
+
+  private static void seed(final AppointmentBatchWriter appointmentBatchWriter,
+    final int rows) {
+    for (int from = 0; from < rows; from += SEED_BATCH) {
+      final List<Appointment> batch = new ArrayList<>(SEED_BATCH);
+      for (int row = from; row < Math.min(rows, from + SEED_BATCH); row++) {
+        batch.add(new Appointment(new Date(DATE + row * STEP),
+          String.format(DESCRIPTION, row)));
+      }
+      appointmentBatchWriter.saveAll(batch);
+    }
+    System.out.printf("seeded %d rows%n", rows);
+  }
+
+  // Sends requests over each connection until the period ends, returning
+  // the latencies of each endpoint.
+  private static Map<String, Latencies> drive(final HttpClient httpClient,
+    final String baseUrl, final long span, final int connections,
+    final int seconds, final double writes) throws InterruptedException {
+    final long deadline =
+      System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    final Map<String, Latencies> latencies = new LinkedHashMap<>();
+    latencies.put(LIST, new Latencies());
+    latencies.put(CREATE, new Latencies());
+    final CountDownLatch done = new CountDownLatch(connections);
+    for (int connection = 0; connection < connections; connection++) {
+      send(httpClient, baseUrl, span, writes, deadline, latencies, done);
+    }
+    done.await();
+    return latencies;
+  }
+
+  // Sends the next request of a connection, and from its completion the one
+  // after, until the deadline.
+  private static void send(final HttpClient httpClient, final String baseUrl,
+    final long span, final double writes, final long deadline,
+    final Map<String, Latencies> latencies, final CountDownLatch done) {
+    if (System.nanoTime() >= deadline) {
+      done.countDown();
+      return;
+    }
+    final boolean write = ThreadLocalRandom.current().nextDouble() < writes;
+    final HttpRequest request =
+      write ? create(baseUrl, span) : list(baseUrl, span);
+    final int expected = write ? 303 : 200;
+    final long start = System.nanoTime();
+    // Completes asynchronously, so that a connection refused at once does
+    // not recurse.
+    httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+      .whenCompleteAsync((response, failure) -> {
+        latencies.get(write ? CREATE : LIST).add(System.nanoTime() - start,
+          failure == null && response.statusCode() == expected);
+        send(httpClient, baseUrl, span, writes, deadline, latencies, done);
+      }, httpClient.executor().get());
+  }
+
+  // Lists the first page, or the first page of a random week of the seeded
+  // appointments.
+  private static HttpRequest list(final String baseUrl, final long span) {
+    String url = baseUrl + "/appointments?tz=" + TIME_ZONE;
+    if (ThreadLocalRandom.current().nextBoolean()) {
+      final LocalDate from = randomDay(span);
+      url += "&from=" + from + "&to=" + from.plusDays(7);
+    }
+    return HttpRequest.newBuilder(URI.create(url)).GET().build();
+  }
+
+  // Creates an appointment without a duration, so that it cannot overlap
+  // another, on a random day of the seeded appointments.
+  private static HttpRequest create(final String baseUrl, final long span) {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final String body = "date=" + randomDay(span)
+      + "&time=" + String.format("%02d:%02d", random.nextInt(24),
+        random.nextInt(60))
+      + "&timeZone=" + TIME_ZONE + "&tz=" + TIME_ZONE
+      + "&description=" + URLEncoder.encode("Appointment created by "
+        + "AppointmentLoadTest", StandardCharsets.UTF_8);
+    return HttpRequest.newBuilder(URI.create(baseUrl + "/appointments/create"))
+      .header("Content-Type", "application/x-www-form-urlencoded")
+      .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+  }
+
+  private static LocalDate randomDay(final long span) {
+    final long date = DATE + ThreadLocalRandom.current().nextLong(span);
+    return Instant.ofEpochMilli(date).atOffset(ZoneOffset.UTC).toLocalDate();
+  }
+
+  // The wait for a connection of the HikariCP pool while the traffic is
+  // timed, from the metrics the pool records: the acquisitions and their
+  // mean and maximum wait, and the threads waiting for a connection, sampled
+  // every few milliseconds.
+  private static final class PoolMonitor {
+
+    private static final long SAMPLE_MILLIS = 5;
+
+    private final Timer acquire;
+    private final Gauge pending;
+    private final Gauge active;
+    private final Gauge max;
+    private final long count;
+    private final double totalNanos;
+    private final ScheduledExecutorService sampler =
+      Executors.newSingleThreadScheduledExecutor();
+
+    private long samples;
+    private long waitingSamples;
+    private double maxPending;
+    private double maxActive;
+
+    PoolMonitor(final MeterRegistry meterRegistry) {
+      this.acquire =
+        meterRegistry.find("hikaricp.connections.acquire").timer();
+      this.pending =
+        meterRegistry.find("hikaricp.connections.pending").gauge();
+      this.active = meterRegistry.find("hikaricp.connections.active").gauge();
+      this.max = meterRegistry.find("hikaricp.connections.max").gauge();
+      this.count = this.acquire == null ? 0 : this.acquire.count();
+      this.totalNanos = this.acquire == null
+        ? 0 : this.acquire.totalTime(TimeUnit.NANOSECONDS);
+      if (this.pending != null && this.active != null) {
+        this.sampler.scheduleAtFixedRate(this::sample, 0, SAMPLE_MILLIS,
+          TimeUnit.MILLISECONDS);
+      }
+    }
+
+    private synchronized void sample() {
+      final double pending = this.pending.value();
+      this.samples++;
+      if (pending > 0) {
+        this.waitingSamples++;
+      }
+      this.maxPending = Math.max(this.maxPending, pending);
+      this.maxActive = Math.max(this.maxActive, this.active.value());
+    }
+
+    void stop() throws InterruptedException {
+      this.sampler.shutdown();
+      this.sampler.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    // Returns null if the pool records no metrics.
+    synchronized Map<String, Object> summarize() {
+      if (this.acquire == null) {
+        return null;
+      }
+      final long acquisitions = this.acquire.count() - this.count;
+      final Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("maximumPoolSize", this.max == null
+        ? null : (long) this.max.value());
+      summary.put("acquisitions", acquisitions);
+      summary.put("meanWaitMillis", acquisitions == 0 ? null
+        : (this.acquire.totalTime(TimeUnit.NANOSECONDS) - this.totalNanos)
+          / acquisitions / 1e6);
+      summary.put("maxWaitMillis",
+        this.acquire.max(TimeUnit.MILLISECONDS));
+      summary.put("maxActive", (long) this.maxActive);
+      summary.put("maxPending", (long) this.maxPending);
+      summary.put("waitingFraction", this.samples == 0
+        ? null : (double) this.waitingSamples / this.samples);
+      return summary;
+    }
+
+  }
+
+  // The most heap used, resident memory and live platform threads of the
+  // process while the traffic is timed, sampled every few milliseconds.
+  // Virtual threads are not live platform threads, and their stacks are on
+  // the heap.
+  private static final class MemoryMonitor {
+
+    private static final long SAMPLE_MILLIS = 100;
+    private static final String STATUS = "/proc/self/status";
+    private static final String RSS = "VmRSS:";
+
+    private final ScheduledExecutorService sampler =
+      Executors.newSingleThreadScheduledExecutor();
+
+    private long maxHeapUsed;
+    private long maxRss = -1;
+    private int maxThreads;
+
+    MemoryMonitor() {
+      this.sampler.scheduleAtFixedRate(this::sample, 0, SAMPLE_MILLIS,
+        TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void sample() {
+      this.maxHeapUsed = Math.max(this.maxHeapUsed, ManagementFactory
+        .getMemoryMXBean().getHeapMemoryUsage().getUsed());
+      this.maxThreads = Math.max(this.maxThreads,
+        ManagementFactory.getThreadMXBean().getThreadCount());
+      this.maxRss = Math.max(this.maxRss, readRss());
+    }
+
+    // Returns the resident memory in bytes, or -1 where /proc is missing.
+    private static long readRss() {
+      try {
+        for (final String line : Files.readAllLines(Paths.get(STATUS))) {
+          if (line.startsWith(RSS)) {
+            return Long.parseLong(line.substring(RSS.length())
+              .replace("kB", "").trim()) * 1024;
+          }
+        }
+      } catch (final IOException | NumberFormatException e) {
+        // Falls through.
+      }
+      return -1;
+    }
+
+    void stop() throws InterruptedException {
+      this.sampler.shutdown();
+      this.sampler.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    synchronized Map<String, Object> summarize() {
+      final Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("maxHeapUsedMiB", this.maxHeapUsed / 1048576.0);
+      summary.put("maxRssMiB",
+        this.maxRss < 0 ? null : this.maxRss / 1048576.0);
+      summary.put("maxPlatformThreads", this.maxThreads);
+      return summary;
+    }
+
+  }
+
+  // The latencies of one endpoint, in nanoseconds.
+  private static final class Latencies {
+
+    private long[] nanos = new long[1024];
+    private int count;
+    private int errors;
+
+    synchronized void add(final long latency, final boolean ok) {
+      if (this.count == this.nanos.length) {
+        this.nanos = Arrays.copyOf(this.nanos, this.count * 2);
+      }
+      this.nanos[this.count++] = latency;
+      if (!ok) {
+        this.errors++;
+      }
+    }
+
+    synchronized Map<String, Object> summarize(final int seconds) {
+      final long[] sorted = Arrays.copyOf(this.nanos, this.count);
+      Arrays.sort(sorted);
+      final Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("requests", this.count);
+      summary.put("errors", this.errors);
+      summary.put("throughputPerSecond", (double) this.count / seconds);
+      summary.put("p50Millis", percentile(sorted, 0.5));
+      summary.put("p99Millis", percentile(sorted, 0.99));
+      summary.put("p999Millis", percentile(sorted, 0.999));
+      summary.put("maxMillis", percentile(sorted, 1));
+      return summary;
+    }
+
+    // The nearest-rank percentile, in milliseconds.
+    private static Double percentile(final long[] sorted,
+      final double fraction) {
+      if (sorted.length == 0) {
+        return null;
+      }
+      final int rank = (int) Math.ceil(fraction * sorted.length);
+      return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+  }
+
+}
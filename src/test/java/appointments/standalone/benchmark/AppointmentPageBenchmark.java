@@ -0,0 +1,195 @@
+package appointments.standalone.benchmark;
+
+import appointments.standalone.cache.DateStringCache;
+import appointments.standalone.controller.AppointmentController;
+import appointments.standalone.metrics.AppointmentMetrics;
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.repository.AppointmentCursor;
+import appointments.standalone.repository.AppointmentRange;
+import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentVersion;
+
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.ui.Model;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.web.IWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * <p>
+ * <code>AppointmentPageBenchmark</code> measures the <code>/appointments</code>
+ * page for a listing of 100, 10 thousand and 100 thousand appointments:
+ * populating the model from a repository returning them, as
+ * {@link AppointmentController} does, and that followed by rendering
+ * <code>appointments.html</code> with Thymeleaf, as the view does.
+ * </p>
+ * <p>
+ * The listing is not bounded by the controller's page size, so that the
+ * per-row cost of the page dominates; the date strings are read through a
+ * {@link DateStringCache} of the default size, which the larger listings
+ * overflow. The template is resolved from the classpath and cached, as it is
+ * by Spring Boot, and the page is written to a writer that discards it. Run
+ * with <code>./mvnw -Pbenchmark -DskipTests test
+ * -Dbenchmark.includes=AppointmentPageBenchmark</code>; the score is the time
+ * per page.
+ * </p>
+ *
+ * @see appointments.standalone.controller.AppointmentController
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(1)
+public class AppointmentPageBenchmark {
+
+  // 2019-07-05T13:20Z
+  private static final long DATE = 1562332800000L;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentPageBenchmark";
+  private static final String DEFAULT_TIME_ZONE = "Etc/GMT-1";
+  private static final long DATE_STRING_CACHE_SIZE = 10000;
+  private static final String TEMPLATE = "appointments";
+
+  @Param({ "100", "10000", "100000" })
+  private int rows;
+
+  private AppointmentController appointmentController;
+
+  private Method populateModel;
+
+  private SpringTemplateEngine templateEngine;
+
+  private IWebExchange webExchange;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    ((Logger) LoggerFactory.getLogger("appointments.standalone"))
+      .setLevel(Level.WARN);
+    final List<Appointment> appointments = new ArrayList<>(this.rows);
+    for (long id = 0; id < this.rows; id++) {
+      appointments.add(new Appointment(id, new Date(DATE + id * 60000L),
+        id % 2 == 0 ? 30 : null, DESCRIPTION));
+    }
+    // Records no invocations, which would otherwise fill the heap.
+    final AppointmentRepository appointmentRepository =
+      mock(AppointmentRepository.class, withSettings().stubOnly());
+    when(appointmentRepository.findBetween(any(), any(), any()))
+      .thenReturn(appointments);
+    when(appointmentRepository.findSeriesBetween(any(), any()))
+      .thenReturn(Collections.emptyList());
+    this.appointmentController = new AppointmentController(
+      appointmentRepository, new DateStringCache(DATE_STRING_CACHE_SIZE),
+      new AppointmentVersion(), Optional.empty(),
+      new AppointmentMetrics(new SimpleMeterRegistry()));
+    this.populateModel = AppointmentController.class.getDeclaredMethod(
+      "populateModel", Model.class, String.class, AppointmentRange.class,
+      AppointmentCursor.class, AppointmentCursor.class, int.class);
+    this.populateModel.setAccessible(true);
+
+    final ClassLoaderTemplateResolver templateResolver =
+      new ClassLoaderTemplateResolver();
+    templateResolver.setPrefix("templates/");
+    templateResolver.setSuffix(".html");
+    templateResolver.setTemplateMode(TemplateMode.HTML);
+    templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    templateResolver.setCacheable(true);
+    this.templateEngine = new SpringTemplateEngine();
+    this.templateEngine.setTemplateResolver(templateResolver);
+    final MockServletContext servletContext = new MockServletContext();
+    this.webExchange = JakartaServletWebApplication
+      .buildApplication(servletContext)
+      .buildExchange(new MockHttpServletRequest(servletContext, "GET",
+        "/appointments"), new MockHttpServletResponse());
+  }
+
+  @Benchmark
+  public Model populateModel() throws ReflectiveOperationException {
+    final Model model = new ExtendedModelMap();
+    this.populateModel.invoke(this.appointmentController, model,
+      DEFAULT_TIME_ZONE, AppointmentRange.ALL, null, null, this.rows);
+    return model;
+  }
+
+  @Benchmark
+  public long renderPage() throws ReflectiveOperationException {
+    final Model model = this.populateModel();
+    final CountingWriter writer = new CountingWriter();
+    this.templateEngine.process(TEMPLATE, new WebContext(this.webExchange,
+      Locale.UK, model.asMap()), writer);
+    return writer.count;
+  }
+
+  // Discards the page, counting its characters so that it is not elided.
+  private static final class CountingWriter extends Writer {
+
+    private long count;
+
+    @Override
+    public void write(final int c) {
+      this.count++;
+    }
+
+    @Override
+    public void write(final char[] buffer, final int offset,
+      final int length) {
+      this.count += length;
+    }
+
+    @Override
+    public void write(final String string, final int offset,
+      final int length) {
+      this.count += length;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+  }
+
+}
@@ -0,0 +1,173 @@
+package appointments.standalone.benchmark;
+
+import appointments.standalone.cache.DateStringCache;
+import appointments.standalone.entity.Appointment;
+
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+
+/**
+ * <p>
+ * <code>AppointmentRenderBenchmark</code> measures the per-row cost of
+ * rendering the appointments table: reading the description and date string of
+ * each {@link Appointment}, as <code>appointments.html</code> does.
+ * </p>
+ * <p>
+ * <code>renderRowsInfoLogging</code> is the baseline: a copy of the getters
+ * before their logging was made lazy, which built every message with
+ * <code>String.format</code> and logged it at INFO, three lines per row. Its
+ * lines are written synchronously, with the console pattern, to a stream that
+ * discards them, so the baseline pays for formatting, encoding and the
+ * appender's lock but not for terminal or file I/O and is a lower bound of
+ * the old cost. <code>renderRows</code> is the same rows through the current
+ * getters, whose TRACE lines are off, and <code>renderRowsCached</code> reads
+ * the date strings from a {@link DateStringCache}.
+ * </p>
+ * <p>
+ * Run with <code>./mvnw -Pbenchmark -DskipTests test
+ * -Dbenchmark.includes=AppointmentRenderBenchmark</code>; the score is pages
+ * rendered per second.
+ * </p>
+ *
+ * @see appointments.standalone.cache.DateStringCache
+ * @see appointments.standalone.entity.Appointment
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class AppointmentRenderBenchmark {
+
+  private static final long DATE = 1562332800000L;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentRenderBenchmark";
+  private static final DateTimeFormatter DATE_TIME_FORMATTER =
+    DateTimeFormatter.ofPattern("dd/MM/yyyy HH':'mm z");
+  private static final String PATTERN =
+    "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n";
+
+  @Param({ "100", "10000" })
+  private int rows;
+
+  private final List<Appointment> appointments = new ArrayList<>();
+  private final TimeZone timeZone = TimeZone.getTimeZone("Etc/GMT-1");
+
+  private DateStringCache dateStringCache;
+
+  private Logger legacyLogger;
+
+  private OutputStreamAppender<ILoggingEvent> legacyAppender;
+
+  @Setup
+  public void setUp() {
+    final LoggerContext loggerContext =
+      (LoggerContext) LoggerFactory.getILoggerFactory();
+    final PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(loggerContext);
+    encoder.setPattern(PATTERN);
+    encoder.start();
+    this.legacyAppender = new OutputStreamAppender<>();
+    this.legacyAppender.setContext(loggerContext);
+    this.legacyAppender.setEncoder(encoder);
+    this.legacyAppender.setOutputStream(OutputStream.nullOutputStream());
+    this.legacyAppender.start();
+    this.legacyLogger = loggerContext.getLogger(Appointment.class.getName()
+      + ".legacy");
+    this.legacyLogger.setAdditive(false);
+    this.legacyLogger.setLevel(Level.INFO);
+    this.legacyLogger.addAppender(this.legacyAppender);
+
+    this.dateStringCache = new DateStringCache(this.rows);
+    for (long id = 0; id < this.rows; id++) {
+      final Appointment appointment =
+        new Appointment(new Date(DATE + id * 60000L), DESCRIPTION);
+      ReflectionTestUtils.setField(appointment, "id", id);
+      this.appointments.add(appointment);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.legacyLogger.detachAppender(this.legacyAppender);
+    this.legacyAppender.stop();
+  }
+
+  @Benchmark
+  public void renderRowsInfoLogging(final Blackhole blackhole) {
+    for (final Appointment appointment : this.appointments) {
+      blackhole.consume(this.getDescriptionInfoLogging(appointment));
+      blackhole.consume(this.getDateStringInfoLogging(appointment,
+        this.timeZone));
+    }
+  }
+
+  @Benchmark
+  public void renderRows(final Blackhole blackhole) {
+    for (final Appointment appointment : this.appointments) {
+      blackhole.consume(appointment.getDescription());
+      blackhole.consume(appointment.getDateString(this.timeZone));
+    }
+  }
+
+  @Benchmark
+  public void renderRowsCached(final Blackhole blackhole) {
+    for (final Appointment appointment : this.appointments) {
+      blackhole.consume(appointment.getDescription());
+      blackhole.consume(this.dateStringCache.getDateString(appointment,
+        this.timeZone));
+    }
+  }
+
+  // The body of Appointment.getDescription before its logging was made lazy.
+  private String getDescriptionInfoLogging(final Appointment appointment) {
+    final String message = String.format("getDescription returns '%s'",
+      appointment.getDescription());
+    this.legacyLogger.info(message);
+    return appointment.getDescription();
+  }
+
+  // The body of Appointment.getDateString before its logging was made lazy.
+  private String getDateStringInfoLogging(final Appointment appointment,
+    final TimeZone timeZone) {
+    String message = String.format("getDateString[timeZone=='%s']",
+      timeZone.getID());
+    this.legacyLogger.info(message);
+    final String dateString = DATE_TIME_FORMATTER.format(Instant.ofEpochMilli(
+      appointment.getTime()).atZone(timeZone.toZoneId()));
+    message = String.format("getDateString returns '%s'", dateString);
+    this.legacyLogger.info(message);
+    return dateString;
+  }
+
+}
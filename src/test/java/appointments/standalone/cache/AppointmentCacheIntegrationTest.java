@@ -0,0 +1,175 @@
+package appointments.standalone.cache;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.repository.AppointmentPage;
+import appointments.standalone.repository.AppointmentPager;
+import appointments.standalone.repository.AppointmentRange;
+import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentStreamer;
+
+import java.io.IOException;
+import java.util.Date;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(
+  properties="spring.jpa.properties.hibernate.generate_statistics=true"
+)
+@ActiveProfiles("h2")
+public final class AppointmentCacheIntegrationTest {
+
+  @Autowired
+  private AppointmentRepository appointmentRepository;
+
+  @Autowired
+  private AppointmentStreamer appointmentStreamer;
+
+  @Autowired
+  private AppointmentCaches appointmentCaches;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private AppointmentPager appointmentPager;
+
+  private Statistics statistics;
+
+  private static final long DATE = 1562332800000L;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentCacheIntegrationTest";
+  private static final int SIZE = 20;
+
+  @Before
+  public void setUp() {
+    this.appointmentRepository.deleteAll();
+    this.appointmentCaches.evict();
+    this.appointmentPager = new AppointmentPager(this.appointmentRepository);
+    this.statistics = this.entityManagerFactory
+      .unwrap(SessionFactory.class).getStatistics();
+  }
+
+  /**
+   * <b>Given</b> three persisted appointments<br>
+   * <i>and</i> a listing of the appointments<br>
+   * <b>when</b> listing the appointments again<br>
+   * <b>then</b> the listing <i>should</i> not issue any SQL<br>
+   * <i>and</i> be answered from the query cache region alone, as the listing
+   * is a projection of the appointments' columns.
+   *
+   * @see AppointmentCacheConfiguration
+   */
+  @Test
+  public void repeatedListingShouldNotIssueSql() {
+    // Given three persisted appointments
+    for (int index = 0; index < 3; index++) {
+      this.appointmentRepository.save(
+        new Appointment(new Date(DATE + index * 60000L), DESCRIPTION));
+    }
+    // and a listing of the appointments
+    this.appointmentPager.findPage(AppointmentRange.ALL, null, null, SIZE);
+    final long queryHits = this.getStatistics(
+      AppointmentCacheConfiguration.QUERY_RESULTS_REGION).getHits();
+    final long entityHits = this.getStatistics(
+      AppointmentCacheConfiguration.APPOINTMENT_REGION).getHits();
+    this.statistics.clear();
+    // when listing the appointments again
+    final AppointmentPage page =
+      this.appointmentPager.findPage(AppointmentRange.ALL, null, null, SIZE);
+    // then the listing should not issue any SQL
+    assertEquals("The listing should find every appointment.", 3,
+      page.getAppointments().size());
+    assertEquals("The listing should not issue any SQL.", 0,
+      this.statistics.getPrepareStatementCount());
+    // and be answered from the query cache region alone, as the listing is a
+    // projection of the appointments' columns.
+    assertTrue("The listing should hit the query cache.", this.getStatistics(
+      AppointmentCacheConfiguration.QUERY_RESULTS_REGION).getHits()
+      > queryHits);
+    assertEquals("The listing should not read the entity cache.",
+      entityHits, this.getStatistics(
+      AppointmentCacheConfiguration.APPOINTMENT_REGION).getHits());
+  }
+
+  /**
+   * <b>Given</b> a persisted appointment<br>
+   * <i>and</i> a listing of the appointments<br>
+   * <b>when</b> persisting another appointment and listing the appointments
+   * again<br>
+   * <b>then</b> the listing <i>should</i> query the database<br>
+   * <i>and</i> find both appointments.
+   *
+   * @see AppointmentCacheConfiguration
+   */
+  @Test
+  public void writeShouldInvalidateListing() {
+    // Given a persisted appointment
+    this.appointmentRepository.save(new Appointment(new Date(DATE),
+      DESCRIPTION));
+    // and a listing of the appointments
+    this.appointmentPager.findPage(AppointmentRange.ALL, null, null, SIZE);
+    // when persisting another appointment and listing the appointments again
+    this.appointmentRepository.save(new Appointment(new Date(DATE + 60000L),
+      DESCRIPTION));
+    this.statistics.clear();
+    final AppointmentPage page =
+      this.appointmentPager.findPage(AppointmentRange.ALL, null, null, SIZE);
+    // then the listing should query the database
+    assertTrue("The listing should query the database.",
+      this.statistics.getPrepareStatementCount() > 0);
+    // and find both appointments.
+    assertEquals("The listing should find both appointments.", 2,
+      page.getAppointments().size());
+  }
+
+  /**
+   * <b>Given</b> three persisted appointments<br>
+   * <i>and</i> an empty entity cache<br>
+   * <b>when</b> streaming the appointments<br>
+   * <b>then</b> the stream <i>should</i> hand over every appointment<br>
+   * <i>and</i> not put any appointment in the entity cache.
+   *
+   * @throws IOException If the appointments cannot be streamed.
+   *
+   * @see AppointmentCacheConfiguration
+   */
+  @Test
+  public void streamShouldBypassEntityCache() throws IOException {
+    // Given three persisted appointments
+    for (int index = 0; index < 3; index++) {
+      this.appointmentRepository.save(
+        new Appointment(new Date(DATE + index * 60000L), DESCRIPTION));
+    }
+    // and an empty entity cache
+    this.appointmentCaches.evict();
+    final long puts = this.getStatistics(
+      AppointmentCacheConfiguration.APPOINTMENT_REGION).getPuts();
+    // when streaming the appointments
+    final long count = this.appointmentStreamer.forEach(AppointmentRange.ALL,
+      appointment -> { });
+    // then the stream should hand over every appointment
+    assertEquals("The stream should hand over every appointment.", 3, count);
+    // and not put any appointment in the entity cache.
+    assertEquals("The stream should not put appointments in the cache.",
+      puts, this.getStatistics(
+      AppointmentCacheConfiguration.APPOINTMENT_REGION).getPuts());
+  }
+
+  private CacheRegionStatistics getStatistics(final String region) {
+    return this.appointmentCaches.getStatistics().get(region);
+  }
+
+}
@@ -0,0 +1,187 @@
+package appointments.standalone.cache;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public final class DateStringCacheTest {
+
+  private static final long MAXIMUM_SIZE = 100;
+  private static final long ID = 1L;
+  private static final long DATE = 1562332800000L;
+  private static final long DAY = 86400000L;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by DateStringCacheTest";
+
+  private static final TimeZone TIME_ZONE = TimeZone.getTimeZone("Etc/GMT-1");
+
+  /**
+   * <b>Given</b> a negative <b>maximumSize</b><br>
+   * <b>when</b> creating a new instance of {@link DateStringCache}<br>
+   * <b>then</b> the constructor <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see DateStringCache
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void constructorShouldThrowIllegalArgument() {
+    // Given a negative maximumSize
+    final long maximumSize = -1;
+    // when creating a new instance of DateStringCache
+    new DateStringCache(maximumSize);
+    // then the constructor should throw an IllegalArgumentException.
+    fail("DateStringCache should throw an IllegalArgumentException for a "
+      + "negative maximumSize.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link DateStringCache}<br>
+   * <i>and</i> a persisted {@link Appointment}<br>
+   * <b>when</b> invoking <code>getDateString</code> twice for the same
+   * <b>timeZone</b><br>
+   * <b>then</b> the method <i>should</i> return the appointment's date string
+   * from the cache for the second invocation.
+   *
+   * @see DateStringCache
+   */
+  @Test
+  public void getDateStringShouldHit() {
+    // Given an instance of DateStringCache
+    final DateStringCache dateStringCache = new DateStringCache(MAXIMUM_SIZE);
+    // and a persisted Appointment
+    final Appointment appointment = this.getAppointment(DATE);
+    // when invoking getDateString twice for the same timeZone
+    dateStringCache.getDateString(appointment, TIME_ZONE);
+    final String returned =
+      dateStringCache.getDateString(appointment, TIME_ZONE);
+    // then the method should return the appointment's date string from the
+    // cache for the second invocation.
+    assertEquals("getDateString should return the appointment's date string.",
+      appointment.getDateString(TIME_ZONE), returned);
+    assertEquals("getDateString should hit for the second invocation.", 1,
+      dateStringCache.getHitCount());
+    assertEquals("getDateString should miss for the first invocation.", 1,
+      dateStringCache.getMissCount());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link DateStringCache}<br>
+   * <i>and</i> a cached date string for a persisted {@link Appointment}<br>
+   * <b>when</b> invoking <code>getDateString</code> after the appointment's
+   * date has changed<br>
+   * <b>then</b> the method <i>should</i> return the new date string.
+   *
+   * @see DateStringCache
+   */
+  @Test
+  public void getDateStringShouldMissChangedDate() {
+    // Given an instance of DateStringCache
+    final DateStringCache dateStringCache = new DateStringCache(MAXIMUM_SIZE);
+    // and a cached date string for a persisted Appointment
+    dateStringCache.getDateString(this.getAppointment(DATE), TIME_ZONE);
+    // when invoking getDateString after the appointment's date has changed
+    final Appointment changed = this.getAppointment(DATE + 3600000L);
+    final String returned = dateStringCache.getDateString(changed, TIME_ZONE);
+    // then the method should return the new date string.
+    assertEquals("getDateString should return the changed date string.",
+      changed.getDateString(TIME_ZONE), returned);
+    assertEquals("getDateString should miss for a changed date.", 2,
+      dateStringCache.getMissCount());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link DateStringCache}<br>
+   * <i>and</i> the occurrences of a persisted, recurring {@link Appointment}
+   * <br>
+   * <b>when</b> invoking <code>getDateString</code> twice for each occurrence
+   * <br>
+   * <b>then</b> the method <i>should</i> return each occurrence's date string
+   * <i>and</i> answer the second invocation for each from the cache.
+   *
+   * @see DateStringCache
+   */
+  @Test
+  public void getDateStringShouldHitOccurrences() {
+    // Given an instance of DateStringCache
+    final DateStringCache dateStringCache = new DateStringCache(MAXIMUM_SIZE);
+    // and the occurrences of a persisted, recurring Appointment
+    final Appointment series = new Appointment(new Date(DATE), null,
+      DESCRIPTION, Recurrence.DAILY, ZoneOffset.UTC, null);
+    ReflectionTestUtils.setField(series, "id", ID);
+    final List<Appointment> occurrences = Arrays.asList(
+      series.getOccurrence(DATE), series.getOccurrence(DATE + DAY),
+      series.getOccurrence(DATE + 2 * DAY));
+    // when invoking getDateString twice for each occurrence
+    for (final Appointment occurrence : occurrences) {
+      dateStringCache.getDateString(occurrence, TIME_ZONE);
+    }
+    for (final Appointment occurrence : occurrences) {
+      // then the method should return each occurrence's date string
+      assertEquals("getDateString should return the occurrence's date "
+        + "string.", occurrence.getDateString(TIME_ZONE),
+        dateStringCache.getDateString(occurrence, TIME_ZONE));
+    }
+    // and answer the second invocation for each from the cache.
+    assertEquals("getDateString should hit for each second invocation.", 3,
+      dateStringCache.getHitCount());
+    assertEquals("getDateString should miss for each first invocation.", 3,
+      dateStringCache.getMissCount());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link DateStringCache} bound to a
+   * <code>MeterRegistry</code><br>
+   * <i>and</i> a persisted {@link Appointment}<br>
+   * <b>when</b> invoking <code>getDateString</code> twice for the same
+   * <b>timeZone</b><br>
+   * <b>then</b> the registry <i>should</i> report one hit, one miss and one
+   * cached date string.
+   *
+   * @see DateStringCache
+   */
+  @Test
+  public void bindToShouldRegisterHitsAndMisses() {
+    // Given an instance of DateStringCache bound to a MeterRegistry
+    final DateStringCache dateStringCache = new DateStringCache(MAXIMUM_SIZE);
+    final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    dateStringCache.bindTo(meterRegistry);
+    // and a persisted Appointment
+    final Appointment appointment = this.getAppointment(DATE);
+    // when invoking getDateString twice for the same timeZone
+    dateStringCache.getDateString(appointment, TIME_ZONE);
+    dateStringCache.getDateString(appointment, TIME_ZONE);
+    // then the registry should report one hit, one miss and one cached date
+    // string.
+    assertEquals("The registry should report one hit.", 1.0,
+      meterRegistry.get("appointments.date.strings").tag("result", "hit")
+        .functionCounter().count(), 0.0);
+    assertEquals("The registry should report one miss.", 1.0,
+      meterRegistry.get("appointments.date.strings").tag("result", "miss")
+        .functionCounter().count(), 0.0);
+    assertEquals("The registry should report one cached date string.", 1.0,
+      meterRegistry.get("appointments.date.strings.size").gauge().value(),
+      0.0);
+  }
+
+  private Appointment getAppointment(final long date) {
+    final Appointment appointment =
+      new Appointment(new Date(date), DESCRIPTION);
+    ReflectionTestUtils.setField(appointment, "id", ID);
+    return appointment;
+  }
+
+}
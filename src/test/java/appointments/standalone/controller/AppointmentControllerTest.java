@@ -1,24 +1,67 @@
 package appointments.standalone.controller;
 
+import appointments.standalone.cache.DateStringCache;
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+import appointments.standalone.metrics.AppointmentMetrics;
+import appointments.standalone.repository.AppointmentOverlapCheck;
+import appointments.standalone.repository.AppointmentOverlaps;
 import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentVersion;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
-import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.ui.ExtendedModelMap;
 import org.springframework.ui.Model;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
+import org.springframework.web.servlet.view.RedirectView;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public final class AppointmentControllerTest {
@@ -26,15 +69,38 @@ public final class AppointmentControllerTest {
   @Mock
   private AppointmentRepository appointmentRepository;
 
+  private final DateStringCache dateStringCache =
+    new DateStringCache(MAXIMUM_SIZE);
+
+  private final AppointmentVersion appointmentVersion =
+    new AppointmentVersion();
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final AppointmentMetrics appointmentMetrics =
+    new AppointmentMetrics(this.meterRegistry);
+
+  private static final long MAXIMUM_SIZE = 100;
+
   private static final String DATE = "2019-07-05";
   private static final String TIME = "13:20";
   private static final String TIME_ZONE = "Etc\\GMT-1";
   private static final String DESCRIPTION = "This is a test Appointment "
     + "created by AppointmentControllerTest";
   private static final String DEFAULT_TIME_ZONE = "Etc\\GMT";
+  private static final String FROM = null;
+  private static final String TO = null;
+  private static final String AFTER = null;
+  private static final String BEFORE = null;
+  private static final String SIZE = "20";
+  private static final String SEARCH = null;
+  private static final String PAGE = "0";
 
   private static final String ERROR_PARAM = "error";
 
+  private static final int THREADS = 64;
+  private static final int ITERATIONS = 20;
+
   /**
    * <b>Given</b> a <code>null</code> {@link AppointmentRepository}<br>
    * <b>when</b> creating a new instance of {@link AppointmentController}<br>
@@ -49,12 +115,63 @@ public final class AppointmentControllerTest {
     // Given a null AppointmentRepository
     final AppointmentRepository appointmentRepository = null;
     // when creating a new instance of AppointmentController
-    new AppointmentController(appointmentRepository);
+    new AppointmentController(appointmentRepository, this.dateStringCache,
+      this.appointmentVersion, Optional.empty(), this.appointmentMetrics);
     // then the constructor should throw an IllegalArgumentException.
     fail("AppointmentController should throw an IllegalArgumentException for a "
       + "null appointmentRepository.");
   }
 
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRepository}<br>
+   * <i>and</i> a <code>null</code> {@link DateStringCache}<br>
+   * <b>when</b> creating a new instance of {@link AppointmentController}<br>
+   * <b>then</b> the constructor <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   * 
+   * @see appointments.standalone.cache.DateStringCache
+   * @see AppointmentController
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void constructorShouldThrowDateStringCacheIllegalArgument() {
+    // Given an instance of AppointmentRepository
+    final AppointmentRepository appointmentRepository =
+      this.appointmentRepository;
+    // and a null DateStringCache
+    final DateStringCache dateStringCache = null;
+    // when creating a new instance of AppointmentController
+    new AppointmentController(appointmentRepository, dateStringCache,
+      this.appointmentVersion, Optional.empty(), this.appointmentMetrics);
+    // then the constructor should throw an IllegalArgumentException.
+    fail("AppointmentController should throw an IllegalArgumentException for a "
+      + "null dateStringCache.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRepository}<br>
+   * <i>and</i> a <code>null</code> {@link AppointmentMetrics}<br>
+   * <b>when</b> creating a new instance of {@link AppointmentController}<br>
+   * <b>then</b> the constructor <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   * 
+   * @see appointments.standalone.metrics.AppointmentMetrics
+   * @see AppointmentController
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void constructorShouldThrowAppointmentMetricsIllegalArgument() {
+    // Given an instance of AppointmentRepository
+    final AppointmentRepository appointmentRepository =
+      this.appointmentRepository;
+    // and a null AppointmentMetrics
+    final AppointmentMetrics appointmentMetrics = null;
+    // when creating a new instance of AppointmentController
+    new AppointmentController(appointmentRepository, this.dateStringCache,
+      this.appointmentVersion, Optional.empty(), appointmentMetrics);
+    // then the constructor should throw an IllegalArgumentException.
+    fail("AppointmentController should throw an IllegalArgumentException for a "
+      + "null appointmentMetrics.");
+  }
+
   /**
    * <b>Given</b> an instance of {@link AppointmentRepository}<br>
    * <b>when</b> creating a new instance of {@link AppointmentController}<br>
@@ -69,7 +186,8 @@ public final class AppointmentControllerTest {
     final AppointmentRepository appointmentRepository =
       this.appointmentRepository;
     // when creating a new instance of AppointmentController
-    new AppointmentController(appointmentRepository);
+    new AppointmentController(appointmentRepository, this.dateStringCache,
+      this.appointmentVersion, Optional.empty(), this.appointmentMetrics);
     // then the constructor should execute without exception.
   }
 
@@ -88,7 +206,9 @@ public final class AppointmentControllerTest {
   public void appointmentsDefaultTimeZoneShouldPopulateError() {
     // Given an instance of AppointmentController
     final AppointmentController appointmentController =
-      new AppointmentController(this.appointmentRepository);
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
     // and a false simulateError
     final String simulateError = Boolean.FALSE.toString();
     // and a null, empty or whitespace only defaultTimeZone
@@ -97,7 +217,9 @@ public final class AppointmentControllerTest {
       final Map<String, String> attributesMap = new HashMap<>();
       final Model model = this.getMockModel(attributesMap);
       // when invoking appointments
-      appointmentController.appointments(defaultTimeZone, simulateError, model);
+      appointmentController.appointments(defaultTimeZone, simulateError,
+        FROM, TO, AFTER, BEFORE, SIZE, SEARCH, PAGE, model,
+        this.getWebRequest());
       // then the method should populate an error.
       final String errorParam = attributesMap.get(ERROR_PARAM);
       assertNotNull("appointments should populate an error for a null, empty or"
@@ -120,7 +242,9 @@ public final class AppointmentControllerTest {
   public void appointmentSimulateErrorShouldPopulateError() {
     // Given an instance of AppointmentController
     final AppointmentController appointmentController =
-      new AppointmentController(this.appointmentRepository);
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
     // and a defaultTimeZone
     final String defaultTimeZone = DEFAULT_TIME_ZONE;
     // and a null, empty, whitespace only or true simulateError
@@ -130,7 +254,9 @@ public final class AppointmentControllerTest {
       final Map<String, String> attributesMap = new HashMap<>();
       final Model model = this.getMockModel(attributesMap);
       // when invoking appointments
-      appointmentController.appointments(defaultTimeZone, simulateError, model);
+      appointmentController.appointments(defaultTimeZone, simulateError,
+        FROM, TO, AFTER, BEFORE, SIZE, SEARCH, PAGE, model,
+        this.getWebRequest());
       // then the method should populate an error.
       final String errorParam = attributesMap.get(ERROR_PARAM);
       assertNotNull("appointments should populate an error for a null, empty, "
@@ -138,6 +264,123 @@ public final class AppointmentControllerTest {
     }
   }
 
+  /**
+   * <b>Given</b> an instance of {@link AppointmentController}<br>
+   * <i>and</i> a <b>defaultTimeZone</b><br>
+   * <i>and</i> a <code>false</code> <b>simulateError</b><br>
+   * <i>and</i> a non-numeric, zero or too large <b>size</b><br>
+   * <i>and</i> a <b>model</b><br>
+   * <b>when</b> invoking <code>appointments</code><br>
+   * <b>then</b> the method <i>should</i> populate an error.
+   * 
+   * @see AppointmentController
+   */
+  @Test
+  public void appointmentsSizeShouldPopulateError() {
+    // Given an instance of AppointmentController
+    final AppointmentController appointmentController =
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
+    // and a defaultTimeZone
+    final String defaultTimeZone = DEFAULT_TIME_ZONE;
+    // and a false simulateError
+    final String simulateError = Boolean.FALSE.toString();
+    // and a non-numeric, zero or too large size
+    for (final String size : new String[] { "Incorrect Formatting", "0",
+      "101" }) {
+      // and a model
+      final Map<String, String> attributesMap = new HashMap<>();
+      final Model model = this.getMockModel(attributesMap);
+      // when invoking appointments
+      appointmentController.appointments(defaultTimeZone, simulateError,
+        FROM, TO, AFTER, BEFORE, size, SEARCH, PAGE, model,
+        this.getWebRequest());
+      // then the method should populate an error.
+      final String errorParam = attributesMap.get(ERROR_PARAM);
+      assertNotNull("appointments should populate an error for a "
+        + "non-numeric, zero or too large size.", errorParam);
+    }
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentController}<br>
+   * <i>and</i> a <b>defaultTimeZone</b><br>
+   * <i>and</i> a <code>false</code> <b>simulateError</b><br>
+   * <i>and</i> an incorrectly formatted or reversed <b>from</b> and
+   * <b>to</b><br>
+   * <i>and</i> a <b>model</b><br>
+   * <b>when</b> invoking <code>appointments</code><br>
+   * <b>then</b> the method <i>should</i> populate an error.
+   * 
+   * @see AppointmentController
+   */
+  @Test
+  public void appointmentsRangeShouldPopulateError() {
+    // Given an instance of AppointmentController
+    final AppointmentController appointmentController =
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
+    // and a defaultTimeZone
+    final String defaultTimeZone = DEFAULT_TIME_ZONE;
+    // and a false simulateError
+    final String simulateError = Boolean.FALSE.toString();
+    // and an incorrectly formatted or reversed from and to
+    for (final String[] range : new String[][] {
+      { "Incorrect Formatting", null }, { null, "Incorrect Formatting" },
+      { "2019-07-06", "2019-07-04" } }) {
+      // and a model
+      final Map<String, String> attributesMap = new HashMap<>();
+      final Model model = this.getMockModel(attributesMap);
+      // when invoking appointments
+      appointmentController.appointments(defaultTimeZone, simulateError,
+        range[0], range[1], AFTER, BEFORE, SIZE, SEARCH, PAGE, model,
+        this.getWebRequest());
+      // then the method should populate an error.
+      final String errorParam = attributesMap.get(ERROR_PARAM);
+      assertNotNull("appointments should populate an error for an incorrectly "
+        + "formatted or reversed from and to.", errorParam);
+    }
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentController}<br>
+   * <i>and</i> a <b>defaultTimeZone</b><br>
+   * <i>and</i> a <code>false</code> <b>simulateError</b><br>
+   * <i>and</i> both an <b>after</b> and a <b>before</b> cursor<br>
+   * <i>and</i> a <b>model</b><br>
+   * <b>when</b> invoking <code>appointments</code><br>
+   * <b>then</b> the method <i>should</i> populate an error.
+   * 
+   * @see AppointmentController
+   */
+  @Test
+  public void appointmentsCursorsShouldPopulateError() {
+    // Given an instance of AppointmentController
+    final AppointmentController appointmentController =
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
+    // and a defaultTimeZone
+    final String defaultTimeZone = DEFAULT_TIME_ZONE;
+    // and a false simulateError
+    final String simulateError = Boolean.FALSE.toString();
+    // and both an after and a before cursor
+    final String after = "1562332800000_1";
+    final String before = "1562332800000_2";
+    // and a model
+    final Map<String, String> attributesMap = new HashMap<>();
+    final Model model = this.getMockModel(attributesMap);
+    // when invoking appointments
+    appointmentController.appointments(defaultTimeZone, simulateError, FROM, TO,
+      after, before, SIZE, SEARCH, PAGE, model, this.getWebRequest());
+    // then the method should populate an error.
+    final String errorParam = attributesMap.get(ERROR_PARAM);
+    assertNotNull("appointments should populate an error for both an after "
+      + "and a before cursor.", errorParam);
+  }
+
   /**
    * <b>Given</b> an instance of {@link AppointmentController}<br>
    * <i>and</i> a <b>defaultTimeZone</b><br>
@@ -153,7 +396,9 @@ public final class AppointmentControllerTest {
   public void appointmentsModelShouldThrowIllegalArgument() {
     // Given an instance of AppointmentController
     final AppointmentController appointmentController =
-      new AppointmentController(this.appointmentRepository);
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
     // and a defaultTimeZone
     final String defaultTimeZone = DEFAULT_TIME_ZONE;
     // and a false simulateError
@@ -161,7 +406,9 @@ public final class AppointmentControllerTest {
     // and a null model
     final Model model = null;
     // when invoking appointments
-    appointmentController.appointments(defaultTimeZone, simulateError, model);
+    appointmentController.appointments(defaultTimeZone, simulateError,
+        FROM, TO, AFTER, BEFORE, SIZE, SEARCH, PAGE, model,
+        this.getWebRequest());
     // then the method should throw an IllegalArgumentException.
     fail("appointments should throw an IllegalArgumentException for a "
       + "null model.");
@@ -181,7 +428,9 @@ public final class AppointmentControllerTest {
   public void appointmentsShouldNotPopulateError() {
     // Given and instance of AppointmentController
     final AppointmentController appointmentController =
-      new AppointmentController(this.appointmentRepository);
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
     // and a defaultTimeZone
     final String defaultTimeZone = DEFAULT_TIME_ZONE;
     // and a false simulateError
@@ -191,12 +440,124 @@ public final class AppointmentControllerTest {
     final Model model = this.getMockModel(attributesMap);
     // when invoking appointments
     final String response = appointmentController.appointments(defaultTimeZone,
-      simulateError, model);
+      simulateError, FROM, TO, AFTER, BEFORE, SIZE, SEARCH, PAGE, model,
+      this.getWebRequest());
     // then the method should not populate an error.
     final String errorParam = attributesMap.get(ERROR_PARAM);
     assertNull("appointments should not populate an error.", errorParam);
   }
 
+  /**
+   * <b>Given</b> an instance of {@link AppointmentController}<br>
+   * <i>and</i> a request whose <code>If-None-Match</code> header matches the
+   * current {@link AppointmentVersion}<br>
+   * <b>when</b> invoking <code>appointments</code><br>
+   * <b>then</b> the method <i>should</i> answer with
+   * <code>304 Not Modified</code><br>
+   * <i>and</i> not query the {@link AppointmentRepository}.
+   * 
+   * @see AppointmentController
+   */
+  @Test
+  public void appointmentsShouldAnswerNotModified() {
+    // Given an instance of AppointmentController
+    final AppointmentController appointmentController =
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
+    // and a request whose If-None-Match header matches the current
+    // AppointmentVersion
+    final MockHttpServletRequest request = new MockHttpServletRequest("GET",
+      "/appointments");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH,
+      this.appointmentVersion.getETag());
+    final MockHttpServletResponse response = new MockHttpServletResponse();
+    // when invoking appointments
+    final String template = appointmentController.appointments(
+      DEFAULT_TIME_ZONE, Boolean.FALSE.toString(), FROM, TO, AFTER, BEFORE,
+      SIZE, SEARCH, PAGE, new ExtendedModelMap(),
+      new ServletWebRequest(request, response));
+    // then the method should answer with 304 Not Modified
+    assertNull("appointments should not render a template.", template);
+    assertEquals("appointments should answer with 304 Not Modified.", 304,
+      response.getStatus());
+    // and not query the AppointmentRepository.
+    verifyNoInteractions(this.appointmentRepository);
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentController}<br>
+   * <i>and</i> a request whose <code>If-None-Match</code> header matches the
+   * current {@link AppointmentVersion}<br>
+   * <i>and</i> a <b>model</b> holding an error passed on by a redirect<br>
+   * <b>when</b> invoking <code>appointments</code><br>
+   * <b>then</b> the method <i>should</i> render the template.
+   * 
+   * @see AppointmentController
+   */
+  @Test
+  public void appointmentsWithErrorShouldRender() {
+    // Given an instance of AppointmentController
+    final AppointmentController appointmentController =
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
+    // and a request whose If-None-Match header matches the current
+    // AppointmentVersion
+    final MockHttpServletRequest request = new MockHttpServletRequest("GET",
+      "/appointments");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH,
+      this.appointmentVersion.getETag());
+    final MockHttpServletResponse response = new MockHttpServletResponse();
+    // and a model holding an error passed on by a redirect
+    final Model model = new ExtendedModelMap();
+    model.addAttribute(ERROR_PARAM, "Illegal argument");
+    // when invoking appointments
+    final String template = appointmentController.appointments(
+      DEFAULT_TIME_ZONE, Boolean.FALSE.toString(), FROM, TO, AFTER, BEFORE,
+      SIZE, SEARCH, PAGE, model, new ServletWebRequest(request, response));
+    // then the method should render the template.
+    assertEquals("appointments should render the template.", "appointments",
+      template);
+    assertEquals("appointments should answer with 200 OK.", 200,
+      response.getStatus());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentController}<br>
+   * <i>and</i> a <b>search</b><br>
+   * <b>when</b> invoking <code>appointments</code><br>
+   * <b>then</b> the method <i>should</i> search the descriptions for a page
+   * of one more appointment than the page size<br>
+   * <i>and</i> populate the page of search results.
+   * 
+   * @see AppointmentController
+   */
+  @Test
+  public void appointmentsShouldSearch() {
+    // Given an instance of AppointmentController
+    final AppointmentController appointmentController =
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
+    // and a search
+    final String search = "Dentist, ann";
+    // when invoking appointments
+    final Model model = new ExtendedModelMap();
+    appointmentController.appointments(DEFAULT_TIME_ZONE,
+      Boolean.FALSE.toString(), FROM, TO, AFTER, BEFORE, SIZE, search, "1",
+      model, this.getWebRequest());
+    // then the method should search the descriptions for a page of one more
+    // appointment than the page size
+    verify(this.appointmentRepository).search(eq("dentist:* & ann:*"), any(),
+      any(), eq(21), eq(20));
+    // and populate the page of search results.
+    assertNull("appointments should not populate an error.",
+      model.asMap().get(ERROR_PARAM));
+    assertNotNull("appointments should populate the page of search results.",
+      model.asMap().get("searchPage"));
+  }
+
   /**
    * <b>Given</b> an instance of {@link AppointmentController}<br>
    * <i>and</i> a <b>time</b> (formatted <code>HH:mm</code>)<br>
@@ -206,7 +567,7 @@ public final class AppointmentControllerTest {
    * <i>and</i> a <code>false</code> <b>simulateError</b><br>
    * <i>and</i> a <code>null</code>, empty, whitespace only or incorrectly
    * formatted <b>date</b><br>
-   * <i>and</i> a <b>model</b><br>
+   * <i>and</i> <b>redirectAttributes</b><br>
    * <b>when</b> invoking <code>appointmentsCreate</code><br>
    * <b>then</b> the method <i>should</i> populate an error.
    * 
@@ -216,7 +577,9 @@ public final class AppointmentControllerTest {
   public void appointmentsCreateDateShouldPopulateError() {
     // Given an instance of AppointmentController
     final AppointmentController appointmentController =
-      new AppointmentController(this.appointmentRepository);
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
     // and a time (formatted HH:mm)
     final String time = TIME;
     // and a timeZone
@@ -230,15 +593,18 @@ public final class AppointmentControllerTest {
     // and a null, empty, whitespace only or incorrectly formatted date
     for (final String date : new String[] { null, "", " ", "Incorrect "
       + "Formatting" }) {
-      // and a model
-      final Map<String, String> attributesMap = new HashMap<>();
-      final Model model = this.getMockModel(attributesMap);
+      // and redirectAttributes
+      final RedirectAttributesModelMap redirectAttributes =
+        new RedirectAttributesModelMap();
       // when invoking appointmentsCreate
-      appointmentController.appointmentsCreate(date, time, timeZone,
-        description, defaultTimeZone, simulateError, model);
-      // then the method should populate an error.
-      final String errorParam = attributesMap.get(ERROR_PARAM);
-      assertNotNull("appointmentsCreate should populate an error for a null, "
+      appointmentController.appointmentsCreate(date, time, timeZone, null,
+        description, null, null, defaultTimeZone, simulateError,
+        redirectAttributes);
+      // then the method should populate an error flash attribute.
+      final Object errorParam =
+        redirectAttributes.getFlashAttributes().get(ERROR_PARAM);
+      assertNotNull("appointmentsCreate should populate an error flash "
+        + "attribute for a null, "
         + "empty, whitespace only or incorrectly formatted date.", errorParam);
     }
   }
@@ -252,7 +618,7 @@ public final class AppointmentControllerTest {
    * <i>and</i> a <code>false</code> <b>simulateError</b><br>
    * <i>and</i> a <code>null</code>, empty, whitespace only or incorrectly
    * formatted <b>time</b><br>
-   * <i>and</i> a <b>model</b><br>
+   * <i>and</i> <b>redirectAttributes</b><br>
    * <b>when</b> invoking <code>appointmentsCreate</code><br>
    * <b>then</b> the method <i>should</i> populate an error.
    * 
@@ -262,7 +628,9 @@ public final class AppointmentControllerTest {
   public void appointmentsCreateTimeShouldPopulateError() {
     // Given an instance of AppointmentController
     final AppointmentController appointmentController =
-      new AppointmentController(this.appointmentRepository);
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
     // and a date (formatted dd/MM/yyyy)
     final String date = DATE;
     // and a timeZone
@@ -276,15 +644,18 @@ public final class AppointmentControllerTest {
     // and a null, empty, whitespace only or incorrectly formatted time
     for (final String time : new String[] { null, "", " ", "Incorrect "
       + "Formatting" }) {
-      // and a model
-      final Map<String, String> attributesMap = new HashMap<>();
-      final Model model = this.getMockModel(attributesMap);
+      // and redirectAttributes
+      final RedirectAttributesModelMap redirectAttributes =
+        new RedirectAttributesModelMap();
       // when invoking appointmentsCreate
-      appointmentController.appointmentsCreate(date, time, timeZone,
-        description, defaultTimeZone, simulateError, model);
-      // then the method should populate an error.
-      final String errorParam = attributesMap.get(ERROR_PARAM);
-      assertNotNull("appointmentsCreate should poplulate an error for a null, "
+      appointmentController.appointmentsCreate(date, time, timeZone, null,
+        description, null, null, defaultTimeZone, simulateError,
+        redirectAttributes);
+      // then the method should populate an error flash attribute.
+      final Object errorParam =
+        redirectAttributes.getFlashAttributes().get(ERROR_PARAM);
+      assertNotNull("appointmentsCreate should populate an error flash "
+        + "attribute for a null, "
         + " empty, whitespace only or incorrectly formatted time.", errorParam);
     }
   }
@@ -298,7 +669,7 @@ public final class AppointmentControllerTest {
    * <i>and</i> a <code>false</code> <b>simulateError</b><br>
    * <i>and</i> a <code>null</code>, empty or whitespace only
    * <b>timeZone</b><br>
-   * <i>and</i> a <b>model</b><br>
+   * <i>and</i> <b>redirectAttributes</b><br>
    * <b>when</b> invoking <code>appointmentsCreate</code><br>
    * <b>then</b> the method <i>should</i> populate an error.
    * 
@@ -308,7 +679,9 @@ public final class AppointmentControllerTest {
   public void appointmentsCreateTimeZoneShouldPopulateError() {
     // Given an instance of AppointmentController
     final AppointmentController appointmentController =
-      new AppointmentController(this.appointmentRepository);
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
     // and a date (formatted dd/MM/yyyy)
     final String date = DATE;
     // and a time (formatted HH:mm)
@@ -321,15 +694,18 @@ public final class AppointmentControllerTest {
     final String simulateError = Boolean.FALSE.toString();
     // and a null, empty or whitespace only timeZone
     for (final String timeZone : new String[] { null, "", " " }) {
-      // and a model
-      final Map<String, String> attributesMap = new HashMap<>();
-      final Model model = this.getMockModel(attributesMap);
+      // and redirectAttributes
+      final RedirectAttributesModelMap redirectAttributes =
+        new RedirectAttributesModelMap();
       // when invoking appointmentsCreate
-      appointmentController.appointmentsCreate(date, time, timeZone,
-        description, defaultTimeZone, simulateError, model);
-      // then the method should populate an error.
-      final String errorParam = attributesMap.get(ERROR_PARAM);
-      assertNotNull("appointmentsCreate should populate an error for a null, "
+      appointmentController.appointmentsCreate(date, time, timeZone, null,
+        description, null, null, defaultTimeZone, simulateError,
+        redirectAttributes);
+      // then the method should populate an error flash attribute.
+      final Object errorParam =
+        redirectAttributes.getFlashAttributes().get(ERROR_PARAM);
+      assertNotNull("appointmentsCreate should populate an error flash "
+        + "attribute for a null, "
         + "empty or whitespace only timeZone.", errorParam);
     }
   }
@@ -343,7 +719,7 @@ public final class AppointmentControllerTest {
    * <i>and</i> a <code>false</code> <b>simulateError</b><br>
    * <i>and</i> a <code>null</code>, empty or whitespace only
    * <b>description</b><br>
-   * <i>and</i> a <b>model</b><br>
+   * <i>and</i> <b>redirectAttributes</b><br>
    * <b>when</b> invoking <code>appointmentsCreate</code><br>
    * <b>then</b> the method <i>should</i> populate an error.
    * 
@@ -353,7 +729,9 @@ public final class AppointmentControllerTest {
   public void appointmentsCreateDescriptionShouldPopulateError() {
     // Given an instance of AppointmentController
     final AppointmentController appointmentController =
-      new AppointmentController(this.appointmentRepository);
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
     // and a date (formatted dd/MM/yyyy)
     final String date = DATE;
     // and a time (formatted HH:mm)
@@ -366,15 +744,18 @@ public final class AppointmentControllerTest {
     final String simulateError = Boolean.FALSE.toString();
     // and a null, empty or whitespace only description
     for (final String description : new String[] { null, "", " " }) {
-      // and a model
-      final Map<String, String> attributesMap = new HashMap<>();
-      final Model model = this.getMockModel(attributesMap);
+      // and redirectAttributes
+      final RedirectAttributesModelMap redirectAttributes =
+        new RedirectAttributesModelMap();
       // when invoking appointmentsCreate
-      appointmentController.appointmentsCreate(date, time, timeZone,
-        description, defaultTimeZone, simulateError, model);
-      // then the method should populate an error.
-      final String errorParam = attributesMap.get(ERROR_PARAM);
-      assertNotNull("appointmentsCreate should populate an error for a null, "
+      appointmentController.appointmentsCreate(date, time, timeZone, null,
+        description, null, null, defaultTimeZone, simulateError,
+        redirectAttributes);
+      // then the method should populate an error flash attribute.
+      final Object errorParam =
+        redirectAttributes.getFlashAttributes().get(ERROR_PARAM);
+      assertNotNull("appointmentsCreate should populate an error flash "
+        + "attribute for a null, "
         + "empty or whitespace only description.", errorParam);
     }
   }
@@ -388,7 +769,7 @@ public final class AppointmentControllerTest {
    * <i>and</i> a <code>false</code> <b>simulateError</b><br>
    * <i>and</i> a <code>null</code>, empty or whitespace only
    * <b>defaultTimeZone</b><br>
-   * <i>and</i> a <b>model</b><br>
+   * <i>and</i> <b>redirectAttributes</b><br>
    * <b>when</b> invoking <code>appointmentsCreate</code><br>
    * <b>then</b> the method <i>should</i> populate an error.
    * 
@@ -398,7 +779,9 @@ public final class AppointmentControllerTest {
   public void appointmentsCreateDefaultTimeZoneShouldPopulateError() {
     // Given an instance of AppointmentController
     final AppointmentController appointmentController =
-      new AppointmentController(this.appointmentRepository);
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
     // and a date (formatted dd/MM/yyyy)
     final String date = DATE;
     // and a time (formatted HH:mm)
@@ -411,15 +794,18 @@ public final class AppointmentControllerTest {
     final String simulateError = Boolean.FALSE.toString();
     // and a null, empty or whitespace only defaultTimeZone
     for (final String defaultTimeZone : new String[] { null, "", " " }) {
-      // and a model
-      final Map<String, String> attributesMap = new HashMap<>();
-      final Model model = this.getMockModel(attributesMap);
+      // and redirectAttributes
+      final RedirectAttributesModelMap redirectAttributes =
+        new RedirectAttributesModelMap();
       // when invoking appointmentsCreate
-      appointmentController.appointmentsCreate(date, time, timeZone,
-        description, defaultTimeZone, simulateError, model);
-      // then the method should populate an error.
-      final String errorParam = attributesMap.get(ERROR_PARAM);
-      assertNotNull("appointmentsCreate should populate an error for a null, "
+      appointmentController.appointmentsCreate(date, time, timeZone, null,
+        description, null, null, defaultTimeZone, simulateError,
+        redirectAttributes);
+      // then the method should populate an error flash attribute.
+      final Object errorParam =
+        redirectAttributes.getFlashAttributes().get(ERROR_PARAM);
+      assertNotNull("appointmentsCreate should populate an error flash "
+        + "attribute for a null, "
         + "empty or whitespace only defaultTimeZone.", errorParam);
     }
   }
@@ -433,7 +819,7 @@ public final class AppointmentControllerTest {
    * <i>and</i> a <b>defaultTimeZone</b><br>
    * <i>and</i> a <code>null</code>, empty, whitespace only or <code>true</code>
    * <b>simulateError</b><br>
-   * <i>and</i> a <b>model</b><br>
+   * <i>and</i> <b>redirectAttributes</b><br>
    * <b>when</b> invoking <code>appointmentsCreate</code><br>
    * <b>then</b> the method <i>should</i> populate an error.
    * 
@@ -443,7 +829,9 @@ public final class AppointmentControllerTest {
   public void appointmentsCreateSimulateErrorShouldPopulateError() {
     // Given an instance of AppointmentController
     final AppointmentController appointmentController =
-      new AppointmentController(this.appointmentRepository);
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
     // and a date (formatted dd/MM/yyyy)
     final String date = DATE;
     // and a time (formatted HH:mm)
@@ -457,15 +845,18 @@ public final class AppointmentControllerTest {
     // and a null, empty, whitespace only or true simulateError
     for (final String simulateError : new String[] { null, "", " ",
       Boolean.TRUE.toString() }) {
-      // and a model
-      final Map<String, String> attributesMap = new HashMap<>();
-      final Model model = this.getMockModel(attributesMap);
+      // and redirectAttributes
+      final RedirectAttributesModelMap redirectAttributes =
+        new RedirectAttributesModelMap();
       // when invoking appointmentsCreate
-      appointmentController.appointmentsCreate(date, time, timeZone,
-        description, defaultTimeZone, simulateError, model);
-      // then the method should populate an error.
-      final String errorParam = attributesMap.get(ERROR_PARAM);
-      assertNotNull("appointmentsCreate should populate an error for a null, "
+      appointmentController.appointmentsCreate(date, time, timeZone, null,
+        description, null, null, defaultTimeZone, simulateError,
+        redirectAttributes);
+      // then the method should populate an error flash attribute.
+      final Object errorParam =
+        redirectAttributes.getFlashAttributes().get(ERROR_PARAM);
+      assertNotNull("appointmentsCreate should populate an error flash "
+        + "attribute for a null, "
         + "empty, whitespace only or true simulateError.", errorParam);
     }
   }
@@ -478,7 +869,7 @@ public final class AppointmentControllerTest {
    * <i>and</i> a <b>description</b><br>
    * <i>and</i> a <b>defaultTimeZone</b><br>
    * <i>and</i> a <code>false</code> <b>simulateError</b><br>
-   * <i>and</i> a <code>null</code> <b>model</b><br>
+   * <i>and</i> <code>null</code> <b>redirectAttributes</b><br>
    * <b>when</b> invoking <code>appointmentsCreate</code><br>
    * <b>then</b> the method <i>should</i> throw an
    * <code>IllegalArgumentException</code>.
@@ -489,7 +880,9 @@ public final class AppointmentControllerTest {
   public void appointmentsCreateModelShouldThrowIllegalArgument() {
     // Given an instance of AppointmentController
     final AppointmentController appointmentController =
-      new AppointmentController(this.appointmentRepository);
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
     // and a date (formatted dd/MM/yyyy)
     final String date = DATE;
     // and a time (formatted HH:mm)
@@ -502,14 +895,15 @@ public final class AppointmentControllerTest {
     final String defaultTimeZone = DEFAULT_TIME_ZONE;
     // and a false simulateError
     final String simulateError = Boolean.FALSE.toString();
-    // and a null model
-    final Model model = null;
+    // and null redirectAttributes
+    final RedirectAttributes redirectAttributes = null;
     // when invoking appointmentsCreate
-    appointmentController.appointmentsCreate(date, time, timeZone, description,
-      defaultTimeZone, simulateError, model);
+    appointmentController.appointmentsCreate(date, time, timeZone, null,
+      description, null, null, defaultTimeZone, simulateError,
+      redirectAttributes);
     // then the method should throw an IllegalArgumentException.
     fail("appointmentsCreate should throw an IllegalArgumentException for a "
-      + "null model.");
+      + "null redirectAttributes.");
   }
 
   /**
@@ -520,7 +914,7 @@ public final class AppointmentControllerTest {
    * <i>and</i> a <b>description</b><br>
    * <i>and</i> a <b>defaultTimeZone</b><br>
    * <i>and</i> a <code>false</code> <b>simulateError</b><br>
-   * <i>and</i> a <b>model</b><br>
+   * <i>and</i> <b>redirectAttributes</b><br>
    * <b>when</b> invoking <code>appointmentsCreate</code><br>
    * <b>then</b> the method <i>should not</i> populate an error.
    * 
@@ -530,7 +924,9 @@ public final class AppointmentControllerTest {
   public void appointmentsCreateShouldNotPopulateAnError() {
     // Given an instance of AppointmentsController
     final AppointmentController appointmentController =
-      new AppointmentController(this.appointmentRepository);
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
     // and a date (formatted dd/MM/yyyy)
     final String date = DATE;
     // and a time (formatted HH:mm)
@@ -543,17 +939,351 @@ public final class AppointmentControllerTest {
     final String defaultTimeZone = DEFAULT_TIME_ZONE;
     // and a false simulateError
     final String simulateError = Boolean.FALSE.toString();
-    // and a model
-    final Map<String, String> attributesMap = new HashMap<>();
-    final Model model = this.getMockModel(attributesMap);
+    // and redirectAttributes
+    final RedirectAttributesModelMap redirectAttributes =
+      new RedirectAttributesModelMap();
     // when invoking appointmentsCreate
-    appointmentController.appointmentsCreate(date, time, timeZone, description,
-      defaultTimeZone, simulateError, model);
+    appointmentController.appointmentsCreate(date, time, timeZone, null,
+      description, null, null, defaultTimeZone, simulateError,
+      redirectAttributes);
     // then the method should not populate an error.
-    final String errorParam = attributesMap.get(ERROR_PARAM);
+    final Object errorParam =
+      redirectAttributes.getFlashAttributes().get(ERROR_PARAM);
     assertNull("appointmentsCreate should not populate an error.", errorParam);
   }
 
+  /**
+   * <b>Given</b> an instance of {@link AppointmentController}<br>
+   * <i>and</i> a repository that rejects the appointment as overlapping
+   * another<br>
+   * <i>and</i> valid form parameters with a <b>duration</b><br>
+   * <i>and</i> <b>redirectAttributes</b><br>
+   * <b>when</b> invoking <code>appointmentsCreate</code><br>
+   * <b>then</b> the method <i>should</i> populate the overlap error flash
+   * attribute.
+   * 
+   * @see AppointmentController
+   * @see AppointmentOverlaps
+   */
+  @Test
+  public void appointmentsCreateShouldReportOverlap() {
+    // Given an instance of AppointmentController
+    final AppointmentController appointmentController =
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
+    // and a repository that rejects the appointment as overlapping another
+    when(this.appointmentRepository.save(any()))
+      .thenThrow(new DataIntegrityViolationException("could not execute "
+        + "batch", new SQLException("conflicting key value violates "
+        + "exclusion constraint", "23P01")));
+    // and valid form parameters with a duration
+    final String duration = "30";
+    // and redirectAttributes
+    final RedirectAttributesModelMap redirectAttributes =
+      new RedirectAttributesModelMap();
+    // when invoking appointmentsCreate
+    appointmentController.appointmentsCreate(DATE, TIME, TIME_ZONE, duration,
+      DESCRIPTION, null, null, DEFAULT_TIME_ZONE, Boolean.FALSE.toString(),
+      redirectAttributes);
+    // then the method should populate the overlap error flash attribute.
+    assertEquals("appointmentsCreate should report the overlap.",
+      AppointmentOverlaps.MESSAGE,
+      redirectAttributes.getFlashAttributes().get(ERROR_PARAM));
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentController}<br>
+   * <i>and</i> a repository holding a weekly series of an hour starting
+   * twenty minutes before the form's time, a week before its date<br>
+   * <i>and</i> valid form parameters with a <b>duration</b><br>
+   * <i>and</i> <b>redirectAttributes</b><br>
+   * <b>when</b> invoking <code>appointmentsCreate</code><br>
+   * <b>then</b> the method <i>should</i> populate the overlap error flash
+   * attribute<br>
+   * <i>and</i> not save the appointment.
+   *
+   * @see AppointmentController
+   * @see AppointmentOverlapCheck
+   */
+  @Test
+  public void appointmentsCreateShouldReportOverlapWithOccurrence() {
+    // Given an instance of AppointmentController
+    final AppointmentController appointmentController =
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
+    // and a repository holding a weekly series of an hour starting twenty
+    // minutes before the form's time, a week before its date
+    // 2019-06-28T13:00Z
+    final Appointment series = new Appointment(new Date(1561726800000L), 60,
+      DESCRIPTION, Recurrence.WEEKLY, ZoneId.of("Etc/GMT"), null);
+    ReflectionTestUtils.setField(series, "id", 1L);
+    when(this.appointmentRepository.findSeriesBetween(any(), any()))
+      .thenReturn(Collections.singletonList(series));
+    // and valid form parameters with a duration
+    final String duration = "30";
+    // and redirectAttributes
+    final RedirectAttributesModelMap redirectAttributes =
+      new RedirectAttributesModelMap();
+    // when invoking appointmentsCreate
+    appointmentController.appointmentsCreate(DATE, TIME, TIME_ZONE, duration,
+      DESCRIPTION, null, null, DEFAULT_TIME_ZONE, Boolean.FALSE.toString(),
+      redirectAttributes);
+    // then the method should populate the overlap error flash attribute
+    assertEquals("appointmentsCreate should report the overlap.",
+      AppointmentOverlaps.MESSAGE,
+      redirectAttributes.getFlashAttributes().get(ERROR_PARAM));
+    // and not save the appointment.
+    verify(this.appointmentRepository, never()).save(any());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentController}<br>
+   * <i>and</i> a repository that rejects the appointment as overlapping
+   * another<br>
+   * <b>when</b> invoking <code>appointmentsCreate</code> with an incorrectly
+   * formatted <b>date</b>, a whitespace only <b>description</b> and valid form
+   * parameters<br>
+   * <b>then</b> the method <i>should</i> count one parse error, one illegal
+   * argument error and one overlap error<br>
+   * <i>and</i> time each request and the one save.
+   * 
+   * @see AppointmentMetrics
+   */
+  @Test
+  public void appointmentsCreateShouldCountErrorsByType() {
+    // Given an instance of AppointmentController
+    final AppointmentController appointmentController =
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
+    // and a repository that rejects the appointment as overlapping another
+    when(this.appointmentRepository.save(any()))
+      .thenThrow(new DataIntegrityViolationException("could not execute "
+        + "batch", new SQLException("conflicting key value violates "
+        + "exclusion constraint", "23P01")));
+    // when invoking appointmentsCreate with an incorrectly formatted date, a
+    // whitespace only description and valid form parameters
+    appointmentController.appointmentsCreate("Incorrect Formatting", TIME,
+      TIME_ZONE, null, DESCRIPTION, null, null, DEFAULT_TIME_ZONE,
+      Boolean.FALSE.toString(), new RedirectAttributesModelMap());
+    appointmentController.appointmentsCreate(DATE, TIME, TIME_ZONE, null, " ",
+      null, null, DEFAULT_TIME_ZONE, Boolean.FALSE.toString(),
+      new RedirectAttributesModelMap());
+    appointmentController.appointmentsCreate(DATE, TIME, TIME_ZONE, "30",
+      DESCRIPTION, null, null, DEFAULT_TIME_ZONE, Boolean.FALSE.toString(),
+      new RedirectAttributesModelMap());
+    // then the method should count one parse error, one illegal argument
+    // error and one overlap error
+    for (final String type : new String[] { "parse", "illegal_argument",
+      "overlap" }) {
+      assertEquals("appointmentsCreate should count one " + type + " error.",
+        1, this.meterRegistry.get("appointments.errors")
+          .tag("endpoint", "appointmentsCreate").tag("type", type).counter()
+          .count(), 0);
+    }
+    // and time each request and the one save.
+    assertEquals("appointmentsCreate should time each request.", 3,
+      this.meterRegistry.get("appointments.requests")
+        .tag("endpoint", "appointmentsCreate").timer().count());
+    assertEquals("appointmentsCreate should time the one save.", 1,
+      this.meterRegistry.get("appointments.query").tag("query", "save")
+        .tag("source", "database").timer().count());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentController}<br>
+   * <i>and</i> a repository listing two appointments<br>
+   * <b>when</b> invoking <code>appointments</code><br>
+   * <b>then</b> the method <i>should</i> time the request, populating the
+   * model and querying the page from the database<br>
+   * <i>and</i> record the two appointments returned.
+   * 
+   * @see AppointmentMetrics
+   */
+  @Test
+  public void appointmentsShouldTimeQuery() {
+    // Given an instance of AppointmentController
+    final AppointmentController appointmentController =
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
+    // and a repository listing two appointments
+    final List<Appointment> appointments = new ArrayList<>();
+    for (long id = 1; id <= 2; id++) {
+      appointments.add(new Appointment(id, new Date(), null, DESCRIPTION));
+    }
+    when(this.appointmentRepository.findBetween(any(), any(), any()))
+      .thenReturn(appointments);
+    // when invoking appointments
+    appointmentController.appointments(DEFAULT_TIME_ZONE,
+      Boolean.FALSE.toString(), FROM, TO, AFTER, BEFORE, SIZE, SEARCH, PAGE,
+      new ExtendedModelMap(), this.getWebRequest());
+    // then the method should time the request, populating the model and
+    // querying the page from the database
+    assertEquals("appointments should time the request.", 1,
+      this.meterRegistry.get("appointments.requests")
+        .tag("endpoint", "appointments").timer().count());
+    assertEquals("appointments should time populating the model.", 1,
+      this.meterRegistry.get("appointments.populate").tag("model", "page")
+        .timer().count());
+    assertEquals("appointments should time querying the page.", 1,
+      this.meterRegistry.get("appointments.query").tag("query", "page")
+        .tag("source", "database").timer().count());
+    // and record the two appointments returned.
+    assertEquals("appointments should record the appointments returned.", 2,
+      this.meterRegistry.get("appointments.rows").tag("query", "page")
+        .summary().totalAmount(), 0);
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentController}<br>
+   * <i>and</i> valid form parameters<br>
+   * <i>and</i> a <b>defaultTimeZone</b><br>
+   * <i>and</i> <b>redirectAttributes</b><br>
+   * <b>when</b> invoking <code>appointmentsCreate</code><br>
+   * <b>then</b> the method <i>should</i> answer with a
+   * <code>303 See Other</code> redirect to <code>/appointments</code><br>
+   * <i>and</i> keep <b>defaultTimeZone</b> as the <code>tz</code> URL
+   * parameter.
+   * 
+   * @see AppointmentController
+   */
+  @Test
+  public void appointmentsCreateShouldRedirectToAppointments() {
+    // Given an instance of AppointmentController
+    final AppointmentController appointmentController =
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
+    // and valid form parameters
+    final String date = DATE;
+    final String time = TIME;
+    final String timeZone = TIME_ZONE;
+    final String description = DESCRIPTION;
+    // and a defaultTimeZone
+    final String defaultTimeZone = DEFAULT_TIME_ZONE;
+    // and redirectAttributes
+    final RedirectAttributesModelMap redirectAttributes =
+      new RedirectAttributesModelMap();
+    // when invoking appointmentsCreate
+    final RedirectView redirectView = appointmentController.appointmentsCreate(
+      date, time, timeZone, null, description, null, null, defaultTimeZone,
+      Boolean.FALSE.toString(), redirectAttributes);
+    // then the method should answer with a 303 See Other redirect to
+    // /appointments
+    assertEquals("appointmentsCreate should redirect with 303 See Other.",
+      HttpStatus.SEE_OTHER,
+      ReflectionTestUtils.getField(redirectView, "statusCode"));
+    assertEquals("appointmentsCreate should redirect to /appointments.",
+      "/appointments", redirectView.getUrl());
+    // and keep defaultTimeZone as the tz URL parameter.
+    assertEquals("appointmentsCreate should keep the tz URL parameter.",
+      defaultTimeZone, redirectAttributes.get("tz"));
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentController}<br>
+   * <i>and</i> a <b>date</b> (formatted <code>yyyy-MM-dd</code>)<br>
+   * <i>and</i> a <b>time</b> (formatted <code>HH:mm</code>)<br>
+   * <i>and</i> a different <b>timeZone</b> for each of 64 threads<br>
+   * <b>when</b> invoking <code>appointmentsCreate</code> from all of the
+   * threads at once<br>
+   * <b>then</b> the method <i>should</i> save every appointment with the
+   * instant of <b>date</b> and <b>time</b> in its own <b>timeZone</b>.
+   * 
+   * @see AppointmentController
+   */
+  @Test
+  public void appointmentsCreateShouldParseDatesConcurrently()
+    throws Exception {
+    // Given an instance of AppointmentController
+    final AppointmentController appointmentController =
+      new AppointmentController(this.appointmentRepository,
+        this.dateStringCache, this.appointmentVersion, Optional.empty(),
+        this.appointmentMetrics);
+    final ConcurrentMap<String, Date> saved = new ConcurrentHashMap<>();
+    final List<String> mismatches = new ArrayList<>();
+    when(this.appointmentRepository.save(any(Appointment.class)))
+      .thenAnswer(new Answer<Appointment>() {
+
+        @Override
+        public Appointment answer(final InvocationOnMock invocation) {
+          final Appointment appointment = invocation.getArgument(0);
+          final Date previous = saved.putIfAbsent(appointment.getDescription(),
+            appointment.getDate());
+          if (previous != null && !previous.equals(appointment.getDate())) {
+            synchronized (mismatches) {
+              mismatches.add(appointment.getDescription());
+            }
+          }
+          return appointment;
+        }
+
+      });
+    // and a date (formatted yyyy-MM-dd)
+    final String date = DATE;
+    // and a time (formatted HH:mm)
+    final String time = TIME;
+    // and a different timeZone for each of 64 threads
+    final ExecutorService executorService =
+      Executors.newFixedThreadPool(THREADS);
+    final CountDownLatch latch = new CountDownLatch(1);
+    final List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      final String timeZone = this.getTimeZone(i);
+      futures.add(executorService.submit(new Callable<Void>() {
+
+        @Override
+        public Void call() throws Exception {
+          latch.await();
+          for (int j = 0; j < ITERATIONS; j++) {
+            // when invoking appointmentsCreate from all of the threads at
+            // once
+            appointmentController.appointmentsCreate(date, time, timeZone,
+              null, timeZone, null, null, DEFAULT_TIME_ZONE,
+              Boolean.FALSE.toString(), new RedirectAttributesModelMap());
+          }
+          return null;
+        }
+
+      }));
+    }
+    latch.countDown();
+    try {
+      for (final Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+    // then the method should save every appointment with the instant of date
+    // and time in its own timeZone.
+    assertEquals("appointmentsCreate should save the same date for each "
+      + "timeZone.", new ArrayList<String>(), mismatches);
+    for (int i = 0; i < THREADS; i++) {
+      final String timeZone = this.getTimeZone(i);
+      final Date expected = Date.from(LocalDateTime.parse(date + "T" + time)
+        .atZone(ZoneId.of(timeZone)).toInstant());
+      assertEquals("appointmentsCreate should save the date in the specified "
+        + "timeZone.", expected, saved.get(timeZone));
+    }
+  }
+
+  private String getTimeZone(final int index) {
+    final int offset = index % 27 - 14;
+    if (offset == 0) {
+      return "Etc/GMT";
+    }
+    return String.format("Etc/GMT%+d", offset);
+  }
+
+  private ServletWebRequest getWebRequest() {
+    return new ServletWebRequest(new MockHttpServletRequest(),
+      new MockHttpServletResponse());
+  }
+
   private Model getMockModel(final Map<String, String> attributesMap) {
     final Model model = mock(Model.class);
     doAnswer(new Answer<Void>() {
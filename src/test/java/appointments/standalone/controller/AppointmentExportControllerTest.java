@@ -0,0 +1,218 @@
+package appointments.standalone.controller;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentStreamer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class AppointmentExportControllerTest {
+
+  @Mock
+  private AppointmentRepository appointmentRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private EntityManager entityManager;
+
+  private static final long DATE = 1562332800000L;
+  private static final long DAY = 86400000L;
+  private static final String DESCRIPTION = "Dentist, annual";
+  private static final String TIME_ZONE = "Etc/GMT-1";
+
+  /**
+   * <b>Given</b> a <code>null</code> {@link AppointmentStreamer}<br>
+   * <b>when</b> creating a new instance of
+   * {@link AppointmentExportController}<br>
+   * <b>then</b> the constructor <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentExportController
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void constructorShouldThrowIllegalArgument() {
+    // Given a null AppointmentStreamer
+    final AppointmentStreamer appointmentStreamer = null;
+    // when creating a new instance of AppointmentExportController
+    new AppointmentExportController(appointmentStreamer);
+    // then the constructor should throw an IllegalArgumentException.
+    fail("AppointmentExportController should throw an "
+      + "IllegalArgumentException for a null AppointmentStreamer.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentExportController}<br>
+   * <i>and</i> a persisted {@link Appointment}<br>
+   * <b>when</b> invoking <code>exportCsv</code><br>
+   * <b>then</b> the method <i>should</i> return a CSV attachment of the
+   * appointment in the requested time zone.
+   *
+   * @throws IOException If the response cannot be written.
+   *
+   * @see AppointmentExportController
+   */
+  @Test
+  public void exportCsvShouldWriteAppointments() throws IOException {
+    // Given an instance of AppointmentExportController
+    final AppointmentExportController controller = this.getController();
+    // and a persisted Appointment
+    final Appointment appointment =
+      new Appointment(new Date(DATE), DESCRIPTION);
+    ReflectionTestUtils.setField(appointment, "id", 1L);
+    when(this.appointmentRepository.streamBetween(any(), any()))
+      .thenReturn(Stream.of(appointment));
+    // when invoking exportCsv
+    final ResponseEntity<StreamingResponseBody> response =
+      controller.exportCsv(TIME_ZONE, "2019-07-05", "2019-07-05");
+    // then the method should return a CSV attachment of the appointment in
+    // the requested time zone.
+    assertEquals("exportCsv should return an attachment.",
+      "attachment; filename=\"appointments.csv\"",
+      response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    response.getBody().writeTo(outputStream);
+    assertEquals("exportCsv should write the appointment.",
+      "date,timeZone,description\r\n"
+      + "2019-07-05T14:20:00,Etc/GMT-1,\"Dentist, annual\"\r\n",
+      new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentExportController}<br>
+   * <i>and</i> a persisted {@link Appointment}<br>
+   * <i>and</i> a daily appointment that started before the range<br>
+   * <b>when</b> invoking <code>exportCsv</code><br>
+   * <b>then</b> the method <i>should</i> write a record for each occurrence
+   * in the range, merged in order with the appointment.
+   *
+   * @throws IOException If the response cannot be written.
+   *
+   * @see AppointmentExportController
+   */
+  @Test
+  public void exportCsvShouldWriteOccurrences() throws IOException {
+    // Given an instance of AppointmentExportController
+    final AppointmentExportController controller = this.getController();
+    // and a persisted Appointment
+    final Appointment appointment =
+      new Appointment(new Date(DATE), DESCRIPTION);
+    ReflectionTestUtils.setField(appointment, "id", 1L);
+    when(this.appointmentRepository.streamBetween(any(), any()))
+      .thenReturn(Stream.of(appointment));
+    // and a daily appointment that started before the range
+    when(this.appointmentRepository.findSeriesBetween(any(), any()))
+      .thenReturn(Arrays.asList(getSeries()));
+    // when invoking exportCsv
+    final ResponseEntity<StreamingResponseBody> response =
+      controller.exportCsv(TIME_ZONE, "2019-07-05", "2019-07-06");
+    // then the method should write a record for each occurrence in the
+    // range, merged in order with the appointment.
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    response.getBody().writeTo(outputStream);
+    assertEquals("exportCsv should write each occurrence in the range.",
+      "date,timeZone,description\r\n"
+      + "2019-07-05T14:20:00,Etc/GMT-1,\"Dentist, annual\"\r\n"
+      + "2019-07-05T14:20:00,Etc/GMT-1,Stand-up\r\n"
+      + "2019-07-06T14:20:00,Etc/GMT-1,Stand-up\r\n",
+      new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentExportController}<br>
+   * <i>and</i> a daily appointment that started before the range<br>
+   * <b>when</b> invoking <code>exportCalendar</code><br>
+   * <b>then</b> the method <i>should</i> write the appointment once, from its
+   * first occurrence, with its rule.
+   *
+   * @throws IOException If the response cannot be written.
+   *
+   * @see AppointmentExportController
+   */
+  @Test
+  public void exportCalendarShouldWriteEarlierSeries() throws IOException {
+    // Given an instance of AppointmentExportController
+    final AppointmentExportController controller = this.getController();
+    when(this.appointmentRepository.streamBetween(any(), any()))
+      .thenReturn(Stream.empty());
+    // and a daily appointment that started before the range
+    when(this.appointmentRepository.findSeriesBetween(any(), any()))
+      .thenReturn(Arrays.asList(getSeries()));
+    // when invoking exportCalendar
+    final ResponseEntity<StreamingResponseBody> response =
+      controller.exportCalendar(TIME_ZONE, "2019-07-05", "2019-07-06");
+    // then the method should write the appointment once, from its first
+    // occurrence, with its rule.
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    response.getBody().writeTo(outputStream);
+    final String calendar =
+      new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    assertEquals("exportCalendar should write the appointment once.", 1,
+      calendar.split("BEGIN:VEVENT", -1).length - 1);
+    assertTrue("exportCalendar should write the first occurrence.",
+      calendar.contains("DTSTART:20190701T132000Z\r\n"));
+    assertTrue("exportCalendar should write the rule.",
+      calendar.contains("RRULE:FREQ=DAILY\r\n"));
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentExportController}<br>
+   * <b>when</b> invoking <code>exportCalendar</code> with <b>to</b> before
+   * <b>from</b><br>
+   * <b>then</b> the method <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentExportController
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void exportCalendarShouldThrowIllegalArgument() {
+    // Given an instance of AppointmentExportController
+    final AppointmentExportController controller = this.getController();
+    // when invoking exportCalendar with to before from
+    controller.exportCalendar(TIME_ZONE, "2019-07-05", "2019-07-01");
+    // then the method should throw an IllegalArgumentException.
+    fail("exportCalendar should throw an IllegalArgumentException for to "
+      + "before from.");
+  }
+
+  private static Appointment getSeries() {
+    final Appointment series = new Appointment(new Date(DATE - 4 * DAY),
+      null, "Stand-up", Recurrence.DAILY, ZoneOffset.UTC, null);
+    ReflectionTestUtils.setField(series, "id", 2L);
+    return series;
+  }
+
+  private AppointmentExportController getController() {
+    return new AppointmentExportController(new AppointmentStreamer(
+      this.appointmentRepository, this.transactionManager,
+      this.entityManager));
+  }
+
+}
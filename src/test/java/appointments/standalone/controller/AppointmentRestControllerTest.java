@@ -0,0 +1,460 @@
+package appointments.standalone.controller;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.repository.AppointmentBatchWriter;
+import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentStreamer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class AppointmentRestControllerTest {
+
+  @Mock
+  private AppointmentRepository appointmentRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private EntityManager entityManager;
+
+  private static final long DATE = 1562329200000L;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentRestControllerTest";
+  private static final String TIME_ZONE = "Etc/GMT-1";
+  private static final String FROM = null;
+  private static final String TO = null;
+  private static final String AFTER = null;
+  private static final String BEFORE = null;
+  private static final String SIZE = "20";
+
+  private static final int BATCH_SIZE = 50;
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  /**
+   * <b>Given</b> a <code>null</code> {@link AppointmentRepository}<br>
+   * <b>when</b> creating a new instance of {@link AppointmentRestController}
+   * <br>
+   * <b>then</b> the constructor <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentRestController
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void constructorShouldThrowIllegalArgument() {
+    // Given a null AppointmentRepository
+    final AppointmentRepository appointmentRepository = null;
+    // when creating a new instance of AppointmentRestController
+    new AppointmentRestController(appointmentRepository,
+      this.getAppointmentBatchWriter(), new AppointmentStreamer(
+      this.appointmentRepository, this.transactionManager,
+      this.entityManager));
+    // then the constructor should throw an IllegalArgumentException.
+    fail("AppointmentRestController should throw an IllegalArgumentException "
+      + "for a null AppointmentRepository.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRestController}<br>
+   * <i>and</i> two persisted {@link Appointment}s<br>
+   * <b>when</b> invoking <code>appointments</code><br>
+   * <b>then</b> the method <i>should</i> write the appointments in the
+   * requested time zone<br>
+   * <i>and</i> no cursors.
+   *
+   * @throws IOException If the response cannot be written.
+   *
+   * @see AppointmentRestController
+   */
+  @Test
+  public void appointmentsShouldWritePage() throws IOException {
+    // Given an instance of AppointmentRestController
+    final AppointmentRestController controller = this.getController();
+    // and two persisted Appointments
+    when(this.appointmentRepository.findBetween(any(), any(), any()))
+      .thenReturn(Arrays.asList(getAppointment(1L), getAppointment(2L)));
+    // when invoking appointments
+    final ResponseEntity<StreamingResponseBody> response =
+      controller.appointments(TIME_ZONE, FROM, TO, AFTER, BEFORE, SIZE, null,
+        "0");
+    // then the method should write the appointments in the requested time
+    // zone
+    final JsonNode page = write(response);
+    assertEquals("appointments should write both appointments.", 2,
+      page.get("appointments").size());
+    final JsonNode appointment = page.get("appointments").get(0);
+    assertEquals("appointments should write the id.", 1L,
+      appointment.get("id").asLong());
+    assertEquals("appointments should write the date in the time zone.",
+      "2019-07-05T13:20:00+01:00", appointment.get("date").asText());
+    assertEquals("appointments should write the description.", DESCRIPTION,
+      appointment.get("description").asText());
+    // and no cursors.
+    assertTrue("appointments should write a null previous cursor.",
+      page.get("previous").isNull());
+    assertTrue("appointments should write a null next cursor.",
+      page.get("next").isNull());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRestController}<br>
+   * <i>and</i> three persisted {@link Appointment}s matching a search<br>
+   * <b>when</b> invoking <code>appointments</code> with the search and a
+   * <b>size</b> of two<br>
+   * <b>then</b> the method <i>should</i> write the first two matches<br>
+   * <i>and</i> the numbers of the pages around them.
+   *
+   * @throws IOException If the response cannot be written.
+   *
+   * @see AppointmentRestController
+   */
+  @Test
+  public void appointmentsShouldWriteSearchPage() throws IOException {
+    // Given an instance of AppointmentRestController
+    final AppointmentRestController controller = this.getController();
+    // and three persisted Appointments matching a search
+    when(this.appointmentRepository.search(eq("test:*"), any(), any(), eq(3),
+      eq(0))).thenReturn(Arrays.asList(getAppointment(1L),
+        getAppointment(2L), getAppointment(3L)));
+    // when invoking appointments with the search and a size of two
+    final ResponseEntity<StreamingResponseBody> response =
+      controller.appointments(TIME_ZONE, FROM, TO, AFTER, BEFORE, "2", "test",
+        "0");
+    // then the method should write the first two matches
+    final JsonNode page = write(response);
+    assertEquals("appointments should write the first two matches.", 2,
+      page.get("appointments").size());
+    // and the numbers of the pages around them.
+    assertEquals("appointments should write the page number.", 0,
+      page.get("page").asInt());
+    assertTrue("appointments should write a null previous page.",
+      page.get("previous").isNull());
+    assertEquals("appointments should write the next page number.", 1,
+      page.get("next").asInt());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRestController}<br>
+   * <b>when</b> invoking <code>appointments</code> with a <b>size</b> of
+   * zero<br>
+   * <b>then</b> the method <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentRestController
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void appointmentsShouldThrowIllegalArgument() {
+    // Given an instance of AppointmentRestController
+    final AppointmentRestController controller = this.getController();
+    // when invoking appointments with a size of zero
+    controller.appointments(TIME_ZONE, FROM, TO, AFTER, BEFORE, "0", null, "0");
+    // then the method should throw an IllegalArgumentException.
+    fail("appointments should throw an IllegalArgumentException for a size "
+      + "of zero.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRestController}<br>
+   * <i>and</i> a stream of two persisted {@link Appointment}s<br>
+   * <b>when</b> invoking <code>range</code><br>
+   * <b>then</b> the method <i>should</i> write both appointments as an
+   * array<br>
+   * <i>and</i> detach each appointment once written<br>
+   * <i>and</i> close the stream.
+   *
+   * @throws IOException If the response cannot be written.
+   *
+   * @see AppointmentRestController
+   */
+  @Test
+  public void rangeShouldStreamAppointments() throws IOException {
+    // Given an instance of AppointmentRestController
+    final AppointmentRestController controller = this.getController();
+    // and a stream of two persisted Appointments
+    final AtomicBoolean closed = new AtomicBoolean();
+    when(this.appointmentRepository.streamBetween(any(), any()))
+      .thenReturn(Stream.of(getAppointment(1L), getAppointment(2L))
+        .onClose(() -> closed.set(true)));
+    // when invoking range
+    final JsonNode appointments =
+      write(controller.range(TIME_ZONE, "2019-07-01", "2019-07-31"));
+    // then the method should write both appointments as an array
+    assertEquals("range should write both appointments.", 2,
+      appointments.size());
+    assertEquals("range should write the appointments in order.", 2L,
+      appointments.get(1).get("id").asLong());
+    // and detach each appointment once written
+    verify(this.entityManager, times(2)).detach(any(Appointment.class));
+    // and close the stream.
+    assertTrue("range should close the stream.", closed.get());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRestController}<br>
+   * <b>when</b> invoking <code>appointment</code> with the id of an
+   * appointment that does not exist<br>
+   * <b>then</b> the method <i>should</i> return <code>404 Not Found</code>.
+   *
+   * @see AppointmentRestController
+   */
+  @Test
+  public void appointmentShouldReturnNotFound() {
+    // Given an instance of AppointmentRestController
+    final AppointmentRestController controller = this.getController();
+    // when invoking appointment with the id of an appointment that does not
+    // exist
+    final ResponseEntity<StreamingResponseBody> response =
+      controller.appointment(1L, TIME_ZONE);
+    // then the method should return 404 Not Found.
+    assertEquals("appointment should return 404 Not Found.",
+      HttpStatus.NOT_FOUND, response.getStatusCode());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRestController}<br>
+   * <b>when</b> invoking <code>create</code> with a valid request<br>
+   * <b>then</b> the method <i>should</i> save the appointment<br>
+   * <i>and</i> return <code>201 Created</code> with its location.
+   *
+   * @throws IOException If the response cannot be written.
+   *
+   * @see AppointmentRestController
+   */
+  @Test
+  public void createShouldSaveAppointment() throws IOException {
+    // Given an instance of AppointmentRestController
+    final AppointmentRestController controller = this.getController();
+    when(this.appointmentRepository.save(any(Appointment.class)))
+      .thenAnswer(invocation -> {
+        final Appointment appointment = invocation.getArgument(0);
+        ReflectionTestUtils.setField(appointment, "id", 1L);
+        return appointment;
+      });
+    // when invoking create with a valid request
+    final AppointmentRequest request = new AppointmentRequest("2019-07-05",
+      "13:20", TIME_ZONE, 30, DESCRIPTION, "weekly", "2019-12-31");
+    final ResponseEntity<StreamingResponseBody> response =
+      controller.create(request, "Etc/GMT");
+    // then the method should save the appointment
+    verify(this.appointmentRepository).save(any(Appointment.class));
+    final JsonNode appointment = write(response);
+    assertEquals("create should write the date in the time zone.",
+      "2019-07-05T12:20:00Z", appointment.get("date").asText());
+    assertEquals("create should write the duration.", 30,
+      appointment.get("duration").asInt());
+    assertEquals("create should write the recurrence.", "WEEKLY",
+      appointment.get("recurrence").asText());
+    assertEquals("create should write the last day of the occurrences.",
+      "2019-12-31", appointment.get("until").asText());
+    // and return 201 Created with its location.
+    assertEquals("create should return 201 Created.", HttpStatus.CREATED,
+      response.getStatusCode());
+    assertEquals("create should return the location of the appointment.",
+      "/api/appointments/1", response.getHeaders().getLocation().toString());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRestController}<br>
+   * <b>when</b> invoking <code>create</code> with a blank description<br>
+   * <b>then</b> the method <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentRestController
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void createShouldThrowIllegalArgument() {
+    // Given an instance of AppointmentRestController
+    final AppointmentRestController controller = this.getController();
+    // when invoking create with a blank description
+    controller.create(new AppointmentRequest("2019-07-05", "13:20",
+      TIME_ZONE, null, " ", null, null), TIME_ZONE);
+    // then the method should throw an IllegalArgumentException.
+    fail("create should throw an IllegalArgumentException for a blank "
+      + "description.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRestController}<br>
+   * <b>when</b> invoking <code>createAll</code> with two valid requests<br>
+   * <b>then</b> the method <i>should</i> persist both appointments with the
+   * {@link AppointmentBatchWriter}<br>
+   * <i>and</i> return <code>201 Created</code> with their ids.
+   *
+   * @throws IOException If the response cannot be written.
+   *
+   * @see AppointmentRestController
+   */
+  @Test
+  public void createAllShouldSaveAppointments() throws IOException {
+    // Given an instance of AppointmentRestController
+    final AppointmentRestController controller = this.getController();
+    final AtomicLong nextId = new AtomicLong(1L);
+    doAnswer(invocation -> {
+      final Appointment appointment = invocation.getArgument(0);
+      ReflectionTestUtils.setField(appointment, "id", nextId.getAndIncrement());
+      return null;
+    }).when(this.entityManager).persist(any(Appointment.class));
+    // when invoking createAll with two valid requests
+    final List<AppointmentRequest> requests = Arrays.asList(
+      new AppointmentRequest("2019-07-05", "13:20", TIME_ZONE, null,
+        DESCRIPTION, null, null),
+      new AppointmentRequest("2019-07-05", "13:21", TIME_ZONE, null,
+        DESCRIPTION, null, null));
+    final ResponseEntity<StreamingResponseBody> response =
+      controller.createAll(requests);
+    // then the method should persist both appointments with the
+    // AppointmentBatchWriter
+    verify(this.entityManager, times(2)).persist(any(Appointment.class));
+    // and return 201 Created with their ids.
+    assertEquals("createAll should return 201 Created.", HttpStatus.CREATED,
+      response.getStatusCode());
+    final JsonNode created = write(response);
+    assertEquals("createAll should write the number created.", 2,
+      created.get("created").asInt());
+    assertEquals("createAll should write the ids in order.", 2L,
+      created.get("ids").get(1).asLong());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRestController}<br>
+   * <b>when</b> invoking <code>createAll</code> with a weekly series and a
+   * one-off appointment overlapping its second occurrence<br>
+   * <b>then</b> the method <i>should</i> persist neither appointment<br>
+   * <i>and</i> <code>conflict</code> <i>should</i> answer its exception with
+   * <code>409 Conflict</code>.
+   *
+   * @see AppointmentRestController
+   */
+  @Test
+  public void createAllShouldRejectOverlappingOccurrence() {
+    // Given an instance of AppointmentRestController
+    final AppointmentRestController controller = this.getController();
+    // when invoking createAll with a weekly series and a one-off appointment
+    // overlapping its second occurrence
+    final List<AppointmentRequest> requests = Arrays.asList(
+      new AppointmentRequest("2019-07-05", "13:20", TIME_ZONE, 30,
+        DESCRIPTION, "weekly", null),
+      new AppointmentRequest("2019-07-12", "13:40", TIME_ZONE, 30,
+        DESCRIPTION, null, null));
+    DataIntegrityViolationException exception = null;
+    try {
+      controller.createAll(requests);
+    } catch (final DataIntegrityViolationException e) {
+      exception = e;
+    }
+    // then the method should persist neither appointment
+    verify(this.entityManager, never()).persist(any(Appointment.class));
+    // and conflict should answer its exception with 409 Conflict.
+    assertNotNull("createAll should throw an overlap.", exception);
+    assertEquals("conflict should return 409 Conflict.", HttpStatus.CONFLICT,
+      controller.conflict(exception).getStatusCode());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRestController}<br>
+   * <b>when</b> invoking <code>createAll</code> with no requests<br>
+   * <b>then</b> the method <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentRestController
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void createAllShouldThrowIllegalArgument() {
+    // Given an instance of AppointmentRestController
+    final AppointmentRestController controller = this.getController();
+    // when invoking createAll with no requests
+    controller.createAll(Collections.emptyList());
+    // then the method should throw an IllegalArgumentException.
+    fail("createAll should throw an IllegalArgumentException for no "
+      + "requests.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentRestController}<br>
+   * <b>when</b> invoking <code>badRequest</code><br>
+   * <b>then</b> the method <i>should</i> return <code>400 Bad Request</code>
+   * with the exception's message.
+   *
+   * @see AppointmentRestController
+   */
+  @Test
+  public void badRequestShouldReturnError() {
+    // Given an instance of AppointmentRestController
+    final AppointmentRestController controller = this.getController();
+    // when invoking badRequest
+    final ResponseEntity<Map<String, String>> response =
+      controller.badRequest(new IllegalArgumentException("Illegal argument"));
+    // then the method should return 400 Bad Request with the exception's
+    // message.
+    assertEquals("badRequest should return 400 Bad Request.",
+      HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("badRequest should return the exception's message.",
+      "Illegal argument", response.getBody().get("error"));
+  }
+
+  private AppointmentRestController getController() {
+    return new AppointmentRestController(this.appointmentRepository,
+      this.getAppointmentBatchWriter(), new AppointmentStreamer(
+      this.appointmentRepository, this.transactionManager,
+      this.entityManager));
+  }
+
+  private AppointmentBatchWriter getAppointmentBatchWriter() {
+    return new AppointmentBatchWriter(this.transactionManager,
+      this.entityManager, BATCH_SIZE);
+  }
+
+  private static Appointment getAppointment(final long id) {
+    final Appointment appointment =
+      new Appointment(new Date(DATE + id * 60000L - 60000L), DESCRIPTION);
+    ReflectionTestUtils.setField(appointment, "id", id);
+    return appointment;
+  }
+
+  private static JsonNode write(
+    final ResponseEntity<StreamingResponseBody> response) throws IOException {
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    response.getBody().writeTo(outputStream);
+    return OBJECT_MAPPER.readTree(outputStream.toByteArray());
+  }
+
+}
@@ -0,0 +1,96 @@
+package appointments.standalone.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public final class AppointmentPoolSizerTest {
+
+  private static final String CORES_PROPERTY = "appointments.datasource.cores";
+  private static final String MAXIMUM_POOL_SIZE_PROPERTY =
+    "spring.datasource.hikari.maximum-pool-size";
+
+  /**
+   * <b>Given</b> zero cores<br>
+   * <b>when</b> invoking <code>getPoolSize</code><br>
+   * <b>then</b> the method <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentPoolSizer
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void getPoolSizeShouldThrowIllegalArgument() {
+    // Given zero cores
+    final int cores = 0;
+    // when invoking getPoolSize
+    AppointmentPoolSizer.getPoolSize(cores);
+    // then the method should throw an IllegalArgumentException.
+    fail("getPoolSize should throw an IllegalArgumentException for zero "
+      + "cores.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentPoolSizer} for a database
+   * server with four cores<br>
+   * <i>and</i> a <code>HikariDataSource</code> without a configured pool
+   * size<br>
+   * <b>when</b> invoking <code>postProcessAfterInitialization</code><br>
+   * <b>then</b> the method <i>should</i> fix the pool at nine connections.
+   *
+   * @see AppointmentPoolSizer
+   */
+  @Test
+  public void postProcessShouldSizePoolFromCores() {
+    // Given an instance of AppointmentPoolSizer for a database server with
+    // four cores
+    final AppointmentPoolSizer appointmentPoolSizer = new AppointmentPoolSizer(
+      new MockEnvironment().withProperty(CORES_PROPERTY, "4"));
+    // and a HikariDataSource without a configured pool size
+    final HikariDataSource dataSource = new HikariDataSource();
+    // when invoking postProcessAfterInitialization
+    appointmentPoolSizer.postProcessAfterInitialization(dataSource,
+      "dataSource");
+    // then the method should fix the pool at nine connections.
+    assertEquals("The pool should have twice the cores plus one connections.",
+      9, dataSource.getMaximumPoolSize());
+    assertEquals("The pool should be fixed in size.", 9,
+      dataSource.getMinimumIdle());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentPoolSizer} for a database
+   * server with four cores<br>
+   * <i>and</i> a <code>HikariDataSource</code> with a configured pool size of
+   * twenty<br>
+   * <b>when</b> invoking <code>postProcessAfterInitialization</code><br>
+   * <b>then</b> the method <i>should</i> keep the pool size<br>
+   * <i>and</i> fix the pool at that size.
+   *
+   * @see AppointmentPoolSizer
+   */
+  @Test
+  public void postProcessShouldKeepConfiguredPoolSize() {
+    // Given an instance of AppointmentPoolSizer for a database server with
+    // four cores
+    final AppointmentPoolSizer appointmentPoolSizer = new AppointmentPoolSizer(
+      new MockEnvironment().withProperty(CORES_PROPERTY, "4")
+        .withProperty(MAXIMUM_POOL_SIZE_PROPERTY, "20"));
+    // and a HikariDataSource with a configured pool size of twenty
+    final HikariDataSource dataSource = new HikariDataSource();
+    dataSource.setMaximumPoolSize(20);
+    // when invoking postProcessAfterInitialization
+    appointmentPoolSizer.postProcessAfterInitialization(dataSource,
+      "dataSource");
+    // then the method should keep the pool size
+    assertEquals("The configured pool size should be kept.", 20,
+      dataSource.getMaximumPoolSize());
+    // and fix the pool at that size.
+    assertEquals("The pool should be fixed in size.", 20,
+      dataSource.getMinimumIdle());
+  }
+
+}
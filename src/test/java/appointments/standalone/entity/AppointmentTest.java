@@ -2,8 +2,15 @@ package appointments.standalone.entity;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
@@ -20,6 +27,12 @@ public final class AppointmentTest {
   private static final SimpleDateFormat SIMPLE_DATE_FORMAT =
     new SimpleDateFormat("dd/MM/yyyy HH':'mm z");
 
+  private static final int THREADS = 64;
+  private static final int ITERATIONS = 2000;
+  private static final long MINUTE = 60000L;
+  private static final String[] TIME_ZONE_IDS = { "Etc/GMT+12", "Etc/GMT+5",
+    "Etc/GMT", "Etc/GMT-1", "Etc/GMT-9", "Etc/GMT-14" };
+
   /**
    * <b>Given</b> a <code>null</code> <b>date</b><br>
    * <i>and</i> a <b>description</b><br>
@@ -159,6 +172,175 @@ public final class AppointmentTest {
       + "in the correct format.", DATE, returned);
   }
 
+  /**
+   * <b>Given</b> a <b>date</b><br>
+   * <i>and</i> a <b>duration</b> longer than a day<br>
+   * <i>and</i> a <b>description</b><br>
+   * <b>when</b> creating a new instance of {@link Appointment}<br>
+   * <b>then</b> the constructor <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   * 
+   * @see Appointment
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void constructorShouldThrowDurationIllegalArgument() {
+    // Given a date
+    final Date date = this.getDate();
+    // and a duration longer than a day
+    final Integer duration = Appointment.MAX_DURATION + 1;
+    // and a description
+    final String description = DESCRIPTION;
+    // when creating a new instance of Appointment
+    new Appointment(date, duration, description);
+    // then the constructor should throw an IllegalArgumentException.
+    fail("Appointment should throw an IllegalArgumentException for a duration "
+      + "longer than a day.");
+  }
+
+  /**
+   * <b>Given</b> a <b>date</b><br>
+   * <i>and</i> a weekly <b>recurrence</b><br>
+   * <i>and</i> a <b>recurrenceUntil</b> that is not after the date<br>
+   * <b>when</b> creating a new instance of {@link Appointment}<br>
+   * <b>then</b> the constructor <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   * 
+   * @see Appointment
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void constructorShouldThrowRecurrenceUntilIllegalArgument() {
+    // Given a date
+    final Date date = this.getDate();
+    // and a weekly recurrence
+    final Recurrence recurrence = Recurrence.WEEKLY;
+    // and a recurrenceUntil that is not after the date
+    final Date recurrenceUntil = new Date(date.getTime());
+    // when creating a new instance of Appointment
+    new Appointment(date, null, DESCRIPTION, recurrence, ZoneOffset.UTC,
+      recurrenceUntil);
+    // then the constructor should throw an IllegalArgumentException.
+    fail("Appointment should throw an IllegalArgumentException for a "
+      + "recurrenceUntil that is not after the date.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link Appointment} with a <b>duration</b> of
+   * 30 minutes<br>
+   * <i>and</i> an instance of {@link Appointment} without a duration<br>
+   * <b>when</b> invoking <code>getEndDate</code><br>
+   * <b>then</b> the method <i>should</i> return the date plus the duration, or
+   * the date.
+   * 
+   * @see Appointment
+   */
+  @Test
+  public void getEndDateShouldAddDuration() {
+    // Given an instance of Appointment with a duration of 30 minutes
+    final Date date = this.getDate();
+    final Appointment appointment = new Appointment(date, 30, DESCRIPTION);
+    // and an instance of Appointment without a duration
+    final Appointment instant = new Appointment(date, DESCRIPTION);
+    // when invoking getEndDate
+    final Date endDate = appointment.getEndDate();
+    final Date instantEndDate = instant.getEndDate();
+    // then the method should return the date plus the duration, or the date.
+    assertEquals("getEndDate should add the duration.",
+      date.getTime() + 30 * 60000L, endDate.getTime());
+    assertEquals("getEndDate should return the date without a duration.",
+      date, instantEndDate);
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link Appointment}<br>
+   * <b>when</b> modifying the <code>Date</code> it was created with and the
+   * <code>Date</code> returned by <code>getDate</code><br>
+   * <b>then</b> <code>getTime</code> <i>should</i> still return the instant
+   * it was created with.
+   * 
+   * @see Appointment
+   */
+  @Test
+  public void getTimeShouldReturnInstantiationInstant() {
+    // Given an instance of Appointment
+    final Date date = this.getDate();
+    final long time = date.getTime();
+    final Appointment appointment = new Appointment(date, DESCRIPTION);
+    // when modifying the Date it was created with and the Date returned by
+    // getDate
+    date.setTime(0);
+    appointment.getDate().setTime(0);
+    // then getTime should still return the instant it was created with.
+    assertEquals("getTime should return the instantiation instant.", time,
+      appointment.getTime());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link Appointment} per thread, each with a
+   * different <b>date</b><br>
+   * <i>and</i> a set of <b>timeZone</b>s<br>
+   * <b>when</b> invoking <code>getDateString</code> from 64 threads at
+   * once<br>
+   * <b>then</b> every call <i>should</i> return the date string of its own
+   * appointment and time zone as a single threaded invocation does.
+   * 
+   * @see Appointment
+   */
+  @Test
+  public void getDateStringShouldReturnInstantiationDateConcurrently()
+    throws Exception {
+    // Given an instance of Appointment per thread, each with a different date
+    final Appointment[] appointments = new Appointment[THREADS];
+    for (int thread = 0; thread < THREADS; thread++) {
+      appointments[thread] = new Appointment(new Date(this.getDate().getTime()
+        + thread * MINUTE), DESCRIPTION);
+    }
+    // and a set of timeZones
+    final TimeZone[] timeZones = new TimeZone[TIME_ZONE_IDS.length];
+    final String[][] expected = new String[THREADS][TIME_ZONE_IDS.length];
+    for (int zone = 0; zone < TIME_ZONE_IDS.length; zone++) {
+      timeZones[zone] = TimeZone.getTimeZone(TIME_ZONE_IDS[zone]);
+      for (int thread = 0; thread < THREADS; thread++) {
+        expected[thread][zone] =
+          appointments[thread].getDateString(timeZones[zone]);
+      }
+    }
+    // when invoking getDateString from 64 threads at once
+    final ExecutorService executorService =
+      Executors.newFixedThreadPool(THREADS);
+    final List<String> mismatches = new ArrayList<>();
+    try {
+      final CountDownLatch latch = new CountDownLatch(1);
+      final List<Future<List<String>>> futures = new ArrayList<>();
+      for (int thread = 0; thread < THREADS; thread++) {
+        final int index = thread;
+        futures.add(executorService.submit(() -> {
+          latch.await();
+          final List<String> threadMismatches = new ArrayList<>();
+          for (int i = 0; i < ITERATIONS; i++) {
+            final int zone = (index + i) % timeZones.length;
+            final String returned =
+              appointments[index].getDateString(timeZones[zone]);
+            if (!expected[index][zone].equals(returned)) {
+              threadMismatches.add(expected[index][zone] + "!=" + returned);
+            }
+          }
+          return threadMismatches;
+        }));
+      }
+      latch.countDown();
+      for (final Future<List<String>> future : futures) {
+        mismatches.addAll(future.get());
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+    // then every call should return the date string of its own appointment and
+    // time zone as a single threaded invocation does.
+    assertEquals("Every concurrent invocation should return the single "
+      + "threaded result; " + mismatches.subList(0,
+        Math.min(mismatches.size(), 10)), 0, mismatches.size());
+  }
+
   private Date getDate() {
     SIMPLE_DATE_FORMAT.setTimeZone(TIME_ZONE);
     final Date date;
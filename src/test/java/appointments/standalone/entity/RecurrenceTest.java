@@ -0,0 +1,132 @@
+package appointments.standalone.entity;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public final class RecurrenceTest {
+
+  // 2019-01-31T10:00Z
+  private static final long JANUARY_31 = OffsetDateTime.of(2019, 1, 31, 10, 0,
+    0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+
+  private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+  private static final ZoneId[] ZONES = {
+    ZoneOffset.UTC, ZoneId.of("Etc/GMT-10"), LONDON,
+    ZoneId.of("America/New_York")
+  };
+
+  /**
+   * <b>Given</b> a monthly series starting on the 31st of January<br>
+   * <b>when</b> invoking <code>getOccurrence</code> for the following
+   * months<br>
+   * <b>then</b> the method <i>should</i> return the last day of the shorter
+   * months<br>
+   * <i>and</i> the 31st of the longer months.
+   *
+   * @see Recurrence
+   */
+  @Test
+  public void getOccurrenceShouldClampMonthly() {
+    // Given a monthly series starting on the 31st of January
+    final long start = JANUARY_31;
+    // when invoking getOccurrence for the following months
+    final long february = Recurrence.MONTHLY.getOccurrence(start, 1,
+      ZoneOffset.UTC);
+    final long march = Recurrence.MONTHLY.getOccurrence(start, 2,
+      ZoneOffset.UTC);
+    final long april = Recurrence.MONTHLY.getOccurrence(start, 3,
+      ZoneOffset.UTC);
+    // then the method should return the last day of the shorter months
+    assertEquals("getOccurrence should return the 28th of February.",
+      at(2019, 2, 28), february);
+    assertEquals("getOccurrence should return the 30th of April.",
+      at(2019, 4, 30), april);
+    // and the 31st of the longer months.
+    assertEquals("getOccurrence should return the 31st of March.",
+      at(2019, 3, 31), march);
+  }
+
+  /**
+   * <b>Given</b> a series of each recurrence starting on the 31st of January
+   * in each of a number of time zones<br>
+   * <b>when</b> invoking <code>getIndex</code> for dates on, just after and
+   * long after an occurrence<br>
+   * <b>then</b> the method <i>should</i> return the number of the first
+   * occurrence at or after the date.
+   *
+   * @see Recurrence
+   */
+  @Test
+  public void getIndexShouldReturnFirstOccurrenceAtOrAfter() {
+    for (final ZoneId zone : ZONES) {
+      for (final Recurrence recurrence : Recurrence.values()) {
+        // Given a series of each recurrence starting on the 31st of January
+        // in each of a number of time zones
+        final long start = JANUARY_31;
+        final String series = recurrence + " in " + zone;
+        for (final long n : new long[] { 0, 1, 2, 3, 100, 1000 }) {
+          final long occurrence = recurrence.getOccurrence(start, n, zone);
+          // when invoking getIndex for dates on, just after and long after an
+          // occurrence
+          // then the method should return the number of the first
+          // occurrence at or after the date.
+          assertEquals(series + " getIndex should return the occurrence on "
+            + "the date.", n, recurrence.getIndex(start, occurrence, zone));
+          assertEquals(series + " getIndex should return the next "
+            + "occurrence.", n + 1,
+            recurrence.getIndex(start, occurrence + 1, zone));
+        }
+        assertEquals(series + " getIndex should return the first "
+          + "occurrence for an earlier date.", 0,
+          recurrence.getIndex(start, start - 1, zone));
+      }
+    }
+  }
+
+  /**
+   * <b>Given</b> a daily and a weekly series starting at 09:00 in London in
+   * winter<br>
+   * <b>when</b> invoking <code>getOccurrence</code> for occurrences after the
+   * clocks go forward<br>
+   * <b>then</b> the method <i>should</i> return 09:00 in London<br>
+   * <i>and</i> <code>getIndex</code> <i>should</i> find them again.
+   *
+   * @see Recurrence
+   */
+  @Test
+  public void getOccurrenceShouldKeepLocalTimeAcrossDaylightSaving() {
+    // Given a daily and a weekly series starting at 09:00 in London in winter
+    // 2019-03-25T09:00Z, the Monday before the clocks go forward
+    final long start = LocalDateTime.of(2019, 3, 25, 9, 0).atZone(LONDON)
+      .toInstant().toEpochMilli();
+    // when invoking getOccurrence for occurrences after the clocks go forward
+    final long daily = Recurrence.DAILY.getOccurrence(start, 7, LONDON);
+    final long weekly = Recurrence.WEEKLY.getOccurrence(start, 1, LONDON);
+    // then the method should return 09:00 in London
+    // 2019-04-01T08:00Z
+    final long expected = LocalDateTime.of(2019, 4, 1, 9, 0).atZone(LONDON)
+      .toInstant().toEpochMilli();
+    assertEquals("getOccurrence should return the 7th day at 09:00 BST.",
+      expected, daily);
+    assertEquals("getOccurrence should return the next week at 09:00 BST.",
+      expected, weekly);
+    // and getIndex should find them again.
+    assertEquals("getIndex should return the 7th day.", 7,
+      Recurrence.DAILY.getIndex(start, expected, LONDON));
+    assertEquals("getIndex should return the next week.", 1,
+      Recurrence.WEEKLY.getIndex(start, expected, LONDON));
+  }
+
+  private static long at(final int year, final int month, final int day) {
+    return OffsetDateTime.of(year, month, day, 10, 0, 0, 0, ZoneOffset.UTC)
+      .toInstant().toEpochMilli();
+  }
+
+}
@@ -0,0 +1,182 @@
+package appointments.standalone.exporter;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class AppointmentCalendarWriterTest {
+
+  private static final long DATE = 1562332800000L;
+  private static final Instant TIMESTAMP = Instant.ofEpochMilli(DATE);
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentCalendarWriter}<br>
+   * <b>when</b> writing an {@link Appointment} and closing the writer<br>
+   * <b>then</b> the calendar <i>should</i> contain a <code>VEVENT</code> with
+   * the appointment's id, start in UTC and escaped description.
+   *
+   * @throws IOException If the calendar cannot be written.
+   *
+   * @see AppointmentCalendarWriter
+   */
+  @Test
+  public void acceptShouldWriteEvent() throws IOException {
+    // Given an instance of AppointmentCalendarWriter
+    final StringWriter writer = new StringWriter();
+    final AppointmentCalendarWriter calendarWriter =
+      new AppointmentCalendarWriter(writer, TIMESTAMP);
+    // when writing an Appointment and closing the writer
+    calendarWriter.accept(getAppointment("Dentist, annual; bring forms"));
+    calendarWriter.close();
+    // then the calendar should contain a VEVENT with the appointment's id,
+    // start in UTC and escaped description.
+    final String calendar = writer.toString();
+    assertTrue("The calendar should start with BEGIN:VCALENDAR.",
+      calendar.startsWith("BEGIN:VCALENDAR\r\n"));
+    assertTrue("The calendar should contain the event.", calendar.contains(
+      "BEGIN:VEVENT\r\n"
+      + "UID:1@appointments.standalone\r\n"
+      + "DTSTAMP:20190705T132000Z\r\n"
+      + "DTSTART:20190705T132000Z\r\n"
+      + "SUMMARY:Dentist\\, annual\\; bring forms\r\n"
+      + "END:VEVENT\r\n"));
+    assertTrue("The calendar should end with END:VCALENDAR.",
+      calendar.endsWith("END:VCALENDAR\r\n"));
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentCalendarWriter}<br>
+   * <b>when</b> writing an {@link Appointment} with a long, multi-byte
+   * description<br>
+   * <b>then</b> every line <i>should</i> be at most 75 octets<br>
+   * <i>and</i> unfolding the lines <i>should</i> restore the description.
+   *
+   * @throws IOException If the calendar cannot be written.
+   *
+   * @see AppointmentCalendarWriter
+   */
+  @Test
+  public void acceptShouldFoldLongLines() throws IOException {
+    // Given an instance of AppointmentCalendarWriter
+    final StringWriter writer = new StringWriter();
+    final AppointmentCalendarWriter calendarWriter =
+      new AppointmentCalendarWriter(writer, TIMESTAMP);
+    // when writing an Appointment with a long, multi-byte description
+    final StringBuilder description = new StringBuilder();
+    for (int index = 0; index < 40; index++) {
+      description.append("Zahnärzt ");
+    }
+    calendarWriter.accept(getAppointment(description.toString().trim()));
+    // then every line should be at most 75 octets
+    final String calendar = writer.toString();
+    for (final String line : calendar.split("\r\n")) {
+      assertTrue("Every line should be at most 75 octets.",
+        line.getBytes(StandardCharsets.UTF_8).length <= 75);
+    }
+    // and unfolding the lines should restore the description.
+    assertTrue("Unfolding should restore the description.", calendar
+      .replace("\r\n ", "").contains("SUMMARY:" + description.toString()
+      .trim() + "\r\n"));
+    assertEquals("Folding should not split the event.", 1,
+      calendar.split("BEGIN:VEVENT").length - 1);
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentCalendarWriter}<br>
+   * <b>when</b> writing a monthly {@link Appointment} on the 30th with an end
+   * to its occurrences<br>
+   * <b>then</b> the event <i>should</i> have a rule taking the last day of
+   * shorter months<br>
+   * <i>and</i> ending before the end of the occurrences.
+   *
+   * @throws IOException If the calendar cannot be written.
+   *
+   * @see AppointmentCalendarWriter
+   */
+  @Test
+  public void acceptShouldWriteRecurrenceRule() throws IOException {
+    // Given an instance of AppointmentCalendarWriter
+    final StringWriter writer = new StringWriter();
+    final AppointmentCalendarWriter calendarWriter =
+      new AppointmentCalendarWriter(writer, TIMESTAMP);
+    // when writing a monthly Appointment on the 30th with an end to its
+    // occurrences
+    // 2019-01-30T10:00Z until 2020-01-01T00:00Z
+    final Appointment appointment = new Appointment(new Date(1548842400000L),
+      null, "Rent", Recurrence.MONTHLY, ZoneOffset.UTC,
+      new Date(1577836800000L));
+    ReflectionTestUtils.setField(appointment, "id", 1L);
+    calendarWriter.accept(appointment);
+    // then the event should have a rule taking the last day of shorter months
+    // and ending before the end of the occurrences.
+    assertTrue("The event should have a recurrence rule.",
+      writer.toString().contains("RRULE:FREQ=MONTHLY;BYMONTHDAY=28,29,30;"
+      + "BYSETPOS=-1;UNTIL=20191231T235959Z\r\n"));
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentCalendarWriter}<br>
+   * <b>when</b> writing two weekly {@link Appointment}s created in London<br>
+   * <b>then</b> the events <i>should</i> start in London time<br>
+   * <i>and</i> the calendar <i>should</i> describe London once, before the
+   * first event, with its daylight saving transitions.
+   *
+   * @throws IOException If the calendar cannot be written.
+   *
+   * @see AppointmentCalendarWriter
+   */
+  @Test
+  public void acceptShouldWriteStartInRecurrenceZone() throws IOException {
+    // Given an instance of AppointmentCalendarWriter
+    final StringWriter writer = new StringWriter();
+    final AppointmentCalendarWriter calendarWriter =
+      new AppointmentCalendarWriter(writer, TIMESTAMP);
+    // when writing two weekly Appointments created in London
+    // 2019-03-25T09:00Z
+    final ZoneId london = ZoneId.of("Europe/London");
+    for (final long id : new long[] { 1L, 2L }) {
+      final Appointment appointment = new Appointment(
+        new Date(1553504400000L), null, "Stand-up", Recurrence.WEEKLY, london,
+        null);
+      ReflectionTestUtils.setField(appointment, "id", id);
+      calendarWriter.accept(appointment);
+    }
+    calendarWriter.close();
+    // then the events should start in London time
+    final String calendar = writer.toString().replace("\r\n ", "");
+    assertEquals("The events should start in London time.", 2,
+      calendar.split("DTSTART;TZID=Europe/London:20190325T090000\r\n")
+      .length - 1);
+    // and the calendar should describe London once, before the first event,
+    // with its daylight saving transitions.
+    assertEquals("The calendar should describe London once.", 1,
+      calendar.split("TZID:Europe/London\r\n").length - 1);
+    assertTrue("London should be described before the first event.",
+      calendar.indexOf("BEGIN:VTIMEZONE") < calendar.indexOf("BEGIN:VEVENT"));
+    assertTrue("London should go forward on 2019-03-31.", calendar.matches(
+      "(?s).*BEGIN:DAYLIGHT\r\nDTSTART:\\d{8}T\\d{6}\r\n"
+      + "RDATE:[^\r]*20190331T010000[^\r]*\r\nTZOFFSETFROM:\\+0000\r\n"
+      + "TZOFFSETTO:\\+0100\r\nEND:DAYLIGHT.*"));
+  }
+
+  private static Appointment getAppointment(final String description) {
+    final Appointment appointment =
+      new Appointment(new Date(DATE), description);
+    ReflectionTestUtils.setField(appointment, "id", 1L);
+    return appointment;
+  }
+
+}
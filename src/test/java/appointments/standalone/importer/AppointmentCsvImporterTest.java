@@ -0,0 +1,210 @@
+package appointments.standalone.importer;
+
+import appointments.standalone.cache.AppointmentCaches;
+import appointments.standalone.repository.AppointmentVersion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.cache.CacheManager;
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.postgresql.copy.CopyManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class AppointmentCsvImporterTest {
+
+  @Mock
+  private DataSource dataSource;
+
+  @Mock
+  private CopyManager copyManager;
+
+  @Mock
+  private CacheManager cacheManager;
+
+  private final AppointmentVersion appointmentVersion =
+    new AppointmentVersion();
+
+  private AppointmentCaches appointmentCaches;
+
+  private static final int CHUNK_SIZE = 2;
+
+  private static final String HEADER = "date,timeZone,description\n";
+  private static final String VALID = "2019-07-05T13:20,Etc/GMT-1,"
+    + "\"Dentist, annual\"\n";
+  private static final String REFUSED_TEXT = "Refused by the database";
+  private static final String REFUSED = "2019-07-05T14:20,Etc/GMT-1,"
+    + REFUSED_TEXT + "\n";
+
+  @Before
+  public void setUp() {
+    this.appointmentCaches = new AppointmentCaches(this.cacheManager);
+  }
+
+  /**
+   * <b>Given</b> a <b>chunkSize</b> of zero<br>
+   * <b>when</b> creating a new instance of {@link AppointmentCsvImporter}<br>
+   * <b>then</b> the constructor <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentCsvImporter
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void constructorShouldThrowIllegalArgument() {
+    // Given a chunkSize of zero
+    final int chunkSize = 0;
+    // when creating a new instance of AppointmentCsvImporter
+    new AppointmentCsvImporter(this.dataSource, this.appointmentVersion,
+      this.appointmentCaches, chunkSize);
+    // then the constructor should throw an IllegalArgumentException.
+    fail("AppointmentCsvImporter should throw an IllegalArgumentException for "
+      + "a chunkSize of zero.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentCsvImporter}<br>
+   * <i>and</i> a CSV with a header, one valid record and three invalid
+   * records<br>
+   * <b>when</b> invoking <code>importCsv</code><br>
+   * <b>then</b> the method <i>should</i> copy the valid record with its date
+   * in UTC<br>
+   * <i>and</i> reject the invalid records.
+   *
+   * @throws IOException If the CSV cannot be read.
+   * @throws SQLException If the copy fails.
+   *
+   * @see AppointmentCsvImporter
+   */
+  @Test
+  public void importCsvShouldRejectInvalidRecords()
+    throws IOException, SQLException {
+    // Given an instance of AppointmentCsvImporter
+    final AppointmentCsvImporter importer =
+      new AppointmentCsvImporter(this.dataSource, this.appointmentVersion,
+        this.appointmentCaches, CHUNK_SIZE);
+    final List<String> copied = this.captureCopies();
+    // and a CSV with a header, one valid record and three invalid records
+    final Reader reader = new StringReader(HEADER + VALID
+      + "2019-07-05T13:20,Not/AZone,Dentist\n"
+      + "2019-07-05 13:20,Etc/GMT-1,Dentist\n"
+      + "2019-07-05T13:20,Etc/GMT-1, \n");
+    // when invoking importCsv
+    final AppointmentImportResult result =
+      importer.importCsv(reader, this.copyManager);
+    // then the method should copy the valid record with its date in UTC
+    assertEquals("importCsv should copy the valid record.",
+      "2019-07-05 12:20:00.000+00:00,\"Dentist, annual\"\n",
+      String.join("", copied));
+    assertEquals("importCsv should count the valid record.", 1,
+      result.getImported());
+    // and reject the invalid records.
+    assertEquals("importCsv should count the invalid records.", 3,
+      result.getRejected());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentCsvImporter} with a
+   * <b>chunkSize</b> of two<br>
+   * <i>and</i> a CSV with five valid records<br>
+   * <b>when</b> invoking <code>importCsv</code><br>
+   * <b>then</b> the method <i>should</i> copy the records in three chunks.
+   *
+   * @throws IOException If the CSV cannot be read.
+   * @throws SQLException If the copy fails.
+   *
+   * @see AppointmentCsvImporter
+   */
+  @Test
+  public void importCsvShouldCopyInChunks() throws IOException, SQLException {
+    // Given an instance of AppointmentCsvImporter with a chunkSize of two
+    final AppointmentCsvImporter importer =
+      new AppointmentCsvImporter(this.dataSource, this.appointmentVersion,
+        this.appointmentCaches, CHUNK_SIZE);
+    this.captureCopies();
+    // and a CSV with five valid records
+    final Reader reader = new StringReader(VALID + VALID + VALID + VALID
+      + VALID);
+    // when invoking importCsv
+    final AppointmentImportResult result =
+      importer.importCsv(reader, this.copyManager);
+    // then the method should copy the records in three chunks.
+    verify(this.copyManager, times(3))
+      .copyIn(eq(AppointmentCsvImporter.COPY_SQL), any(Reader.class));
+    assertEquals("importCsv should count every record.", 5,
+      result.getImported());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentCsvImporter} with a
+   * <b>chunkSize</b> of two<br>
+   * <i>and</i> a database that refuses any copy of one of the records<br>
+   * <b>when</b> invoking <code>importCsv</code> with that record among four
+   * valid records<br>
+   * <b>then</b> the method <i>should</i> reject only that record<br>
+   * <i>and</i> import the others, including the one copied in its chunk.
+   *
+   * @throws IOException If the CSV cannot be read.
+   * @throws SQLException If the copy fails.
+   *
+   * @see AppointmentCsvImporter
+   */
+  @Test
+  public void importCsvShouldRejectOnlyRefusedRecords()
+    throws IOException, SQLException {
+    // Given an instance of AppointmentCsvImporter with a chunkSize of two
+    final AppointmentCsvImporter importer =
+      new AppointmentCsvImporter(this.dataSource, this.appointmentVersion,
+        this.appointmentCaches, CHUNK_SIZE);
+    // and a database that refuses any copy of one of the records
+    final List<String> copied = this.captureCopies();
+    // when invoking importCsv with that record among four valid records
+    final AppointmentImportResult result = importer.importCsv(
+      new StringReader(VALID + REFUSED + VALID + VALID), this.copyManager);
+    // then the method should reject only that record
+    assertEquals("importCsv should reject the refused record.", 1,
+      result.getRejected());
+    // and import the others, including the one copied in its chunk.
+    assertEquals("importCsv should import the other records.", 3,
+      result.getImported());
+    assertEquals("importCsv should copy the other records once each.", 3,
+      copied.size());
+  }
+
+  // Captures the lines copied, refusing any copy of a line of REFUSED.
+  private List<String> captureCopies() throws IOException, SQLException {
+    final List<String> copied = new ArrayList<>();
+    when(this.copyManager.copyIn(any(String.class), any(Reader.class)))
+      .thenAnswer(invocation -> {
+        final Reader reader = invocation.getArgument(1);
+        final List<String> lines = new BufferedReader(reader).lines()
+          .collect(Collectors.toList());
+        if (lines.stream().anyMatch(line -> line.contains(REFUSED_TEXT))) {
+          throw new SQLException("refused");
+        }
+        lines.forEach(line -> copied.add(line + "\n"));
+        return (long) lines.size();
+      });
+    return copied;
+  }
+
+}
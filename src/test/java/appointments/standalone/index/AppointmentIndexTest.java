@@ -0,0 +1,280 @@
+package appointments.standalone.index;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+import appointments.standalone.repository.AppointmentCursor;
+import appointments.standalone.repository.AppointmentPage;
+import appointments.standalone.repository.AppointmentPager;
+import appointments.standalone.repository.AppointmentRange;
+import appointments.standalone.repository.AppointmentRepository;
+import appointments.standalone.repository.AppointmentStreamer;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class AppointmentIndexTest {
+
+  @Mock
+  private AppointmentRepository appointmentRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private EntityManager entityManager;
+
+  private static final long DATE = 1562332800000L;
+  private static final String DESCRIPTION = "Zahnärzt, annual";
+  private static final long DAY = 24 * 60 * 60000L;
+  private static final int SIZE = 2;
+  private static final int PENDING_SIZE = 2;
+  private static final AppointmentRange RANGE = AppointmentRange.ALL;
+
+  private AppointmentIndex appointmentIndex;
+
+  private AppointmentPager appointmentPager;
+
+  @Before
+  public void setUp() {
+    this.appointmentIndex = new AppointmentIndex(new AppointmentStreamer(
+      this.appointmentRepository, this.transactionManager,
+      this.entityManager), PENDING_SIZE);
+    this.appointmentPager = new AppointmentPager(this.appointmentIndex);
+  }
+
+  /**
+   * <b>Given</b> a repository containing three appointments<br>
+   * <b>when</b> loading an {@link AppointmentIndex}<br>
+   * <b>then</b> the index <i>should</i> be loaded<br>
+   * <i>and</i> hold the three appointments with their durations and
+   * descriptions.
+   *
+   * @throws IOException If the appointments cannot be read.
+   *
+   * @see AppointmentIndex
+   */
+  @Test
+  public void loadShouldHoldAppointments() throws IOException {
+    // Given a repository containing three appointments
+    when(this.appointmentRepository.streamBetween(any(), any()))
+      .thenReturn(Stream.of(getAppointment(1), getAppointment(2),
+        getAppointment(3)));
+    // when loading an AppointmentIndex
+    this.appointmentIndex.load();
+    // then the index should be loaded
+    assertTrue("load should load the index.",
+      this.appointmentIndex.isLoaded());
+    // and hold the three appointments with their durations and descriptions.
+    assertEquals("load should hold every appointment.", 3,
+      this.appointmentIndex.size());
+    final List<Appointment> appointments = this.appointmentPager
+      .findPage(RANGE, null, null, SIZE).getAppointments();
+    assertNull("load should hold appointments without a duration.",
+      appointments.get(0).getDuration());
+    assertEquals("load should hold the durations.", Integer.valueOf(30),
+      appointments.get(1).getDuration());
+    assertEquals("load should hold the descriptions.", DESCRIPTION,
+      appointments.get(1).getDescription());
+  }
+
+  /**
+   * <b>Given</b> an {@link AppointmentIndex} holding five appointments added
+   * out of order and twice<br>
+   * <b>when</b> invoking <code>findPage</code> of an {@link AppointmentPager}
+   * reading from the index without cursors, after and before a cursor<br>
+   * <b>then</b> the method <i>should</i> return the pages in
+   * <code>(date, id)</code> order with their cursors.
+   *
+   * @see AppointmentIndex
+   */
+  @Test
+  public void findPageShouldReturnPages() {
+    // Given an AppointmentIndex holding five appointments added out of order
+    // and twice
+    this.appointmentIndex.addAll(Arrays.asList(getAppointment(4),
+      getAppointment(2), getAppointment(5), getAppointment(1),
+      getAppointment(3), getAppointment(2)));
+    assertEquals("addAll should not duplicate appointments.", 5,
+      this.appointmentIndex.size());
+    // when invoking findPage of an AppointmentPager reading from the index
+    // without cursors
+    AppointmentPage page =
+      this.appointmentPager.findPage(RANGE, null, null, SIZE);
+    // then the method should return the pages in (date, id) order with their
+    // cursors.
+    assertIds(page, 1, 2);
+    assertNull("The first page should have no previous cursor.",
+      page.getPrevious());
+    assertEquals("The first page should have a next cursor.",
+      getCursor(2), page.getNext());
+    // when invoking findPage after a cursor
+    page = this.appointmentPager.findPage(RANGE, page.getNext(), null, SIZE);
+    assertIds(page, 3, 4);
+    assertEquals("The page should have a previous cursor.", getCursor(3),
+      page.getPrevious());
+    page = this.appointmentPager.findPage(RANGE, page.getNext(), null, SIZE);
+    assertIds(page, 5);
+    assertNull("The last page should have no next cursor.", page.getNext());
+    // when invoking findPage before a cursor
+    page = this.appointmentPager.findPage(RANGE, null, getCursor(4), SIZE);
+    assertIds(page, 2, 3);
+    assertEquals("The page should have a previous cursor.", getCursor(2),
+      page.getPrevious());
+    assertEquals("The page should have a next cursor.", getCursor(3),
+      page.getNext());
+    page = this.appointmentPager.findPage(RANGE, null, getCursor(1), SIZE);
+    assertIds(page, 1, 2);
+  }
+
+  /**
+   * <b>Given</b> an {@link AppointmentIndex} holding five appointments a
+   * minute apart<br>
+   * <b>when</b> invoking <code>count</code> and <code>findPage</code> with a
+   * range of the middle three minutes<br>
+   * <b>then</b> the methods <i>should</i> only count and return the
+   * appointments within the range.
+   *
+   * @see AppointmentIndex
+   */
+  @Test
+  public void countShouldCountRange() {
+    // Given an AppointmentIndex holding five appointments a minute apart
+    for (int id = 1; id <= 5; id++) {
+      this.appointmentIndex.add(getAppointment(id));
+    }
+    // when invoking count and findPage with a range of the middle three
+    // minutes
+    final AppointmentRange range = AppointmentRange.of(
+      new Date(DATE + 2 * 60000L), new Date(DATE + 5 * 60000L));
+    final long count = this.appointmentIndex.count(range);
+    final AppointmentPage page =
+      this.appointmentPager.findPage(range, getCursor(3), null, SIZE);
+    // then the methods should only count and return the appointments within
+    // the range.
+    assertEquals("count should count the appointments within the range.", 3,
+      count);
+    assertIds(page, 4);
+    assertNull("The page should have no next cursor.", page.getNext());
+  }
+
+  /**
+   * <b>Given</b> an {@link AppointmentIndex} holding two one-off appointments
+   * <i>and</i> a daily appointment starting between them<br>
+   * <b>when</b> invoking <code>count</code> and <code>findPage</code> for the
+   * first three days of the series<br>
+   * <b>then</b> the methods <i>should</i> count each occurrence<br>
+   * <i>and</i> return the occurrences merged with the one-off appointments in
+   * date order.
+   *
+   * @see AppointmentIndex
+   */
+  @Test
+  public void countShouldCountOccurrences() {
+    // Given an AppointmentIndex holding two one-off appointments
+    this.appointmentIndex.add(getAppointment(1));
+    this.appointmentIndex.add(new Appointment(2L,
+      new Date(DATE + DAY + 60000L), null, DESCRIPTION));
+    // and a daily appointment starting between them
+    final Appointment series = new Appointment(new Date(DATE + 2 * 60000L),
+      null, DESCRIPTION, Recurrence.DAILY, ZoneOffset.UTC, null);
+    ReflectionTestUtils.setField(series, "id", 3L);
+    this.appointmentIndex.add(series);
+    // when invoking count and findPage for the first three days of the series
+    final AppointmentRange range =
+      AppointmentRange.of(new Date(DATE), new Date(DATE + 3 * DAY));
+    final long count = this.appointmentIndex.count(range);
+    final AppointmentPage page =
+      this.appointmentPager.findPage(range, null, null, 4);
+    // then the methods should count each occurrence
+    assertEquals("count should count each occurrence.", 5, count);
+    // and return the occurrences merged with the one-off appointments in date
+    // order.
+    assertIds(page, 1, 3, 2, 3);
+    assertEquals("findPage should date the occurrences.",
+      new Date(DATE + DAY + 2 * 60000L),
+      page.getAppointments().get(3).getDate());
+  }
+
+  /**
+   * <b>Given</b> an {@link AppointmentIndex} buffering two appointments dated
+   * before its last row<br>
+   * <i>and</i> six appointments added out of order, merging the buffer once
+   * and leaving one appointment in it<br>
+   * <b>when</b> invoking <code>count</code>, <code>forEachInterval</code> and
+   * <code>findPage</code><br>
+   * <b>then</b> the methods <i>should</i> count, visit and return the
+   * appointments in <code>(date, id)</code> order.
+   *
+   * @see AppointmentIndex
+   */
+  @Test
+  public void addShouldMergePendingAppointments() {
+    // Given an AppointmentIndex buffering two appointments dated before its
+    // last row
+    // and six appointments added out of order, merging the buffer once and
+    // leaving one appointment in it
+    for (final long id : new long[] { 1, 3, 7, 6, 2, 4 }) {
+      this.appointmentIndex.add(getAppointment(id));
+    }
+    // when invoking count, forEachInterval and findPage
+    final long count = this.appointmentIndex.count(AppointmentRange.of(
+      new Date(DATE + 2 * 60000L), new Date(DATE + 5 * 60000L)));
+    final List<Long> starts = new ArrayList<>();
+    this.appointmentIndex.forEachInterval(RANGE, (start, end) ->
+      starts.add(start));
+    // then the methods should count, visit and return the appointments in
+    // (date, id) order.
+    assertEquals("count should count the buffered appointment.", 3, count);
+    assertEquals("forEachInterval should visit the intervals in order.",
+      Arrays.asList(DATE + 2 * 60000L, DATE + 4 * 60000L, DATE + 6 * 60000L),
+      starts);
+    AppointmentPage page =
+      this.appointmentPager.findPage(RANGE, null, null, SIZE);
+    assertIds(page, 1, 2);
+    page = this.appointmentPager.findPage(RANGE, page.getNext(), null, SIZE);
+    assertIds(page, 3, 4);
+    page = this.appointmentPager.findPage(RANGE, page.getNext(), null, SIZE);
+    assertIds(page, 6, 7);
+    page = this.appointmentPager.findPage(RANGE, null, getCursor(6), SIZE);
+    assertIds(page, 3, 4);
+  }
+
+  private static void assertIds(final AppointmentPage page,
+    final long... ids) {
+    assertEquals("findPage should return the appointments in order.",
+      Arrays.toString(ids), Arrays.toString(page.getAppointments().stream()
+        .mapToLong(Appointment::getId).toArray()));
+  }
+
+  private static AppointmentCursor getCursor(final long id) {
+    return AppointmentCursor.of(getAppointment(id));
+  }
+
+  private static Appointment getAppointment(final long id) {
+    return new Appointment(id, new Date(DATE + id * 60000L),
+      id % 2 == 0 ? 30 : null, DESCRIPTION);
+  }
+
+}
@@ -0,0 +1,65 @@
+package appointments.standalone.metrics;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("h2")
+public final class AppointmentMetricsIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  /**
+   * <b>Given</b> a rendered <code>/appointments</code> page<br>
+   * <b>when</b> scraping <code>/actuator/prometheus</code><br>
+   * <b>then</b> the scrape <i>should</i> include the histograms of the
+   * request, the query of the page and the rendering of the view<br>
+   * <i>and</i> the gauges of the connection pool<br>
+   * <i>and</i> the counters of the date string cache.
+   *
+   * @throws Exception If a request cannot be performed.
+   *
+   * @see AppointmentMetrics
+   * @see AppointmentRenderInterceptor
+   */
+  @Test
+  public void prometheusShouldScrapeStages() throws Exception {
+    // Given a rendered /appointments page
+    this.mockMvc.perform(get("/appointments")).andExpect(status().isOk());
+    // when scraping /actuator/prometheus
+    final String scrape = this.mockMvc.perform(get("/actuator/prometheus"))
+      .andExpect(status().isOk()).andReturn().getResponse()
+      .getContentAsString();
+    // then the scrape should include the histograms of the request, the query
+    // of the page and the rendering of the view
+    for (final String sample : new String[] {
+      "appointments_requests_seconds_bucket{endpoint=\"appointments\"",
+      "appointments_query_seconds_bucket{query=\"page\",source=\"database\"",
+      "appointments_render_seconds_bucket{view=\"appointments\"" }) {
+      assertTrue("The scrape should include " + sample + ".",
+        scrape.contains(sample));
+    }
+    // and the gauges of the connection pool
+    assertTrue("The scrape should include the active connections.",
+      scrape.contains("hikaricp_connections_active"));
+    // and the counters of the date string cache.
+    assertTrue("The scrape should include the date string cache misses.",
+      scrape.contains("appointments_date_strings_total{result=\"miss\""));
+  }
+
+}
@@ -0,0 +1,112 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class AppointmentBatchWriterTest {
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private EntityManager entityManager;
+
+  private static final long DATE = 1562332800000L;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentBatchWriterTest";
+  private static final int BATCH_SIZE = 2;
+
+  /**
+   * <b>Given</b> a <b>batchSize</b> of zero<br>
+   * <b>when</b> creating a new instance of {@link AppointmentBatchWriter}<br>
+   * <b>then</b> the constructor <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentBatchWriter
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void constructorShouldThrowIllegalArgument() {
+    // Given a batchSize of zero
+    final int batchSize = 0;
+    // when creating a new instance of AppointmentBatchWriter
+    new AppointmentBatchWriter(this.transactionManager, this.entityManager,
+      batchSize);
+    // then the constructor should throw an IllegalArgumentException.
+    fail("AppointmentBatchWriter should throw an IllegalArgumentException for "
+      + "a batchSize of zero.");
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentBatchWriter} with a
+   * <b>batchSize</b> of two<br>
+   * <b>when</b> invoking <code>saveAll</code> with five appointments<br>
+   * <b>then</b> the method <i>should</i> persist every appointment<br>
+   * <i>and</i> flush and clear the persistence context after each full
+   * batch.
+   *
+   * @see AppointmentBatchWriter
+   */
+  @Test
+  public void saveAllShouldFlushEachBatch() {
+    // Given an instance of AppointmentBatchWriter with a batchSize of two
+    final AppointmentBatchWriter appointmentBatchWriter =
+      new AppointmentBatchWriter(this.transactionManager, this.entityManager,
+        BATCH_SIZE);
+    // when invoking saveAll with five appointments
+    final List<Appointment> appointments = new ArrayList<>();
+    for (int index = 0; index < 5; index++) {
+      appointments.add(new Appointment(new Date(DATE), DESCRIPTION));
+    }
+    final List<Long> ids = appointmentBatchWriter.saveAll(appointments);
+    // then the method should persist every appointment
+    verify(this.entityManager, times(5)).persist(any(Appointment.class));
+    assertEquals("saveAll should return an id per appointment.", 5,
+      ids.size());
+    // and flush and clear the persistence context after each full batch.
+    verify(this.entityManager, times(2)).flush();
+    verify(this.entityManager, times(2)).clear();
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentBatchWriter}<br>
+   * <b>when</b> invoking <code>saveAll</code> with a <code>null</code>
+   * appointment<br>
+   * <b>then</b> the method <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentBatchWriter
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void saveAllShouldThrowIllegalArgument() {
+    // Given an instance of AppointmentBatchWriter
+    final AppointmentBatchWriter appointmentBatchWriter =
+      new AppointmentBatchWriter(this.transactionManager, this.entityManager,
+        BATCH_SIZE);
+    // when invoking saveAll with a null appointment
+    appointmentBatchWriter.saveAll(Arrays.asList(
+      new Appointment(new Date(DATE), DESCRIPTION), null));
+    // then the method should throw an IllegalArgumentException.
+    fail("saveAll should throw an IllegalArgumentException for a null "
+      + "appointment.");
+  }
+
+}
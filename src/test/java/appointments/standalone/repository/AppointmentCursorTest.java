@@ -0,0 +1,80 @@
+package appointments.standalone.repository;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public final class AppointmentCursorTest {
+
+  private static final long DATE = 1562332800000L;
+  private static final long ID = 42L;
+
+  /**
+   * <b>Given</b> a <code>null</code>, empty or whitespace only <b>cursor</b><br>
+   * <b>when</b> invoking <code>parse</code><br>
+   * <b>then</b> the method <i>should</i> return <code>null</code>.
+   *
+   * @see AppointmentCursor
+   */
+  @Test
+  public void parseShouldReturnNull() {
+    // Given a null, empty or whitespace only cursor
+    for (final String cursor : new String[] { null, "", " " }) {
+      // when invoking parse
+      final AppointmentCursor returned = AppointmentCursor.parse(cursor);
+      // then the method should return null.
+      assertNull("parse should return null for a null, empty or whitespace "
+        + "only cursor.", returned);
+    }
+  }
+
+  /**
+   * <b>Given</b> an incorrectly formatted <b>cursor</b><br>
+   * <b>when</b> invoking <code>parse</code><br>
+   * <b>then</b> the method <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentCursor
+   */
+  @Test
+  public void parseShouldThrowIllegalArgument() {
+    // Given an incorrectly formatted cursor
+    for (final String cursor : new String[] { "Incorrect Formatting", "1_",
+      "_1", "1-1", "1_a" }) {
+      try {
+        // when invoking parse
+        AppointmentCursor.parse(cursor);
+        // then the method should throw an IllegalArgumentException.
+        fail("parse should throw an IllegalArgumentException for an "
+          + "incorrectly formatted cursor.");
+      } catch (final IllegalArgumentException e) {
+        // pass
+      }
+    }
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentCursor}<br>
+   * <b>when</b> invoking <code>parse</code> with its encoded form<br>
+   * <b>then</b> the method <i>should</i> return an equal cursor.
+   *
+   * @see AppointmentCursor
+   */
+  @Test
+  public void parseShouldReturnEncodedCursor() {
+    // Given an instance of AppointmentCursor
+    final AppointmentCursor cursor = new AppointmentCursor(DATE, ID);
+    // when invoking parse with its encoded form
+    final AppointmentCursor returned =
+      AppointmentCursor.parse(cursor.toString());
+    // then the method should return an equal cursor.
+    assertEquals("parse should return a cursor equal to the encoded cursor.",
+      cursor, returned);
+    assertEquals("parse should return the encoded date.", DATE,
+      returned.getDate().getTime());
+    assertEquals("parse should return the encoded id.", ID, returned.getId());
+  }
+
+}
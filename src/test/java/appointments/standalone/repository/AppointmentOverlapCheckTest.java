@@ -0,0 +1,226 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class AppointmentOverlapCheckTest {
+
+  @Mock
+  private AppointmentRepository appointmentRepository;
+
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentOverlapCheckTest";
+  private static final ZoneId LONDON = ZoneId.of("Europe/London");
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+  /**
+   * <b>Given</b> a weekly series at 09:00 in London starting the week before
+   * the clocks go forward<br>
+   * <b>when</b> writing a one-off appointment overlapping its second
+   * occurrence, at 09:00 British Summer Time<br>
+   * <b>then</b> the method <i>should</i> throw an overlap<br>
+   * <i>and</i> not write the appointment.
+   *
+   * @see AppointmentOverlapCheck
+   */
+  @Test
+  public void writeShouldRejectOneOffOverlappingOccurrence() {
+    // Given a weekly series at 09:00 in London starting the week before the
+    // clocks go forward
+    when(this.appointmentRepository.findSeriesBetween(any(), any()))
+      .thenReturn(Arrays.asList(getSeries(1L, at(2019, 3, 25, 9, 0, LONDON),
+        60, Recurrence.WEEKLY, LONDON)));
+    // when writing a one-off appointment overlapping its second occurrence,
+    // at 09:00 British Summer Time
+    final Appointment appointment = new Appointment(
+      at(2019, 4, 1, 9, 30, LONDON), 30, DESCRIPTION);
+    // then the method should throw an overlap
+    // and not write the appointment.
+    assertRejected(this.appointmentRepository,
+      Collections.singletonList(appointment));
+  }
+
+  /**
+   * <b>Given</b> a weekly series at 09:00 in London<br>
+   * <b>when</b> writing a one-off appointment starting as its second
+   * occurrence ends<br>
+   * <b>then</b> the method <i>should</i> write the appointment.
+   *
+   * @see AppointmentOverlapCheck
+   */
+  @Test
+  public void writeShouldWriteOneOffBetweenOccurrences() {
+    // Given a weekly series at 09:00 in London
+    when(this.appointmentRepository.findSeriesBetween(any(), any()))
+      .thenReturn(Arrays.asList(getSeries(1L, at(2019, 3, 25, 9, 0, LONDON),
+        60, Recurrence.WEEKLY, LONDON)));
+    // when writing a one-off appointment starting as its second occurrence
+    // ends
+    final Appointment appointment = new Appointment(
+      at(2019, 4, 1, 10, 0, LONDON), 30, DESCRIPTION);
+    // then the method should write the appointment.
+    assertWritten(this.appointmentRepository,
+      Collections.singletonList(appointment));
+  }
+
+  /**
+   * <b>Given</b> a one-off appointment at 12:30 in London<br>
+   * <b>when</b> writing a daily series at 12:00 in London starting a week
+   * earlier<br>
+   * <b>then</b> the method <i>should</i> throw an overlap<br>
+   * <i>and</i> not write the series.
+   *
+   * @see AppointmentOverlapCheck
+   */
+  @Test
+  public void writeShouldRejectSeriesOverlappingOneOff() {
+    // Given a one-off appointment at 12:30 in London
+    when(this.appointmentRepository.findIntervalsBetween(any(), any()))
+      .thenReturn(Arrays.<Object[]>asList(
+        new Object[] { at(2019, 4, 3, 12, 30, LONDON), 30 }));
+    // when writing a daily series at 12:00 in London starting a week earlier
+    final Appointment series = new Appointment(
+      at(2019, 3, 27, 12, 0, LONDON), 60, DESCRIPTION, Recurrence.DAILY,
+      LONDON, null);
+    // then the method should throw an overlap
+    // and not write the series.
+    assertRejected(this.appointmentRepository,
+      Collections.singletonList(series));
+  }
+
+  /**
+   * <b>Given</b> a weekly series at 09:00 in London<br>
+   * <b>when</b> writing a daily series at 03:30 in New York, which only
+   * reaches the weekly series once the clocks go forward in London<br>
+   * <b>then</b> the method <i>should</i> throw an overlap<br>
+   * <i>and</i> not write the series.
+   *
+   * @see AppointmentOverlapCheck
+   */
+  @Test
+  public void writeShouldRejectSeriesOverlappingSeries() {
+    // Given a weekly series at 09:00 in London
+    when(this.appointmentRepository.findSeriesBetween(any(), any()))
+      .thenReturn(Arrays.asList(getSeries(1L, at(2019, 3, 25, 9, 0, LONDON),
+        60, Recurrence.WEEKLY, LONDON)));
+    // when writing a daily series at 03:30 in New York, which only reaches
+    // the weekly series once the clocks go forward in London
+    final Appointment series = new Appointment(
+      at(2019, 3, 20, 3, 30, NEW_YORK), 60, DESCRIPTION, Recurrence.DAILY,
+      NEW_YORK, null);
+    // then the method should throw an overlap
+    // and not write the series.
+    assertRejected(this.appointmentRepository,
+      Collections.singletonList(series));
+  }
+
+  /**
+   * <b>Given</b> a weekly series at 09:00 in London<br>
+   * <b>when</b> writing a daily series at 02:00 in New York, which never
+   * reaches it<br>
+   * <b>then</b> the method <i>should</i> write the series.
+   *
+   * @see AppointmentOverlapCheck
+   */
+  @Test
+  public void writeShouldWriteSeriesBetweenOccurrences() {
+    // Given a weekly series at 09:00 in London
+    when(this.appointmentRepository.findSeriesBetween(any(), any()))
+      .thenReturn(Arrays.asList(getSeries(1L, at(2019, 3, 25, 9, 0, LONDON),
+        60, Recurrence.WEEKLY, LONDON)));
+    // when writing a daily series at 02:00 in New York, which never reaches
+    // it
+    final Appointment series = new Appointment(
+      at(2019, 3, 20, 2, 0, NEW_YORK), 60, DESCRIPTION, Recurrence.DAILY,
+      NEW_YORK, null);
+    // then the method should write the series.
+    assertWritten(this.appointmentRepository,
+      Collections.singletonList(series));
+  }
+
+  /**
+   * <b>Given</b> an empty repository<br>
+   * <b>when</b> writing a weekly series and a one-off appointment overlapping
+   * its third occurrence together<br>
+   * <b>then</b> the method <i>should</i> throw an overlap<br>
+   * <i>and</i> not write the appointments.
+   *
+   * @see AppointmentOverlapCheck
+   */
+  @Test
+  public void writeShouldRejectOverlapWithinAppointments() {
+    // Given an empty repository
+    // when writing a weekly series and a one-off appointment overlapping its
+    // third occurrence together
+    final List<Appointment> appointments = Arrays.asList(
+      new Appointment(at(2019, 3, 25, 9, 0, LONDON), 60, DESCRIPTION,
+        Recurrence.WEEKLY, LONDON, null),
+      new Appointment(at(2019, 4, 8, 8, 30, LONDON), 60, DESCRIPTION));
+    // then the method should throw an overlap
+    // and not write the appointments.
+    assertRejected(this.appointmentRepository, appointments);
+  }
+
+  private static void assertRejected(
+    final AppointmentRepository appointmentRepository,
+    final List<Appointment> appointments) {
+    final AtomicBoolean written = new AtomicBoolean();
+    try {
+      new AppointmentOverlapCheck(appointmentRepository).write(appointments,
+        () -> written.getAndSet(true));
+      fail("write should throw an overlap.");
+    } catch (final DataIntegrityViolationException e) {
+      assertTrue("write should throw an overlap.",
+        AppointmentOverlaps.isOverlap(e));
+    }
+    assertFalse("write should not write the appointments.", written.get());
+  }
+
+  private static void assertWritten(
+    final AppointmentRepository appointmentRepository,
+    final List<Appointment> appointments) {
+    final AtomicBoolean written = new AtomicBoolean();
+    assertEquals("write should return the result of the write.", false,
+      new AppointmentOverlapCheck(appointmentRepository).write(appointments,
+        () -> written.getAndSet(true)));
+    assertTrue("write should write the appointments.", written.get());
+  }
+
+  private static Appointment getSeries(final long id, final Date date,
+    final Integer duration, final Recurrence recurrence, final ZoneId zone) {
+    final Appointment series = new Appointment(date, duration, DESCRIPTION,
+      recurrence, zone, null);
+    ReflectionTestUtils.setField(series, "id", id);
+    return series;
+  }
+
+  private static Date at(final int year, final int month, final int day,
+    final int hour, final int minute, final ZoneId zone) {
+    return Date.from(LocalDateTime.of(year, month, day, hour, minute)
+      .atZone(zone).toInstant());
+  }
+
+}
@@ -0,0 +1,230 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class AppointmentPagerTest {
+
+  @Mock
+  private AppointmentRepository appointmentRepository;
+
+  private static final long DATE = 1562332800000L;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentPagerTest";
+  private static final int SIZE = 2;
+  private static final AppointmentRange RANGE = AppointmentRange.ALL;
+  private static final long WEEK = 7 * 24 * 60 * 60000L;
+  private static final AppointmentRange WEEKS =
+    AppointmentRange.of(new Date(DATE), new Date(DATE + 2 * WEEK));
+
+  private AppointmentPager appointmentPager;
+
+  @Before
+  public void setUp() {
+    this.appointmentPager = new AppointmentPager(this.appointmentRepository);
+  }
+
+  /**
+   * <b>Given</b> an {@link AppointmentPager} over a repository containing
+   * more than <b>size</b> appointments<br>
+   * <b>when</b> invoking <code>findPage</code> without cursors<br>
+   * <b>then</b> the method <i>should</i> return the first <b>size</b>
+   * appointments with a next cursor and no previous cursor.
+   *
+   * @see AppointmentPager
+   */
+  @Test
+  public void findPageShouldReturnFirstPage() {
+    // Given an AppointmentPager over a repository containing more than size
+    // appointments
+    final List<Appointment> appointments = this.getAppointments(1, 2, 3);
+    doReturn(appointments).when(this.appointmentRepository)
+      .findBetween(any(Date.class), any(Date.class), any(Pageable.class));
+    // when invoking findPage without cursors
+    final AppointmentPage page =
+      this.appointmentPager.findPage(RANGE, null, null, SIZE);
+    // then the method should return the first size appointments with a next
+    // cursor and no previous cursor.
+    assertEquals("findPage should return size appointments.", SIZE,
+      page.getAppointments().size());
+    assertNull("findPage should not return a previous cursor for the first "
+      + "page.", page.getPrevious());
+    assertEquals("findPage should return a next cursor at the last "
+      + "appointment on the page.", AppointmentCursor.of(appointments.get(1)),
+      page.getNext());
+  }
+
+  /**
+   * <b>Given</b> an {@link AppointmentPager} over a repository containing
+   * more than <b>size</b> appointments before a cursor<br>
+   * <b>when</b> invoking <code>findPage</code> with a <b>before</b> cursor<br>
+   * <b>then</b> the method <i>should</i> return the <b>size</b> appointments
+   * immediately before the cursor in ascending order.
+   *
+   * @see AppointmentPager
+   */
+  @Test
+  public void findPageShouldReturnPreviousPage() {
+    // Given an AppointmentPager over a repository containing more than size
+    // appointments before a cursor
+    final List<Appointment> appointments = this.getAppointments(3, 2, 1);
+    doReturn(appointments).when(this.appointmentRepository)
+      .findPageBefore(any(Date.class), any(Date.class), any(Date.class),
+        anyLong(), any(Pageable.class));
+    // when invoking findPage with a before cursor
+    final AppointmentCursor before = new AppointmentCursor(DATE + 4, 4);
+    final AppointmentPage page =
+      this.appointmentPager.findPage(RANGE, null, before, SIZE);
+    // then the method should return the size appointments immediately before
+    // the cursor in ascending order.
+    assertEquals("findPage should return size appointments.", SIZE,
+      page.getAppointments().size());
+    assertEquals("findPage should return appointments in ascending order.",
+      Long.valueOf(2), page.getAppointments().get(0).getId());
+    assertEquals("findPage should return a previous cursor at the first "
+      + "appointment on the page.", new AppointmentCursor(DATE + 2, 2),
+      page.getPrevious());
+    assertEquals("findPage should return a next cursor at the last "
+      + "appointment on the page.", new AppointmentCursor(DATE + 3, 3),
+      page.getNext());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentPager}<br>
+   * <b>when</b> invoking <code>findPage</code> with both cursors<br>
+   * <b>then</b> the method <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentPager
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void findPageShouldThrowIllegalArgument() {
+    // Given an AppointmentPager
+    final AppointmentPager appointmentPager = this.appointmentPager;
+    // when invoking findPage with both cursors
+    final AppointmentCursor cursor = new AppointmentCursor(DATE, 1);
+    appointmentPager.findPage(RANGE, cursor, cursor, SIZE);
+    // then the method should throw an IllegalArgumentException.
+  }
+
+  /**
+   * <b>Given</b> an {@link AppointmentPager} over a repository containing two
+   * appointments<br>
+   * <i>and</i> a weekly appointment that started ten years before the
+   * range<br>
+   * <b>when</b> invoking <code>findPage</code> without cursors and after the
+   * next cursor<br>
+   * <b>then</b> the method <i>should</i> return the occurrences within the
+   * range merged with the appointments in date order.
+   *
+   * @see AppointmentPager
+   */
+  @Test
+  public void findPageShouldMergeOccurrences() {
+    // Given an AppointmentPager over a repository containing two appointments
+    final List<Appointment> appointments = this.getAppointments(1, 2);
+    doReturn(appointments).when(this.appointmentRepository)
+      .findBetween(any(Date.class), any(Date.class), any(Pageable.class));
+    doReturn(appointments.subList(1, 2)).when(this.appointmentRepository)
+      .findPageAfter(any(Date.class), any(Date.class), any(Date.class),
+        anyLong(), any(Pageable.class));
+    // and a weekly appointment that started ten years before the range
+    doReturn(Arrays.asList(getSeries())).when(this.appointmentRepository)
+      .findSeriesBetween(any(Date.class), any(Date.class));
+    // when invoking findPage without cursors
+    AppointmentPage page =
+      this.appointmentPager.findPage(WEEKS, null, null, SIZE);
+    // then the method should return the occurrences within the range merged
+    // with the appointments in date order.
+    assertIds(page, 10, 1);
+    assertEquals("findPage should date the occurrence.", new Date(DATE),
+      page.getAppointments().get(0).getDate());
+    assertEquals("findPage should return a next cursor.",
+      new AppointmentCursor(DATE + 1, 1), page.getNext());
+    // when invoking findPage after the next cursor
+    page = this.appointmentPager.findPage(WEEKS, page.getNext(), null, SIZE);
+    assertIds(page, 2, 10);
+    assertEquals("findPage should date the occurrence.",
+      new Date(DATE + WEEK), page.getAppointments().get(1).getDate());
+    assertNull("findPage should not return a next cursor for the last page.",
+      page.getNext());
+  }
+
+  /**
+   * <b>Given</b> an {@link AppointmentPager} over a repository containing an
+   * appointment before a cursor<br>
+   * <i>and</i> a weekly appointment that started ten years before the
+   * range<br>
+   * <b>when</b> invoking <code>findPage</code> with a <b>before</b> cursor<br>
+   * <b>then</b> the method <i>should</i> return the occurrences before the
+   * cursor merged with the appointment in ascending order.
+   *
+   * @see AppointmentPager
+   */
+  @Test
+  public void findPageShouldMergePreviousOccurrences() {
+    // Given an AppointmentPager over a repository containing an appointment
+    // before a cursor
+    doReturn(this.getAppointments(1)).when(this.appointmentRepository)
+      .findPageBefore(any(Date.class), any(Date.class), any(Date.class),
+        anyLong(), any(Pageable.class));
+    // and a weekly appointment that started ten years before the range
+    doReturn(Arrays.asList(getSeries())).when(this.appointmentRepository)
+      .findSeriesBetween(any(Date.class), any(Date.class));
+    // when invoking findPage with a before cursor
+    final AppointmentPage page = this.appointmentPager.findPage(WEEKS, null,
+      new AppointmentCursor(DATE + 2, 2), SIZE);
+    // then the method should return the occurrences before the cursor merged
+    // with the appointment in ascending order.
+    assertIds(page, 10, 1);
+    assertNull("findPage should not return a previous cursor for the first "
+      + "page.", page.getPrevious());
+  }
+
+  private static void assertIds(final AppointmentPage page,
+    final long... ids) {
+    assertEquals("findPage should return the appointments in order.",
+      Arrays.toString(ids), Arrays.toString(page.getAppointments().stream()
+        .mapToLong(Appointment::getId).toArray()));
+  }
+
+  private static Appointment getSeries() {
+    final Appointment series = new Appointment(new Date(DATE - 520 * WEEK),
+      null, DESCRIPTION, Recurrence.WEEKLY, ZoneOffset.UTC, null);
+    ReflectionTestUtils.setField(series, "id", 10L);
+    return series;
+  }
+
+  private List<Appointment> getAppointments(final long... ids) {
+    final List<Appointment> appointments = new ArrayList<>();
+    for (final long id : ids) {
+      final Appointment appointment =
+        new Appointment(new Date(DATE + id), DESCRIPTION);
+      ReflectionTestUtils.setField(appointment, "id", id);
+      appointments.add(appointment);
+    }
+    return appointments;
+  }
+
+}
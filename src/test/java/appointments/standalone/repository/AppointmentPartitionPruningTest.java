@@ -0,0 +1,138 @@
+package appointments.standalone.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.flywaydb.core.Flyway;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * <p>
+ * <code>AppointmentPartitionPruningTest</code> checks that, once the
+ * optional migration in <code>db/partitioning</code> has partitioned the
+ * <code>appointments</code> table by month, a listing query for a month only
+ * scans the partition of that month.
+ * </p>
+ * <p>
+ * The test needs a PostgreSQL 11 or later database and is skipped unless one
+ * is given; run with <code>./mvnw test -Dtest=AppointmentPartitionPruningTest
+ * -Dappointments.test.postgresql.url=jdbc:postgresql://localhost/appointments
+ * -Dappointments.test.postgresql.user=...
+ * -Dappointments.test.postgresql.password=...</code>. The migrations are
+ * applied to a temporary schema, which is dropped afterwards.
+ * </p>
+ */
+public final class AppointmentPartitionPruningTest {
+
+  private static final String URL_PROPERTY =
+    "appointments.test.postgresql.url";
+  private static final String USER_PROPERTY =
+    "appointments.test.postgresql.user";
+  private static final String PASSWORD_PROPERTY =
+    "appointments.test.postgresql.password";
+
+  private static final String SCHEMA = "appointments_partition_pruning";
+
+  // The SQL Hibernate generates for AppointmentRepository.findBetween.
+  private static final String LISTING_QUERY = "EXPLAIN SELECT id, date, "
+    + "duration, description FROM appointments WHERE recurrence IS NULL "
+    + "AND date >= ? AND date < ? ORDER BY date ASC, id ASC LIMIT 20";
+
+  private static final Pattern PARTITION =
+    Pattern.compile("\\bon (appointments_\\w+)");
+
+  /**
+   * <b>Given</b> a PostgreSQL database migrated with the partitioning
+   * migration<br>
+   * <i>and</i> appointments in June, July and August 2019, added before the
+   * partitions of those months<br>
+   * <b>when</b> explaining a listing query for July 2019<br>
+   * <b>then</b> the plan <i>should</i> only scan the partition of July 2019.
+   *
+   * @throws SQLException If the database cannot be prepared or queried.
+   */
+  @Test
+  public void listingShouldOnlyScanPartitionsOfRange() throws SQLException {
+    // Given a PostgreSQL database migrated with the partitioning migration
+    final String url = System.getProperty(URL_PROPERTY);
+    assumeTrue("Set -D" + URL_PROPERTY + " to run the partition pruning "
+      + "test.", url != null && !url.isEmpty());
+    final String user = System.getProperty(USER_PROPERTY);
+    final String password = System.getProperty(PASSWORD_PROPERTY);
+    final Set<String> partitions;
+    try (final Connection connection =
+      DriverManager.getConnection(url, user, password)) {
+      try {
+        execute(connection, "DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        Flyway.configure().dataSource(url, user, password).schemas(SCHEMA)
+          .locations("classpath:db/migration", "classpath:db/partitioning")
+          .load().migrate();
+        execute(connection, "SET search_path TO " + SCHEMA);
+        // and appointments in June, July and August 2019, added before the
+        // partitions of those months
+        execute(connection, "INSERT INTO appointments(date, duration, "
+          + "description) SELECT TIMESTAMPTZ '2019-06-01 00:00Z' "
+          + "+ i * INTERVAL '1 hour', 30, 'Appointment ' || i "
+          + "FROM generate_series(0, 24 * 92 - 1) AS i");
+        for (final String month : new String[] {
+          "2019-06-01", "2019-07-01", "2019-08-01" }) {
+          execute(connection, "SELECT appointments_add_month_partition("
+            + "DATE '" + month + "')");
+        }
+        execute(connection, "ANALYZE appointments");
+        // when explaining a listing query for July 2019
+        partitions = explain(connection,
+          Instant.parse("2019-07-01T00:00:00Z"),
+          Instant.parse("2019-08-01T00:00:00Z"));
+      } finally {
+        execute(connection, "DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+      }
+    }
+    // then the plan should only scan the partition of July 2019.
+    assertEquals("The listing should only scan the partition of its month.",
+      Collections.singleton("appointments_2019_07"),
+      partitions);
+  }
+
+  // Returns the partitions scanned by the plan of the listing query.
+  private static Set<String> explain(final Connection connection,
+    final Instant from, final Instant to) throws SQLException {
+    final Set<String> partitions = new HashSet<>();
+    try (final PreparedStatement statement =
+      connection.prepareStatement(LISTING_QUERY)) {
+      statement.setTimestamp(1, Timestamp.from(from));
+      statement.setTimestamp(2, Timestamp.from(to));
+      try (final ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          final Matcher matcher = PARTITION.matcher(resultSet.getString(1));
+          while (matcher.find()) {
+            partitions.add(matcher.group(1));
+          }
+        }
+      }
+    }
+    return partitions;
+  }
+
+  private static void execute(final Connection connection, final String sql)
+    throws SQLException {
+    try (final Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+}
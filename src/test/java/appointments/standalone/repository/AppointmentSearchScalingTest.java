@@ -0,0 +1,224 @@
+package appointments.standalone.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.flywaydb.core.Flyway;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * <p>
+ * <code>AppointmentSearchScalingTest</code> checks that the latency of
+ * {@link AppointmentRepository#SEARCH_QUERY} depends on the number of matches
+ * rather than on the size of the table, by timing a search with 100 matches
+ * as the table grows from 10 thousand to 10 million rows.
+ * </p>
+ * <p>
+ * The test needs a PostgreSQL database and is skipped unless one is given;
+ * run with <code>./mvnw test -Dtest=AppointmentSearchScalingTest
+ * -Dappointments.test.postgresql.url=jdbc:postgresql://localhost/appointments
+ * -Dappointments.test.postgresql.user=...
+ * -Dappointments.test.postgresql.password=...</code>. The migrations are
+ * applied to a temporary schema, which is dropped afterwards; filling it to
+ * 10 million rows takes several minutes. The sizes can be changed with
+ * <code>-Dappointments.test.search.rows=10000,100000</code>.
+ * </p>
+ */
+public final class AppointmentSearchScalingTest {
+
+  private static final String URL_PROPERTY =
+    "appointments.test.postgresql.url";
+  private static final String USER_PROPERTY =
+    "appointments.test.postgresql.user";
+  private static final String PASSWORD_PROPERTY =
+    "appointments.test.postgresql.password";
+  private static final String ROWS_PROPERTY = "appointments.test.search.rows";
+  private static final String DEFAULT_ROWS =
+    "10000,100000,1000000,10000000";
+
+  private static final String SCHEMA = "appointments_search_scaling";
+
+  private static final String RARE_WORD = "orthodontist";
+  private static final int MATCHES = 100;
+  private static final int SIZE = 20;
+  private static final int WARMUP = 20;
+  private static final int RUNS = 50;
+  private static final double MAX_RATIO = 5;
+  // Medians below this are treated as equal, as they are within the noise.
+  private static final long FLOOR_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private static final Pattern NAMED_PARAMETER =
+    Pattern.compile(":(\\w+)");
+
+  /**
+   * <b>Given</b> a PostgreSQL database<br>
+   * <i>and</i> a table holding 100 appointments with a rare word<br>
+   * <b>when</b> timing a search for the word as the table grows from 10
+   * thousand to 10 million rows<br>
+   * <b>then</b> the search <i>should</i> find the same matches at each
+   * size<br>
+   * <i>and</i> its median latency <i>should</i> stay within a factor of five.
+   *
+   * @throws Exception If the database cannot be prepared or queried.
+   *
+   * @see AppointmentRepository#SEARCH_QUERY
+   */
+  @Test
+  public void searchLatencyShouldNotGrowWithRows() throws Exception {
+    // Given a PostgreSQL database
+    final String url = System.getProperty(URL_PROPERTY);
+    assumeTrue("Set -D" + URL_PROPERTY + " to run the search scaling test.",
+      url != null && !url.isEmpty());
+    final List<Long> medians = new ArrayList<>();
+    final String user = System.getProperty(USER_PROPERTY);
+    final String password = System.getProperty(PASSWORD_PROPERTY);
+    try (final Connection connection =
+      DriverManager.getConnection(url, user, password)) {
+      try {
+        // and a table holding 100 appointments with a rare word
+        execute(connection, "DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        Flyway.configure().dataSource(url, user, password).schemas(SCHEMA)
+          .load().migrate();
+        execute(connection, "SET search_path TO " + SCHEMA);
+        insert(connection, 0, MATCHES, true);
+        int rows = MATCHES;
+        // when timing a search for the word as the table grows from 10
+        // thousand to 10 million rows
+        for (final int size : getRows()) {
+          insert(connection, rows, size, false);
+          rows = size;
+          // Merges the GIN index's pending list, as autovacuum would, so
+          // that the search is timed against the index rather than against
+          // a scan of the rows inserted since.
+          execute(connection, "VACUUM ANALYZE appointments");
+          medians.add(time(connection));
+        }
+      } finally {
+        execute(connection, "DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+      }
+    }
+    // then the search should find the same matches at each size
+    // and its median latency should stay within a factor of five.
+    final long fastest = Math.max(FLOOR_NANOS, medians.stream()
+      .mapToLong(Long::longValue).min().getAsLong());
+    final long slowest = Math.max(FLOOR_NANOS, medians.stream()
+      .mapToLong(Long::longValue).max().getAsLong());
+    assertTrue(String.format("The search latency should not grow with the "
+      + "rows; rows==%s, medians(us)==%s", getRows(), toMicros(medians)),
+      slowest <= fastest * MAX_RATIO);
+  }
+
+  // Inserts rows numbered from (inclusive) to (exclusive); the filler uses a
+  // small vocabulary so that its words are common, as real descriptions are.
+  private static void insert(final Connection connection, final int from,
+    final int to, final boolean rare) throws SQLException {
+    final String description = rare
+      ? "'Annual " + RARE_WORD + " check ' || i"
+      : "(ARRAY['Dentist', 'Doctor', 'Meeting', 'Lunch', 'Review', 'Call'])"
+        + "[1 + i % 6] || ' with client ' || (i % 5000)";
+    execute(connection, "INSERT INTO appointments(date, description) "
+      + "SELECT TIMESTAMP '2019-01-01' + i * INTERVAL '1 minute', "
+      + description + " FROM generate_series(" + from + ", " + (to - 1)
+      + ") AS i");
+  }
+
+  private static long time(final Connection connection) throws SQLException {
+    final List<String> names = new ArrayList<>();
+    final Matcher matcher =
+      NAMED_PARAMETER.matcher(AppointmentRepository.SEARCH_QUERY);
+    final StringBuffer sql = new StringBuffer();
+    while (matcher.find()) {
+      names.add(matcher.group(1));
+      matcher.appendReplacement(sql, "?");
+    }
+    matcher.appendTail(sql);
+    final long[] nanos = new long[RUNS];
+    try (final PreparedStatement statement =
+      connection.prepareStatement(sql.toString())) {
+      for (int index = 0; index < names.size(); index++) {
+        setParameter(statement, index + 1, names.get(index));
+      }
+      for (int run = 0; run < WARMUP + RUNS; run++) {
+        final long start = System.nanoTime();
+        int matches = 0;
+        try (final ResultSet resultSet = statement.executeQuery()) {
+          while (resultSet.next()) {
+            matches++;
+          }
+        }
+        if (run >= WARMUP) {
+          nanos[run - WARMUP] = System.nanoTime() - start;
+        }
+        assertEquals("The search should find a page of the matches.", SIZE,
+          matches);
+      }
+    }
+    Arrays.sort(nanos);
+    return nanos[RUNS / 2];
+  }
+
+  private static void setParameter(final PreparedStatement statement,
+    final int index, final String name) throws SQLException {
+    switch (name) {
+      case "query":
+        statement.setString(index, AppointmentSearch.toQuery(RARE_WORD));
+        break;
+      case "from":
+        statement.setTimestamp(index,
+          new Timestamp(AppointmentRange.ALL.getFrom().getTime()));
+        break;
+      case "to":
+        statement.setTimestamp(index,
+          new Timestamp(AppointmentRange.ALL.getTo().getTime()));
+        break;
+      case "limit":
+        statement.setInt(index, SIZE);
+        break;
+      case "offset":
+        statement.setInt(index, 0);
+        break;
+      default:
+        throw new IllegalStateException("Unexpected parameter; " + name);
+    }
+  }
+
+  private static void execute(final Connection connection, final String sql)
+    throws SQLException {
+    try (final Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private static List<Integer> getRows() {
+    final List<Integer> rows = new ArrayList<>();
+    for (final String size :
+      System.getProperty(ROWS_PROPERTY, DEFAULT_ROWS).split(",")) {
+      rows.add(Integer.valueOf(size.trim()));
+    }
+    return rows;
+  }
+
+  private static List<Long> toMicros(final List<Long> nanos) {
+    final List<Long> micros = new ArrayList<>(nanos.size());
+    for (final Long value : nanos) {
+      micros.add(TimeUnit.NANOSECONDS.toMicros(value));
+    }
+    return micros;
+  }
+
+}
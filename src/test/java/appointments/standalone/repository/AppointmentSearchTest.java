@@ -0,0 +1,174 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class AppointmentSearchTest {
+
+  @Mock
+  private AppointmentRepository appointmentRepository;
+
+  private static final long DATE = 1562332800000L;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentSearchTest";
+  private static final int SIZE = 2;
+
+  /**
+   * <b>Given</b> a search of several words separated by punctuation<br>
+   * <b>when</b> invoking <code>toQuery</code><br>
+   * <b>then</b> the method <i>should</i> return a <code>tsquery</code>
+   * matching words beginning with each lower case word.
+   *
+   * @see AppointmentSearch
+   */
+  @Test
+  public void toQueryShouldMatchEachWordPrefix() {
+    // Given a search of several words separated by punctuation
+    final String search = " Dentist,  Ann's  & (Ré-check)!:* ";
+    // when invoking toQuery
+    final String query = AppointmentSearch.toQuery(search);
+    // then the method should return a tsquery matching words beginning with
+    // each lower case word.
+    assertEquals("toQuery should match each word prefix.",
+      "dentist:* & ann:* & s:* & ré:* & check:*", query);
+  }
+
+  /**
+   * <b>Given</b> a search without a letter or digit<br>
+   * <b>when</b> invoking <code>toQuery</code><br>
+   * <b>then</b> the method <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentSearch
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void toQueryShouldThrowIllegalArgument() {
+    // Given a search without a letter or digit
+    final String search = " !:* & | ";
+    // when invoking toQuery
+    AppointmentSearch.toQuery(search);
+    // then the method should throw an IllegalArgumentException.
+    fail("toQuery should throw an IllegalArgumentException for a search "
+      + "without words.");
+  }
+
+  /**
+   * <b>Given</b> an {@link AppointmentSearch} over a repository with more
+   * than <b>size</b> matches after the first page<br>
+   * <b>when</b> invoking <code>findPage</code> for the second page<br>
+   * <b>then</b> the method <i>should</i> query one more match than
+   * <b>size</b> after the first page<br>
+   * <i>and</i> return <b>size</b> matches with the numbers of the pages
+   * around it.
+   *
+   * @see AppointmentSearch
+   */
+  @Test
+  public void findPageShouldReturnNumberedPage() {
+    // Given an AppointmentSearch over a repository with more than size
+    // matches after the first page
+    final AppointmentSearch appointmentSearch =
+      new AppointmentSearch(this.appointmentRepository);
+    when(this.appointmentRepository.search(any(), any(), any(), anyInt(),
+      anyInt())).thenReturn(getAppointments(SIZE + 1));
+    // when invoking findPage for the second page
+    final AppointmentSearchPage page = appointmentSearch.findPage("test",
+      AppointmentRange.ALL, 1, SIZE);
+    // then the method should query one more match than size after the first
+    // page
+    verify(this.appointmentRepository).search(eq("test:*"),
+      eq(AppointmentRange.ALL.getFrom()), eq(AppointmentRange.ALL.getTo()),
+      eq(SIZE + 1), eq(SIZE));
+    // and return size matches with the numbers of the pages around it.
+    assertEquals("findPage should return size matches.", SIZE,
+      page.getAppointments().size());
+    assertEquals("findPage should return the previous page number.",
+      Integer.valueOf(0), page.getPrevious());
+    assertEquals("findPage should return the next page number.",
+      Integer.valueOf(2), page.getNext());
+  }
+
+  /**
+   * <b>Given</b> an {@link AppointmentSearch} over a repository with more
+   * matches than can be paged through<br>
+   * <b>when</b> invoking <code>findPage</code> for the last page that can
+   * be<br>
+   * <b>then</b> the method <i>should</i> only query the matches up to
+   * {@link AppointmentSearch#MAX_RESULTS}<br>
+   * <i>and</i> return no next page number.
+   *
+   * @see AppointmentSearch
+   */
+  @Test
+  public void findPageShouldStopAtMaxResults() {
+    // Given an AppointmentSearch over a repository with more matches than can
+    // be paged through
+    final AppointmentSearch appointmentSearch =
+      new AppointmentSearch(this.appointmentRepository);
+    when(this.appointmentRepository.search(any(), any(), any(), anyInt(),
+      anyInt())).thenReturn(getAppointments(2));
+    // when invoking findPage for the last page that can be
+    final int size = 3;
+    final int number = (AppointmentSearch.MAX_RESULTS - 1) / size;
+    final AppointmentSearchPage page = appointmentSearch.findPage("test",
+      AppointmentRange.ALL, number, size);
+    // then the method should only query the matches up to MAX_RESULTS
+    verify(this.appointmentRepository).search(any(), any(), any(), eq(2),
+      eq(number * size));
+    // and return no next page number.
+    assertEquals("findPage should return the matches up to MAX_RESULTS.", 1,
+      page.getAppointments().size());
+    assertNull("findPage should not return a next page number.",
+      page.getNext());
+  }
+
+  /**
+   * <b>Given</b> an {@link AppointmentSearch}<br>
+   * <b>when</b> invoking <code>findPage</code> for a page beyond
+   * {@link AppointmentSearch#MAX_RESULTS}<br>
+   * <b>then</b> the method <i>should</i> throw an
+   * <code>IllegalArgumentException</code>.
+   *
+   * @see AppointmentSearch
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void findPageShouldThrowIllegalArgument() {
+    // Given an AppointmentSearch
+    final AppointmentSearch appointmentSearch =
+      new AppointmentSearch(this.appointmentRepository);
+    // when invoking findPage for a page beyond MAX_RESULTS
+    appointmentSearch.findPage("test", AppointmentRange.ALL,
+      AppointmentSearch.MAX_RESULTS / SIZE, SIZE);
+    // then the method should throw an IllegalArgumentException.
+    fail("findPage should throw an IllegalArgumentException for a page "
+      + "beyond MAX_RESULTS.");
+  }
+
+  private static List<Appointment> getAppointments(final int count) {
+    final List<Appointment> appointments = new ArrayList<>(count);
+    for (int index = 0; index < count; index++) {
+      appointments.add(new Appointment((long) index,
+        new Date(DATE + index * 60000L), null, DESCRIPTION));
+    }
+    return appointments;
+  }
+
+}
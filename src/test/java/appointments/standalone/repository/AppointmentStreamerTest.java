@@ -0,0 +1,188 @@
+package appointments.standalone.repository;
+
+import appointments.standalone.entity.Appointment;
+import appointments.standalone.entity.Recurrence;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class AppointmentStreamerTest {
+
+  @Mock
+  private AppointmentRepository appointmentRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private EntityManager entityManager;
+
+  private static final long DATE = 1562332800000L;
+  private static final long DAY = 86400000L;
+  private static final String DESCRIPTION = "This is a test Appointment "
+    + "created by AppointmentStreamerTest";
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentStreamer}<br>
+   * <i>and</i> a repository streaming two appointments<br>
+   * <b>when</b> invoking <code>forEach</code><br>
+   * <b>then</b> the method <i>should</i> hand both appointments to the
+   * callback in order<br>
+   * <i>and</i> detach each appointment<br>
+   * <i>and</i> close the stream.
+   *
+   * @throws IOException If the callback fails.
+   *
+   * @see AppointmentStreamer
+   */
+  @Test
+  public void forEachShouldStreamAppointments() throws IOException {
+    // Given an instance of AppointmentStreamer
+    final AppointmentStreamer appointmentStreamer = this.getStreamer();
+    // and a repository streaming two appointments
+    final AtomicBoolean closed = new AtomicBoolean();
+    when(this.appointmentRepository.streamBetween(any(), any()))
+      .thenReturn(Stream.of(getAppointment(1L), getAppointment(2L))
+        .onClose(() -> closed.set(true)));
+    // when invoking forEach
+    final List<Long> ids = new ArrayList<>();
+    final long count = appointmentStreamer.forEach(AppointmentRange.ALL,
+      appointment -> ids.add(appointment.getId()));
+    // then the method should hand both appointments to the callback in order
+    assertEquals("forEach should count both appointments.", 2, count);
+    assertEquals("forEach should stream the appointments in order.", 2L,
+      ids.get(1).longValue());
+    // and detach each appointment
+    verify(this.entityManager, times(2)).detach(any(Appointment.class));
+    // and close the stream.
+    assertTrue("forEach should close the stream.", closed.get());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentStreamer}<br>
+   * <i>and</i> a repository streaming two appointments<br>
+   * <i>and</i> a daily appointment that started before the range<br>
+   * <b>when</b> invoking <code>forEach</code> and
+   * <code>forEachOccurrence</code> for a day<br>
+   * <b>then</b> <code>forEach</code> <i>should</i> hand the daily
+   * appointment to the callback once, in order<br>
+   * <i>and</i> <code>forEachOccurrence</code> <i>should</i> hand its
+   * occurrence on the day to the callback, in order<br>
+   * <i>and</i> only the streamed appointments <i>should</i> be detached.
+   *
+   * @throws IOException If the callback fails.
+   *
+   * @see AppointmentStreamer
+   */
+  @Test
+  public void forEachShouldMergeSeries() throws IOException {
+    // Given an instance of AppointmentStreamer
+    final AppointmentStreamer appointmentStreamer = this.getStreamer();
+    // and a repository streaming two appointments
+    when(this.appointmentRepository.streamBetween(any(), any()))
+      .thenAnswer(invocation -> Stream.of(getAppointment(1L),
+        getAppointment(3L)));
+    // and a daily appointment that started before the range
+    final Appointment series = new Appointment(
+      new Date(DATE + 2 * 60000L - DAY), null, DESCRIPTION, Recurrence.DAILY,
+      ZoneOffset.UTC, null);
+    ReflectionTestUtils.setField(series, "id", 2L);
+    when(this.appointmentRepository.findSeriesBetween(any(), any()))
+      .thenReturn(Arrays.asList(series));
+    // when invoking forEach and forEachOccurrence for a day
+    final AppointmentRange range =
+      AppointmentRange.of(new Date(DATE), new Date(DATE + DAY));
+    final List<Long> rows = new ArrayList<>();
+    appointmentStreamer.forEach(range, appointment ->
+      rows.add(appointment.getTime()));
+    final List<Long> occurrences = new ArrayList<>();
+    appointmentStreamer.forEachOccurrence(range, appointment ->
+      occurrences.add(appointment.getTime()));
+    // then forEach should hand the daily appointment to the callback once,
+    // in order
+    assertEquals("forEach should hand the daily appointment once.",
+      Arrays.asList(DATE + 2 * 60000L - DAY, DATE + 60000L,
+        DATE + 3 * 60000L), rows);
+    // and forEachOccurrence should hand its occurrence on the day to the
+    // callback, in order
+    assertEquals("forEachOccurrence should hand the occurrence on the day.",
+      Arrays.asList(DATE + 60000L, DATE + 2 * 60000L, DATE + 3 * 60000L),
+      occurrences);
+    // and only the streamed appointments should be detached.
+    verify(this.entityManager, times(4)).detach(any(Appointment.class));
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentStreamer}<br>
+   * <i>and</i> a callback that fails<br>
+   * <b>when</b> invoking <code>forEach</code><br>
+   * <b>then</b> the method <i>should</i> throw the callback's
+   * <code>IOException</code><br>
+   * <i>and</i> close the stream.
+   *
+   * @see AppointmentStreamer
+   */
+  @Test
+  public void forEachShouldThrowCallbackException() {
+    // Given an instance of AppointmentStreamer
+    final AppointmentStreamer appointmentStreamer = this.getStreamer();
+    final AtomicBoolean closed = new AtomicBoolean();
+    when(this.appointmentRepository.streamBetween(any(), any()))
+      .thenReturn(Stream.of(getAppointment(1L), getAppointment(2L))
+        .onClose(() -> closed.set(true)));
+    // and a callback that fails
+    final IOException exception = new IOException("Broken pipe");
+    // when invoking forEach
+    try {
+      appointmentStreamer.forEach(AppointmentRange.ALL, appointment -> {
+        throw exception;
+      });
+      fail("forEach should throw the callback's IOException.");
+    } catch (final IOException e) {
+      // then the method should throw the callback's IOException
+      assertEquals("forEach should throw the callback's IOException.",
+        exception, e);
+    }
+    verify(this.entityManager, never()).detach(any(Appointment.class));
+    // and close the stream.
+    assertTrue("forEach should close the stream.", closed.get());
+  }
+
+  private AppointmentStreamer getStreamer() {
+    return new AppointmentStreamer(this.appointmentRepository,
+      this.transactionManager, this.entityManager);
+  }
+
+  private static Appointment getAppointment(final long id) {
+    final Appointment appointment =
+      new Appointment(new Date(DATE + id * 60000L), DESCRIPTION);
+    ReflectionTestUtils.setField(appointment, "id", id);
+    return appointment;
+  }
+
+}
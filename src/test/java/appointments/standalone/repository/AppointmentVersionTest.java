@@ -0,0 +1,75 @@
+package appointments.standalone.repository;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public final class AppointmentVersionTest {
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentVersion}<br>
+   * <b>when</b> invoking <code>increment</code> outside of a transaction<br>
+   * <b>then</b> the version <i>should</i> be incremented once<br>
+   * <i>and</i> the entity tag <i>should</i> change.
+   *
+   * @see AppointmentVersion
+   */
+  @Test
+  public void incrementShouldChangeETag() {
+    // Given an instance of AppointmentVersion
+    final AppointmentVersion appointmentVersion = new AppointmentVersion();
+    final long version = appointmentVersion.get();
+    final String eTag = appointmentVersion.getETag();
+    // when invoking increment outside of a transaction
+    appointmentVersion.increment();
+    // then the version should be incremented once
+    assertEquals("increment should increment the version once.", version + 1,
+      appointmentVersion.get());
+    // and the entity tag should change.
+    assertNotEquals("increment should change the entity tag.", eTag,
+      appointmentVersion.getETag());
+  }
+
+  /**
+   * <b>Given</b> an instance of {@link AppointmentVersion}<br>
+   * <i>and</i> an active transaction<br>
+   * <b>when</b> invoking <code>increment</code> twice<br>
+   * <b>then</b> the version <i>should</i> be incremented twice<br>
+   * <i>and</i> once more when the transaction completes.
+   *
+   * @see AppointmentVersion
+   */
+  @Test
+  public void incrementShouldIncrementAfterCompletion() {
+    // Given an instance of AppointmentVersion
+    final AppointmentVersion appointmentVersion = new AppointmentVersion();
+    final long version = appointmentVersion.get();
+    // and an active transaction
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      // when invoking increment twice
+      appointmentVersion.increment();
+      appointmentVersion.increment();
+      // then the version should be incremented twice
+      assertEquals("increment should increment the version.", version + 2,
+        appointmentVersion.get());
+      // and once more when the transaction completes.
+      final List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+      assertEquals("increment should register one synchronization.", 1,
+        synchronizations.size());
+      synchronizations.get(0).afterCompletion(
+        TransactionSynchronization.STATUS_COMMITTED);
+      assertEquals("The version should be incremented on completion.",
+        version + 3, appointmentVersion.get());
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+}